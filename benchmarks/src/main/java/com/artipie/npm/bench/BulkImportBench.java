@@ -0,0 +1,158 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.bench;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.npm.BulkImport;
+import com.artipie.npm.MetaUpdate;
+import com.artipie.npm.TgzInspector;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link BulkImport}: importing a directory of archives of 10 packages
+ * compared with publishing archives one by one, like `curl PUT` does, which updates
+ * package metadata for every archive.
+ * @since 1.0
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BulkImportBench {
+
+    /**
+     * Directory with archives.
+     */
+    private static final Key DIR = new Key.From("import");
+
+    /**
+     * Number of archives.
+     */
+    @Param({"100", "1000"})
+    private int archives;
+
+    /**
+     * Storage with archives.
+     */
+    private Storage source;
+
+    /**
+     * Repository storage.
+     */
+    private Storage target;
+
+    @Setup(Level.Trial)
+    public void archives() throws IOException {
+        this.source = new InMemoryStorage();
+        for (int idx = 0; idx < this.archives; idx = idx + 1) {
+            final String name = String.format("pkg%d", idx % 10);
+            final String version = String.format("1.%d.0", idx / 10);
+            this.source.save(
+                new Key.From(BulkImportBench.DIR, String.format("%s-%s.tgz", name, version)),
+                new Content.From(BulkImportBench.tgz(name, version))
+            ).join();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        this.target = new InMemoryStorage();
+    }
+
+    @Benchmark
+    public BulkImport.Progress bulk() {
+        return new BulkImport(this.source, this.target).run(BulkImportBench.DIR).join();
+    }
+
+    @Benchmark
+    public void oneByOne() {
+        final Collection<Key> keys = this.source.list(BulkImportBench.DIR).join();
+        for (final Key key : keys) {
+            final Key staged = new Key.From("staged.tgz");
+            final TgzInspector.Summary tgz = this.source.value(key).thenCompose(
+                content -> new TgzInspector(content).save(this.target, staged)
+            ).join();
+            final String name = tgz.packageJson().getString("name");
+            final String vers = tgz.packageJson().getString("version");
+            this.target.move(
+                staged, new Key.From(name, "-", String.format("%s-%s.tgz", name, vers))
+            ).thenCompose(
+                nothing -> new MetaUpdate.ByTgz(tgz).update(new Key.From(name), this.target)
+            ).join();
+        }
+    }
+
+    /**
+     * Package archive with `package.json` and some content.
+     * @param name Package name
+     * @param version Package version
+     * @return Archive bytes
+     * @throws IOException On error
+     */
+    private static byte[] tgz(final String name, final String version) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(
+            new GzipCompressorOutputStream(bytes)
+        )) {
+            BulkImportBench.entry(
+                tar, "package/package.json",
+                String.format(
+                    "{\"name\":\"%s\",\"version\":\"%s\",\"description\":\"Bench\"}",
+                    name, version
+                )
+            );
+            final StringBuilder code = new StringBuilder();
+            for (int line = 0; line < 2000; line = line + 1) {
+                code.append(String.format("module.exports.f%d = () => %d;\n", line, line));
+            }
+            BulkImportBench.entry(tar, "package/index.js", code.toString());
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Add file to archive.
+     * @param tar Archive
+     * @param path File path
+     * @param content File content
+     * @throws IOException On error
+     */
+    private static void entry(final TarArchiveOutputStream tar, final String path,
+        final String content) throws IOException {
+        final byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        final TarArchiveEntry entry = new TarArchiveEntry(path);
+        entry.setSize(data.length);
+        tar.putArchiveEntry(entry);
+        tar.write(data);
+        tar.closeArchiveEntry();
+    }
+}
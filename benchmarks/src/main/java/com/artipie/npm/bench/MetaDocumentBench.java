@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.bench;
+
+import com.artipie.npm.MetaDocument;
+import java.util.concurrent.TimeUnit;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonPatchBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link MetaDocument}: changing every version of parsed package
+ * metadata (rewriting tarball link and deprecating the version) in one pass compared
+ * with building json patch with operations per version and applying it
+ * (the former implementation).
+ * @since 1.0
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MetaDocumentBench {
+
+    /**
+     * Number of versions in metadata.
+     */
+    @Param({"10", "1000", "10000"})
+    private int versions;
+
+    /**
+     * Package metadata.
+     */
+    private JsonObject meta;
+
+    @Setup
+    public void setup() {
+        this.meta = MetaDocumentBench.meta(this.versions);
+    }
+
+    @Benchmark
+    public JsonObject document() {
+        final MetaDocument doc = new MetaDocument(this.meta);
+        for (final String version : doc.versions()) {
+            doc.tarball(version, MetaDocumentBench.tarball(version))
+                .field(version, "deprecated", Json.createValue("Deprecated"));
+        }
+        return doc.json();
+    }
+
+    @Benchmark
+    public JsonObject patch() {
+        final JsonPatchBuilder patch = Json.createPatchBuilder();
+        for (final String version : this.meta.getJsonObject("versions").keySet()) {
+            patch.replace(
+                String.format("/versions/%s/dist/tarball", version),
+                MetaDocumentBench.tarball(version)
+            ).add(String.format("/versions/%s/deprecated", version), "Deprecated");
+        }
+        return patch.build().apply(this.meta);
+    }
+
+    /**
+     * Relative tarball link.
+     * @param version Version
+     * @return Link
+     */
+    private static String tarball(final String version) {
+        return String.format("/@bench/package/-/@bench/package-%s.tgz", version);
+    }
+
+    /**
+     * Generate package metadata.
+     * @param count Number of versions
+     * @return Metadata json
+     */
+    private static JsonObject meta(final int count) {
+        final JsonObjectBuilder versions = Json.createObjectBuilder();
+        final JsonObjectBuilder time = Json.createObjectBuilder();
+        for (int idx = 0; idx < count; idx = idx + 1) {
+            final String version = String.format("1.%d.0", idx);
+            time.add(version, "2023-01-01T00:00:00.000Z");
+            versions.add(
+                version,
+                Json.createObjectBuilder()
+                    .add("name", "@bench/package")
+                    .add("version", version)
+                    .add("description", "Package to benchmark metadata processing")
+                    .add("license", "MIT")
+                    .add(
+                        "dependencies",
+                        Json.createObjectBuilder().add("left-pad", "^1.3.0").add("lodash", "^4")
+                    )
+                    .add(
+                        "dist",
+                        Json.createObjectBuilder()
+                            .add("shasum", "8bd8c4a5a4a1d9e5b3d6c6b5e0a1f1f0c3d4e5f6")
+                            .add(
+                                "tarball",
+                                String.format(
+                                    "http://registry/@bench/package/-/@bench/package-%s.tgz",
+                                    version
+                                )
+                            )
+                    )
+            );
+        }
+        return Json.createObjectBuilder()
+            .add("name", "@bench/package")
+            .add("time", time)
+            .add("dist-tags", Json.createObjectBuilder().add("latest", "1.0.0"))
+            .add("versions", versions)
+            .build();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.bench;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.npm.MetaUpdate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for parallel publishing of different versions of one package.
+ * In `local` mode all publishers share one storage instance, so updates are
+ * queued in-process; in `remote` mode every publish uses its own storage
+ * wrapper, like publishes from different adapter instances, so updates
+ * conflict and are retried by compare-and-swap on the version stamp.
+ * @since 1.0
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParallelPublishBench {
+
+    /**
+     * Package key.
+     */
+    private static final Key PKG = new Key.From("@hello", "pkg");
+
+    /**
+     * Publishing mode: `local` or `remote`.
+     */
+    @Param({"local", "remote"})
+    private String mode;
+
+    /**
+     * Storage.
+     */
+    private Storage storage;
+
+    /**
+     * Published versions counter.
+     */
+    private AtomicInteger counter;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        this.storage = new InMemoryStorage();
+        this.counter = new AtomicInteger();
+    }
+
+    @Benchmark
+    public void publish() {
+        final Storage asto;
+        if ("local".equals(this.mode)) {
+            asto = this.storage;
+        } else {
+            asto = new Storage.Wrap(this.storage) { };
+        }
+        new MetaUpdate.ByJson(
+            ParallelPublishBench.published(String.format("1.0.%d", this.counter.incrementAndGet()))
+        ).update(ParallelPublishBench.PKG, asto).join();
+    }
+
+    /**
+     * Published json of the version.
+     * @param version Version
+     * @return Json
+     */
+    private static JsonObject published(final String version) {
+        return Json.createObjectBuilder()
+            .add("_id", "@hello/pkg")
+            .add("name", "@hello/pkg")
+            .add("dist-tags", Json.createObjectBuilder().add("latest", version))
+            .add(
+                "versions",
+                Json.createObjectBuilder().add(
+                    version,
+                    Json.createObjectBuilder()
+                        .add("name", "@hello/pkg")
+                        .add("version", version)
+                        .add(
+                            "dist",
+                            Json.createObjectBuilder().add(
+                                "tarball",
+                                String.format("/@hello/pkg/-/@hello/pkg-%s.tgz", version)
+                            )
+                        )
+                )
+            ).build();
+    }
+}
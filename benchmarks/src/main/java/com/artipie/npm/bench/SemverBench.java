@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.bench;
+
+import com.artipie.npm.semver.Range;
+import com.artipie.npm.semver.Versions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link Versions} and {@link Range}: sorting package versions by
+ * semantic version precedence compared with the former comparator, which split
+ * version strings and parsed numbers on every comparison, choosing `latest` version
+ * and resolving the highest version satisfying a caret range.
+ * @since 1.0
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SemverBench {
+
+    /**
+     * Number of versions.
+     */
+    @Param({"10", "1000", "10000"})
+    private int versions;
+
+    /**
+     * Version strings in random order.
+     */
+    private List<String> strings;
+
+    /**
+     * Version range.
+     */
+    private Range range;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42L);
+        this.strings = new ArrayList<>(this.versions);
+        for (int idx = 0; idx < this.versions; idx = idx + 1) {
+            this.strings.add(
+                String.format("%d.%d.%d", idx % 7, random.nextInt(50), random.nextInt(100))
+            );
+        }
+        Collections.shuffle(this.strings, random);
+        this.range = Range.parse("^3.10.0 || ~5.2");
+    }
+
+    @Benchmark
+    public List<String> sort() {
+        return new Versions(this.strings).descending();
+    }
+
+    @Benchmark
+    public List<String> legacySort() {
+        return this.strings.stream()
+            .sorted((left, right) -> -1 * SemverBench.legacy(left, right))
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Optional<String> latest() {
+        return new Versions(this.strings).latest();
+    }
+
+    @Benchmark
+    public Optional<String> maxSatisfying() {
+        return new Versions(this.strings).maxSatisfying(this.range);
+    }
+
+    /**
+     * Former versions comparator.
+     * @param left Left version
+     * @param right Right version
+     * @return Comparison result
+     */
+    private static int legacy(final String left, final String right) {
+        final String[] first = left.split("\\.");
+        final String[] second = right.split("\\.");
+        final int length = Math.min(first.length, second.length);
+        int res = 0;
+        for (int idx = 0; idx < length && res == 0; idx = idx + 1) {
+            res = Integer.valueOf(first[idx]).compareTo(Integer.parseInt(second[idx]));
+        }
+        if (res == 0) {
+            res = Integer.compare(first.length, second.length);
+        }
+        return res;
+    }
+}
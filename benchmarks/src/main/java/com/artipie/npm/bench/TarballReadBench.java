@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.bench;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.npm.misc.MappedFileStorage;
+import io.reactivex.Flowable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for reading tarballs from file system: {@link FileStorage} compared with
+ * {@link MappedFileStorage}. Every chunk is copied to a reused direct buffer, like
+ * a server copies it to a socket buffer. Run with `-prof gc` to compare allocation rate.
+ * @since 1.0
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TarballReadBench {
+
+    /**
+     * Tarball key.
+     */
+    private static final Key TGZ = new Key.From("pkg", "-", "pkg-1.0.0.tgz");
+
+    /**
+     * Tarball size in megabytes.
+     */
+    @Param({"1", "64", "256"})
+    private int size;
+
+    /**
+     * Storage directory.
+     */
+    private Path dir;
+
+    /**
+     * File storage.
+     */
+    private Storage file;
+
+    /**
+     * Memory-mapped file storage.
+     */
+    private Storage mapped;
+
+    /**
+     * Socket buffer.
+     */
+    private ByteBuffer socket;
+
+    @Setup
+    public void setup() throws IOException {
+        this.dir = Files.createTempDirectory("bench");
+        final byte[] data = new byte[this.size * 1024 * 1024];
+        new Random(0).nextBytes(data);
+        this.file = new FileStorage(this.dir);
+        this.mapped = new MappedFileStorage(this.dir);
+        this.file.save(TarballReadBench.TGZ, new Content.From(data)).join();
+        this.socket = ByteBuffer.allocateDirect(64 * 1024);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(this.dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long file() {
+        return this.send(this.file);
+    }
+
+    @Benchmark
+    public long mapped() {
+        return this.send(this.mapped);
+    }
+
+    /**
+     * Read tarball and copy it to socket buffer.
+     * @param storage Storage
+     * @return Number of bytes sent
+     */
+    private long send(final Storage storage) {
+        return Flowable.fromPublisher(storage.value(TarballReadBench.TGZ).join())
+            .map(
+                chunk -> {
+                    final long len = chunk.remaining();
+                    final ByteBuffer src = chunk.duplicate();
+                    while (src.hasRemaining()) {
+                        this.socket.clear();
+                        final int step = Math.min(this.socket.remaining(), src.remaining());
+                        final ByteBuffer part = src.duplicate();
+                        part.limit(part.position() + step);
+                        this.socket.put(part);
+                        src.position(src.position() + step);
+                    }
+                    return len;
+                }
+            ).reduce(0L, Long::sum).blockingGet();
+    }
+}
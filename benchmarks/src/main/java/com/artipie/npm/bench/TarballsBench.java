@@ -0,0 +1,194 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.bench;
+
+import com.artipie.asto.Concatenation;
+import com.artipie.asto.Content;
+import com.artipie.npm.Tarballs;
+import io.reactivex.Flowable;
+import java.io.StringReader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonPatchBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for {@link Tarballs}: streaming tarball links rewriting compared with
+ * parsing the whole metadata and applying json patch (the former implementation).
+ * Run with `-prof gc` to compare allocation rate.
+ * @since 1.0
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TarballsBench {
+
+    /**
+     * Size of storage content chunk.
+     */
+    private static final int CHUNK = 8192;
+
+    /**
+     * Number of versions in metadata.
+     */
+    @Param({"10", "1000", "10000"})
+    private int versions;
+
+    /**
+     * Metadata chunks.
+     */
+    private List<ByteBuffer> chunks;
+
+    /**
+     * Base URL.
+     */
+    private URL base;
+
+    @Setup
+    public void setup() throws MalformedURLException {
+        this.base = new URL("http://localhost:8080/npm");
+        final byte[] meta = TarballsBench.meta(this.versions)
+            .getBytes(StandardCharsets.UTF_8);
+        this.chunks = new ArrayList<>(meta.length / TarballsBench.CHUNK + 1);
+        for (int pos = 0; pos < meta.length; pos = pos + TarballsBench.CHUNK) {
+            this.chunks.add(
+                ByteBuffer.wrap(meta, pos, Math.min(TarballsBench.CHUNK, meta.length - pos))
+                    .slice().asReadOnlyBuffer()
+            );
+        }
+    }
+
+    @Benchmark
+    public void streaming(final Blackhole bhl) {
+        Flowable.fromPublisher(
+            new Tarballs(this.content(), this.base).value()
+        ).blockingForEach(buf -> bhl.consume(buf.remaining()));
+    }
+
+    @Benchmark
+    public void document(final Blackhole bhl) {
+        final String prefix = this.base.toString();
+        bhl.consume(
+            new Concatenation(this.content())
+                .single()
+                .map(ByteBuffer::array)
+                .map(bytes -> new String(bytes, StandardCharsets.UTF_8))
+                .map(json -> Json.createReader(new StringReader(json)).readObject())
+                .map(json -> TarballsBench.patched(json, prefix))
+                .map(json -> json.toString().getBytes(StandardCharsets.UTF_8))
+                .blockingGet()
+        );
+    }
+
+    /**
+     * Metadata content as it is read from storage.
+     * @return Content
+     */
+    private Content content() {
+        return new Content.From(
+            Flowable.fromIterable(this.chunks).map(ByteBuffer::duplicate)
+        );
+    }
+
+    /**
+     * Former `Tarballs` implementation: json patch operation per version.
+     * @param original Metadata
+     * @param prefix Links prefix
+     * @return Patched metadata
+     */
+    private static JsonObject patched(final JsonObject original, final String prefix) {
+        final JsonPatchBuilder builder = Json.createPatchBuilder();
+        for (final String version : original.getJsonObject("versions").keySet()) {
+            builder.add(
+                String.format("/versions/%s/dist/tarball", version),
+                String.join(
+                    "",
+                    prefix.replaceAll("/$", ""),
+                    original.getJsonObject("versions").getJsonObject(version)
+                        .getJsonObject("dist").getString("tarball")
+                )
+            );
+        }
+        return builder.build().apply(original);
+    }
+
+    /**
+     * Generate package metadata.
+     * @param count Number of versions
+     * @return Metadata json
+     */
+    private static String meta(final int count) {
+        final JsonObjectBuilder versions = Json.createObjectBuilder();
+        final JsonObjectBuilder time = Json.createObjectBuilder();
+        for (int idx = 0; idx < count; idx = idx + 1) {
+            final String version = String.format("1.%d.0", idx);
+            time.add(version, "2023-01-01T00:00:00.000Z");
+            versions.add(
+                version,
+                Json.createObjectBuilder()
+                    .add("name", "@bench/package")
+                    .add("version", version)
+                    .add("description", "Package to benchmark metadata processing")
+                    .add("main", "index.js")
+                    .add("license", "MIT")
+                    .add(
+                        "dependencies",
+                        Json.createObjectBuilder().add("left-pad", "^1.3.0").add("lodash", "^4")
+                    )
+                    .add(
+                        "maintainers",
+                        Json.createArrayBuilder().add(
+                            Json.createObjectBuilder().add("name", "bench")
+                                .add("email", "bench@example.com")
+                        )
+                    )
+                    .add(
+                        "dist",
+                        Json.createObjectBuilder()
+                            .add("shasum", "8bd8c4a5a4a1d9e5b3d6c6b5e0a1f1f0c3d4e5f6")
+                            .add(
+                                "integrity",
+                                "sha512-R6b7GPSbDu6gqzF6ZeViwdV1yUU8QDj+lMYkJLwETkUpygwn9Z"
+                            )
+                            .add(
+                                "tarball",
+                                String.format("/@bench/package/-/@bench/package-%s.tgz", version)
+                            )
+                    )
+            );
+        }
+        return Json.createObjectBuilder()
+            .add("name", "@bench/package")
+            .add("time", time)
+            .add("dist-tags", Json.createObjectBuilder().add("latest", "1.0.0"))
+            .add("versions", versions)
+            .build().toString();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+
+/**
+ * Abbreviated package metadata (also known as "corgi" document), which npm
+ * clients request with `Accept: application/vnd.npm.install-v1+json` header.
+ * It contains only fields required to install the package, see
+ * <a href="https://github.com/npm/registry/blob/master/docs/responses/package-metadata.md">
+ * package metadata</a> docs.
+ * @since 1.0
+ */
+public final class AbbreviatedMeta {
+
+    /**
+     * Media type of the abbreviated metadata.
+     */
+    public static final String MEDIA_TYPE = "application/vnd.npm.install-v1+json";
+
+    /**
+     * Version fields to keep in abbreviated metadata.
+     */
+    private static final List<String> FIELDS = Collections.unmodifiableList(
+        Arrays.asList(
+            "name", "version", "deprecated", "dependencies", "optionalDependencies",
+            "devDependencies", "bundleDependencies", "peerDependencies",
+            "peerDependenciesMeta", "bin", "directories", "dist", "engines",
+            "_hasShrinkwrap", "hasInstallScript", "cpu", "os"
+        )
+    );
+
+    /**
+     * Install scripts, version has install script if any of them is present.
+     */
+    private static final List<String> SCRIPTS = Collections.unmodifiableList(
+        Arrays.asList("preinstall", "install", "postinstall")
+    );
+
+    /**
+     * Versions field name.
+     */
+    private static final String VERSIONS = "versions";
+
+    /**
+     * Full package metadata.
+     */
+    private final JsonObject full;
+
+    /**
+     * Ctor.
+     * @param full Full package metadata, `meta.json` content
+     */
+    public AbbreviatedMeta(final JsonObject full) {
+        this.full = full;
+    }
+
+    /**
+     * Abbreviated metadata.
+     * @return Json object
+     */
+    public JsonObject value() {
+        final JsonObjectBuilder res = Json.createObjectBuilder();
+        if (this.full.containsKey("name")) {
+            res.add("name", this.full.get("name"));
+        }
+        final JsonObject time = this.full.getJsonObject("time");
+        if (time != null && time.containsKey("modified")) {
+            res.add("modified", time.get("modified"));
+        }
+        if (this.full.containsKey("dist-tags")) {
+            res.add("dist-tags", this.full.get("dist-tags"));
+        }
+        final JsonObjectBuilder versions = Json.createObjectBuilder();
+        final JsonObject source = this.full.getJsonObject(AbbreviatedMeta.VERSIONS);
+        if (source != null) {
+            for (final Map.Entry<String, JsonValue> entry : source.entrySet()) {
+                versions.add(
+                    entry.getKey(), AbbreviatedMeta.version(entry.getValue().asJsonObject())
+                );
+            }
+        }
+        return res.add(AbbreviatedMeta.VERSIONS, versions).build();
+    }
+
+    /**
+     * Abbreviated version metadata.
+     * @param version Full version metadata
+     * @return Abbreviated version
+     */
+    private static JsonObject version(final JsonObject version) {
+        final JsonObjectBuilder res = Json.createObjectBuilder();
+        for (final String field : AbbreviatedMeta.FIELDS) {
+            if (version.containsKey(field)) {
+                res.add(field, version.get(field));
+            }
+        }
+        final JsonObject scripts = version.getJsonObject("scripts");
+        if (!version.containsKey("hasInstallScript") && scripts != null
+            && AbbreviatedMeta.SCRIPTS.stream().anyMatch(scripts::containsKey)) {
+            res.add("hasInstallScript", true);
+        }
+        return res.build();
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.ArtipieException;
+
+/**
+ * Budget of bytes of publish requests in flight is exhausted while request body
+ * is read, see {@link com.artipie.npm.http.PublishAdmission}.
+ * @since 1.0
+ */
+public final class BudgetExhaustedException extends ArtipieException {
+
+    /**
+     * Serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Ctor.
+     * @param message Error message
+     */
+    public BudgetExhaustedException(final String message) {
+        super(message);
+    }
+}
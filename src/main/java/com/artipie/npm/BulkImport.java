@@ -0,0 +1,401 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.npm.misc.OptionalValue;
+import com.google.common.collect.Lists;
+import com.jcabi.log.Logger;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+
+/**
+ * Bulk import of a directory of .tgz archives into hosted repository, e.g. to migrate
+ * packages from another registry. Archives are processed in batches: archives of a
+ * batch are inspected in parallel on computation threads and added to their packages,
+ * see {@link TarballBlobs}, then inspected archives are grouped by package and
+ * `meta.json` of every package is updated once with all versions of the batch.
+ * Archive keys are processed in lexicographic order, after every batch the last
+ * imported key is saved to a checkpoint in target storage, so interrupted import
+ * is resumed from the next batch.
+ * Archives which can not be inspected are skipped and reported.
+ * @since 1.0
+ */
+public final class BulkImport {
+
+    /**
+     * Directory of checkpoints in target storage.
+     */
+    static final Key CHECKPOINTS = new Key.From(".import");
+
+    /**
+     * Default number of archives in a batch.
+     */
+    private static final int BATCH = 1000;
+
+    /**
+     * Storage with archives to import.
+     */
+    private final Storage source;
+
+    /**
+     * Repository storage.
+     */
+    private final Storage target;
+
+    /**
+     * Maximum number of archives inspected or packages updated at once.
+     */
+    private final int parallelism;
+
+    /**
+     * Number of archives in a batch.
+     */
+    private final int batch;
+
+    /**
+     * Ctor.
+     * @param source Storage with archives to import
+     * @param target Repository storage
+     */
+    public BulkImport(final Storage source, final Storage target) {
+        this(source, target, Runtime.getRuntime().availableProcessors(), BulkImport.BATCH);
+    }
+
+    /**
+     * Ctor.
+     * @param source Storage with archives to import
+     * @param target Repository storage
+     * @param parallelism Maximum number of archives inspected or packages updated at once
+     * @param batch Number of archives in a batch
+     */
+    public BulkImport(
+        final Storage source, final Storage target, final int parallelism, final int batch
+    ) {
+        this.source = source;
+        this.target = target;
+        this.parallelism = parallelism;
+        this.batch = batch;
+    }
+
+    /**
+     * Import all .tgz archives from the directory, resuming from the checkpoint
+     * of previous import of the same directory.
+     * @param dir Directory with archives in source storage
+     * @return Import progress
+     */
+    public CompletableFuture<Progress> run(final Key dir) {
+        final Key checkpoint = new Key.From(
+            new Key.From(BulkImport.CHECKPOINTS, dir), "checkpoint.json"
+        );
+        return this.progress(checkpoint).thenCombine(
+            this.source.list(dir), (progress, keys) -> {
+                final List<Key> pending = keys.stream()
+                    .filter(key -> key.string().endsWith(".tgz"))
+                    .filter(
+                        key -> !progress.after().isPresent()
+                            || key.string().compareTo(progress.after().get()) > 0
+                    )
+                    .sorted(Key.CMP_STRING)
+                    .collect(Collectors.toList());
+                return this.batches(
+                    Lists.partition(pending, this.batch).iterator(), progress, checkpoint
+                );
+            }
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Import batches one by one.
+     * @param batches Batches of archive keys
+     * @param progress Progress before the batches
+     * @param checkpoint Checkpoint key
+     * @return Progress after the batches
+     */
+    private CompletableFuture<Progress> batches(
+        final Iterator<List<Key>> batches, final Progress progress, final Key checkpoint
+    ) {
+        final CompletableFuture<Progress> res;
+        if (batches.hasNext()) {
+            final List<Key> keys = batches.next();
+            res = this.imported(keys).thenApply(
+                tgzs -> progress.next(keys.get(keys.size() - 1).string(), tgzs)
+            ).thenCompose(
+                next -> this.target.save(
+                    checkpoint,
+                    new Content.From(next.json().toString().getBytes(StandardCharsets.UTF_8))
+                ).thenCompose(nothing -> this.batches(batches, next, checkpoint))
+            );
+        } else {
+            res = CompletableFuture.completedFuture(progress);
+        }
+        return res;
+    }
+
+    /**
+     * Import batch of archives: inspect and move archives in parallel, then update
+     * metadata of every package once.
+     * @param keys Archive keys
+     * @return Summaries of imported archives, empty for archives which were skipped
+     */
+    private CompletableFuture<Map<Key, Optional<TgzInspector.Summary>>> imported(
+        final List<Key> keys
+    ) {
+        return Flowable.fromIterable(keys).flatMapSingle(
+            key -> Single.defer(
+                () -> SingleInterop.fromFuture(this.inspect(key))
+                    .map(tgz -> Collections.singletonMap(key, tgz))
+            ).subscribeOn(Schedulers.computation()),
+            false, this.parallelism
+        ).<Map<Key, Optional<TgzInspector.Summary>>>collect(
+            LinkedHashMap::new, Map::putAll
+        ).flatMap(
+            tgzs -> {
+                final Map<String, List<TgzInspector.Summary>> packages = new LinkedHashMap<>();
+                for (final Optional<TgzInspector.Summary> tgz : tgzs.values()) {
+                    tgz.ifPresent(
+                        summary -> packages.computeIfAbsent(
+                            summary.packageJson().getString("name"),
+                            name -> new ArrayList<>(1)
+                        ).add(summary)
+                    );
+                }
+                return Flowable.fromIterable(packages.entrySet()).flatMapCompletable(
+                    pkg -> CompletableInterop.fromFuture(
+                        new MetaUpdate.ByTgz(pkg.getValue())
+                            .update(new Key.From(pkg.getKey()), this.target)
+                    ),
+                    false, this.parallelism
+                ).toSingleDefault(tgzs);
+            }
+        ).to(SingleInterop.get()).toCompletableFuture();
+    }
+
+    /**
+     * Inspect archive while it is copied to staging key of target storage, then add
+     * it to the package, see {@link TarballBlobs}.
+     * @param key Archive key
+     * @return Archive summary, empty if archive can not be imported
+     */
+    private CompletableFuture<Optional<TgzInspector.Summary>> inspect(final Key key) {
+        final Key staged = Staging.next(".tgz");
+        return this.source.value(key).thenCompose(
+            content -> new TgzInspector(content).save(this.target, staged)
+        ).thenCompose(
+            tgz -> {
+                final String name = tgz.packageJson().getString("name");
+                final String vers = tgz.packageJson().getString("version");
+                return new TarballBlobs(this.target).add(
+                    new Key.From(name, "-", String.format("%s-%s.tgz", name, vers)),
+                    staged, tgz.integrity()
+                ).thenApply(nothing -> Optional.of(tgz));
+            }
+        ).handle(
+            (tgz, err) -> {
+                final CompletableFuture<Optional<TgzInspector.Summary>> res;
+                if (err == null) {
+                    res = CompletableFuture.completedFuture(tgz);
+                } else {
+                    Logger.warn(
+                        this, "Failed to import %s: %[exception]s", key.string(), err
+                    );
+                    res = this.target.exists(staged).thenCompose(
+                        exists -> {
+                            final CompletableFuture<Void> del;
+                            if (exists) {
+                                del = this.target.delete(staged);
+                            } else {
+                                del = CompletableFuture.allOf();
+                            }
+                            return del;
+                        }
+                    ).thenApply(nothing -> Optional.empty());
+                }
+                return res;
+            }
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Read progress from checkpoint.
+     * @param checkpoint Checkpoint key
+     * @return Progress, initial progress if there is no checkpoint
+     */
+    private CompletableFuture<Progress> progress(final Key checkpoint) {
+        return new OptionalValue(this.target).value(checkpoint).thenCompose(
+            value -> {
+                final CompletableFuture<Progress> res;
+                if (value.isPresent()) {
+                    res = new PublisherAs(value.get()).string(StandardCharsets.UTF_8)
+                        .thenApply(
+                            str -> Progress.from(
+                                Json.createReader(new StringReader(str)).readObject()
+                            )
+                        ).toCompletableFuture();
+                } else {
+                    res = CompletableFuture.completedFuture(
+                        new Progress(Optional.empty(), 0, 0, Collections.emptyList())
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Progress of bulk import.
+     * @since 1.0
+     */
+    public static final class Progress {
+
+        /**
+         * Last imported archive key.
+         */
+        private final Optional<String> last;
+
+        /**
+         * Number of imported archives.
+         */
+        private final long archives;
+
+        /**
+         * Number of metadata updates.
+         */
+        private final long updates;
+
+        /**
+         * Keys of skipped archives.
+         */
+        private final List<String> skipped;
+
+        /**
+         * Ctor.
+         * @param last Last imported archive key
+         * @param archives Number of imported archives
+         * @param updates Number of metadata updates
+         * @param skipped Keys of skipped archives
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Progress(
+            final Optional<String> last, final long archives, final long updates,
+            final List<String> skipped
+        ) {
+            this.last = last;
+            this.archives = archives;
+            this.updates = updates;
+            this.skipped = skipped;
+        }
+
+        /**
+         * Number of imported archives.
+         * @return Number of archives
+         */
+        public long imported() {
+            return this.archives;
+        }
+
+        /**
+         * Number of `meta.json` updates, at most one per package in a batch.
+         * @return Number of updates
+         */
+        public long metaUpdates() {
+            return this.updates;
+        }
+
+        /**
+         * Keys of archives which were skipped as they can not be inspected.
+         * @return Archive keys
+         */
+        public List<String> skipped() {
+            return Collections.unmodifiableList(this.skipped);
+        }
+
+        /**
+         * Key of the last processed archive, archives with keys after it
+         * are not processed yet.
+         * @return Archive key, empty if no archive was processed
+         */
+        public Optional<String> after() {
+            return this.last;
+        }
+
+        /**
+         * Progress after the batch.
+         * @param key Last key of the batch
+         * @param tgzs Summaries of archives of the batch
+         * @return Progress
+         */
+        Progress next(final String key, final Map<Key, Optional<TgzInspector.Summary>> tgzs) {
+            final List<String> failed = new ArrayList<>(this.skipped);
+            long count = 0;
+            for (final Map.Entry<Key, Optional<TgzInspector.Summary>> tgz : tgzs.entrySet()) {
+                if (tgz.getValue().isPresent()) {
+                    count = count + 1;
+                } else {
+                    failed.add(tgz.getKey().string());
+                }
+            }
+            return new Progress(
+                Optional.of(key), this.archives + count,
+                this.updates + tgzs.values().stream().filter(Optional::isPresent)
+                    .map(tgz -> tgz.get().packageJson().getString("name"))
+                    .distinct().count(),
+                failed
+            );
+        }
+
+        /**
+         * Checkpoint json.
+         * @return Json
+         */
+        JsonObject json() {
+            final JsonArrayBuilder failed = Json.createArrayBuilder();
+            this.skipped.forEach(failed::add);
+            return Json.createObjectBuilder()
+                .add("after", this.last.orElse(""))
+                .add("imported", this.archives)
+                .add("updates", this.updates)
+                .add("skipped", failed)
+                .build();
+        }
+
+        /**
+         * Read progress from checkpoint json.
+         * @param json Checkpoint json
+         * @return Progress
+         */
+        static Progress from(final JsonObject json) {
+            return new Progress(
+                Optional.of(json.getString("after")).filter(after -> !after.isEmpty()),
+                json.getJsonNumber("imported").longValue(),
+                json.getJsonNumber("updates").longValue(),
+                json.getJsonArray("skipped").getValuesAs(JsonString.class).stream()
+                    .map(JsonString::getString).collect(Collectors.toList())
+            );
+        }
+    }
+}
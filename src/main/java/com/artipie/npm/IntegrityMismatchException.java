@@ -0,0 +1,28 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.ArtipieException;
+
+/**
+ * Uploaded package archive does not match integrity or shasum declared
+ * in package metadata.
+ * @since 1.0
+ */
+public final class IntegrityMismatchException extends ArtipieException {
+
+    /**
+     * Serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Ctor.
+     * @param message Error message
+     */
+    public IntegrityMismatchException(final String message) {
+        super(message);
+    }
+}
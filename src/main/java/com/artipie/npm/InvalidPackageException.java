@@ -0,0 +1,28 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.ArtipieException;
+
+/**
+ * Uploaded package archive has no `package.json` or its `package.json` has no
+ * package name or version.
+ * @since 1.0
+ */
+public final class InvalidPackageException extends ArtipieException {
+
+    /**
+     * Serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Ctor.
+     * @param message Error message
+     */
+    public InvalidPackageException(final String message) {
+        super(message);
+    }
+}
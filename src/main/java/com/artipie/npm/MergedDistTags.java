@@ -0,0 +1,272 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Content;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.json.JsonObject;
+
+/**
+ * Package metadata with `dist-tags` replaced by the tags from the dist-tags
+ * sidecar, see {@link MetaFiles#DIST_TAGS}. Tags are added to the metadata if
+ * it has no `dist-tags` field.
+ * <p>
+ * Like {@link Tarballs}, metadata is not parsed into json object: the content
+ * is scanned byte by byte, the value of the top level `dist-tags` field is
+ * skipped and the tags are written in its place. Memory usage does not depend
+ * on metadata size.
+ * @since 1.0
+ */
+public final class MergedDistTags {
+
+    /**
+     * Original metadata.
+     */
+    private final Content original;
+
+    /**
+     * Dist-tags.
+     */
+    private final JsonObject tags;
+
+    /**
+     * Ctor.
+     * @param original Original metadata
+     * @param tags Dist-tags
+     */
+    public MergedDistTags(final Content original, final JsonObject tags) {
+        this.original = original;
+        this.tags = tags;
+    }
+
+    /**
+     * Metadata with merged dist-tags.
+     * @return Metadata content
+     */
+    public Content value() {
+        final byte[] value = this.tags.toString().getBytes(StandardCharsets.UTF_8);
+        return new Content.From(
+            Flowable.defer(
+                () -> {
+                    final Replace replace = new Replace(value);
+                    return Flowable.fromPublisher(this.original)
+                        .concatMapIterable(replace::process);
+                }
+            )
+        );
+    }
+
+    /**
+     * Json scanner, which replaces the value of the top level `dist-tags` field.
+     * It keeps only current nesting depth and the state of the current key,
+     * so it works with json split into chunks at any position.
+     * @since 1.0
+     * @checkstyle CyclomaticComplexityCheck (200 lines)
+     */
+    private static final class Replace {
+
+        /**
+         * Field name.
+         */
+        private static final byte[] FIELD = "dist-tags".getBytes(StandardCharsets.US_ASCII);
+
+        /**
+         * Field value to write.
+         */
+        private final byte[] value;
+
+        /**
+         * Current nesting depth.
+         */
+        private int depth;
+
+        /**
+         * Scanner is inside a string.
+         */
+        private boolean string;
+
+        /**
+         * Previous byte was an escape char.
+         */
+        private boolean escape;
+
+        /**
+         * Current string is a top level key.
+         */
+        private boolean key;
+
+        /**
+         * Position in the field name.
+         */
+        private int pos;
+
+        /**
+         * Current key is still equal to the field name.
+         */
+        private boolean equal;
+
+        /**
+         * Last top level key is equal to the field name.
+         */
+        private boolean found;
+
+        /**
+         * Next top level string is a key.
+         */
+        private boolean expectkey;
+
+        /**
+         * Top level object has fields.
+         */
+        private boolean fields;
+
+        /**
+         * Original field value is being skipped.
+         */
+        private boolean skip;
+
+        /**
+         * Field value was written.
+         */
+        private boolean written;
+
+        /**
+         * Ctor.
+         * @param value Field value to write
+         */
+        Replace(final byte[] value) {
+            this.value = value;
+        }
+
+        /**
+         * Process next chunk.
+         * @param chunk Chunk of json
+         * @return Chunk parts with replaced field value
+         */
+        List<ByteBuffer> process(final ByteBuffer chunk) {
+            final List<ByteBuffer> res = new ArrayList<>(1);
+            int start = chunk.position();
+            for (int idx = chunk.position(); idx < chunk.limit(); idx = idx + 1) {
+                final byte chr = chunk.get(idx);
+                if (this.skip && !this.string && this.depth == 1 && (chr == ',' || chr == '}')) {
+                    this.skip = false;
+                    start = idx;
+                }
+                if (!this.string && this.depth == 1 && chr == '}' && !this.written) {
+                    res.add(Replace.slice(chunk, start, idx));
+                    res.add(ByteBuffer.wrap(this.field()).asReadOnlyBuffer());
+                    this.written = true;
+                    start = idx;
+                }
+                if (this.next(chr)) {
+                    res.add(Replace.slice(chunk, start, idx + 1));
+                    res.add(ByteBuffer.wrap(this.value).asReadOnlyBuffer());
+                    this.skip = true;
+                    this.written = true;
+                }
+                if (this.skip) {
+                    start = idx + 1;
+                }
+            }
+            if (start < chunk.limit()) {
+                res.add(Replace.slice(chunk, start, chunk.limit()));
+            }
+            return res;
+        }
+
+        /**
+         * Process next byte.
+         * @param chr Byte
+         * @return True if byte is a colon after the field name
+         */
+        private boolean next(final byte chr) {
+            boolean res = false;
+            if (this.string) {
+                this.inString(chr);
+            } else if (chr == '"') {
+                this.string = true;
+                this.key = this.depth == 1 && this.expectkey;
+                if (this.key) {
+                    this.fields = true;
+                    this.pos = 0;
+                    this.equal = true;
+                }
+            } else if (chr == '{' || chr == '[') {
+                this.depth = this.depth + 1;
+                this.expectkey = this.depth == 1;
+            } else if (chr == '}' || chr == ']') {
+                this.depth = this.depth - 1;
+            } else if (this.depth == 1 && chr == ':') {
+                this.expectkey = false;
+                res = this.found && !this.written;
+                this.found = false;
+            } else if (this.depth == 1 && chr == ',') {
+                this.expectkey = true;
+            }
+            return res;
+        }
+
+        /**
+         * Process byte inside a string.
+         * @param chr Byte
+         */
+        private void inString(final byte chr) {
+            if (this.escape) {
+                this.escape = false;
+                this.equal = false;
+            } else if (chr == '\\') {
+                this.escape = true;
+            } else if (chr == '"') {
+                this.string = false;
+                if (this.key) {
+                    this.found = this.equal && this.pos == Replace.FIELD.length;
+                }
+            } else if (this.key) {
+                if (this.pos < Replace.FIELD.length && Replace.FIELD[this.pos] == chr) {
+                    this.pos = this.pos + 1;
+                } else {
+                    this.equal = false;
+                }
+            }
+        }
+
+        /**
+         * Field to append to the top level object without `dist-tags`.
+         * @return Field bytes
+         */
+        private byte[] field() {
+            final String prefix;
+            if (this.fields) {
+                prefix = ",";
+            } else {
+                prefix = "";
+            }
+            final byte[] name = String.format("%s\"dist-tags\":", prefix)
+                .getBytes(StandardCharsets.US_ASCII);
+            final byte[] res = new byte[name.length + this.value.length];
+            System.arraycopy(name, 0, res, 0, name.length);
+            System.arraycopy(this.value, 0, res, name.length, this.value.length);
+            return res;
+        }
+
+        /**
+         * Slice of the buffer.
+         * @param buf Buffer
+         * @param from Start position
+         * @param till End position
+         * @return Slice
+         */
+        private static ByteBuffer slice(final ByteBuffer buf, final int from, final int till) {
+            final ByteBuffer res = buf.duplicate();
+            res.limit(till);
+            res.position(from);
+            return res.slice();
+        }
+    }
+}
@@ -5,24 +5,20 @@
 package com.artipie.npm;
 
 import com.artipie.npm.misc.DateTimeNowStr;
+import com.artipie.npm.semver.Versions;
 import io.reactivex.Flowable;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import javax.json.Json;
 import javax.json.JsonObject;
-import javax.json.JsonPatchBuilder;
+import javax.json.JsonString;
 import javax.json.JsonValue;
 
 /**
  * The meta.json file.
  *
  * @since 0.1
- * @checkstyle ExecutableStatementCountCheck (500 lines)
  */
 @SuppressWarnings("PMD.AvoidDuplicateLiterals")
 final class Meta {
@@ -53,53 +49,54 @@ final class Meta {
      * @return Completion or error signal.
      */
     public Meta updatedMeta(final JsonObject uploaded) {
-        boolean haslatest = false;
-        final JsonObject versions = uploaded.getJsonObject("versions");
-        final Set<String> keys = versions.keySet();
-        final JsonPatchBuilder patch = Json.createPatchBuilder();
-        if (this.json.containsKey("dist-tags")) {
-            haslatest = this.json.getJsonObject("dist-tags").containsKey(Meta.LATEST);
-        } else {
-            patch.add("/dist-tags", Json.createObjectBuilder().build());
-        }
+        return this.updatedMeta(uploaded, new DateTimeNowStr().value());
+    }
+
+    /**
+     * Update the meta.json file by processing newly
+     * uploaded {@code npm publish} generated json.
+     *
+     * @param uploaded The json
+     * @param now Publication time
+     * @return Completion or error signal.
+     */
+    public Meta updatedMeta(final JsonObject uploaded, final String now) {
+        final MetaDocument doc = new MetaDocument(this.json);
+        boolean haslatest = doc.tags().containsKey(Meta.LATEST);
         for (final Map.Entry<String, JsonValue> tag
             : uploaded.getJsonObject("dist-tags").entrySet()
         ) {
-            patch.add(String.format("/dist-tags/%s", tag.getKey()), tag.getValue());
+            doc.tag(tag.getKey(), ((JsonString) tag.getValue()).getString());
             if (tag.getKey().equals(Meta.LATEST)) {
                 haslatest = true;
             }
         }
+        final JsonObject versions = uploaded.getJsonObject("versions");
+        final Set<String> keys = versions.keySet();
         for (final String key : keys) {
             final JsonObject version = versions.getJsonObject(key);
-            patch.add(
-                String.format("/versions/%s", key),
-                version
-            );
-            patch.add(
-                String.format("/versions/%s/dist/tarball", key),
+            doc.version(key, version).tarball(
+                key,
                 String.format(
                     "/%s",
                     new TgzRelativePath(version.getJsonObject("dist").getString("tarball"))
                         .relative()
                 )
-            );
-        }
-        final String now = new DateTimeNowStr().value();
-        for (final String version : keys) {
-            patch.add(String.format("/time/%s", version), now);
+            ).time(key, now);
         }
-        patch.add("/time/modified", now);
-        if (!haslatest && !keys.isEmpty()) {
-            final List<String> lst = new ArrayList<>(keys);
-            lst.sort(Comparator.reverseOrder());
-            patch.add("/dist-tags/latest", lst.get(0));
+        doc.time("modified", now);
+        if (!haslatest) {
+            new Versions(keys).latest().ifPresent(latest -> doc.tag(Meta.LATEST, latest));
         }
-        return new Meta(
-            patch
-                .build()
-                .apply(this.json)
-        );
+        return new Meta(doc.json());
+    }
+
+    /**
+     * Obtain metadata json.
+     * @return Json object
+     */
+    public JsonObject json() {
+        return this.json;
     }
 
     /**
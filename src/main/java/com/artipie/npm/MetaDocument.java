@@ -0,0 +1,258 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+
+/**
+ * Mutable package metadata document. Json patch copies the document on every
+ * operation, so applying an operation per version costs quadratic time.
+ * This document copies only references to top-level fields and to the entries
+ * of `versions`, `time` and `dist-tags` objects when they are changed first time,
+ * changes are applied to these copies in place and the document is built once
+ * by {@link #json()}. Changing a version copies only that version object.
+ * <p>
+ * Document is not thread safe, it is meant to be created, changed and built
+ * within a single metadata update.
+ * @since 1.0
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class MetaDocument {
+
+    /**
+     * Versions field name.
+     */
+    private static final String VERSIONS = "versions";
+
+    /**
+     * Time field name.
+     */
+    private static final String TIME = "time";
+
+    /**
+     * Dist-tags field name.
+     */
+    private static final String TAGS = "dist-tags";
+
+    /**
+     * Dist field name.
+     */
+    private static final String DIST = "dist";
+
+    /**
+     * Top-level fields.
+     */
+    private final Map<String, JsonValue> root;
+
+    /**
+     * Changed top-level objects by field name.
+     */
+    private final Map<String, Map<String, JsonValue>> changed;
+
+    /**
+     * Ctor.
+     * @param json Package metadata
+     */
+    public MetaDocument(final JsonObject json) {
+        this.root = new LinkedHashMap<>(json);
+        this.changed = new HashMap<>(3);
+    }
+
+    /**
+     * Names of package versions.
+     * @return Versions
+     */
+    public Set<String> versions() {
+        return new LinkedHashSet<>(this.object(MetaDocument.VERSIONS).keySet());
+    }
+
+    /**
+     * Package version.
+     * @param version Version name
+     * @return Version json, empty if version does not exist
+     */
+    public Optional<JsonObject> version(final String version) {
+        return Optional.ofNullable(this.object(MetaDocument.VERSIONS).get(version))
+            .map(JsonValue::asJsonObject);
+    }
+
+    /**
+     * Add or replace package version.
+     * @param version Version name
+     * @param json Version json
+     * @return This document
+     */
+    public MetaDocument version(final String version, final JsonObject json) {
+        this.object(MetaDocument.VERSIONS).put(version, json);
+        return this;
+    }
+
+    /**
+     * Remove package version and its publication time.
+     * @param version Version name
+     * @return This document
+     */
+    public MetaDocument remove(final String version) {
+        this.object(MetaDocument.VERSIONS).remove(version);
+        this.object(MetaDocument.TIME).remove(version);
+        return this;
+    }
+
+    /**
+     * Set field of existing package version.
+     * @param version Version name
+     * @param field Field name
+     * @param value Field value
+     * @return This document
+     */
+    public MetaDocument field(final String version, final String field, final JsonValue value) {
+        this.version(version).ifPresent(
+            json -> this.version(version, Json.createObjectBuilder(json).add(field, value).build())
+        );
+        return this;
+    }
+
+    /**
+     * Remove field of existing package version.
+     * @param version Version name
+     * @param field Field name
+     * @return This document
+     */
+    public MetaDocument unset(final String version, final String field) {
+        this.version(version).filter(json -> json.containsKey(field)).ifPresent(
+            json -> this.version(version, Json.createObjectBuilder(json).remove(field).build())
+        );
+        return this;
+    }
+
+    /**
+     * Tarball link of package version.
+     * @param version Version name
+     * @return Link, empty if version or its link does not exist
+     */
+    public Optional<String> tarball(final String version) {
+        return this.version(version)
+            .map(json -> json.getJsonObject(MetaDocument.DIST))
+            .filter(dist -> dist.containsKey("tarball"))
+            .map(dist -> dist.getString("tarball"));
+    }
+
+    /**
+     * Set tarball link of existing package version.
+     * @param version Version name
+     * @param link Tarball link
+     * @return This document
+     */
+    public MetaDocument tarball(final String version, final String link) {
+        this.version(version).ifPresent(
+            json -> {
+                final JsonObjectBuilder dist;
+                if (json.containsKey(MetaDocument.DIST)) {
+                    dist = Json.createObjectBuilder(json.getJsonObject(MetaDocument.DIST));
+                } else {
+                    dist = Json.createObjectBuilder();
+                }
+                this.version(
+                    version,
+                    Json.createObjectBuilder(json)
+                        .add(MetaDocument.DIST, dist.add("tarball", link)).build()
+                );
+            }
+        );
+        return this;
+    }
+
+    /**
+     * Package dist-tags, dist-tags object is added to the document if it is absent.
+     * @return Dist-tags
+     */
+    public Map<String, JsonValue> tags() {
+        return Collections.unmodifiableMap(this.object(MetaDocument.TAGS));
+    }
+
+    /**
+     * Add or replace dist-tag.
+     * @param tag Tag name
+     * @param version Version name
+     * @return This document
+     */
+    public MetaDocument tag(final String tag, final String version) {
+        this.object(MetaDocument.TAGS).put(tag, Json.createValue(version));
+        return this;
+    }
+
+    /**
+     * Remove dist-tag.
+     * @param tag Tag name
+     * @return This document
+     */
+    public MetaDocument untag(final String tag) {
+        this.object(MetaDocument.TAGS).remove(tag);
+        return this;
+    }
+
+    /**
+     * Set time field, e.g. publication time of the version or `modified`.
+     * @param field Field name
+     * @param time Time
+     * @return This document
+     */
+    public MetaDocument time(final String field, final String time) {
+        this.object(MetaDocument.TIME).put(field, Json.createValue(time));
+        return this;
+    }
+
+    /**
+     * Build metadata json.
+     * @return Metadata
+     */
+    public JsonObject json() {
+        final JsonObjectBuilder res = Json.createObjectBuilder();
+        for (final Map.Entry<String, JsonValue> field : this.root.entrySet()) {
+            final Map<String, JsonValue> object = this.changed.get(field.getKey());
+            if (object == null) {
+                res.add(field.getKey(), field.getValue());
+            } else {
+                final JsonObjectBuilder built = Json.createObjectBuilder();
+                object.forEach(built::add);
+                res.add(field.getKey(), built);
+            }
+        }
+        return res.build();
+    }
+
+    /**
+     * Changeable top-level object, which is copied on first access and
+     * added to the document if it is absent.
+     * @param field Field name
+     * @return Object entries
+     */
+    private Map<String, JsonValue> object(final String field) {
+        return this.changed.computeIfAbsent(
+            field,
+            name -> {
+                final JsonValue value = this.root.get(name);
+                final Map<String, JsonValue> res;
+                if (value instanceof JsonObject) {
+                    res = new LinkedHashMap<>(value.asJsonObject());
+                } else {
+                    res = new LinkedHashMap<>();
+                    this.root.put(name, JsonValue.EMPTY_JSON_OBJECT);
+                }
+                return res;
+            }
+        );
+    }
+}
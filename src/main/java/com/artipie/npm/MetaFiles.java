@@ -0,0 +1,757 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.UnderLockOperation;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.lock.storage.StorageLock;
+import com.artipie.npm.misc.DateTimeNowStr;
+import com.artipie.npm.misc.KeyedQueue;
+import com.artipie.npm.misc.OptionalValue;
+import com.jcabi.log.Logger;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Completable;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+/**
+ * Package metadata files: `meta.json` and the documents derived from it,
+ * which are stored next to `meta.json` under the package key.
+ * All `meta.json` updates should go through this class to keep
+ * derived documents consistent with the metadata.
+ * <p>
+ * Dist-tags are kept in a small sidecar file, which is the source of truth
+ * for package dist-tags: tags are updated without rewriting `meta.json` and are
+ * merged into metadata files when they are read. Packages saved before the
+ * sidecar was introduced have no sidecar, dist-tags of such packages are
+ * read from `meta.json`.
+ * <p>
+ * Read-modify-write updates of metadata and dist-tags use optimistic
+ * concurrency: validators keep a version stamp, which is changed on every
+ * write. Update reads the stamp and the document, applies the change and
+ * writes the result under expiring storage lock only if the stamp was not changed
+ * meanwhile, otherwise the update is retried. Updates of the same package
+ * within this process are queued, so they never conflict with each other,
+ * while updates of different packages never wait for each other.
+ * <p>
+ * Versions published to an existing package are appended to the metadata
+ * journal instead of rewriting `meta.json`, see {@link MetaJournal}. Readers
+ * overlay journal records onto `meta.json` snapshot and check that the version
+ * stamp was not changed while they read, the journal is folded into a fresh
+ * snapshot in background once it has {@link #COMPACTION} records.
+ * <p>
+ * Version index, see {@link VersionIndex}, is written with every metadata
+ * snapshot and every journal record, so published versions are known without
+ * reading the metadata.
+ * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class MetaFiles {
+
+    /**
+     * Package metadata file name.
+     */
+    public static final String META = "meta.json";
+
+    /**
+     * Abbreviated package metadata file name.
+     */
+    public static final String ABBREVIATED = "meta.abbreviated.json";
+
+    /**
+     * Metadata validators file name, see {@link MetaValidators}.
+     */
+    public static final String VALIDATORS = "meta.validators.json";
+
+    /**
+     * Dist-tags file name.
+     */
+    public static final String DIST_TAGS = "meta.dist-tags.json";
+
+    /**
+     * Version index file name, see {@link VersionIndex}.
+     */
+    public static final String VERSIONS = "meta.versions.json";
+
+    /**
+     * Metadata file names.
+     */
+    private static final Set<String> FILES = new HashSet<>(
+        Arrays.asList(
+            MetaFiles.META, MetaFiles.ABBREVIATED, MetaFiles.VALIDATORS,
+            MetaFiles.DIST_TAGS, MetaFiles.VERSIONS
+        )
+    );
+
+    /**
+     * Dist-tags metadata field name.
+     */
+    private static final String FIELD = "dist-tags";
+
+    /**
+     * Max number of update attempts.
+     */
+    private static final int ATTEMPTS = 10;
+
+    /**
+     * Max delay before next update attempt in milliseconds, multiplied by
+     * the number of failed attempts.
+     */
+    private static final long BACKOFF = 20L;
+
+    /**
+     * Time to live of metadata update lock.
+     */
+    private static final Duration LOCK = Duration.ofMinutes(1);
+
+    /**
+     * Number of journal records, which triggers journal compaction.
+     */
+    private static final long COMPACTION = 32L;
+
+    /**
+     * In-process queue of package updates.
+     */
+    private static final KeyedQueue LOCAL = new KeyedQueue();
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Package key.
+     */
+    private final Key pkg;
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     * @param pkg Package key
+     */
+    public MetaFiles(final Storage storage, final Key pkg) {
+        this.storage = storage;
+        this.pkg = pkg;
+    }
+
+    /**
+     * Save package metadata and documents derived from it, dist-tags of the
+     * metadata replace dist-tags sidecar. Validators are saved last, so they
+     * never describe metadata which is not saved yet.
+     * @param meta Package metadata
+     * @return Completion or error signal.
+     */
+    public CompletableFuture<Void> save(final JsonObject meta) {
+        final Map<String, byte[]> files = new LinkedHashMap<>(2);
+        files.put(MetaFiles.META, meta.toString().getBytes(StandardCharsets.UTF_8));
+        files.put(
+            MetaFiles.ABBREVIATED,
+            new AbbreviatedMeta(meta).value().toString().getBytes(StandardCharsets.UTF_8)
+        );
+        CompletableFuture<Void> res = CompletableFuture.allOf();
+        for (final Map.Entry<String, byte[]> file : files.entrySet()) {
+            res = res.thenCompose(
+                nothing -> this.storage.save(
+                    new Key.From(this.pkg, file.getKey()), new Content.From(file.getValue())
+                )
+            );
+        }
+        return res.thenCompose(
+            nothing -> this.save(
+                MetaFiles.DIST_TAGS,
+                Optional.ofNullable(meta.getJsonObject(MetaFiles.FIELD))
+                    .orElse(JsonValue.EMPTY_JSON_OBJECT)
+            )
+        ).thenCompose(
+            nothing -> this.save(MetaFiles.VERSIONS, VersionIndex.json(meta))
+        ).thenCompose(
+            nothing -> this.save(
+                MetaFiles.VALIDATORS,
+                new MetaValidators(meta, files).stamped(UUID.randomUUID().toString()).json()
+            )
+        );
+    }
+
+    /**
+     * Update package metadata, see class description for concurrency details.
+     * The change may be applied several times if metadata is modified concurrently,
+     * so it should have no side effects.
+     * @param change Change of the metadata with dist-tags from the sidecar: receives
+     *  current metadata, empty if it does not exist, returns updated metadata or
+     *  empty to leave metadata unchanged
+     * @return Saved metadata, empty if metadata was left unchanged
+     */
+    public CompletableFuture<Optional<JsonObject>> update(
+        final Function<Optional<JsonObject>, Optional<JsonObject>> change
+    ) {
+        return this.transaction(validators -> this.meta(validators, 1), change, this::snapshot);
+    }
+
+    /**
+     * Append published versions to the metadata journal, dist-tags of published
+     * json are merged into dist-tags sidecar. Journal is compacted in background
+     * once it is long enough.
+     * @param uploaded Published json with `versions` and `dist-tags`
+     * @return True if versions were appended, false if package metadata does not exist
+     */
+    public CompletableFuture<Boolean> append(final JsonObject uploaded) {
+        final JsonObject record = MetaJournal.record(uploaded, new DateTimeNowStr().value());
+        final byte[] bytes = record.toString().getBytes(StandardCharsets.UTF_8);
+        final AtomicLong records = new AtomicLong();
+        return this.transaction(
+            validators -> this.tags(),
+            tags -> tags.map(current -> MetaJournal.tags(current, record)),
+            (tags, validators) -> {
+                records.set(validators.journal() + 1);
+                return this.journal().append(records.get(), bytes).thenCompose(
+                    nothing -> this.save(MetaFiles.DIST_TAGS, tags)
+                ).thenCompose(
+                    nothing -> this.index(validators)
+                ).thenCompose(
+                    index -> this.save(MetaFiles.VERSIONS, VersionIndex.added(index, uploaded))
+                ).thenCompose(
+                    nothing -> this.save(
+                        MetaFiles.VALIDATORS,
+                        validators.appended(bytes, tags, Instant.now())
+                            .stamped(UUID.randomUUID().toString()).json()
+                    )
+                );
+            }
+        ).thenApply(
+            tags -> {
+                if (records.get() >= MetaFiles.COMPACTION) {
+                    this.compact().exceptionally(
+                        err -> {
+                            Logger.warn(
+                                this, "Failed to compact metadata journal of %s: %[exception]s",
+                                this.pkg.string(), err
+                            );
+                            return null;
+                        }
+                    );
+                }
+                return tags.isPresent();
+            }
+        );
+    }
+
+    /**
+     * Fold metadata journal into a fresh `meta.json` snapshot.
+     * @return Completion or error signal.
+     */
+    public CompletableFuture<Void> compact() {
+        return this.transaction(
+            validators -> {
+                final CompletableFuture<Optional<JsonObject>> res;
+                if (validators.journal() > 0) {
+                    res = this.meta(validators, 1);
+                } else {
+                    res = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return res;
+            },
+            Function.identity(),
+            this::snapshot
+        ).thenCompose(meta -> CompletableFuture.allOf());
+    }
+
+    /**
+     * Remove package metadata files. `meta.json` is removed first, so readers stop
+     * seeing the package before the other files are removed, validators are removed
+     * last. Tarballs of the package are not removed.
+     * @return Completion or error signal.
+     */
+    public CompletableFuture<Void> delete() {
+        return MetaFiles.LOCAL.run(
+            Arrays.asList(this.storage, this.pkg.string()),
+            () -> this.delete(MetaFiles.META).thenCompose(
+                nothing -> CompletableFuture.allOf(
+                    this.delete(MetaFiles.ABBREVIATED),
+                    this.delete(MetaFiles.DIST_TAGS),
+                    this.delete(MetaFiles.VERSIONS)
+                )
+            ).thenCompose(
+                nothing -> this.journal().clear()
+            ).thenCompose(
+                nothing -> this.delete(MetaFiles.VALIDATORS)
+            )
+        );
+    }
+
+    /**
+     * Update package dist-tags in the sidecar, see {@link #update(Function)}.
+     * @param change Change of dist-tags: receives current dist-tags, empty if package
+     *  metadata does not exist, returns updated dist-tags or empty to leave them unchanged
+     * @return Saved dist-tags, empty if dist-tags were left unchanged
+     */
+    public CompletableFuture<Optional<JsonObject>> updateTags(
+        final Function<Optional<JsonObject>, Optional<JsonObject>> change
+    ) {
+        return this.transaction(validators -> this.tags(), change, this::saveTags);
+    }
+
+    /**
+     * Read package metadata with dist-tags from the sidecar.
+     * @return Metadata, empty if package metadata does not exist
+     */
+    public CompletableFuture<Optional<JsonObject>> meta() {
+        return this.validators().thenCompose(validators -> this.meta(validators, 1));
+    }
+
+    /**
+     * Read metadata file content with dist-tags from the sidecar.
+     * @param file Metadata file name, e.g. {@link #META} or {@link #ABBREVIATED}
+     * @return Content, empty if metadata file does not exist
+     */
+    public CompletableFuture<Optional<Content>> content(final String file) {
+        return this.validators().thenCompose(validators -> this.content(file, validators));
+    }
+
+    /**
+     * Read metadata file content with dist-tags from the sidecar. File content
+     * is streamed from storage as is, unless the metadata journal has records:
+     * then the file is rendered from metadata with journal records.
+     * @param file Metadata file name, e.g. {@link #META} or {@link #ABBREVIATED}
+     * @param validators Metadata validators
+     * @return Content, empty if metadata file does not exist
+     */
+    public CompletableFuture<Optional<Content>> content(
+        final String file, final MetaValidators validators
+    ) {
+        final CompletableFuture<Optional<Content>> res;
+        if (validators.journal() > 0) {
+            res = this.meta(validators, 1).thenApply(
+                meta -> meta.map(
+                    json -> {
+                        final JsonObject rendered;
+                        if (MetaFiles.ABBREVIATED.equals(file)) {
+                            rendered = new AbbreviatedMeta(json).value();
+                        } else {
+                            rendered = json;
+                        }
+                        return new Content.From(
+                            rendered.toString().getBytes(StandardCharsets.UTF_8)
+                        );
+                    }
+                )
+            );
+        } else {
+            res = new OptionalValue(this.storage).value(new Key.From(this.pkg, file))
+                .thenCompose(
+                    content -> {
+                        final CompletableFuture<Optional<Content>> tagged;
+                        if (content.isPresent()) {
+                            tagged = this.json(MetaFiles.DIST_TAGS).thenApply(
+                                tags -> Optional.of(
+                                    tags.map(
+                                        json -> new MergedDistTags(content.get(), json).value()
+                                    ).orElse(content.get())
+                                )
+                            );
+                        } else {
+                            tagged = CompletableFuture.completedFuture(Optional.empty());
+                        }
+                        return tagged;
+                    }
+                );
+        }
+        return res;
+    }
+
+    /**
+     * Read package dist-tags: from the sidecar if it exists, otherwise
+     * from `meta.json`.
+     * @return Dist-tags, empty if package metadata does not exist
+     */
+    public CompletableFuture<Optional<JsonObject>> tags() {
+        return this.json(MetaFiles.DIST_TAGS).thenCompose(
+            tags -> {
+                final CompletableFuture<Optional<JsonObject>> res;
+                if (tags.isPresent()) {
+                    res = CompletableFuture.completedFuture(tags);
+                } else {
+                    res = this.json(MetaFiles.META).thenApply(
+                        meta -> meta.map(
+                            json -> Optional.ofNullable(json.getJsonObject(MetaFiles.FIELD))
+                                .orElse(JsonValue.EMPTY_JSON_OBJECT)
+                        )
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Save package dist-tags to the sidecar and update validators,
+     * `meta.json` is not changed.
+     * @param tags Dist-tags
+     * @return Completion or error signal.
+     */
+    public CompletableFuture<Void> saveTags(final JsonObject tags) {
+        return this.validators().thenCompose(validators -> this.saveTags(tags, validators));
+    }
+
+    /**
+     * Read metadata validators.
+     * @return Validators, empty if validators file does not exist
+     */
+    public CompletableFuture<MetaValidators> validators() {
+        return this.json(MetaFiles.VALIDATORS).thenApply(
+            json -> new MetaValidators(json.orElse(JsonValue.EMPTY_JSON_OBJECT))
+        );
+    }
+
+    /**
+     * Package of the metadata item, e.g. `pkg` for `pkg/meta.json`
+     * or `pkg/meta.journal/1.json`.
+     * @param key Item key
+     * @return Package key, empty if the item is not package metadata
+     */
+    public static Optional<Key> owner(final Key key) {
+        final List<String> parts = key.parts();
+        final int size = parts.size();
+        final Optional<Key> res;
+        if (size > 1 && (MetaFiles.FILES.contains(parts.get(size - 1))
+            || MetaJournal.DIR.equals(parts.get(size - 1)))) {
+            res = Optional.of(new Key.From(parts.subList(0, size - 1)));
+        } else if (size > 2 && MetaJournal.DIR.equals(parts.get(size - 2))) {
+            res = Optional.of(new Key.From(parts.subList(0, size - 2)));
+        } else {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * Read package metadata with journal records and dist-tags from the sidecar.
+     * If metadata journal has records, version stamp is checked after reading,
+     * and reading is repeated if metadata was changed meanwhile.
+     * @param validators Metadata validators read before metadata
+     * @param attempt Attempt number
+     * @return Metadata, empty if package metadata does not exist
+     */
+    private CompletableFuture<Optional<JsonObject>> meta(
+        final MetaValidators validators, final int attempt
+    ) {
+        final CompletableFuture<Optional<JsonObject>> res;
+        if (validators.journal() > 0) {
+            res = this.json(MetaFiles.META).thenCompose(
+                snapshot -> snapshot.map(
+                    json -> this.journal().overlay(json, validators.journal())
+                ).orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()))
+            ).thenCompose(this::tagged).thenCompose(
+                meta -> this.validators().thenCompose(
+                    current -> {
+                        final CompletionStage<Optional<JsonObject>> read;
+                        if (meta.isPresent() && current.stamp().equals(validators.stamp())) {
+                            read = CompletableFuture.completedFuture(meta);
+                        } else if (attempt < MetaFiles.ATTEMPTS) {
+                            read = this.meta(current, attempt + 1);
+                        } else {
+                            read = new FailedCompletionStage<>(this.modified());
+                        }
+                        return read;
+                    }
+                )
+            );
+        } else {
+            res = this.json(MetaFiles.META).thenCompose(this::tagged);
+        }
+        return res;
+    }
+
+    /**
+     * Metadata with dist-tags from the sidecar.
+     * @param meta Metadata
+     * @return Metadata with dist-tags, empty if metadata is empty
+     */
+    private CompletableFuture<Optional<JsonObject>> tagged(final Optional<JsonObject> meta) {
+        final CompletableFuture<Optional<JsonObject>> res;
+        if (meta.isPresent()) {
+            res = this.json(MetaFiles.DIST_TAGS).thenApply(
+                tags -> Optional.of(
+                    tags.map(
+                        json -> Json.createObjectBuilder(meta.get())
+                            .add(MetaFiles.FIELD, json).build()
+                    ).orElse(meta.get())
+                )
+            );
+        } else {
+            res = CompletableFuture.completedFuture(Optional.empty());
+        }
+        return res;
+    }
+
+    /**
+     * Save metadata snapshot, which includes metadata journal records,
+     * and remove journal records.
+     * @param meta Package metadata
+     * @param validators Current validators
+     * @return Completion or error signal.
+     */
+    private CompletableFuture<Void> snapshot(
+        final JsonObject meta, final MetaValidators validators
+    ) {
+        final CompletableFuture<Void> res;
+        if (validators.journal() > 0) {
+            res = this.save(meta).thenCompose(nothing -> this.journal().clear());
+        } else {
+            res = this.save(meta);
+        }
+        return res;
+    }
+
+    /**
+     * Read version index, or build it from metadata if the index is not stored.
+     * @param validators Metadata validators read before metadata
+     * @return Version index
+     */
+    private CompletableFuture<JsonObject> index(final MetaValidators validators) {
+        return this.json(MetaFiles.VERSIONS).thenCompose(
+            index -> index.map(CompletableFuture::completedFuture).orElseGet(
+                () -> this.meta(validators, 1).thenApply(
+                    meta -> VersionIndex.json(meta.orElse(JsonValue.EMPTY_JSON_OBJECT))
+                )
+            )
+        );
+    }
+
+    /**
+     * Metadata journal of the package.
+     * @return Journal
+     */
+    private MetaJournal journal() {
+        return new MetaJournal(this.storage, this.pkg);
+    }
+
+    /**
+     * Concurrent modification error.
+     * @return Error
+     */
+    private ArtipieException modified() {
+        return new ArtipieException(
+            String.format("Metadata of `%s` is concurrently modified", this.pkg.string())
+        );
+    }
+
+    /**
+     * Save package dist-tags to the sidecar and update validators.
+     * @param tags Dist-tags
+     * @param validators Current validators
+     * @return Completion or error signal.
+     */
+    private CompletableFuture<Void> saveTags(
+        final JsonObject tags, final MetaValidators validators
+    ) {
+        return this.save(MetaFiles.DIST_TAGS, tags).thenCompose(
+            nothing -> this.save(
+                MetaFiles.VALIDATORS,
+                validators.tagged(tags, Instant.now())
+                    .stamped(UUID.randomUUID().toString()).json()
+            )
+        );
+    }
+
+    /**
+     * Read-modify-write transaction, queued in-process by package.
+     * @param read Document reading, receives validators read before the document
+     * @param change Document change
+     * @param write Document writing with current validators
+     * @return Written document, empty if document was left unchanged
+     */
+    private CompletableFuture<Optional<JsonObject>> transaction(
+        final Function<MetaValidators, CompletableFuture<Optional<JsonObject>>> read,
+        final Function<Optional<JsonObject>, Optional<JsonObject>> change,
+        final BiFunction<JsonObject, MetaValidators, CompletableFuture<Void>> write
+    ) {
+        return MetaFiles.LOCAL.run(
+            Arrays.asList(this.storage, this.pkg.string()),
+            () -> this.attempt(read, change, write, 1)
+        );
+    }
+
+    /**
+     * Read-modify-write attempt: document is written if version stamp was not
+     * changed since it was read, otherwise next attempt is made after a random delay.
+     * @param read Document reading, receives validators read before the document
+     * @param change Document change
+     * @param write Document writing with current validators
+     * @param attempt Attempt number
+     * @return Written document, empty if document was left unchanged
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    private CompletableFuture<Optional<JsonObject>> attempt(
+        final Function<MetaValidators, CompletableFuture<Optional<JsonObject>>> read,
+        final Function<Optional<JsonObject>, Optional<JsonObject>> change,
+        final BiFunction<JsonObject, MetaValidators, CompletableFuture<Void>> write,
+        final int attempt
+    ) {
+        return this.validators().thenCompose(
+            before -> read.apply(before).thenApply(change).thenCompose(
+                updated -> {
+                    final CompletableFuture<Optional<JsonObject>> res;
+                    if (updated.isPresent()) {
+                        res = this.swap(
+                            before.stamp(), validators -> write.apply(updated.get(), validators)
+                        ).thenCompose(
+                            swapped -> {
+                                final CompletionStage<Optional<JsonObject>> next;
+                                if (swapped) {
+                                    next = CompletableFuture.completedFuture(updated);
+                                } else if (attempt < MetaFiles.ATTEMPTS) {
+                                    next = Completable.timer(
+                                        ThreadLocalRandom.current()
+                                            .nextLong(MetaFiles.BACKOFF * attempt),
+                                        TimeUnit.MILLISECONDS
+                                    ).to(CompletableInterop.await()).thenCompose(
+                                        nothing -> this.attempt(read, change, write, attempt + 1)
+                                    );
+                                } else {
+                                    next = new FailedCompletionStage<>(this.modified());
+                                }
+                                return next;
+                            }
+                        );
+                    } else {
+                        res = CompletableFuture.completedFuture(Optional.empty());
+                    }
+                    return res;
+                }
+            )
+        );
+    }
+
+    /**
+     * Compare-and-swap: write under storage lock if version stamp is not changed.
+     * Storage passed to locked operation is not used, so writes go through
+     * this storage and its wrappers. The lock expires in {@link #LOCK}, so the lock
+     * left by a crashed writer does not block updates of the package forever.
+     * @param stamp Expected version stamp
+     * @param write Writing with current validators
+     * @return True if written, false if stamp was changed or lock is held by other writer
+     */
+    private CompletableFuture<Boolean> swap(
+        final Optional<String> stamp,
+        final Function<MetaValidators, CompletableFuture<Void>> write
+    ) {
+        final AtomicBoolean locked = new AtomicBoolean();
+        return new UnderLockOperation<Boolean>(
+            new StorageLock(
+                this.storage, new Key.From(this.pkg, MetaFiles.META),
+                Instant.now().plus(MetaFiles.LOCK)
+            ),
+            ignored -> {
+                locked.set(true);
+                return this.validators().thenCompose(
+                    current -> {
+                        final CompletableFuture<Boolean> res;
+                        if (current.stamp().equals(stamp)) {
+                            res = write.apply(current).thenApply(nothing -> true);
+                        } else {
+                            res = CompletableFuture.completedFuture(false);
+                        }
+                        return res;
+                    }
+                );
+            }
+        ).perform(this.storage).handle(
+            (swapped, err) -> {
+                final CompletionStage<Boolean> res;
+                if (err == null) {
+                    res = CompletableFuture.completedFuture(swapped);
+                } else if (locked.get()) {
+                    res = new FailedCompletionStage<>(err);
+                } else {
+                    res = CompletableFuture.completedFuture(false);
+                }
+                return res;
+            }
+        ).thenCompose(Function.identity()).toCompletableFuture();
+    }
+
+    /**
+     * Read json file of the package.
+     * @param file File name
+     * @return Json, empty if file does not exist
+     */
+    private CompletableFuture<Optional<JsonObject>> json(final String file) {
+        return new OptionalValue(this.storage).value(new Key.From(this.pkg, file)).thenCompose(
+            value -> {
+                final CompletableFuture<Optional<JsonObject>> res;
+                if (value.isPresent()) {
+                    res = new PublisherAs(value.get()).string(StandardCharsets.UTF_8)
+                        .thenApply(
+                            str -> Optional.of(
+                                Json.createReader(new StringReader(str)).readObject()
+                            )
+                        ).toCompletableFuture();
+                } else {
+                    res = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Remove file of the package if it exists.
+     * @param file File name
+     * @return Completion or error signal.
+     */
+    private CompletableFuture<Void> delete(final String file) {
+        final Key key = new Key.From(this.pkg, file);
+        return this.storage.exists(key).thenCompose(
+            exists -> {
+                final CompletableFuture<Void> res;
+                if (exists) {
+                    res = this.storage.delete(key);
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Save json file of the package.
+     * @param file File name
+     * @param json Json
+     * @return Completion or error signal.
+     */
+    private CompletableFuture<Void> save(final String file, final JsonObject json) {
+        return this.storage.save(
+            new Key.From(this.pkg, file),
+            new Content.From(json.toString().getBytes(StandardCharsets.UTF_8))
+        );
+    }
+}
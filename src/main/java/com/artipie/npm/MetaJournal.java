@@ -0,0 +1,197 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.npm.misc.OptionalValue;
+import com.artipie.npm.semver.Versions;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+
+/**
+ * Metadata journal. Versions published to an existing package are appended
+ * to the journal as small records instead of rewriting `meta.json`, so the cost
+ * of publishing does not grow with the number of package versions. Records are
+ * numbered from one after every metadata snapshot and are stored as
+ * `meta.journal/N.json` under the package key, the number of records is kept
+ * in metadata validators, see {@link MetaValidators#journal()}.
+ * <p>
+ * Readers overlay records onto the metadata snapshot, see {@link MetaFiles#meta()},
+ * the journal is folded into a fresh snapshot once it grows long enough,
+ * see {@link MetaFiles#compact()}.
+ * @since 1.0
+ */
+final class MetaJournal {
+
+    /**
+     * Journal directory name.
+     */
+    static final String DIR = "meta.journal";
+
+    /**
+     * Dist-tags field name.
+     */
+    private static final String TAGS = "dist-tags";
+
+    /**
+     * Versions field name.
+     */
+    private static final String VERSIONS = "versions";
+
+    /**
+     * Publication time field name.
+     */
+    private static final String TIME = "time";
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Package key.
+     */
+    private final Key pkg;
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     * @param pkg Package key
+     */
+    MetaJournal(final Storage storage, final Key pkg) {
+        this.storage = storage;
+        this.pkg = pkg;
+    }
+
+    /**
+     * Save journal record.
+     * @param num Record number
+     * @param record Record content
+     * @return Completion or error signal.
+     */
+    CompletableFuture<Void> append(final long num, final byte[] record) {
+        return this.storage.save(this.key(num), new Content.From(record));
+    }
+
+    /**
+     * Overlay journal records onto metadata snapshot.
+     * @param meta Metadata snapshot
+     * @param records Number of journal records
+     * @return Metadata with published versions, empty if some record does not exist,
+     *  which happens when journal is folded into snapshot while it is read
+     */
+    CompletableFuture<Optional<JsonObject>> overlay(final JsonObject meta, final long records) {
+        final List<CompletableFuture<Optional<JsonObject>>> reads = LongStream
+            .rangeClosed(1, records).mapToObj(this::record).collect(Collectors.toList());
+        return CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0])).thenApply(
+            nothing -> {
+                final List<Optional<JsonObject>> found = reads.stream()
+                    .map(CompletableFuture::join).collect(Collectors.toList());
+                final Optional<JsonObject> res;
+                if (found.stream().allMatch(Optional::isPresent)) {
+                    Meta updated = new Meta(meta);
+                    for (final Optional<JsonObject> record : found) {
+                        updated = updated.updatedMeta(
+                            record.get(), record.get().getString(MetaJournal.TIME)
+                        );
+                    }
+                    res = Optional.of(updated.json());
+                } else {
+                    res = Optional.empty();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Remove all journal records.
+     * @return Completion or error signal.
+     */
+    CompletableFuture<Void> clear() {
+        return this.storage.deleteAll(new Key.From(this.pkg, MetaJournal.DIR));
+    }
+
+    /**
+     * Journal record of published versions.
+     * @param uploaded Published json
+     * @param time Publication time
+     * @return Record
+     */
+    static JsonObject record(final JsonObject uploaded, final String time) {
+        return Json.createObjectBuilder()
+            .add(MetaJournal.TIME, time)
+            .add(
+                MetaJournal.TAGS,
+                Optional.ofNullable(uploaded.getJsonObject(MetaJournal.TAGS))
+                    .orElse(JsonValue.EMPTY_JSON_OBJECT)
+            )
+            .add(MetaJournal.VERSIONS, uploaded.getJsonObject(MetaJournal.VERSIONS))
+            .build();
+    }
+
+    /**
+     * Dist-tags after the record is appended, the same way as they are updated
+     * in metadata by {@link Meta#updatedMeta(JsonObject)}.
+     * @param current Current dist-tags
+     * @param record Journal record
+     * @return Dist-tags
+     */
+    static JsonObject tags(final JsonObject current, final JsonObject record) {
+        final JsonObject added = record.getJsonObject(MetaJournal.TAGS);
+        final JsonObjectBuilder res = Json.createObjectBuilder(current);
+        added.forEach(res::add);
+        if (!current.containsKey(Meta.LATEST) && !added.containsKey(Meta.LATEST)) {
+            new Versions(record.getJsonObject(MetaJournal.VERSIONS).keySet()).latest()
+                .ifPresent(latest -> res.add(Meta.LATEST, latest));
+        }
+        return res.build();
+    }
+
+    /**
+     * Read journal record.
+     * @param num Record number
+     * @return Record, empty if it does not exist
+     */
+    private CompletableFuture<Optional<JsonObject>> record(final long num) {
+        return new OptionalValue(this.storage).value(this.key(num)).thenCompose(
+            value -> {
+                final CompletableFuture<Optional<JsonObject>> res;
+                if (value.isPresent()) {
+                    res = new PublisherAs(value.get()).string(StandardCharsets.UTF_8)
+                        .thenApply(
+                            str -> Optional.of(
+                                Json.createReader(new StringReader(str)).readObject()
+                            )
+                        ).toCompletableFuture();
+                } else {
+                    res = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Journal record key.
+     * @param num Record number
+     * @return Key
+     */
+    private Key key(final long num) {
+        return new Key.From(this.pkg, MetaJournal.DIR, String.format("%d.json", num));
+    }
+}
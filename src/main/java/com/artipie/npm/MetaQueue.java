@@ -0,0 +1,563 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.npm.misc.OptionalValue;
+import com.jcabi.log.Logger;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+
+/**
+ * Queue of package metadata updates after publish.
+ * @since 1.0
+ */
+public interface MetaQueue {
+
+    /**
+     * Enqueue metadata update with published json.
+     * @param storage Repository storage
+     * @param pkg Package key
+     * @param uploaded Published json
+     * @return Completion or error signal, completed when the update is accepted
+     */
+    CompletableFuture<Void> enqueue(Storage storage, Key pkg, JsonObject uploaded);
+
+    /**
+     * Cancel pending metadata updates of the package, e.g. when the package is removed.
+     * @param storage Repository storage
+     * @param pkg Package key
+     * @return Completion or error signal, completed when pending updates are removed
+     *  and metadata update in progress, if any, is finished
+     */
+    CompletableFuture<Void> cancel(Storage storage, Key pkg);
+
+    /**
+     * Schedule metadata updates which are left pending in storage, e.g. after restart.
+     * @param storage Repository storage, the same storage which is passed to enqueue
+     * @return Completion or error signal, completed when updates are scheduled
+     */
+    CompletableFuture<Void> recover(Storage storage);
+
+    /**
+     * Check if the version is published, but is waiting for metadata update,
+     * so it is not in {@link VersionIndex} yet.
+     * @param storage Repository storage
+     * @param pkg Package key
+     * @param version Version
+     * @return True if metadata update with the version is pending
+     */
+    CompletableFuture<Boolean> queued(Storage storage, Key pkg, String version);
+
+    /**
+     * Metadata is updated immediately, enqueue completes when metadata files
+     * are saved.
+     * @since 1.0
+     */
+    final class Immediate implements MetaQueue {
+
+        @Override
+        public CompletableFuture<Void> enqueue(
+            final Storage storage, final Key pkg, final JsonObject uploaded
+        ) {
+            return new MetaUpdate.ByJson(uploaded).update(pkg, storage);
+        }
+
+        @Override
+        public CompletableFuture<Void> cancel(final Storage storage, final Key pkg) {
+            return CompletableFuture.allOf();
+        }
+
+        @Override
+        public CompletableFuture<Void> recover(final Storage storage) {
+            return CompletableFuture.allOf();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> queued(
+            final Storage storage, final Key pkg, final String version
+        ) {
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    /**
+     * Durable queue: published json is saved to storage as a job and enqueue
+     * completes, so publish does not wait for metadata files. Jobs are processed in
+     * background by a bounded number of workers, at most one worker per package.
+     * All pending jobs of a package are coalesced into one metadata update, so
+     * packages published again while they wait for a worker are updated once. Jobs
+     * are removed from storage after metadata is updated. Failed package is processed
+     * again with exponential backoff, up to {@link #RETRIES} times; jobs which still
+     * failed, or were not processed before shutdown, are processed on next publish of
+     * the package or by {@link #recover(Storage)}, which should be called on startup
+     * with the storage passed to enqueue, e.g. by {@code NpmSlice#recover()}. Jobs of removed
+     * packages are removed by {@link #cancel(Storage, Key)}.
+     * Published versions become visible to readers when their job is processed,
+     * until then they are found by {@link #queued(Storage, Key, String)}, so
+     * the version is not published twice. Packages are identified by their keys,
+     * package is processed with the storage it was scheduled with first.
+     * @since 1.0
+     */
+    final class Durable implements MetaQueue {
+
+        /**
+         * Directory of jobs in repository storage.
+         */
+        static final Key JOBS = new Key.From(".meta-queue");
+
+        /**
+         * Number of retries of failed package processing.
+         */
+        static final int RETRIES = 5;
+
+        /**
+         * Default delay before the first retry in milliseconds.
+         */
+        private static final long DELAY = TimeUnit.SECONDS.toMillis(1);
+
+        /**
+         * Maximum delay before retry in milliseconds.
+         */
+        private static final long MAX_DELAY = TimeUnit.MINUTES.toMillis(1);
+
+        /**
+         * Timer of retries.
+         */
+        private static final ScheduledExecutorService TIMER =
+            Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "npm-meta-queue-retry");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            );
+
+        /**
+         * Maximum number of packages processed at once.
+         */
+        private final int workers;
+
+        /**
+         * Delay before the first retry in milliseconds, doubled by each next retry.
+         */
+        private final long delay;
+
+        /**
+         * Packages waiting for a worker.
+         */
+        private final Set<Package> waiting;
+
+        /**
+         * Packages which are processed now with completion of their processing.
+         */
+        private final Map<Package, CompletableFuture<Void>> running;
+
+        /**
+         * Processed packages which got new jobs.
+         */
+        private final Set<Package> dirty;
+
+        /**
+         * Listeners of the queue becoming idle.
+         */
+        private final List<CompletableFuture<Void>> idle;
+
+        /**
+         * Failed packages waiting for retry.
+         */
+        private final Set<Package> delayed;
+
+        /**
+         * Number of failed attempts of packages.
+         */
+        private final Map<Package, Integer> failures;
+
+        /**
+         * Ctor.
+         * @param workers Maximum number of packages processed at once
+         */
+        public Durable(final int workers) {
+            this(workers, Durable.DELAY);
+        }
+
+        /**
+         * Ctor.
+         * @param workers Maximum number of packages processed at once
+         * @param delay Delay before the first retry in milliseconds
+         */
+        public Durable(final int workers, final long delay) {
+            this.workers = workers;
+            this.delay = delay;
+            this.delayed = new HashSet<>();
+            this.failures = new HashMap<>();
+            this.waiting = new LinkedHashSet<>();
+            this.running = new HashMap<>();
+            this.dirty = new HashSet<>();
+            this.idle = new ArrayList<>(1);
+        }
+
+        @Override
+        public CompletableFuture<Void> enqueue(
+            final Storage storage, final Key pkg, final JsonObject uploaded
+        ) {
+            return storage.save(
+                new Key.From(
+                    Durable.jobs(pkg),
+                    String.format("%013d-%s.json", System.currentTimeMillis(), UUID.randomUUID())
+                ),
+                new Content.From(uploaded.toString().getBytes(StandardCharsets.UTF_8))
+            ).thenRun(() -> this.schedule(new Package(storage, pkg)));
+        }
+
+        @Override
+        public CompletableFuture<Void> cancel(final Storage storage, final Key pkg) {
+            final Package cancelled = new Package(storage, pkg);
+            final CompletableFuture<Void> processed;
+            synchronized (this) {
+                this.waiting.remove(cancelled);
+                this.dirty.remove(cancelled);
+                processed = this.running.getOrDefault(
+                    cancelled, CompletableFuture.allOf()
+                );
+            }
+            return processed.thenCompose(nothing -> storage.deleteAll(Durable.jobs(pkg)));
+        }
+
+        @Override
+        public CompletableFuture<Void> recover(final Storage storage) {
+            return storage.list(Durable.JOBS).thenAccept(
+                jobs -> jobs.stream()
+                    .map(job -> job.parent().get())
+                    .distinct()
+                    .forEach(
+                        dir -> this.schedule(
+                            new Package(
+                                storage, new Key.From(dir.parts().subList(1, dir.parts().size()))
+                            )
+                        )
+                    )
+            );
+        }
+
+        @Override
+        public CompletableFuture<Boolean> queued(
+            final Storage storage, final Key pkg, final String version
+        ) {
+            return new Package(storage, pkg).queued(version);
+        }
+
+        /**
+         * Wait until all scheduled packages are processed.
+         * @return Completion signal
+         */
+        public CompletableFuture<Void> idle() {
+            synchronized (this) {
+                final CompletableFuture<Void> res = new CompletableFuture<>();
+                if (this.waiting.isEmpty() && this.running.isEmpty()
+                    && this.delayed.isEmpty()) {
+                    res.complete(null);
+                } else {
+                    this.idle.add(res);
+                }
+                return res;
+            }
+        }
+
+        /**
+         * Schedule package processing, package which is already waiting
+         * is not scheduled again, package waiting for retry is processed now.
+         * @param pkg Package
+         */
+        private void schedule(final Package pkg) {
+            synchronized (this) {
+                this.delayed.remove(pkg);
+                if (this.running.containsKey(pkg)) {
+                    this.dirty.add(pkg);
+                } else {
+                    this.waiting.add(pkg);
+                }
+            }
+            this.drain();
+        }
+
+        /**
+         * Start processing of waiting packages while there are free workers.
+         */
+        private void drain() {
+            final List<Package> started = new ArrayList<>(1);
+            synchronized (this) {
+                final Iterator<Package> iter = this.waiting.iterator();
+                while (iter.hasNext() && this.running.size() < this.workers) {
+                    final Package pkg = iter.next();
+                    iter.remove();
+                    this.running.put(pkg, new CompletableFuture<>());
+                    started.add(pkg);
+                }
+            }
+            for (final Package pkg : started) {
+                pkg.process().handle(
+                    (nothing, err) -> {
+                        if (err != null) {
+                            Logger.warn(
+                                this, "Failed to update metadata of %s: %[exception]s",
+                                pkg.key.string(), err
+                            );
+                        }
+                        this.finished(pkg, err != null);
+                        return null;
+                    }
+                );
+            }
+        }
+
+        /**
+         * Release the worker of processed package, failed package is scheduled
+         * for retry, unless it got new jobs and is processed again now.
+         * @param pkg Package
+         * @param failed True if processing failed
+         */
+        private void finished(final Package pkg, final boolean failed) {
+            final List<CompletableFuture<Void>> done = new ArrayList<>(1);
+            long retry = -1;
+            synchronized (this) {
+                done.add(this.running.remove(pkg));
+                final int attempt;
+                if (failed) {
+                    attempt = this.failures.merge(pkg, 1, Integer::sum);
+                } else {
+                    attempt = 0;
+                    this.failures.remove(pkg);
+                }
+                if (this.dirty.remove(pkg)) {
+                    this.waiting.add(pkg);
+                } else if (attempt > Durable.RETRIES) {
+                    this.failures.remove(pkg);
+                } else if (attempt > 0) {
+                    this.delayed.add(pkg);
+                    retry = Math.min(this.delay << (attempt - 1), Durable.MAX_DELAY);
+                }
+                if (this.waiting.isEmpty() && this.running.isEmpty()
+                    && this.delayed.isEmpty()) {
+                    done.addAll(this.idle);
+                    this.idle.clear();
+                }
+            }
+            if (retry >= 0) {
+                Durable.TIMER.schedule(() -> this.retry(pkg), retry, TimeUnit.MILLISECONDS);
+            }
+            done.forEach(future -> future.complete(null));
+            this.drain();
+        }
+
+        /**
+         * Process failed package again, if it is still waiting for retry.
+         * @param pkg Package
+         */
+        private void retry(final Package pkg) {
+            final boolean pending;
+            synchronized (this) {
+                pending = this.delayed.contains(pkg);
+            }
+            if (pending) {
+                this.schedule(pkg);
+            }
+        }
+
+        /**
+         * Jobs directory of the package.
+         * @param pkg Package key
+         * @return Directory key
+         */
+        private static Key jobs(final Key pkg) {
+            return new Key.From(Durable.JOBS, pkg);
+        }
+
+        /**
+         * Published json of all jobs, versions and dist-tags of later jobs
+         * are added to ones of earlier jobs.
+         * @param jobs Published json of jobs in publishing order
+         * @return Published json
+         */
+        static JsonObject merged(final List<JsonObject> jobs) {
+            final JsonObjectBuilder res = Json.createObjectBuilder();
+            final JsonObjectBuilder versions = Json.createObjectBuilder();
+            final JsonObjectBuilder tags = Json.createObjectBuilder();
+            for (final JsonObject job : jobs) {
+                for (final Map.Entry<String, JsonValue> field : job.entrySet()) {
+                    if ("versions".equals(field.getKey())) {
+                        field.getValue().asJsonObject().forEach(versions::add);
+                    } else if ("dist-tags".equals(field.getKey())) {
+                        field.getValue().asJsonObject().forEach(tags::add);
+                    } else {
+                        res.add(field.getKey(), field.getValue());
+                    }
+                }
+            }
+            return res.add("versions", versions).add("dist-tags", tags).build();
+        }
+
+        /**
+         * Package with metadata update jobs.
+         * @since 1.0
+         */
+        private static final class Package {
+
+            /**
+             * Repository storage.
+             */
+            private final Storage storage;
+
+            /**
+             * Package key.
+             */
+            private final Key key;
+
+            /**
+             * Ctor.
+             * @param storage Repository storage
+             * @param key Package key
+             */
+            Package(final Storage storage, final Key key) {
+                this.storage = storage;
+                this.key = key;
+            }
+
+            /**
+             * Apply all pending jobs of the package with one metadata update
+             * and remove them.
+             * @return Completion or error signal
+             */
+            CompletableFuture<Void> process() {
+                return this.jobs().thenCompose(
+                    jobs -> {
+                        final CompletableFuture<Void> res;
+                        if (jobs.isEmpty()) {
+                            res = CompletableFuture.allOf();
+                        } else {
+                            res = this.read(jobs).thenCompose(
+                                uploaded -> new MetaUpdate.ByJson(Durable.merged(uploaded))
+                                    .update(this.key, this.storage)
+                            ).thenCompose(nothing -> this.delete(jobs));
+                        }
+                        return res;
+                    }
+                );
+            }
+
+            /**
+             * Check if any pending job of the package publishes the version, jobs which
+             * are removed while they are read are processed already.
+             * @param version Version
+             * @return True if version is published by pending job
+             */
+            CompletableFuture<Boolean> queued(final String version) {
+                return this.jobs().thenCompose(
+                    jobs -> {
+                        final List<CompletableFuture<Boolean>> found = jobs.stream().map(
+                            job -> new OptionalValue(this.storage).value(job).thenCompose(
+                                value -> value.map(
+                                    content -> new PublisherAs(content)
+                                        .string(StandardCharsets.UTF_8)
+                                        .thenApply(
+                                            str -> Json.createReader(new StringReader(str))
+                                                .readObject()
+                                                .getJsonObject("versions")
+                                        ).thenApply(
+                                            versions -> versions != null
+                                                && versions.containsKey(version)
+                                        ).toCompletableFuture()
+                                ).orElseGet(() -> CompletableFuture.completedFuture(false))
+                            )
+                        ).collect(Collectors.toList());
+                        return CompletableFuture.allOf(
+                            found.toArray(new CompletableFuture<?>[0])
+                        ).thenApply(
+                            nothing -> found.stream().anyMatch(CompletableFuture::join)
+                        );
+                    }
+                );
+            }
+
+            @Override
+            public boolean equals(final Object other) {
+                return this == other || other instanceof Package
+                    && this.key.equals(((Package) other).key);
+            }
+
+            @Override
+            public int hashCode() {
+                return this.key.hashCode();
+            }
+
+            /**
+             * Pending jobs of the package.
+             * @return Job keys in publishing order
+             */
+            private CompletableFuture<List<Key>> jobs() {
+                final Key dir = Durable.jobs(this.key);
+                return this.storage.list(dir).thenApply(
+                    found -> found.stream()
+                        .filter(job -> job.parent().map(dir::equals).orElse(false))
+                        .sorted(Key.CMP_STRING)
+                        .collect(Collectors.toList())
+                );
+            }
+
+            /**
+             * Read jobs.
+             * @param jobs Job keys
+             * @return Published json of jobs in the same order
+             */
+            private CompletableFuture<List<JsonObject>> read(final List<Key> jobs) {
+                final List<CompletableFuture<JsonObject>> reads = jobs.stream().map(
+                    job -> this.storage.value(job).thenCompose(
+                        value -> new PublisherAs(value).string(StandardCharsets.UTF_8)
+                    ).thenApply(
+                        str -> Json.createReader(new StringReader(str)).readObject()
+                    ).toCompletableFuture()
+                ).collect(Collectors.toList());
+                return CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0]))
+                    .thenApply(
+                        nothing -> reads.stream().map(CompletableFuture::join)
+                            .collect(Collectors.toList())
+                    );
+            }
+
+            /**
+             * Remove processed jobs.
+             * @param jobs Job keys
+             * @return Completion or error signal
+             */
+            private CompletableFuture<Void> delete(final Collection<Key> jobs) {
+                return CompletableFuture.allOf(
+                    jobs.stream().map(this.storage::delete).toArray(CompletableFuture<?>[]::new)
+                );
+            }
+        }
+    }
+}
@@ -4,20 +4,18 @@
  */
 package com.artipie.npm;
 
-import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.ext.ContentDigest;
-import com.artipie.asto.ext.Digests;
-import com.artipie.npm.misc.JsonFromPublisher;
-import hu.akarnokd.rxjava2.interop.SingleInterop;
-import java.util.Base64;
+import com.artipie.npm.semver.Versions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionStage;
 import javax.json.Json;
 import javax.json.JsonObject;
-import javax.json.JsonPatchBuilder;
-import org.apache.commons.codec.binary.Hex;
+import javax.json.JsonObjectBuilder;
 
 /**
  * Updating `meta.json` file.
@@ -51,116 +49,114 @@ public interface MetaUpdate {
             this.json = json;
         }
 
+        /**
+         * Versions published to existing package are appended to metadata journal,
+         * metadata of new package is created from published json.
+         * @param prefix The package prefix
+         * @param storage Abstract storage
+         * @return Completion or error signal.
+         */
         @Override
         public CompletableFuture<Void> update(final Key prefix, final Storage storage) {
-            final Key keymeta = new Key.From(prefix, "meta.json");
-            return storage.exists(keymeta)
-                .thenCompose(
-                    exists -> {
-                        final CompletionStage<Meta> meta;
-                        if (exists) {
-                            meta = storage.value(keymeta)
-                                .thenApply(JsonFromPublisher::new)
-                                .thenCompose(JsonFromPublisher::json)
-                                .thenApply(Meta::new);
-                        } else {
-                            meta = CompletableFuture.completedFuture(
+            final MetaFiles files = new MetaFiles(storage, prefix);
+            return files.append(this.json).thenCompose(
+                appended -> {
+                    final CompletableFuture<Void> res;
+                    if (appended) {
+                        res = CompletableFuture.allOf();
+                    } else {
+                        res = files.update(
+                            value -> Optional.of(
                                 new Meta(
-                                    new NpmPublishJsonToMetaSkelethon(this.json).skeleton()
-                                )
-                            );
-                        }
-                        return meta;
-                    })
-                .thenApply(meta -> meta.updatedMeta(this.json))
-                .thenCompose(
-                    meta -> storage.save(
-                        keymeta, new Content.From(meta.byteFlow())
-                    )
-                );
+                                    value.orElseGet(
+                                        () -> new NpmPublishJsonToMetaSkelethon(this.json)
+                                            .skeleton()
+                                    )
+                                ).updatedMeta(this.json).json()
+                            )
+                        ).thenCompose(meta -> CompletableFuture.allOf());
+                    }
+                    return res;
+                }
+            );
         }
     }
 
     /**
-     * Update `meta.json` by adding information from the package file
-     * from uploaded archive.
+     * Update `meta.json` by adding information from the package files
+     * from uploaded archives of one package.
      * @since 0.9
      */
     class ByTgz implements MetaUpdate {
         /**
-         * Uploaded tgz archive.
+         * Summaries of uploaded tgz archives.
          */
-        private final TgzArchive tgz;
+        private final Collection<TgzInspector.Summary> tgzs;
 
         /**
          * Ctor.
-         * @param tgz Uploaded tgz file
+         * @param tgz Summary of uploaded tgz file
          */
-        public ByTgz(final TgzArchive tgz) {
-            this.tgz = tgz;
+        public ByTgz(final TgzInspector.Summary tgz) {
+            this(Collections.singletonList(tgz));
+        }
+
+        /**
+         * Ctor.
+         * @param tgzs Summaries of uploaded tgz files of the same package, all versions
+         *  are added to metadata at once and the highest one is tagged as `latest`
+         */
+        public ByTgz(final Collection<TgzInspector.Summary> tgzs) {
+            this.tgzs = tgzs;
         }
 
         @Override
         public CompletableFuture<Void> update(final Key prefix, final Storage storage) {
-            final String version = "version";
-            final JsonPatchBuilder patch = Json.createPatchBuilder();
-            patch.add("/dist", Json.createObjectBuilder().build());
-            return ByTgz.hash(this.tgz, Digests.SHA512, true)
-                .thenAccept(sha -> patch.add("/dist/integrity", String.format("sha512-%s", sha)))
-                .thenCombine(
-                    ByTgz.hash(this.tgz, Digests.SHA1, false),
-                    (nothing, sha) -> patch.add("/dist/shasum", sha)
-                ).thenCombine(
-                    this.tgz.packageJson().to(SingleInterop.get()),
-                    (nothing, pkg) -> {
-                        final String name = pkg.getString("name");
-                        final String vers = pkg.getString(version);
-                        patch.add("/_id", String.format("%s@%s", name, vers));
-                        patch.add(
-                            "/dist/tarball",
-                            String.format("%s/-/%s-%s.tgz", prefix.string(), name, vers)
-                        );
-                        return patch.build().apply(pkg);
-                    }
-                )
-                .thenApply(
-                    json -> {
-                        final JsonObject base = new NpmPublishJsonToMetaSkelethon(json).skeleton();
-                        final String vers = json.getString(version);
-                        final JsonPatchBuilder upd = Json.createPatchBuilder();
-                        upd.add("/dist-tags", Json.createObjectBuilder().build());
-                        upd.add("/dist-tags/latest", vers);
-                        upd.add(String.format("/versions/%s", vers), json);
-                        return upd.build().apply(base);
-                    }
-                )
-                .thenCompose(json -> new ByJson(json).update(prefix, storage))
-                .toCompletableFuture();
+            final JsonObjectBuilder versions = Json.createObjectBuilder();
+            final List<String> published = new ArrayList<>(this.tgzs.size());
+            JsonObject first = null;
+            for (final TgzInspector.Summary tgz : this.tgzs) {
+                final JsonObject version = ByTgz.version(prefix, tgz);
+                versions.add(version.getString("version"), version);
+                published.add(version.getString("version"));
+                if (first == null) {
+                    first = version;
+                }
+            }
+            final JsonObjectBuilder tags = Json.createObjectBuilder();
+            new Versions(published).latest().ifPresent(latest -> tags.add("latest", latest));
+            return new ByJson(
+                Json.createObjectBuilder(new NpmPublishJsonToMetaSkelethon(first).skeleton())
+                    .add("dist-tags", tags)
+                    .add("versions", versions)
+                    .build()
+            ).update(prefix, storage);
         }
 
         /**
-         * Obtains specified hash value for passed archive.
-         * @param tgz Tgz archive
-         * @param dgst Digest mode
-         * @param encoded Is encoded64?
-         * @return Hash value.
+         * Version metadata from package json of uploaded archive.
+         * @param prefix The package prefix
+         * @param tgz Summary of uploaded tgz file
+         * @return Version json
          */
-        private static CompletionStage<String> hash(
-            final TgzArchive tgz, final Digests dgst, final boolean encoded
-        ) {
-            return new ContentDigest(new Content.From(tgz.bytes()), dgst)
-                .bytes()
-                .thenApply(
-                    bytes -> {
-                        final String res;
-                        if (encoded) {
-                            res = new String(Base64.getEncoder().encode(bytes));
-                        } else {
-                            res = Hex.encodeHexString(bytes);
-                        }
-                        return res;
-                    }
-                );
+        private static JsonObject version(final Key prefix, final TgzInspector.Summary tgz) {
+            final JsonObject pkg = tgz.packageJson();
+            final String name = pkg.getString("name");
+            final String vers = pkg.getString("version");
+            return Json.createObjectBuilder(pkg)
+                .add("_id", String.format("%s@%s", name, vers))
+                .add(
+                    "dist",
+                    Json.createObjectBuilder()
+                        .add("integrity", tgz.integrity())
+                        .add("shasum", tgz.shasum())
+                        .add(
+                            "tarball",
+                            String.format("%s/-/%s-%s.tgz", prefix.string(), name, vers)
+                        )
+                        .add("fileCount", tgz.fileCount())
+                        .add("unpackedSize", tgz.unpackedSize())
+                ).build();
         }
     }
 }
@@ -0,0 +1,309 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.ext.Digests;
+import com.google.common.io.BaseEncoding;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+
+/**
+ * HTTP validators of package metadata files: content `ETag` of each file and
+ * `Last-Modified` date taken from `time.modified` field of the metadata.
+ * Validators are computed when `meta.json` is written and are stored in
+ * a small sidecar file next to it, so conditional requests are answered
+ * without reading the metadata.
+ * <p>
+ * Metadata files are rendered with dist-tags from the dist-tags sidecar,
+ * so `ETag` covers both file content and dist-tags. Content digests are kept
+ * in validators, which allows to update validators when only dist-tags are
+ * changed, see {@link #tagged(JsonObject, Instant)}.
+ * <p>
+ * Versions published after metadata snapshot was written are kept in the
+ * metadata journal, see {@link MetaJournal}. Validators count journal records
+ * and keep a chained digest of them, which is included into `ETag`.
+ * @since 1.0
+ */
+public final class MetaValidators {
+
+    /**
+     * HTTP date format.
+     */
+    public static final DateTimeFormatter HTTP_DATE = DateTimeFormatter
+        .ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+        .withZone(ZoneOffset.UTC);
+
+    /**
+     * ETags field name.
+     */
+    private static final String ETAGS = "etags";
+
+    /**
+     * Content digests field name.
+     */
+    private static final String DIGESTS = "digests";
+
+    /**
+     * Last modified field name.
+     */
+    private static final String MODIFIED = "last-modified";
+
+    /**
+     * Version stamp field name.
+     */
+    private static final String STAMP = "stamp";
+
+    /**
+     * Journal field name.
+     */
+    private static final String JOURNAL = "journal";
+
+    /**
+     * Journal records number field name.
+     */
+    private static final String RECORDS = "records";
+
+    /**
+     * Journal records digest field name.
+     */
+    private static final String DIGEST = "digest";
+
+    /**
+     * Validators json, sidecar file content.
+     */
+    private final JsonObject json;
+
+    /**
+     * Ctor.
+     * @param json Validators json, sidecar file content
+     */
+    public MetaValidators(final JsonObject json) {
+        this.json = json;
+    }
+
+    /**
+     * Ctor.
+     * @param meta Package metadata, its dist-tags are included into ETags
+     * @param files Metadata files content by file name
+     */
+    public MetaValidators(final JsonObject meta, final Map<String, byte[]> files) {
+        this(MetaValidators.create(meta, files));
+    }
+
+    /**
+     * Quoted ETag of the metadata file.
+     * @param file Metadata file name
+     * @return ETag, empty if unknown
+     */
+    public Optional<String> etag(final String file) {
+        return Optional.ofNullable(this.json.getJsonObject(MetaValidators.ETAGS))
+            .filter(etags -> etags.containsKey(file))
+            .map(etags -> etags.getString(file));
+    }
+
+    /**
+     * Last modified date in HTTP date format.
+     * @return Date, empty if unknown
+     */
+    public Optional<String> lastModified() {
+        return Optional.ofNullable(this.json.getString(MetaValidators.MODIFIED, null));
+    }
+
+    /**
+     * Version stamp of package metadata, it is changed on every update
+     * of metadata or dist-tags, see {@link MetaFiles#update(java.util.function.Function)}.
+     * @return Stamp, empty if metadata was saved without stamp
+     */
+    public Optional<String> stamp() {
+        return Optional.ofNullable(this.json.getString(MetaValidators.STAMP, null));
+    }
+
+    /**
+     * Validators with the version stamp.
+     * @param stamp Version stamp
+     * @return Validators
+     */
+    public MetaValidators stamped(final String stamp) {
+        return new MetaValidators(
+            Json.createObjectBuilder(this.json).add(MetaValidators.STAMP, stamp).build()
+        );
+    }
+
+    /**
+     * Number of journal records, which are not folded into metadata snapshot yet.
+     * @return Number of records
+     */
+    public long journal() {
+        return Optional.ofNullable(this.json.getJsonObject(MetaValidators.JOURNAL))
+            .map(journal -> journal.getJsonNumber(MetaValidators.RECORDS).longValue())
+            .orElse(0L);
+    }
+
+    /**
+     * Validators of metadata with one more journal record.
+     * @param record Journal record content
+     * @param tags Dist-tags after the record was appended
+     * @param modified Time of record appending
+     * @return Validators, without ETags if content digests are unknown
+     */
+    public MetaValidators appended(
+        final byte[] record, final JsonObject tags, final Instant modified
+    ) {
+        final String digest = MetaValidators.sha256(
+            String.join(
+                " ",
+                this.journalDigest(),
+                MetaValidators.sha256(record)
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        return new MetaValidators(
+            Json.createObjectBuilder(this.json).add(
+                MetaValidators.JOURNAL,
+                Json.createObjectBuilder()
+                    .add(MetaValidators.RECORDS, this.journal() + 1)
+                    .add(MetaValidators.DIGEST, digest)
+            ).build()
+        ).tagged(tags, modified);
+    }
+
+    /**
+     * Validators of the same metadata files with changed dist-tags.
+     * @param tags New dist-tags
+     * @param modified Time of dist-tags modification
+     * @return Validators, without ETags if content digests are unknown
+     */
+    public MetaValidators tagged(final JsonObject tags, final Instant modified) {
+        final JsonObjectBuilder res = Json.createObjectBuilder()
+            .add(MetaValidators.MODIFIED, MetaValidators.HTTP_DATE.format(modified));
+        final JsonObject digests = this.json.getJsonObject(MetaValidators.DIGESTS);
+        if (digests != null) {
+            final JsonObjectBuilder etags = Json.createObjectBuilder();
+            for (final String file : digests.keySet()) {
+                final String digest;
+                if (this.journal() > 0) {
+                    digest = String.join(" ", digests.getString(file), this.journalDigest());
+                } else {
+                    digest = digests.getString(file);
+                }
+                etags.add(file, MetaValidators.etag(digest, tags));
+            }
+            res.add(MetaValidators.DIGESTS, digests).add(MetaValidators.ETAGS, etags);
+        }
+        final JsonObject journal = this.json.getJsonObject(MetaValidators.JOURNAL);
+        if (journal != null) {
+            res.add(MetaValidators.JOURNAL, journal);
+        }
+        return new MetaValidators(res.build());
+    }
+
+    /**
+     * Validators json, sidecar file content.
+     * @return Json object
+     */
+    public JsonObject json() {
+        return this.json;
+    }
+
+    /**
+     * Chained digest of journal records.
+     * @return Digest, empty string if journal is empty
+     */
+    private String journalDigest() {
+        return Optional.ofNullable(this.json.getJsonObject(MetaValidators.JOURNAL))
+            .map(journal -> journal.getString(MetaValidators.DIGEST))
+            .orElse("");
+    }
+
+    /**
+     * Compute validators json.
+     * @param meta Package metadata
+     * @param files Metadata files content by file name
+     * @return Validators json
+     */
+    private static JsonObject create(final JsonObject meta, final Map<String, byte[]> files) {
+        final JsonObject tags = Optional.ofNullable(meta.getJsonObject("dist-tags"))
+            .orElse(JsonValue.EMPTY_JSON_OBJECT);
+        final JsonObjectBuilder digests = Json.createObjectBuilder();
+        final JsonObjectBuilder etags = Json.createObjectBuilder();
+        for (final Map.Entry<String, byte[]> file : files.entrySet()) {
+            final String digest = MetaValidators.sha256(file.getValue());
+            digests.add(file.getKey(), digest);
+            etags.add(file.getKey(), MetaValidators.etag(digest, tags));
+        }
+        final JsonObjectBuilder res = Json.createObjectBuilder()
+            .add(MetaValidators.DIGESTS, digests)
+            .add(MetaValidators.ETAGS, etags);
+        final JsonObject time = meta.getJsonObject("time");
+        if (time != null && time.containsKey("modified")) {
+            try {
+                res.add(
+                    MetaValidators.MODIFIED,
+                    MetaValidators.HTTP_DATE.format(
+                        MetaValidators.instant(time.getString("modified"))
+                    )
+                );
+            } catch (final DateTimeParseException | ClassCastException ignored) {
+                // metadata without valid modification time has no Last-Modified validator
+            }
+        }
+        return res.build();
+    }
+
+    /**
+     * Quoted ETag of metadata file rendered with dist-tags.
+     * @param digest Metadata file content digest
+     * @param tags Dist-tags
+     * @return ETag
+     */
+    private static String etag(final String digest, final JsonObject tags) {
+        return String.format(
+            "\"%s\"",
+            MetaValidators.sha256(
+                String.join(" ", digest, tags.toString()).getBytes(StandardCharsets.UTF_8)
+            )
+        );
+    }
+
+    /**
+     * Hex encoded sha256 digest.
+     * @param bytes Bytes
+     * @return Digest
+     */
+    private static String sha256(final byte[] bytes) {
+        return BaseEncoding.base16().lowerCase().encode(Digests.SHA256.get().digest(bytes));
+    }
+
+    /**
+     * Parse metadata time: npm writes UTC instants, while this adapter writes
+     * local UTC date-time without offset, see {@link com.artipie.npm.misc.DateTimeNowStr}.
+     * @param time Metadata time
+     * @return Instant
+     */
+    private static Instant instant(final String time) {
+        final TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(
+            time, ZonedDateTime::from, LocalDateTime::from
+        );
+        final Instant res;
+        if (parsed instanceof ZonedDateTime) {
+            res = ((ZonedDateTime) parsed).toInstant();
+        } else {
+            res = ((LocalDateTime) parsed).toInstant(ZoneOffset.UTC);
+        }
+        return res;
+    }
+}
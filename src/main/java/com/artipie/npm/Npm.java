@@ -11,12 +11,15 @@ import com.artipie.asto.rx.RxStorage;
 import com.artipie.asto.rx.RxStorageWrapper;
 import com.artipie.npm.misc.JsonFromPublisher;
 import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import hu.akarnokd.rxjava2.interop.SingleInterop;
 import io.reactivex.Completable;
 import io.reactivex.Single;
+import java.nio.ByteBuffer;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import javax.json.JsonObject;
+import org.reactivestreams.Publisher;
 
 /**
  * The NPM front.
@@ -59,9 +62,15 @@ public class Npm implements Publish {
 
     @Override
     public final CompletableFuture<Void> publish(final Key prefix, final Key artifact) {
-        return this.storage.value(artifact)
-            .map(JsonFromPublisher::new)
-            .flatMap(JsonFromPublisher::jsonRx)
+        return this.storage.value(artifact).to(SingleInterop.get()).toCompletableFuture()
+            .thenCompose(value -> this.publish(prefix, value));
+    }
+
+    @Override
+    public final CompletableFuture<Void> publish(
+        final Key prefix, final Publisher<ByteBuffer> content
+    ) {
+        return new JsonFromPublisher(content).jsonRx()
             .flatMapCompletable(
                 uploaded -> this.updateMetaFile(prefix, uploaded)
                     .andThen(this.updateSourceArchives(uploaded))
@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.npm.misc.OptionalValue;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removal of package files, which is in progress after package metadata is removed.
+ * Removal is marked in storage by `.removal/{package}` entry with the time the mark
+ * expires, so package is not published again while its files are removed and new
+ * files are not removed with old ones. The mark is prolonged while files are removed
+ * and expires if removal was interrupted, e.g. by a crash, so the package can be
+ * published again later anyway.
+ * @since 1.0
+ */
+public final class PackageRemoval {
+
+    /**
+     * Directory of removal marks.
+     */
+    static final Key MARKS = new Key.From(".removal");
+
+    /**
+     * Default time to live of the mark in milliseconds.
+     */
+    private static final long TTL = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Package key.
+     */
+    private final Key pkg;
+
+    /**
+     * Time to live of the mark in milliseconds.
+     */
+    private final long ttl;
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     * @param pkg Package key
+     */
+    public PackageRemoval(final Storage storage, final Key pkg) {
+        this(storage, pkg, PackageRemoval.TTL);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     * @param pkg Package key
+     * @param ttl Time to live of the mark in milliseconds
+     */
+    public PackageRemoval(final Storage storage, final Key pkg, final long ttl) {
+        this.storage = storage;
+        this.pkg = pkg;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Mark removal as started or prolong the mark.
+     * @return Completion or error signal
+     */
+    public CompletableFuture<Void> mark() {
+        return this.storage.save(
+            this.key(),
+            new Content.From(
+                String.valueOf(System.currentTimeMillis() + this.ttl)
+                    .getBytes(StandardCharsets.US_ASCII)
+            )
+        );
+    }
+
+    /**
+     * Check if removal is in progress.
+     * @return True if package is marked and the mark has not expired
+     */
+    public CompletableFuture<Boolean> active() {
+        return new OptionalValue(this.storage).value(this.key()).thenCompose(
+            value -> {
+                final CompletableFuture<Boolean> res;
+                if (value.isPresent()) {
+                    res = new PublisherAs(value.get()).asciiString().thenApply(
+                        str -> Long.parseLong(str.trim()) > System.currentTimeMillis()
+                    ).toCompletableFuture();
+                } else {
+                    res = CompletableFuture.completedFuture(false);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Fail if removal is in progress, see {@link #active()}.
+     * @return Completion or {@link PackageRemovalException} error signal
+     */
+    public CompletableFuture<Void> check() {
+        return this.active().thenCompose(
+            active -> {
+                final CompletionStage<Void> res;
+                if (active) {
+                    res = new FailedCompletionStage<>(
+                        new PackageRemovalException(
+                            String.format(
+                                "Package %s is being removed, publish it later",
+                                this.pkg.string()
+                            )
+                        )
+                    );
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Remove the mark when removal is finished.
+     * @return Completion or error signal
+     */
+    public CompletableFuture<Void> finish() {
+        return new OptionalValue(this.storage).delete(this.key());
+    }
+
+    /**
+     * Key of the mark.
+     * @return Key
+     */
+    private Key key() {
+        return new Key.From(PackageRemoval.MARKS, this.pkg);
+    }
+}
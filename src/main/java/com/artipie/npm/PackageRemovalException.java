@@ -0,0 +1,27 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.ArtipieException;
+
+/**
+ * Package can not be published while its files are removed, see {@link PackageRemoval}.
+ * @since 1.0
+ */
+public final class PackageRemovalException extends ArtipieException {
+
+    /**
+     * Serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Ctor.
+     * @param message Error message
+     */
+    public PackageRemovalException(final String message) {
+        super(message);
+    }
+}
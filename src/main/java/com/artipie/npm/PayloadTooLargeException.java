@@ -0,0 +1,27 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.ArtipieException;
+
+/**
+ * Published content is larger than the size admitted for one request.
+ * @since 1.0
+ */
+public final class PayloadTooLargeException extends ArtipieException {
+
+    /**
+     * Serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Ctor.
+     * @param message Error message
+     */
+    public PayloadTooLargeException(final String message) {
+        super(message);
+    }
+}
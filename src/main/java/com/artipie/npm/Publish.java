@@ -5,7 +5,9 @@
 package com.artipie.npm;
 
 import com.artipie.asto.Key;
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
+import org.reactivestreams.Publisher;
 
 /**
  * The NPM publish front. Publish new packages in different ways
@@ -21,4 +23,14 @@ public interface Publish {
      * @return Completion or error signal.
      */
     CompletableFuture<Void> publish(Key prefix, Key artifact);
+
+    /**
+     * Publish a new version of a npm package from uploaded content
+     * without storing it first.
+     *
+     * @param prefix Path prefix for archives and meta information storage
+     * @param content Uploaded content
+     * @return Completion or error signal.
+     */
+    CompletableFuture<Void> publish(Key prefix, Publisher<ByteBuffer> content);
 }
@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.npm.misc.OptionalValue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Staging area of uploaded content: content is saved under `.staging` before it
+ * is verified and added to the package, see {@link TarballBlobs}. Staging keys start
+ * with the time they are created at, e.g. `.staging/1700000000000-{uuid}.tgz`, so
+ * content left by an upload which was interrupted, e.g. by a crash, is found by its
+ * age and removed by {@link #sweep()}.
+ * @since 1.0
+ */
+public final class Staging {
+
+    /**
+     * Staging area key.
+     */
+    static final Key ROOT = new Key.From(".staging");
+
+    /**
+     * Default age of staged content to sweep in milliseconds.
+     */
+    private static final long TTL = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Age of staged content to sweep in milliseconds.
+     */
+    private final long ttl;
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     */
+    public Staging(final Storage storage) {
+        this(storage, Staging.TTL);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     * @param ttl Age of staged content to sweep in milliseconds
+     */
+    public Staging(final Storage storage, final long ttl) {
+        this.storage = storage;
+        this.ttl = ttl;
+    }
+
+    /**
+     * New unique staging key.
+     * @param suffix Key suffix, e.g. `.tgz`
+     * @return Staging key
+     */
+    public static Key next(final String suffix) {
+        return new Key.From(
+            Staging.ROOT,
+            String.format(
+                "%d-%s%s", System.currentTimeMillis(), UUID.randomUUID().toString(), suffix
+            )
+        );
+    }
+
+    /**
+     * Remove staged content older than the age to sweep, content staged under keys
+     * without creation time is removed too.
+     * @return Completion or error signal
+     */
+    public CompletableFuture<Void> sweep() {
+        final long before = System.currentTimeMillis() - this.ttl;
+        return this.storage.list(Staging.ROOT).thenCompose(
+            keys -> CompletableFuture.allOf(
+                keys.stream().filter(key -> Staging.created(key) < before)
+                    .map(key -> new OptionalValue(this.storage).delete(key))
+                    .toArray(CompletableFuture<?>[]::new)
+            )
+        );
+    }
+
+    /**
+     * Time the staging key was created at.
+     * @param key Staged content key
+     * @return Time in milliseconds, zero if the key has no creation time
+     */
+    private static long created(final Key key) {
+        final String name = key.string().substring(Staging.ROOT.string().length() + 1);
+        final int idx = name.indexOf('-');
+        long res = 0;
+        if (idx > 0) {
+            try {
+                res = Long.parseLong(name.substring(0, idx));
+            } catch (final NumberFormatException ignored) {
+                res = 0;
+            }
+        }
+        return res;
+    }
+}
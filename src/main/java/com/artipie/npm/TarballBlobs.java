@@ -0,0 +1,333 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.npm.misc.KeyedQueue;
+import com.artipie.npm.misc.OptionalValue;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import javax.json.Json;
+import org.apache.commons.codec.binary.Hex;
+
+/**
+ * Content-addressed tarball storage. Tarball bytes are stored once as a blob keyed
+ * by SHA-512 digest, e.g. `.blobs/ab/abcd...ef/data.tgz`, and every tarball key of a
+ * package, e.g. `pkg/-/pkg-1.0.0.tgz`, is a small reference entry next to it,
+ * `pkg/-/pkg-1.0.0.tgz.ref`, which keeps the integrity of the blob. The blob keeps
+ * a marker for every reference to it in `refs` directory, blob is removed when
+ * its last reference is removed, so the number of references is the number of listed
+ * markers. Tarballs saved before blobs were introduced are stored as is under
+ * tarball keys and have no reference entries.
+ * <p>
+ * Adding and removing references of the same blob are queued in-process, so a blob
+ * is never removed while it is referenced by this adapter instance.
+ * @since 1.0
+ */
+public final class TarballBlobs {
+
+    /**
+     * Directory of blobs.
+     */
+    static final Key BLOBS = new Key.From(".blobs");
+
+    /**
+     * Reference entry suffix.
+     */
+    private static final String REF = ".ref";
+
+    /**
+     * Integrity json field.
+     */
+    private static final String INTEGRITY = "integrity";
+
+    /**
+     * In-process queue of blob updates.
+     */
+    private static final KeyedQueue LOCAL = new KeyedQueue();
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     */
+    public TarballBlobs(final Storage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Add tarball from staged content: staged content becomes the blob, or is removed
+     * if the blob with the same content is stored already, and tarball key references
+     * the blob. If tarball key referenced another blob, that reference is released.
+     * If adding fails, the reference marker of the blob is released, so the blob
+     * is not kept for a tarball which does not reference it.
+     * @param tarball Tarball key
+     * @param staged Key of staged tarball content
+     * @param integrity Subresource integrity string with SHA-512 digest of the tarball,
+     *  e.g. `sha512-...`
+     * @return Completion or error signal.
+     */
+    public CompletableFuture<Void> add(
+        final Key tarball, final Key staged, final String integrity
+    ) {
+        final Key blob = TarballBlobs.blob(integrity);
+        return this.integrity(tarball).thenCompose(
+            previous -> TarballBlobs.LOCAL.run(
+                Arrays.asList(this.storage, blob.string()),
+                () -> this.storage.save(
+                    new Key.From(blob, "refs", TarballBlobs.marker(tarball)), Content.EMPTY
+                ).thenCompose(
+                    nothing -> this.storage.exists(new Key.From(blob, "data.tgz"))
+                ).thenCompose(
+                    exists -> {
+                        final CompletableFuture<Void> res;
+                        if (exists) {
+                            res = this.storage.delete(staged);
+                        } else {
+                            res = this.storage.move(staged, new Key.From(blob, "data.tgz"));
+                        }
+                        return res;
+                    }
+                )
+            ).thenCompose(
+                nothing -> this.storage.save(
+                    TarballBlobs.ref(tarball),
+                    new Content.From(
+                        Json.createObjectBuilder().add(TarballBlobs.INTEGRITY, integrity)
+                            .build().toString().getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            ).handle(
+                (nothing, err) -> {
+                    final CompletionStage<Void> res;
+                    if (err == null) {
+                        res = previous.filter(sri -> !sri.equals(integrity)).map(
+                            sri -> TarballBlobs.LOCAL.run(
+                                Arrays.asList(this.storage, TarballBlobs.blob(sri).string()),
+                                () -> this.release(TarballBlobs.blob(sri), tarball)
+                            )
+                        ).orElseGet(CompletableFuture::allOf);
+                    } else if (previous.filter(integrity::equals).isPresent()) {
+                        res = new FailedCompletionStage<>(err);
+                    } else {
+                        res = TarballBlobs.LOCAL.run(
+                            Arrays.asList(this.storage, blob.string()),
+                            () -> this.release(blob, tarball)
+                        ).handle((ignored, failed) -> ignored).thenCompose(
+                            ignored -> new FailedCompletionStage<>(err)
+                        );
+                    }
+                    return res;
+                }
+            ).thenCompose(Function.identity())
+        );
+    }
+
+    /**
+     * Key of tarball content: the blob if tarball key references it, otherwise
+     * the tarball key itself.
+     * @param tarball Tarball key
+     * @return Content key
+     */
+    public CompletableFuture<Key> content(final Key tarball) {
+        return this.integrity(tarball).thenApply(
+            integrity -> integrity.map(TarballBlobs::data).orElse(tarball)
+        );
+    }
+
+    /**
+     * Check the tarball exists: it references a blob or is stored as is.
+     * @param tarball Tarball key
+     * @return True if tarball exists
+     */
+    public CompletableFuture<Boolean> exists(final Key tarball) {
+        return this.storage.exists(TarballBlobs.ref(tarball)).thenCompose(
+            ref -> {
+                final CompletableFuture<Boolean> res;
+                if (ref) {
+                    res = CompletableFuture.completedFuture(true);
+                } else {
+                    res = this.storage.exists(tarball);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Remove tarball: reference entry and the blob, if it has no other references,
+     * or the tarball itself if it is not content-addressed.
+     * @param tarball Tarball key
+     * @return Completion or error signal.
+     */
+    public CompletableFuture<Void> remove(final Key tarball) {
+        return this.integrity(tarball).thenCompose(
+            integrity -> {
+                final CompletableFuture<Void> res;
+                if (integrity.isPresent()) {
+                    final Key blob = TarballBlobs.blob(integrity.get());
+                    res = this.storage.delete(TarballBlobs.ref(tarball)).thenCompose(
+                        nothing -> TarballBlobs.LOCAL.run(
+                            Arrays.asList(this.storage, blob.string()),
+                            () -> this.release(blob, tarball)
+                        )
+                    );
+                } else {
+                    res = this.storage.exists(tarball).thenCompose(
+                        exists -> {
+                            final CompletableFuture<Void> del;
+                            if (exists) {
+                                del = this.storage.delete(tarball);
+                            } else {
+                                del = CompletableFuture.allOf();
+                            }
+                            return del;
+                        }
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Reference entry key of the tarball.
+     * @param tarball Tarball key
+     * @return Reference entry key
+     */
+    public static Key ref(final Key tarball) {
+        return new Key.From(String.format("%s%s", tarball.string(), TarballBlobs.REF));
+    }
+
+    /**
+     * Tarball key of reference entry.
+     * @param key Storage key
+     * @return Tarball key, empty if the key is not a reference entry
+     */
+    public static Optional<Key> tarball(final Key key) {
+        final Optional<Key> res;
+        if (key.string().endsWith(TarballBlobs.REF)) {
+            res = Optional.of(
+                new Key.From(
+                    key.string().substring(0, key.string().length() - TarballBlobs.REF.length())
+                )
+            );
+        } else {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * Remove reference marker from the blob and remove the blob if it was
+     * the last reference.
+     * @param blob Blob key
+     * @param tarball Tarball key
+     * @return Completion or error signal.
+     */
+    private CompletableFuture<Void> release(final Key blob, final Key tarball) {
+        final Key marker = new Key.From(blob, "refs", TarballBlobs.marker(tarball));
+        return this.storage.exists(marker).thenCompose(
+            exists -> {
+                final CompletableFuture<Void> res;
+                if (exists) {
+                    res = this.storage.delete(marker);
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        ).thenCompose(
+            nothing -> this.storage.list(new Key.From(blob, "refs"))
+        ).thenCompose(
+            refs -> {
+                final CompletableFuture<Void> res;
+                if (refs.isEmpty()) {
+                    res = this.storage.deleteAll(blob);
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Read integrity of the blob the tarball references.
+     * @param tarball Tarball key
+     * @return Integrity, empty if tarball key is not a reference
+     */
+    public CompletableFuture<Optional<String>> integrity(final Key tarball) {
+        return new OptionalValue(this.storage).value(TarballBlobs.ref(tarball)).thenCompose(
+            value -> {
+                final CompletableFuture<Optional<String>> res;
+                if (value.isPresent()) {
+                    res = new PublisherAs(value.get()).string(StandardCharsets.UTF_8)
+                        .thenApply(
+                            str -> Optional.of(
+                                Json.createReader(new StringReader(str)).readObject()
+                                    .getString(TarballBlobs.INTEGRITY)
+                            )
+                        ).toCompletableFuture();
+                } else {
+                    res = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Key of blob content by integrity.
+     * @param integrity Subresource integrity string with SHA-512 digest
+     * @return Content key
+     */
+    public static Key data(final String integrity) {
+        return new Key.From(TarballBlobs.blob(integrity), "data.tgz");
+    }
+
+    /**
+     * Blob key by integrity.
+     * @param integrity Subresource integrity string with SHA-512 digest
+     * @return Blob key
+     */
+    private static Key blob(final String integrity) {
+        if (!integrity.startsWith("sha512-")) {
+            throw new ArtipieException(
+                String.format("Integrity `%s` has no SHA-512 digest", integrity)
+            );
+        }
+        final String hex = Hex.encodeHexString(
+            Base64.getDecoder().decode(integrity.substring("sha512-".length()))
+        );
+        return new Key.From(TarballBlobs.BLOBS, hex.substring(0, 2), hex);
+    }
+
+    /**
+     * Reference marker name of the tarball.
+     * @param tarball Tarball key
+     * @return Marker name
+     */
+    private static String marker(final Key tarball) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+            tarball.string().getBytes(StandardCharsets.UTF_8)
+        );
+    }
+}
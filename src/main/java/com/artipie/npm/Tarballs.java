@@ -4,24 +4,25 @@
  */
 package com.artipie.npm;
 
-import com.artipie.asto.Concatenation;
 import com.artipie.asto.Content;
 import io.reactivex.Flowable;
-import java.io.StringReader;
 import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 import javax.json.Json;
-import javax.json.JsonObject;
-import javax.json.JsonPatchBuilder;
 
 /**
  * Prepends all tarball references in the package metadata json with the prefix to build
  * absolute URL: /@scope/package-name -&gt; http://host:port/base-path/@scope/package-name.
+ * <p>
+ * Metadata is not parsed into json object: the content is scanned token by token,
+ * original chunks are passed through as is and the prefix is inserted
+ * at the beginning of `versions.*.dist.tarball` values. Memory usage does not depend
+ * on metadata size.
  * @since 0.6
  */
-@SuppressWarnings("PMD.AvoidDuplicateLiterals")
 public final class Tarballs {
 
     /**
@@ -49,45 +50,211 @@ public final class Tarballs {
      * @return Modified content with prepended URLs
      */
     public Content value() {
+        final String escaped = Json.createValue(this.prefix.toString().replaceAll("/$", ""))
+            .toString();
+        final byte[] insert = escaped.substring(1, escaped.length() - 1)
+            .getBytes(StandardCharsets.UTF_8);
         return new Content.From(
-            new Concatenation(this.original)
-                .single()
-                .map(ByteBuffer::array)
-                .map(bytes -> new String(bytes, StandardCharsets.UTF_8))
-                .map(json -> Json.createReader(new StringReader(json)).readObject())
-                .map(json -> Tarballs.updateJson(json, this.prefix.toString()))
-                .flatMapPublisher(
-                    json -> new Content.From(
-                        Flowable.fromArray(
-                            ByteBuffer.wrap(
-                                json.toString().getBytes(StandardCharsets.UTF_8)
-                            )
-                        )
-                    )
-                )
+            Flowable.defer(
+                () -> {
+                    final Splice splice = new Splice(insert);
+                    return Flowable.fromPublisher(this.original)
+                        .concatMapIterable(splice::process);
+                }
+            )
         );
     }
 
     /**
-     * Replaces tarball links with absolute paths based on prefix.
-     * @param original Original JSON object
-     * @param prefix Links prefix
-     * @return Transformed JSON object
+     * Json scanner, which inserts bytes at the beginning of `versions.*.dist.tarball`
+     * string values. It keeps only current nesting depth and the length of the matched
+     * path, so it works with json split into chunks at any position.
+     * @since 1.0
+     * @checkstyle CyclomaticComplexityCheck (200 lines)
      */
-    private static JsonObject updateJson(final JsonObject original, final String prefix) {
-        final JsonPatchBuilder builder = Json.createPatchBuilder();
-        final Set<String> versions = original.getJsonObject("versions").keySet();
-        for (final String version : versions) {
-            builder.add(
-                String.format("/versions/%s/dist/tarball", version),
-                String.join(
-                    "",
-                    prefix.replaceAll("/$", ""),
-                    original.getJsonObject("versions").getJsonObject(version)
-                        .getJsonObject("dist").getString("tarball")
-                )
-            );
+    private static final class Splice {
+
+        /**
+         * Path to the tarball field, `null` matches any key.
+         */
+        private static final byte[][] PATH = {
+            "versions".getBytes(StandardCharsets.US_ASCII),
+            null,
+            "dist".getBytes(StandardCharsets.US_ASCII),
+            "tarball".getBytes(StandardCharsets.US_ASCII),
+        };
+
+        /**
+         * Bytes to insert.
+         */
+        private final byte[] insert;
+
+        /**
+         * Current nesting depth.
+         */
+        private int depth;
+
+        /**
+         * Number of enclosing objects which match the path.
+         */
+        private int match;
+
+        /**
+         * Scanner is inside a string.
+         */
+        private boolean string;
+
+        /**
+         * Previous byte was an escape char.
+         */
+        private boolean escape;
+
+        /**
+         * Current string is a key of the matched object.
+         */
+        private boolean key;
+
+        /**
+         * Position in the expected key.
+         */
+        private int pos;
+
+        /**
+         * Current key is still equal to the expected one.
+         */
+        private boolean equal;
+
+        /**
+         * Last key of the matched object is equal to the expected one.
+         */
+        private boolean found;
+
+        /**
+         * Next string in the matched object is a key.
+         */
+        private boolean expectkey;
+
+        /**
+         * Ctor.
+         * @param insert Bytes to insert
+         */
+        Splice(final byte[] insert) {
+            this.insert = insert;
+        }
+
+        /**
+         * Process next chunk.
+         * @param chunk Chunk of json
+         * @return Chunk parts with inserted bytes
+         */
+        List<ByteBuffer> process(final ByteBuffer chunk) {
+            final List<ByteBuffer> res = new ArrayList<>(1);
+            int start = chunk.position();
+            for (int idx = chunk.position(); idx < chunk.limit(); idx = idx + 1) {
+                if (this.next(chunk.get(idx))) {
+                    res.add(Splice.slice(chunk, start, idx + 1));
+                    res.add(ByteBuffer.wrap(this.insert).asReadOnlyBuffer());
+                    start = idx + 1;
+                }
+            }
+            if (start < chunk.limit()) {
+                res.add(Splice.slice(chunk, start, chunk.limit()));
+            }
+            return res;
+        }
+
+        /**
+         * Process next byte.
+         * @param chr Byte
+         * @return True if bytes should be inserted after this byte
+         */
+        private boolean next(final byte chr) {
+            boolean res = false;
+            if (this.string) {
+                this.inString(chr);
+            } else if (chr == '"') {
+                this.string = true;
+                if (this.onPath() && this.expectkey) {
+                    this.key = true;
+                    this.pos = 0;
+                    this.equal = true;
+                } else {
+                    this.key = false;
+                    res = this.onPath() && this.match == Splice.PATH.length && this.found;
+                    this.found = false;
+                }
+            } else if (chr == '{') {
+                if (this.depth == 0 || this.onPath() && this.found
+                    && this.match < Splice.PATH.length) {
+                    this.match = this.depth + 1;
+                }
+                this.depth = this.depth + 1;
+                this.expectkey = true;
+                this.found = false;
+            } else if (chr == '[') {
+                this.depth = this.depth + 1;
+                this.found = false;
+            } else if (chr == '}' || chr == ']') {
+                this.depth = this.depth - 1;
+                this.match = Math.min(this.match, this.depth);
+                this.found = false;
+            } else if (chr == ':') {
+                this.expectkey = false;
+            } else if (chr == ',') {
+                this.expectkey = true;
+                this.found = false;
+            }
+            return res;
+        }
+
+        /**
+         * Process byte inside a string.
+         * @param chr Byte
+         */
+        private void inString(final byte chr) {
+            if (this.escape) {
+                this.escape = false;
+                this.equal = false;
+            } else if (chr == '\\') {
+                this.escape = true;
+            } else if (chr == '"') {
+                this.string = false;
+                if (this.key) {
+                    final byte[] expected = Splice.PATH[this.match - 1];
+                    this.found = expected == null || this.equal && this.pos == expected.length;
+                }
+            } else if (this.key) {
+                final byte[] expected = Splice.PATH[this.match - 1];
+                if (expected != null) {
+                    if (this.pos < expected.length && expected[this.pos] == chr) {
+                        this.pos = this.pos + 1;
+                    } else {
+                        this.equal = false;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Scanner is directly inside the object matching the path.
+         * @return True if current object is on path
+         */
+        private boolean onPath() {
+            return this.match > 0 && this.depth == this.match;
+        }
+
+        /**
+         * Slice of the buffer.
+         * @param buf Buffer
+         * @param from Start position
+         * @param till End position
+         * @return Slice
+         */
+        private static ByteBuffer slice(final ByteBuffer buf, final int from, final int till) {
+            final ByteBuffer res = buf.duplicate();
+            res.limit(till);
+            res.position(from);
+            return res.slice();
         }
-        return builder.build().apply(original);
     }
 }
@@ -4,26 +4,14 @@
  */
 package com.artipie.npm;
 
-import com.artipie.ArtipieException;
-import com.artipie.asto.ArtipieIOException;
-import com.artipie.asto.Concatenation;
-import com.artipie.asto.Content;
-import com.artipie.asto.Remaining;
 import io.reactivex.Completable;
 import io.reactivex.Single;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.StringReader;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Base64;
-import javax.json.Json;
 import javax.json.JsonObject;
-import org.apache.commons.compress.archivers.ArchiveEntry;
-import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
-import org.apache.commons.io.IOUtils;
 
 /**
  * A .tgz archive.
@@ -88,40 +76,12 @@ public final class TgzArchive {
     }
 
     /**
-     * Obtains package.json from archive.
+     * Obtains package.json from the root directory of the archive.
      * @return Json object from package.json file from archive.
      */
     public Single<JsonObject> packageJson() {
-        return this.file("package.json")
-            .map(Concatenation::new)
-            .flatMap(Concatenation::single)
-            .map(Remaining::new)
-            .map(Remaining::bytes)
-            .map(bytes -> Json.createReader(new StringReader(new String(bytes))).readObject());
-    }
-
-    /**
-     * Obtain file by name.
-     * @param name The name of a file.
-     * @return The file content.
-     */
-    @SuppressWarnings("PMD.AssignmentInOperand")
-    private Single<Content> file(final String name) {
-        try (
-            ByteArrayInputStream bytearr = new ByteArrayInputStream(this.bytes());
-            GzipCompressorInputStream gzip = new GzipCompressorInputStream(bytearr);
-            TarArchiveInputStream tar = new TarArchiveInputStream(gzip)
-        ) {
-            ArchiveEntry entry;
-            while ((entry = tar.getNextTarEntry()) != null) {
-                final String[] parts = entry.getName().split("/");
-                if (parts[parts.length - 1].equals(name)) {
-                    return Single.just(new Content.From(IOUtils.toByteArray(tar)));
-                }
-            }
-            throw new ArtipieException(String.format("'%s' file was not found", name));
-        } catch (final IOException exc) {
-            throw new ArtipieIOException(exc);
-        }
+        final TgzScanner scanner = new TgzScanner();
+        scanner.accept(ByteBuffer.wrap(this.bytes()));
+        return Single.just(scanner.summary().packageJson());
     }
 }
@@ -0,0 +1,159 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import javax.json.JsonObject;
+import org.reactivestreams.Publisher;
+
+/**
+ * Single-pass inspector of a .tgz package archive. The archive is read once:
+ * it is digested with SHA-1 and SHA-512, inflated and parsed as tar on the fly
+ * to count files, sum their sizes and extract `package.json` from the root
+ * directory of the archive, e.g. `package/package.json`. Archive bytes can be
+ * saved to storage while they are inspected.
+ * @since 1.0
+ */
+public final class TgzInspector {
+
+    /**
+     * Archive content.
+     */
+    private final Publisher<ByteBuffer> content;
+
+    /**
+     * Ctor.
+     * @param content Archive content
+     */
+    public TgzInspector(final Publisher<ByteBuffer> content) {
+        this.content = content;
+    }
+
+    /**
+     * Inspect the archive.
+     * @return Archive summary
+     */
+    public CompletableFuture<Summary> inspect() {
+        final TgzScanner scanner = new TgzScanner();
+        return Flowable.fromPublisher(this.content)
+            .doOnNext(scanner::accept)
+            .ignoreElements()
+            .to(CompletableInterop.await())
+            .toCompletableFuture()
+            .thenApply(nothing -> scanner.summary());
+    }
+
+    /**
+     * Save the archive to storage and inspect it while it is saved.
+     * @param storage Storage to save the archive to
+     * @param key Archive key
+     * @return Archive summary
+     */
+    public CompletableFuture<Summary> save(final Storage storage, final Key key) {
+        final TgzScanner scanner = new TgzScanner();
+        return storage.save(
+            key, new Content.From(Flowable.fromPublisher(this.content).doOnNext(scanner::accept))
+        ).thenApply(nothing -> scanner.summary());
+    }
+
+    /**
+     * Summary of the inspected archive.
+     * @since 1.0
+     */
+    public static final class Summary {
+
+        /**
+         * Hex encoded SHA-1 digest.
+         */
+        private final String shasum;
+
+        /**
+         * Subresource integrity string with SHA-512 digest.
+         */
+        private final String integrity;
+
+        /**
+         * Number of files.
+         */
+        private final int files;
+
+        /**
+         * Total size of files.
+         */
+        private final long unpacked;
+
+        /**
+         * Package json.
+         */
+        private final JsonObject pkg;
+
+        /**
+         * Ctor.
+         * @param shasum Hex encoded SHA-1 digest
+         * @param integrity Subresource integrity string with SHA-512 digest
+         * @param files Number of files
+         * @param unpacked Total size of files
+         * @param pkg Package json
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Summary(
+            final String shasum, final String integrity, final int files,
+            final long unpacked, final JsonObject pkg
+        ) {
+            this.shasum = shasum;
+            this.integrity = integrity;
+            this.files = files;
+            this.unpacked = unpacked;
+            this.pkg = pkg;
+        }
+
+        /**
+         * Hex encoded SHA-1 digest of the archive, `dist.shasum` field value.
+         * @return SHA-1 digest
+         */
+        public String shasum() {
+            return this.shasum;
+        }
+
+        /**
+         * Subresource integrity string with SHA-512 digest of the archive,
+         * `dist.integrity` field value.
+         * @return Integrity string
+         */
+        public String integrity() {
+            return this.integrity;
+        }
+
+        /**
+         * Number of files in the archive, `dist.fileCount` field value.
+         * @return Number of files
+         */
+        public int fileCount() {
+            return this.files;
+        }
+
+        /**
+         * Total size of files in the archive, `dist.unpackedSize` field value.
+         * @return Size in bytes
+         */
+        public long unpackedSize() {
+            return this.unpacked;
+        }
+
+        /**
+         * Package json from the root directory of the archive.
+         * @return Package json
+         */
+        public JsonObject packageJson() {
+            return this.pkg;
+        }
+    }
+}
@@ -0,0 +1,676 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.ext.Digests;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.apache.commons.codec.binary.Hex;
+
+/**
+ * Push-mode scanner of a .tgz archive. Archive chunks are passed to the scanner
+ * as they arrive: each chunk is digested, inflated and the inflated bytes are
+ * parsed as tar entries, nothing but `package.json` content is kept in memory.
+ * @since 1.0
+ * @checkstyle CyclomaticComplexityCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+final class TgzScanner {
+
+    /**
+     * Gzip fixed header size.
+     */
+    private static final int HEADER = 10;
+
+    /**
+     * Gzip trailer size: CRC32 and size of inflated data.
+     */
+    private static final int TRAILER = 8;
+
+    /**
+     * Inflated bytes buffer size.
+     */
+    private static final int BUFFER = 64 * 1024;
+
+    /**
+     * SHA-1 digest of the archive.
+     */
+    private final MessageDigest sha1;
+
+    /**
+     * SHA-512 digest of the archive.
+     */
+    private final MessageDigest sha512;
+
+    /**
+     * Inflater of current gzip member.
+     */
+    private final Inflater inflater;
+
+    /**
+     * Checksum of inflated data of current gzip member.
+     */
+    private final CRC32 crc;
+
+    /**
+     * Inflated bytes buffer.
+     */
+    private final byte[] output;
+
+    /**
+     * Pending bytes of gzip header or trailer.
+     */
+    private final ByteArrayOutputStream frame;
+
+    /**
+     * Tar entries parser.
+     */
+    private final Tar tar;
+
+    /**
+     * Archive chunk buffer.
+     */
+    private byte[] input;
+
+    /**
+     * Current stage.
+     */
+    private Stage stage;
+
+    /**
+     * Size of inflated data of current gzip member.
+     */
+    private long inflated;
+
+    /**
+     * Number of archive bytes.
+     */
+    private long received;
+
+    /**
+     * Number of complete gzip members.
+     */
+    private int members;
+
+    /**
+     * Ctor.
+     */
+    TgzScanner() {
+        this.sha1 = Digests.SHA1.get();
+        this.sha512 = Digests.SHA512.get();
+        this.inflater = new Inflater(true);
+        this.crc = new CRC32();
+        this.output = new byte[TgzScanner.BUFFER];
+        this.frame = new ByteArrayOutputStream(TgzScanner.HEADER);
+        this.tar = new Tar();
+        this.input = new byte[0];
+        this.stage = Stage.HEADER;
+    }
+
+    /**
+     * Scan next archive chunk, the chunk position is not changed.
+     * @param chunk Archive chunk
+     */
+    void accept(final ByteBuffer chunk) {
+        final int len = chunk.remaining();
+        if (this.input.length < len) {
+            this.input = new byte[len];
+        }
+        chunk.duplicate().get(this.input, 0, len);
+        this.sha1.update(this.input, 0, len);
+        this.sha512.update(this.input, 0, len);
+        this.received = this.received + len;
+        int pos = 0;
+        while (pos < len) {
+            if (this.stage == Stage.HEADER) {
+                pos = this.header(pos, len);
+            } else if (this.stage == Stage.DATA) {
+                pos = this.inflate(pos, len);
+            } else if (this.stage == Stage.TRAILER) {
+                pos = this.trailer(pos, len);
+            } else {
+                pos = len;
+            }
+        }
+    }
+
+    /**
+     * Summary of the scanned archive, should be obtained once
+     * after all chunks are scanned: the scanner can not be used after that.
+     * @return Archive summary
+     * @throws ArtipieException If archive is incomplete
+     * @throws InvalidPackageException If archive has no `package.json` or
+     *  `package.json` has no package name or version
+     */
+    TgzInspector.Summary summary() {
+        this.inflater.end();
+        if (this.received == 0) {
+            throw new ArtipieIOException("Input is not in the .gz format");
+        }
+        final boolean gzip = this.stage == Stage.END
+            || this.stage == Stage.HEADER && this.frame.size() == 0;
+        if (this.members == 0 || !gzip || !this.tar.complete()) {
+            throw new ArtipieException("Archive is incomplete");
+        }
+        final byte[] pkg = this.tar.pkg;
+        if (pkg == null) {
+            throw new InvalidPackageException("'package.json' file was not found");
+        }
+        final JsonObject json = Json.createReader(new ByteArrayInputStream(pkg)).readObject();
+        for (final String field : new String[] {"name", "version"}) {
+            if (json.getJsonString(field) == null) {
+                throw new InvalidPackageException(
+                    String.format("'package.json' has no '%s' string field", field)
+                );
+            }
+        }
+        return new TgzInspector.Summary(
+            Hex.encodeHexString(this.sha1.digest()),
+            String.format(
+                "sha512-%s", Base64.getEncoder().encodeToString(this.sha512.digest())
+            ),
+            this.tar.files,
+            this.tar.unpacked,
+            json
+        );
+    }
+
+    /**
+     * Collect gzip member header.
+     * @param from Start position in input buffer
+     * @param till End position in input buffer
+     * @return Position of the first byte after the header or end position
+     */
+    private int header(final int from, final int till) {
+        this.frame.write(this.input, from, till - from);
+        final byte[] bytes = this.frame.toByteArray();
+        int res = till;
+        if (bytes.length >= 2 && (bytes[0] != (byte) 0x1f || bytes[1] != (byte) 0x8b)) {
+            if (this.members == 0) {
+                throw new ArtipieIOException("Input is not in the .gz format");
+            }
+            this.frame.reset();
+            this.stage = Stage.END;
+        } else {
+            final int len = TgzScanner.headerLength(bytes);
+            if (len > 0) {
+                res = till - (bytes.length - len);
+                this.frame.reset();
+                this.stage = Stage.DATA;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Inflate gzip member data.
+     * @param from Start position in input buffer
+     * @param till End position in input buffer
+     * @return Position of the first byte after the data or end position
+     */
+    private int inflate(final int from, final int till) {
+        this.inflater.setInput(this.input, from, till - from);
+        int res = till;
+        while (true) {
+            final int count;
+            try {
+                count = this.inflater.inflate(this.output);
+            } catch (final DataFormatException err) {
+                throw new ArtipieIOException(err);
+            }
+            if (count > 0) {
+                this.crc.update(this.output, 0, count);
+                this.inflated = this.inflated + count;
+                this.tar.accept(this.output, count);
+            }
+            if (this.inflater.finished()) {
+                res = till - this.inflater.getRemaining();
+                this.stage = Stage.TRAILER;
+                break;
+            }
+            if (this.inflater.needsDictionary()) {
+                throw new ArtipieIOException("Gzip data requires preset dictionary");
+            }
+            if (count == 0 && this.inflater.needsInput()) {
+                break;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Collect and check gzip member trailer.
+     * @param from Start position in input buffer
+     * @param till End position in input buffer
+     * @return Position of the first byte after the trailer or end position
+     */
+    private int trailer(final int from, final int till) {
+        final int take = Math.min(TgzScanner.TRAILER - this.frame.size(), till - from);
+        this.frame.write(this.input, from, take);
+        if (this.frame.size() == TgzScanner.TRAILER) {
+            final byte[] bytes = this.frame.toByteArray();
+            if (TgzScanner.int32(bytes, 0) != this.crc.getValue()
+                || TgzScanner.int32(bytes, 4) != (this.inflated & 0xffffffffL)) {
+                throw new ArtipieIOException("Corrupted gzip trailer");
+            }
+            this.frame.reset();
+            this.inflater.reset();
+            this.crc.reset();
+            this.inflated = 0;
+            this.members = this.members + 1;
+            this.stage = Stage.HEADER;
+        }
+        return from + take;
+    }
+
+    /**
+     * Length of gzip member header.
+     * @param bytes Header bytes
+     * @return Header length or -1 if header is not complete
+     */
+    private static int headerLength(final byte[] bytes) {
+        int res = -1;
+        if (bytes.length >= TgzScanner.HEADER) {
+            if (bytes[2] != 8) {
+                throw new ArtipieIOException("Unsupported gzip compression method");
+            }
+            final int flags = bytes[3];
+            int pos = TgzScanner.HEADER;
+            if ((flags & 4) != 0) {
+                if (bytes.length < pos + 2) {
+                    pos = Integer.MAX_VALUE;
+                } else {
+                    pos = pos + 2 + (bytes[pos] & 0xff | (bytes[pos + 1] & 0xff) << 8);
+                }
+            }
+            if ((flags & 8) != 0) {
+                pos = TgzScanner.zero(bytes, pos);
+            }
+            if ((flags & 16) != 0) {
+                pos = TgzScanner.zero(bytes, pos);
+            }
+            if ((flags & 2) != 0 && pos != Integer.MAX_VALUE) {
+                pos = pos + 2;
+            }
+            if (pos <= bytes.length) {
+                res = pos;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Position after zero-terminated header field.
+     * @param bytes Header bytes
+     * @param from Field start
+     * @return Position after the field or {@link Integer#MAX_VALUE} if field is incomplete
+     */
+    private static int zero(final byte[] bytes, final int from) {
+        int res = Integer.MAX_VALUE;
+        for (int idx = from; idx < bytes.length; idx = idx + 1) {
+            if (bytes[idx] == 0) {
+                res = idx + 1;
+                break;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Little-endian unsigned 32-bit integer.
+     * @param bytes Bytes
+     * @param pos Integer position
+     * @return Integer value
+     */
+    private static long int32(final byte[] bytes, final int pos) {
+        return (bytes[pos] & 0xffL) | (bytes[pos + 1] & 0xffL) << 8
+            | (bytes[pos + 2] & 0xffL) << 16 | (bytes[pos + 3] & 0xffL) << 24;
+    }
+
+    /**
+     * Scanning stage.
+     * @since 1.0
+     */
+    private enum Stage {
+        /**
+         * Gzip member header.
+         */
+        HEADER,
+
+        /**
+         * Deflated data.
+         */
+        DATA,
+
+        /**
+         * Gzip member trailer.
+         */
+        TRAILER,
+
+        /**
+         * Trailing bytes after the last gzip member.
+         */
+        END
+    }
+
+    /**
+     * Push-mode tar parser: counts regular files, sums their sizes and
+     * collects `package.json` from the root directory of the archive.
+     * @since 1.0
+     */
+    private static final class Tar {
+
+        /**
+         * Tar block size.
+         */
+        private static final int BLOCK = 512;
+
+        /**
+         * Package json file name.
+         */
+        private static final String PACKAGE = "package.json";
+
+        /**
+         * Current header block.
+         */
+        private final byte[] block;
+
+        /**
+         * Collected entry data.
+         */
+        private final ByteArrayOutputStream data;
+
+        /**
+         * Number of bytes in the header block.
+         */
+        private int filled;
+
+        /**
+         * Remaining data bytes of current entry.
+         */
+        private long remaining;
+
+        /**
+         * Remaining padding bytes of current entry.
+         */
+        private int padding;
+
+        /**
+         * Type of current entry data to collect, zero if data is skipped.
+         */
+        private byte collect;
+
+        /**
+         * Name of the next entry from GNU long name or pax header.
+         */
+        private String longname;
+
+        /**
+         * Number of consecutive zero blocks.
+         */
+        private int zeros;
+
+        /**
+         * Number of regular files.
+         */
+        private int files;
+
+        /**
+         * Total size of regular files.
+         */
+        private long unpacked;
+
+        /**
+         * Content of `package.json`, null until it is found.
+         */
+        private byte[] pkg;
+
+        /**
+         * Ctor.
+         */
+        Tar() {
+            this.block = new byte[Tar.BLOCK];
+            this.data = new ByteArrayOutputStream(0);
+        }
+
+        /**
+         * Parse inflated bytes.
+         * @param bytes Inflated bytes
+         * @param len Number of bytes
+         */
+        void accept(final byte[] bytes, final int len) {
+            int pos = 0;
+            while (pos < len && this.zeros < 2) {
+                final int take;
+                if (this.remaining > 0) {
+                    take = (int) Math.min(this.remaining, len - pos);
+                    if (this.collect != 0) {
+                        this.data.write(bytes, pos, take);
+                    }
+                    this.remaining = this.remaining - take;
+                    if (this.remaining == 0) {
+                        this.collected();
+                    }
+                } else if (this.padding > 0) {
+                    take = Math.min(this.padding, len - pos);
+                    this.padding = this.padding - take;
+                } else {
+                    take = Math.min(Tar.BLOCK - this.filled, len - pos);
+                    System.arraycopy(bytes, pos, this.block, this.filled, take);
+                    this.filled = this.filled + take;
+                    if (this.filled == Tar.BLOCK) {
+                        this.filled = 0;
+                        this.header();
+                    }
+                }
+                pos = pos + take;
+            }
+        }
+
+        /**
+         * Tar data is complete: end of archive was found or all entries are complete.
+         * @return True if complete
+         */
+        boolean complete() {
+            return this.zeros >= 2
+                || this.filled == 0 && this.remaining == 0 && this.padding == 0;
+        }
+
+        /**
+         * Parse header block.
+         */
+        private void header() {
+            if (Tar.empty(this.block)) {
+                this.zeros = this.zeros + 1;
+            } else {
+                this.zeros = 0;
+                if (Tar.number(this.block, 148, 8) != Tar.checksum(this.block)) {
+                    throw new ArtipieException("Invalid tar header checksum");
+                }
+                final byte type = this.block[156];
+                final long size = Tar.number(this.block, 124, 12);
+                this.collect = 0;
+                if (type == 'L' || type == 'x') {
+                    this.collect = type;
+                } else if (type != 'g') {
+                    final String name;
+                    if (this.longname == null) {
+                        name = this.name();
+                    } else {
+                        name = this.longname;
+                    }
+                    this.longname = null;
+                    if (type == '0' || type == 0 || type == '7') {
+                        this.files = this.files + 1;
+                        this.unpacked = this.unpacked + size;
+                        if (this.pkg == null && Tar.rootPackage(name)) {
+                            this.collect = '0';
+                        }
+                    }
+                }
+                this.remaining = size;
+                this.padding = (int) ((Tar.BLOCK - size % Tar.BLOCK) % Tar.BLOCK);
+                if (size == 0) {
+                    this.collected();
+                }
+            }
+        }
+
+        /**
+         * Handle collected data of current entry.
+         */
+        private void collected() {
+            if (this.collect == '0') {
+                this.pkg = this.data.toByteArray();
+            } else if (this.collect == 'L') {
+                this.longname = new String(this.data.toByteArray(), StandardCharsets.UTF_8)
+                    .replaceAll("\u0000+$", "");
+            } else if (this.collect == 'x') {
+                this.longname = Tar.paxPath(
+                    new String(this.data.toByteArray(), StandardCharsets.UTF_8)
+                );
+            }
+            this.data.reset();
+            this.collect = 0;
+        }
+
+        /**
+         * Entry name from ustar name and prefix fields.
+         * @return Name
+         */
+        private String name() {
+            final String name = Tar.string(this.block, 0, 100);
+            final String res;
+            if ("ustar".equals(Tar.string(this.block, 257, 5))) {
+                final String prefix = Tar.string(this.block, 345, 155);
+                if (prefix.isEmpty()) {
+                    res = name;
+                } else {
+                    res = String.join("/", prefix, name);
+                }
+            } else {
+                res = name;
+            }
+            return res;
+        }
+
+        /**
+         * Entry is `package.json` in the root directory of the archive,
+         * e.g. `package/package.json`.
+         * @param name Entry name
+         * @return True if entry is root package json
+         */
+        private static boolean rootPackage(final String name) {
+            String path = name;
+            if (path.startsWith("./")) {
+                path = path.substring(2);
+            }
+            final int idx = path.indexOf('/');
+            return idx > 0 && Tar.PACKAGE.equals(path.substring(idx + 1));
+        }
+
+        /**
+         * Path from pax extended header records `{length} {key}={value}\n`.
+         * @param records Pax records
+         * @return Path or null if records have no path
+         */
+        private static String paxPath(final String records) {
+            String res = null;
+            for (final String record : records.split("\n")) {
+                final int idx = record.indexOf(" path=");
+                if (idx > 0) {
+                    res = record.substring(idx + " path=".length());
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Header checksum: sum of header bytes with checksum field filled with spaces.
+         * @param block Header block
+         * @return Checksum
+         */
+        private static long checksum(final byte[] block) {
+            long res = 0;
+            for (int idx = 0; idx < block.length; idx = idx + 1) {
+                if (idx >= 148 && idx < 156) {
+                    res = res + ' ';
+                } else {
+                    res = res + (block[idx] & 0xff);
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Numeric header field: octal or base-256 for large values.
+         * @param block Header block
+         * @param off Field offset
+         * @param len Field length
+         * @return Number
+         */
+        private static long number(final byte[] block, final int off, final int len) {
+            long res = 0;
+            if ((block[off] & 0x80) == 0) {
+                for (int idx = off; idx < off + len; idx = idx + 1) {
+                    final byte chr = block[idx];
+                    if (chr >= '0' && chr <= '7') {
+                        res = res * 8 + chr - '0';
+                    } else if (chr != ' ' || res > 0) {
+                        break;
+                    }
+                }
+            } else {
+                res = block[off] & 0x7f;
+                for (int idx = off + 1; idx < off + len; idx = idx + 1) {
+                    res = res << 8 | block[idx] & 0xff;
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Zero-terminated string header field.
+         * @param block Header block
+         * @param off Field offset
+         * @param len Field length
+         * @return String
+         */
+        private static String string(final byte[] block, final int off, final int len) {
+            int end = off;
+            while (end < off + len && block[end] != 0) {
+                end = end + 1;
+            }
+            return new String(block, off, end - off, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Block contains only zero bytes.
+         * @param block Block
+         * @return True if empty
+         */
+        private static boolean empty(final byte[] block) {
+            boolean res = true;
+            for (final byte chr : block) {
+                if (chr != 0) {
+                    res = false;
+                    break;
+                }
+            }
+            return res;
+        }
+    }
+}
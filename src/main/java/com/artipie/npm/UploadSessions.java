@@ -0,0 +1,528 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.Digests;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.npm.misc.OptionalValue;
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import org.reactivestreams.Publisher;
+
+/**
+ * Resumable chunked upload sessions of package archives. Session is started with
+ * the size of the archive and, optionally, its integrity. Every chunk is streamed to
+ * storage under the session directory, `.uploads/{package}/{session}/chunks`, with
+ * its offset and size in the key name, and the session file has the time the session
+ * was created at and the archive size in its name, so chunks are not kept in memory
+ * and session status is read with one storage listing. Chunk replaces previously
+ * received chunks which it covers, so a client resends only the chunks which are
+ * missing after the received offset, see {@link Status#offset()}. Chunks which start
+ * before the received offset, e.g. left by concurrent or repeated requests, are
+ * skipped, so they never block the session. Chunk which was not saved completely
+ * or exceeds the archive size is removed. When chunks up to the archive size are
+ * received, session content is read chunk by chunk in offset order and is checked
+ * against the session integrity.
+ * <p>
+ * Sessions expire after {@link #TTL} since they were started: expired session is
+ * not found and is removed by {@link #sweep()}, sessions of the package are swept
+ * when new session of the package is started.
+ * @since 1.0
+ */
+public final class UploadSessions {
+
+    /**
+     * Directory of upload sessions.
+     */
+    static final Key ROOT = new Key.From(".uploads");
+
+    /**
+     * Default session time to live in milliseconds.
+     */
+    private static final long TTL = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Session file name pattern: zero-padded creation time and archive size.
+     */
+    private static final Pattern SESSION = Pattern.compile(
+        "session-(?<created>\\d{19})-(?<size>\\d{19})\\.json"
+    );
+
+    /**
+     * Chunk name pattern: zero-padded offset and size.
+     */
+    private static final Pattern CHUNK = Pattern.compile("(?<offset>\\d{19})-(?<size>\\d{19})");
+
+    /**
+     * Integrity json field.
+     */
+    private static final String INTEGRITY = "integrity";
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Session time to live in milliseconds.
+     */
+    private final long ttl;
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     */
+    public UploadSessions(final Storage storage) {
+        this(storage, UploadSessions.TTL);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     * @param ttl Session time to live in milliseconds
+     */
+    public UploadSessions(final Storage storage, final long ttl) {
+        this.storage = storage;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Start upload session, expired sessions of the package are removed.
+     * @param pkg Package key
+     * @param size Archive size
+     * @param integrity Subresource integrity string of the archive, e.g. `sha512-...`,
+     *  empty if archive is not checked
+     * @return Session id
+     */
+    public CompletableFuture<String> start(
+        final Key pkg, final long size, final Optional<String> integrity
+    ) {
+        final String id = UUID.randomUUID().toString();
+        final long created = System.currentTimeMillis();
+        final JsonObjectBuilder json = Json.createObjectBuilder()
+            .add("package", pkg.string())
+            .add("created", created)
+            .add("size", size);
+        integrity.ifPresent(sri -> json.add(UploadSessions.INTEGRITY, sri));
+        return this.sweep(new Key.From(UploadSessions.ROOT, pkg)).thenCompose(
+            nothing -> this.storage.save(
+                new Key.From(
+                    UploadSessions.dir(pkg, id),
+                    String.format("session-%019d-%019d.json", created, size)
+                ),
+                new Content.From(json.build().toString().getBytes(StandardCharsets.UTF_8))
+            )
+        ).thenApply(nothing -> id);
+    }
+
+    /**
+     * Append chunk to the session. Chunk is saved to a temporary key while its size
+     * is counted and is moved to the chunk key, replacing chunks previously sent
+     * within the range of the chunk. Temporary key is removed if the chunk
+     * is not saved or exceeds the archive size.
+     * @param pkg Package key
+     * @param id Session id
+     * @param offset Offset of the chunk in package archive
+     * @param chunk Chunk content
+     * @return Session status after the chunk is saved, empty if there is no such session
+     * @throws PayloadTooLargeException If chunk exceeds the archive size
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public CompletableFuture<Optional<Status>> append(
+        final Key pkg, final String id, final long offset, final Publisher<ByteBuffer> chunk
+    ) {
+        final Key chunks = new Key.From(UploadSessions.dir(pkg, id), "chunks");
+        return this.status(pkg, id).thenCompose(
+            status -> {
+                final CompletableFuture<Optional<Status>> res;
+                if (status.isPresent()) {
+                    final long limit = status.get().size() - offset;
+                    final Key part = new Key.From(
+                        chunks, String.format("%019d-%s.part", offset, UUID.randomUUID())
+                    );
+                    final AtomicLong size = new AtomicLong();
+                    res = this.storage.save(
+                        part,
+                        new Content.From(
+                            Flowable.fromPublisher(chunk).doOnNext(
+                                buf -> {
+                                    if (size.addAndGet(buf.remaining()) > limit) {
+                                        throw new PayloadTooLargeException(
+                                            String.format(
+                                                "Chunk at %d exceeds archive size %d",
+                                                offset, status.get().size()
+                                            )
+                                        );
+                                    }
+                                }
+                            )
+                        )
+                    ).handle(
+                        (nothing, err) -> {
+                            final CompletableFuture<Void> saved;
+                            if (err == null) {
+                                saved = CompletableFuture.allOf();
+                            } else {
+                                saved = new OptionalValue(this.storage).delete(part)
+                                    .thenCompose(ignored -> new FailedCompletionStage<>(err));
+                            }
+                            return saved;
+                        }
+                    ).thenCompose(Function.identity()).thenCompose(
+                        nothing -> this.storage.list(chunks)
+                    ).thenCompose(
+                        keys -> CompletableFuture.allOf(
+                            UploadSessions.chunks(keys).stream()
+                                .filter(
+                                    key -> UploadSessions.offset(key) >= offset
+                                        && UploadSessions.offset(key) + UploadSessions.size(key)
+                                        <= offset + size.get()
+                                )
+                                .map(this.storage::delete)
+                                .toArray(CompletableFuture[]::new)
+                        )
+                    ).thenCompose(
+                        nothing -> this.storage.move(
+                            part,
+                            new Key.From(
+                                chunks, String.format("%019d-%019d", offset, size.get())
+                            )
+                        )
+                    ).thenCompose(nothing -> this.status(pkg, id));
+                } else {
+                    res = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Session status.
+     * @param pkg Package key
+     * @param id Session id
+     * @return Status, empty if there is no such session or it is expired
+     */
+    public CompletableFuture<Optional<Status>> status(final Key pkg, final String id) {
+        final long expired = System.currentTimeMillis() - this.ttl;
+        return this.storage.list(UploadSessions.dir(pkg, id)).thenApply(
+            keys -> keys.stream().filter(key -> UploadSessions.session(key).matches())
+                .findFirst()
+                .filter(key -> UploadSessions.created(key) > expired)
+                .map(key -> new Status(key, UploadSessions.chunks(keys)))
+        );
+    }
+
+    /**
+     * Package archive content of complete session, chunks are read one by one.
+     * Content fails with {@link IntegrityMismatchException} at the end if it does
+     * not match the integrity the session was started with.
+     * @param status Session status
+     * @return Content
+     */
+    public Publisher<ByteBuffer> content(final Status status) {
+        if (!status.complete()) {
+            throw new ArtipieException(
+                String.format("Upload is not complete: %s", status.json())
+            );
+        }
+        return Single.defer(
+            () -> SingleInterop.fromFuture(
+                this.storage.value(status.session).thenCompose(
+                    content -> new PublisherAs(content).string(StandardCharsets.UTF_8)
+                ).thenApply(
+                    str -> Optional.ofNullable(
+                        Json.createReader(new StringReader(str)).readObject()
+                            .getString(UploadSessions.INTEGRITY, null)
+                    )
+                )
+            )
+        ).flatMapPublisher(
+            integrity -> {
+                final MessageDigest sha512 = Digests.SHA512.get();
+                return Flowable.fromIterable(status.received()).concatMap(
+                    key -> Single.defer(
+                        () -> SingleInterop.fromFuture(this.storage.value(key))
+                    ).flatMapPublisher(content -> content)
+                ).doOnNext(buf -> sha512.update(buf.duplicate())).concatWith(
+                    Flowable.defer(
+                        () -> {
+                            final Flowable<ByteBuffer> res;
+                            if (integrity.isPresent() && !integrity.get().equals(
+                                String.format(
+                                    "sha512-%s",
+                                    Base64.getEncoder().encodeToString(sha512.digest())
+                                )
+                            )) {
+                                res = Flowable.error(
+                                    new IntegrityMismatchException(
+                                        String.format(
+                                            "Uploaded archive does not match integrity %s",
+                                            integrity.get()
+                                        )
+                                    )
+                                );
+                            } else {
+                                res = Flowable.empty();
+                            }
+                            return res;
+                        }
+                    )
+                );
+            }
+        );
+    }
+
+    /**
+     * Remove session with all its chunks.
+     * @param pkg Package key
+     * @param id Session id
+     * @return Completion or error signal
+     */
+    public CompletableFuture<Void> close(final Key pkg, final String id) {
+        return this.storage.deleteAll(UploadSessions.dir(pkg, id));
+    }
+
+    /**
+     * Remove expired sessions of all packages, sessions started before
+     * session files had creation time in their names are removed too.
+     * @return Completion or error signal
+     */
+    public CompletableFuture<Void> sweep() {
+        return this.sweep(UploadSessions.ROOT);
+    }
+
+    /**
+     * Remove expired sessions under the prefix.
+     * @param prefix Key prefix
+     * @return Completion or error signal
+     */
+    private CompletableFuture<Void> sweep(final Key prefix) {
+        final long expired = System.currentTimeMillis() - this.ttl;
+        return this.storage.list(prefix).thenCompose(
+            keys -> CompletableFuture.allOf(
+                keys.stream().filter(
+                    key -> {
+                        final List<String> parts = key.parts();
+                        final String name = parts.get(parts.size() - 1);
+                        return "session.json".equals(name)
+                            || UploadSessions.session(key).matches()
+                            && UploadSessions.created(key) <= expired;
+                    }
+                ).map(
+                    key -> {
+                        final List<String> parts = key.parts();
+                        return this.storage.deleteAll(
+                            new Key.From(parts.subList(0, parts.size() - 1))
+                        );
+                    }
+                ).toArray(CompletableFuture[]::new)
+            )
+        );
+    }
+
+    /**
+     * Session directory.
+     * @param pkg Package key
+     * @param id Session id
+     * @return Directory key
+     */
+    private static Key dir(final Key pkg, final String id) {
+        return new Key.From(new Key.From(UploadSessions.ROOT, pkg), id);
+    }
+
+    /**
+     * Chunk keys among session keys sorted by offset.
+     * @param keys Session keys
+     * @return Chunk keys
+     */
+    private static List<Key> chunks(final Collection<Key> keys) {
+        return keys.stream()
+            .filter(key -> UploadSessions.matcher(key).matches())
+            .sorted(Key.CMP_STRING)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Offset of the chunk.
+     * @param chunk Chunk key
+     * @return Offset
+     */
+    private static long offset(final Key chunk) {
+        final Matcher matcher = UploadSessions.matcher(chunk);
+        matcher.matches();
+        return Long.parseLong(matcher.group("offset"));
+    }
+
+    /**
+     * Size of the chunk.
+     * @param chunk Chunk key
+     * @return Size
+     */
+    private static long size(final Key chunk) {
+        final Matcher matcher = UploadSessions.matcher(chunk);
+        matcher.matches();
+        return Long.parseLong(matcher.group("size"));
+    }
+
+    /**
+     * Session file name matcher.
+     * @param key Key
+     * @return Matcher of the last key part
+     */
+    private static Matcher session(final Key key) {
+        final List<String> parts = key.parts();
+        return UploadSessions.SESSION.matcher(parts.get(parts.size() - 1));
+    }
+
+    /**
+     * Time the session was created at.
+     * @param session Session file key
+     * @return Time in milliseconds
+     */
+    private static long created(final Key session) {
+        final Matcher matcher = UploadSessions.session(session);
+        matcher.matches();
+        return Long.parseLong(matcher.group("created"));
+    }
+
+    /**
+     * Chunk name matcher.
+     * @param key Key
+     * @return Matcher of the last key part
+     */
+    private static Matcher matcher(final Key key) {
+        final List<String> parts = key.parts();
+        return UploadSessions.CHUNK.matcher(parts.get(parts.size() - 1));
+    }
+
+    /**
+     * Status of upload session.
+     * @since 1.0
+     */
+    public static final class Status {
+
+        /**
+         * Session file key.
+         */
+        private final Key session;
+
+        /**
+         * Chunk keys sorted by offset.
+         */
+        private final List<Key> chunks;
+
+        /**
+         * Ctor.
+         * @param session Session file key
+         * @param chunks Chunk keys sorted by offset
+         */
+        Status(final Key session, final List<Key> chunks) {
+            this.session = session;
+            this.chunks = chunks;
+        }
+
+        /**
+         * Archive size the session was started with.
+         * @return Size in bytes
+         */
+        public long size() {
+            final Matcher matcher = UploadSessions.session(this.session);
+            matcher.matches();
+            return Long.parseLong(matcher.group("size"));
+        }
+
+        /**
+         * Number of bytes received without gaps from the start of the archive,
+         * upload is resumed from this offset.
+         * @return Offset
+         */
+        public long offset() {
+            long res = 0;
+            for (final Key chunk : this.received()) {
+                res = res + UploadSessions.size(chunk);
+            }
+            return res;
+        }
+
+        /**
+         * Whether chunks up to the archive size are received without gaps.
+         * @return True if session can be committed
+         */
+        public boolean complete() {
+            return !this.chunks.isEmpty() && this.offset() == this.size();
+        }
+
+        /**
+         * Chunks which follow each other without gaps from the start of the archive,
+         * chunks which start before the end of previous ones are skipped.
+         * @return Chunk keys sorted by offset
+         */
+        private List<Key> received() {
+            final List<Key> res = new ArrayList<>(this.chunks.size());
+            long end = 0;
+            for (final Key chunk : this.chunks) {
+                final long offset = UploadSessions.offset(chunk);
+                if (offset > end) {
+                    break;
+                }
+                if (offset == end) {
+                    res.add(chunk);
+                    end = end + UploadSessions.size(chunk);
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Status json: archive size, received offset, whether upload can be committed
+         * and received chunks.
+         * @return Json
+         */
+        public JsonObject json() {
+            final JsonArrayBuilder received = Json.createArrayBuilder();
+            for (final Key chunk : this.chunks) {
+                received.add(
+                    Json.createObjectBuilder()
+                        .add("offset", UploadSessions.offset(chunk))
+                        .add("size", UploadSessions.size(chunk))
+                );
+            }
+            return Json.createObjectBuilder()
+                .add("size", this.size())
+                .add("offset", this.offset())
+                .add("complete", this.complete())
+                .add("chunks", received)
+                .build();
+        }
+    }
+}
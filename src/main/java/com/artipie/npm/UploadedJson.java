@@ -0,0 +1,820 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.Digests;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Flowable;
+import io.reactivex.processors.UnicastProcessor;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+import org.apache.commons.codec.binary.Hex;
+import org.reactivestreams.Publisher;
+
+/**
+ * Json uploaded by `npm publish` command. The json contains package metadata
+ * and base64 encoded package archives in `_attachments.*.data` fields.
+ * <p>
+ * The json is not collected into memory: the content is scanned byte by byte
+ * as it arrives, attachments data is decoded on the fly and is saved to storage
+ * while the rest of the json is kept in memory and parsed at the end. Memory usage
+ * does not depend on the size of attachments: next chunk of the content is requested
+ * only when attachment data decoded from previous chunk is taken by storage,
+ * so the content is read as fast as storage saves attachments.
+ * <p>
+ * Attachments are checked against integrity and shasum of the uploaded
+ * versions, which are computed while attachments are saved, so no extra
+ * read is needed to verify them.
+ * @since 1.0
+ */
+public final class UploadedJson {
+
+    /**
+     * Uploaded json.
+     */
+    private final Publisher<ByteBuffer> body;
+
+    /**
+     * Ctor.
+     * @param body Uploaded json
+     */
+    public UploadedJson(final Publisher<ByteBuffer> body) {
+        this.body = body;
+    }
+
+    /**
+     * Save attachments to storage as `{prefix}/-/{attachment name}` tarballs and read
+     * the rest of the json. Attachments are digested while they are saved to
+     * a staging key and are verified against `dist.integrity` and `dist.shasum`
+     * of the version they belong to: attachments are added to the package,
+     * see {@link TarballBlobs}, only if all of them are valid, otherwise staged
+     * attachments are removed. If adding of an attachment fails, attachments added
+     * before it are removed too, staged content left by interrupted upload is
+     * removed by {@link Staging#sweep()}. Attachment of the version which is already published,
+     * see {@link VersionIndex}, is rejected with {@link VersionExistsException} as soon
+     * as its name is read, before its data, attachment of the package which is being
+     * removed is rejected with {@link PackageRemovalException}.
+     * @param storage Storage to save attachments to
+     * @param prefix Package key
+     * @return Uploaded json with empty `_attachments.*.data` fields
+     */
+    public CompletableFuture<JsonObject> save(final Storage storage, final Key prefix) {
+        return this.save(storage, prefix, new MetaQueue.Immediate());
+    }
+
+    /**
+     * Save attachments to storage like {@link #save(Storage, Key)}, attachment of
+     * the version which is waiting for metadata update in the queue, see
+     * {@link MetaQueue#queued(Storage, Key, String)}, is rejected too.
+     * @param storage Storage to save attachments to
+     * @param prefix Package key
+     * @param queue Queue of metadata updates
+     * @return Uploaded json with empty `_attachments.*.data` fields
+     */
+    public CompletableFuture<JsonObject> save(
+        final Storage storage, final Key prefix, final MetaQueue queue
+    ) {
+        final Key staging = Staging.next("");
+        final TarballBlobs blobs = new TarballBlobs(storage);
+        final List<Key> added = new CopyOnWriteArrayList<>();
+        final Split split = new Split(
+            att -> new PackageRemoval(storage, prefix).check().thenCompose(
+                nothing -> UploadedJson.version(prefix, att.name).map(
+                    version -> queue.queued(storage, prefix, version).thenCompose(
+                        queued -> {
+                            final CompletableFuture<Boolean> res;
+                            if (queued) {
+                                res = CompletableFuture.completedFuture(true);
+                            } else {
+                                res = new VersionIndex(storage, prefix).contains(version);
+                            }
+                            return res;
+                        }
+                    )
+                ).orElseGet(() -> blobs.exists(new Key.From(prefix, "-", att.name)))
+            ).thenCompose(
+                exists -> {
+                    final CompletionStage<Void> res;
+                    if (exists) {
+                        res = new FailedCompletionStage<>(
+                            new VersionExistsException(
+                                String.format("Attachment '%s' is already published", att.name)
+                            )
+                        );
+                    } else {
+                        res = storage.save(
+                            new Key.From(staging, att.name), new Content.From(att.digested())
+                        );
+                    }
+                    return res;
+                }
+            )
+        );
+        return Flowable.fromPublisher(this.body)
+            .concatMapCompletable(chunk -> CompletableInterop.fromFuture(split.process(chunk)))
+            .doOnError(split::fail)
+            .doOnComplete(split::complete)
+            .to(CompletableInterop.await())
+            .toCompletableFuture()
+            .thenCompose(nothing -> split.saved())
+            .thenApply(
+                nothing -> Json.createReader(new ByteArrayInputStream(split.meta.toByteArray()))
+                    .readObject()
+            )
+            .thenCompose(
+                meta -> {
+                    split.attachments.forEach(att -> att.verify(meta));
+                    CompletableFuture<Void> res = CompletableFuture.allOf();
+                    for (final Attachment att : split.attachments) {
+                        res = res.thenCompose(
+                            nothing -> {
+                                final Key tarball = new Key.From(prefix, "-", att.name);
+                                added.add(tarball);
+                                return blobs.add(
+                                    tarball, new Key.From(staging, att.name), att.integrity
+                                );
+                            }
+                        );
+                    }
+                    return res.thenApply(nothing -> meta);
+                }
+            )
+            .handle(
+                (meta, err) -> {
+                    final CompletableFuture<JsonObject> res;
+                    if (err == null) {
+                        res = CompletableFuture.completedFuture(meta);
+                    } else {
+                        res = CompletableFuture.allOf(
+                            added.stream().map(blobs::remove)
+                                .toArray(CompletableFuture<?>[]::new)
+                        ).handle((nothing, ignored) -> nothing)
+                            .thenCompose(nothing -> storage.list(staging))
+                            .thenCompose(
+                                keys -> CompletableFuture.allOf(
+                                    keys.stream().map(storage::delete)
+                                        .toArray(CompletableFuture<?>[]::new)
+                                )
+                            )
+                            .handle((nothing, ignored) -> nothing)
+                            .thenCompose(nothing -> new FailedCompletionStage<>(err));
+                    }
+                    return res;
+                }
+            )
+            .thenCompose(Function.identity());
+    }
+
+    /**
+     * Version of the attachment named by npm convention `{package}-{version}.tgz`.
+     * @param prefix Package key
+     * @param name Attachment name
+     * @return Version, empty if attachment name does not follow the convention
+     */
+    private static Optional<String> version(final Key prefix, final String name) {
+        final String start = String.format("%s-", prefix.string());
+        final String end = ".tgz";
+        final Optional<String> res;
+        if (name.startsWith(start) && name.endsWith(end)
+            && name.length() > start.length() + end.length()) {
+            res = Optional.of(name.substring(start.length(), name.length() - end.length()));
+        } else {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * Attachment found in the json.
+     * @since 1.0
+     */
+    private static final class Attachment {
+
+        /**
+         * Attachment name.
+         */
+        private final String name;
+
+        /**
+         * Decoded attachment data.
+         */
+        private final UnicastProcessor<ByteBuffer> data;
+
+        /**
+         * SHA-1 digest of decoded data.
+         */
+        private final MessageDigest sha1;
+
+        /**
+         * SHA-512 digest of decoded data.
+         */
+        private final MessageDigest sha512;
+
+        /**
+         * Listeners of all passed data being taken by the reader.
+         */
+        private final List<CompletableFuture<Void>> waiting;
+
+        /**
+         * Number of passed data buffers which are not taken by the reader yet.
+         */
+        private long pending;
+
+        /**
+         * Reader of the data is finished, so passed data is never taken.
+         */
+        private boolean released;
+
+        /**
+         * Subresource integrity string with SHA-512 digest, known
+         * after the attachment is verified.
+         */
+        private String integrity;
+
+        /**
+         * Ctor.
+         * @param name Attachment name
+         */
+        Attachment(final String name) {
+            this.name = name;
+            this.data = UnicastProcessor.create();
+            this.sha1 = Digests.SHA1.get();
+            this.sha512 = Digests.SHA512.get();
+            this.waiting = new ArrayList<>(1);
+        }
+
+        /**
+         * Decoded attachment data, which is digested as it is read.
+         * @return Attachment data
+         */
+        Flowable<ByteBuffer> digested() {
+            return this.data.doOnNext(
+                buf -> {
+                    this.sha1.update(buf.duplicate());
+                    this.sha512.update(buf.duplicate());
+                    this.taken();
+                }
+            );
+        }
+
+        /**
+         * Pass next part of decoded data to the reader.
+         * @param buf Decoded data
+         */
+        void pass(final ByteBuffer buf) {
+            synchronized (this) {
+                this.pending = this.pending + 1;
+            }
+            this.data.onNext(buf);
+        }
+
+        /**
+         * Wait until all passed data is taken by the reader or the reader is finished.
+         * @return Completion signal
+         */
+        CompletableFuture<Void> drained() {
+            synchronized (this) {
+                final CompletableFuture<Void> res = new CompletableFuture<>();
+                if (this.pending == 0 || this.released) {
+                    res.complete(null);
+                } else {
+                    this.waiting.add(res);
+                }
+                return res;
+            }
+        }
+
+        /**
+         * Release data listeners when the reader is finished.
+         */
+        void release() {
+            final List<CompletableFuture<Void>> done;
+            synchronized (this) {
+                this.released = true;
+                done = new ArrayList<>(this.waiting);
+                this.waiting.clear();
+            }
+            done.forEach(future -> future.complete(null));
+        }
+
+        /**
+         * Count data buffer taken by the reader.
+         */
+        private void taken() {
+            final List<CompletableFuture<Void>> done = new ArrayList<>(0);
+            synchronized (this) {
+                this.pending = this.pending - 1;
+                if (this.pending == 0) {
+                    done.addAll(this.waiting);
+                    this.waiting.clear();
+                }
+            }
+            done.forEach(future -> future.complete(null));
+        }
+
+        /**
+         * Verify attachment digests against `dist.integrity` and `dist.shasum`
+         * of the version this attachment belongs to. The version is the one
+         * with `dist.tarball` ending with attachment name or the only version
+         * of the json. The version should declare at least one of the digests.
+         * @param meta Uploaded json
+         * @throws IntegrityMismatchException If attachment does not belong to exactly
+         *  one version, the version declares no digests or digests do not match
+         */
+        void verify(final JsonObject meta) {
+            final JsonObject dist = this.dist(meta);
+            final byte[] digest = this.sha1.digest();
+            final Map<String, String> sri = new HashMap<>(2);
+            sri.put("sha1", Base64.getEncoder().encodeToString(digest));
+            sri.put("sha512", Base64.getEncoder().encodeToString(this.sha512.digest()));
+            this.integrity = String.format("sha512-%s", sri.get("sha512"));
+            boolean verified = false;
+            if (dist.containsKey("shasum")) {
+                if (!dist.getString("shasum", "").equalsIgnoreCase(Hex.encodeHexString(digest))) {
+                    throw new IntegrityMismatchException(
+                        String.format("Attachment '%s' does not match shasum", this.name)
+                    );
+                }
+                verified = true;
+            }
+            for (final String hash : dist.getString("integrity", "").split("\\s+")) {
+                final int idx = hash.indexOf('-');
+                if (idx > 0 && sri.containsKey(hash.substring(0, idx))) {
+                    if (!sri.get(hash.substring(0, idx)).equals(hash.substring(idx + 1))) {
+                        throw new IntegrityMismatchException(
+                            String.format("Attachment '%s' does not match integrity", this.name)
+                        );
+                    }
+                    verified = true;
+                }
+            }
+            if (!verified) {
+                throw new IntegrityMismatchException(
+                    String.format(
+                        "Version of attachment '%s' has no shasum or integrity", this.name
+                    )
+                );
+            }
+        }
+
+        /**
+         * Dist object of the version this attachment belongs to.
+         * @param meta Uploaded json
+         * @return Dist object
+         * @throws IntegrityMismatchException If attachment does not belong to exactly
+         *  one version
+         */
+        private JsonObject dist(final JsonObject meta) {
+            final List<JsonObject> dists = new ArrayList<>(1);
+            final JsonObject versions = meta.getJsonObject("versions");
+            if (versions != null) {
+                for (final JsonValue version : versions.values()) {
+                    if (version.getValueType() == JsonValue.ValueType.OBJECT
+                        && version.asJsonObject().containsKey("dist")) {
+                        dists.add(version.asJsonObject().getJsonObject("dist"));
+                    }
+                }
+            }
+            final List<JsonObject> named = dists.stream().filter(
+                dist -> dist.getString("tarball", "").endsWith(String.format("/%s", this.name))
+            ).collect(Collectors.toList());
+            final JsonObject res;
+            if (named.size() == 1) {
+                res = named.get(0);
+            } else if (named.isEmpty() && dists.size() == 1) {
+                res = dists.get(0);
+            } else {
+                throw new IntegrityMismatchException(
+                    String.format(
+                        "Attachment '%s' does not belong to exactly one version", this.name
+                    )
+                );
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Json scanner, which splits the json into attachments data and the rest
+     * of the json. Like the scanner of {@link Tarballs}, it keeps only current
+     * nesting depth and the length of the matched path, so it works with json
+     * split into chunks at any position.
+     * @since 1.0
+     * @checkstyle CyclomaticComplexityCheck (300 lines)
+     */
+    private static final class Split {
+
+        /**
+         * Path to the attachment data field, `null` matches any key.
+         */
+        private static final byte[][] PATH = {
+            "_attachments".getBytes(StandardCharsets.US_ASCII),
+            null,
+            "data".getBytes(StandardCharsets.US_ASCII),
+        };
+
+        /**
+         * Json without attachments data.
+         */
+        private final ByteArrayOutputStream meta;
+
+        /**
+         * Attachment saving.
+         */
+        private final Function<Attachment, CompletableFuture<Void>> save;
+
+        /**
+         * Attachments saving results.
+         */
+        private final List<CompletableFuture<Void>> saves;
+
+        /**
+         * Found attachments.
+         */
+        private final List<Attachment> attachments;
+
+        /**
+         * Attachments which got data from current chunk.
+         */
+        private final List<Attachment> passed;
+
+        /**
+         * Current attachment name.
+         */
+        private final ByteArrayOutputStream name;
+
+        /**
+         * Base64 decoder of current attachment data.
+         */
+        private final Decoder decoder;
+
+        /**
+         * Current attachment, null if scanner is not inside attachment data.
+         */
+        private Attachment current;
+
+        /**
+         * Current nesting depth.
+         */
+        private int depth;
+
+        /**
+         * Number of enclosing objects which match the path.
+         */
+        private int match;
+
+        /**
+         * Scanner is inside a string.
+         */
+        private boolean string;
+
+        /**
+         * Previous byte was an escape char.
+         */
+        private boolean escape;
+
+        /**
+         * Current string is a key of the matched object.
+         */
+        private boolean key;
+
+        /**
+         * Position in the expected key.
+         */
+        private int pos;
+
+        /**
+         * Current key is still equal to the expected one.
+         */
+        private boolean equal;
+
+        /**
+         * Last key of the matched object is equal to the expected one.
+         */
+        private boolean found;
+
+        /**
+         * Next string in the matched object is a key.
+         */
+        private boolean expectkey;
+
+        /**
+         * Ctor.
+         * @param save Attachment saving
+         */
+        Split(final Function<Attachment, CompletableFuture<Void>> save) {
+            this.save = save;
+            this.meta = new ByteArrayOutputStream();
+            this.saves = new ArrayList<>(1);
+            this.attachments = new ArrayList<>(1);
+            this.passed = new ArrayList<>(1);
+            this.name = new ByteArrayOutputStream();
+            this.decoder = new Decoder();
+        }
+
+        /**
+         * Process next chunk, fails if saving of any attachment has failed already,
+         * so the rest of the json is not read.
+         * @param chunk Chunk of json
+         * @return Completion signal, completed when attachment data decoded
+         *  from the chunk is taken by storage
+         */
+        CompletableFuture<Void> process(final ByteBuffer chunk) {
+            for (final CompletableFuture<Void> saving : this.saves) {
+                if (saving.isCompletedExceptionally()) {
+                    saving.join();
+                }
+            }
+            this.passed.clear();
+            int start = chunk.position();
+            for (int idx = chunk.position(); idx < chunk.limit(); idx = idx + 1) {
+                final byte chr = chunk.get(idx);
+                if (this.current != null) {
+                    if (this.data(chr)) {
+                        start = idx;
+                    }
+                } else if (this.next(chr)) {
+                    this.write(chunk, start, idx + 1);
+                    this.current = new Attachment(
+                        new String(this.name.toByteArray(), StandardCharsets.UTF_8)
+                    );
+                    final Attachment att = this.current;
+                    this.attachments.add(att);
+                    this.saves.add(
+                        this.save.apply(att).whenComplete((nothing, err) -> att.release())
+                    );
+                }
+            }
+            if (this.current == null) {
+                this.write(chunk, start, chunk.limit());
+            } else {
+                this.decoded(false);
+            }
+            return CompletableFuture.allOf(
+                this.passed.stream().map(Attachment::drained)
+                    .toArray(CompletableFuture<?>[]::new)
+            );
+        }
+
+        /**
+         * Fail current attachment on upload error.
+         * @param err Error
+         */
+        void fail(final Throwable err) {
+            if (this.current != null) {
+                this.current.data.onError(err);
+                this.current = null;
+            }
+        }
+
+        /**
+         * Check json is complete.
+         */
+        void complete() {
+            if (this.current != null || this.depth != 0) {
+                final ArtipieException err = new ArtipieException("Uploaded json is incomplete");
+                this.fail(err);
+                throw err;
+            }
+        }
+
+        /**
+         * Attachments saving result.
+         * @return Completion or error signal
+         */
+        CompletableFuture<Void> saved() {
+            return CompletableFuture.allOf(this.saves.toArray(new CompletableFuture<?>[0]));
+        }
+
+        /**
+         * Process attachment data byte.
+         * @param chr Byte
+         * @return True if attachment data is finished
+         */
+        private boolean data(final byte chr) {
+            boolean res = false;
+            if (this.escape) {
+                this.escape = false;
+                if (chr == '/') {
+                    this.decoder.add(chr);
+                } else if (chr != 'n' && chr != 'r') {
+                    throw new ArtipieException("Invalid attachment data");
+                }
+            } else if (chr == '\\') {
+                this.escape = true;
+            } else if (chr == '"') {
+                this.decoded(true);
+                this.current.data.onComplete();
+                this.current = null;
+                this.string = false;
+                res = true;
+            } else {
+                this.decoder.add(chr);
+            }
+            return res;
+        }
+
+        /**
+         * Process next byte.
+         * @param chr Byte
+         * @return True if attachment data starts after this byte
+         */
+        private boolean next(final byte chr) {
+            boolean res = false;
+            if (this.string) {
+                this.inString(chr);
+            } else if (chr == '"') {
+                this.string = true;
+                if (this.onPath() && this.expectkey) {
+                    this.key = true;
+                    this.pos = 0;
+                    this.equal = true;
+                    if (Split.PATH[this.match - 1] == null) {
+                        this.name.reset();
+                    }
+                } else {
+                    this.key = false;
+                    res = this.onPath() && this.match == Split.PATH.length && this.found;
+                    this.found = false;
+                }
+            } else if (chr == '{') {
+                if (this.depth == 0 || this.onPath() && this.found
+                    && this.match < Split.PATH.length) {
+                    this.match = this.depth + 1;
+                }
+                this.depth = this.depth + 1;
+                this.expectkey = true;
+                this.found = false;
+            } else if (chr == '[') {
+                this.depth = this.depth + 1;
+                this.found = false;
+            } else if (chr == '}' || chr == ']') {
+                this.depth = this.depth - 1;
+                this.match = Math.min(this.match, this.depth);
+                this.found = false;
+            } else if (chr == ':') {
+                this.expectkey = false;
+            } else if (chr == ',') {
+                this.expectkey = true;
+                this.found = false;
+            }
+            return res;
+        }
+
+        /**
+         * Process byte inside a string.
+         * @param chr Byte
+         */
+        private void inString(final byte chr) {
+            final byte[] expected;
+            if (this.key) {
+                expected = Split.PATH[this.match - 1];
+            } else {
+                expected = new byte[0];
+            }
+            if (this.escape) {
+                this.escape = false;
+                this.equal = false;
+                if (expected == null) {
+                    this.name.write(chr);
+                }
+            } else if (chr == '\\') {
+                this.escape = true;
+            } else if (chr == '"') {
+                this.string = false;
+                if (this.key) {
+                    this.found = expected == null || this.equal && this.pos == expected.length;
+                }
+            } else if (this.key) {
+                if (expected == null) {
+                    this.name.write(chr);
+                } else if (this.pos < expected.length && expected[this.pos] == chr) {
+                    this.pos = this.pos + 1;
+                } else {
+                    this.equal = false;
+                }
+            }
+        }
+
+        /**
+         * Pass decoded data to current attachment.
+         * @param last Data is complete
+         */
+        private void decoded(final boolean last) {
+            final ByteBuffer decoded = this.decoder.decoded(last);
+            if (decoded.hasRemaining()) {
+                this.current.pass(decoded);
+                this.passed.add(this.current);
+            }
+        }
+
+        /**
+         * Scanner is directly inside the object matching the path.
+         * @return True if current object is on path
+         */
+        private boolean onPath() {
+            return this.match > 0 && this.depth == this.match;
+        }
+
+        /**
+         * Write part of the chunk to json without attachments data.
+         * @param chunk Chunk
+         * @param from Start position
+         * @param till End position
+         */
+        private void write(final ByteBuffer chunk, final int from, final int till) {
+            if (from < till) {
+                final byte[] bytes = new byte[till - from];
+                final ByteBuffer dup = chunk.duplicate();
+                dup.position(from);
+                dup.get(bytes);
+                this.meta.write(bytes, 0, bytes.length);
+            }
+        }
+    }
+
+    /**
+     * Incremental base64 decoder.
+     * @since 1.0
+     */
+    private static final class Decoder {
+
+        /**
+         * Base64 quantum size.
+         */
+        private static final int QUANTUM = 4;
+
+        /**
+         * Encoded chars.
+         */
+        private byte[] chars;
+
+        /**
+         * Number of encoded chars.
+         */
+        private int count;
+
+        /**
+         * Ctor.
+         */
+        Decoder() {
+            this.chars = new byte[8 * 1024];
+        }
+
+        /**
+         * Add encoded char.
+         * @param chr Char
+         */
+        void add(final byte chr) {
+            if (this.count == this.chars.length) {
+                this.chars = Arrays.copyOf(this.chars, this.chars.length * 2);
+            }
+            this.chars[this.count] = chr;
+            this.count = this.count + 1;
+        }
+
+        /**
+         * Decode added chars. Chars which do not form a complete base64 quantum
+         * are kept for the next call unless this is the last call.
+         * @param last Data is complete
+         * @return Decoded bytes
+         */
+        ByteBuffer decoded(final boolean last) {
+            final int len;
+            if (last) {
+                len = this.count;
+            } else {
+                len = this.count - this.count % Decoder.QUANTUM;
+            }
+            final ByteBuffer res = Base64.getDecoder().decode(ByteBuffer.wrap(this.chars, 0, len));
+            System.arraycopy(this.chars, len, this.chars, 0, this.count - len);
+            this.count = this.count - len;
+            return res;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.npm.misc.OptionalValue;
+import com.artipie.npm.semver.Versions;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+
+/**
+ * Compact index of package versions, which is stored next to `meta.json` as
+ * `meta.versions.json`: versions sorted by semantic version precedence with integrity
+ * of their tarballs and the version to tag as `latest`, e.g.
+ * {@code {"latest":"1.0.1","versions":[{"version":"1.0.0","integrity":"sha512-..."},
+ * {"version":"1.0.1","integrity":"sha512-..."}]}}. The index answers if a version
+ * is published and which version is the latest without reading package metadata.
+ * <p>
+ * The index is written by {@link MetaFiles} together with the metadata, so it is
+ * maintained by every metadata update, including publish and unpublish. Packages
+ * saved before the index was introduced have no index, their index is built from
+ * `meta.json` when it is read.
+ * @since 1.0
+ */
+public final class VersionIndex {
+
+    /**
+     * Versions json field.
+     */
+    private static final String VERSIONS = "versions";
+
+    /**
+     * Version json field.
+     */
+    private static final String VERSION = "version";
+
+    /**
+     * Integrity json field.
+     */
+    private static final String INTEGRITY = "integrity";
+
+    /**
+     * Latest version json field.
+     */
+    private static final String LATEST = "latest";
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Package key.
+     */
+    private final Key pkg;
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     * @param pkg Package key
+     */
+    public VersionIndex(final Storage storage, final Key pkg) {
+        this.storage = storage;
+        this.pkg = pkg;
+    }
+
+    /**
+     * Check the version is published.
+     * @param version Version string
+     * @return True if package has the version
+     */
+    public CompletableFuture<Boolean> contains(final String version) {
+        return this.integrity(version).thenApply(Optional::isPresent);
+    }
+
+    /**
+     * Integrity of the version tarball.
+     * @param version Version string
+     * @return Subresource integrity string, empty string if the version has no integrity,
+     *  empty if package has no such version
+     */
+    public CompletableFuture<Optional<String>> integrity(final String version) {
+        return this.json().thenApply(
+            json -> json.getJsonArray(VersionIndex.VERSIONS)
+                .getValuesAs(JsonObject.class).stream()
+                .filter(item -> item.getString(VersionIndex.VERSION).equals(version))
+                .findFirst()
+                .map(item -> item.getString(VersionIndex.INTEGRITY, ""))
+        );
+    }
+
+    /**
+     * Version to tag as `latest`, see {@link Versions#latest()}.
+     * @return Version string, empty if package has no versions
+     */
+    public CompletableFuture<Optional<String>> latest() {
+        return this.json().thenApply(
+            json -> Optional.ofNullable(json.getString(VersionIndex.LATEST, null))
+        );
+    }
+
+    /**
+     * Published versions.
+     * @return Version strings sorted from the lowest to the highest
+     */
+    public CompletableFuture<List<String>> versions() {
+        return this.json().thenApply(
+            json -> {
+                final List<JsonObject> items = json.getJsonArray(VersionIndex.VERSIONS)
+                    .getValuesAs(JsonObject.class);
+                final List<String> res = new ArrayList<>(items.size());
+                for (final JsonObject item : items) {
+                    res.add(item.getString(VersionIndex.VERSION));
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Read the index, or build it from package metadata if the index is not stored.
+     * @return Index json, index without versions if package does not exist
+     */
+    public CompletableFuture<JsonObject> json() {
+        return new OptionalValue(this.storage)
+            .value(new Key.From(this.pkg, MetaFiles.VERSIONS)).thenCompose(
+                value -> {
+                    final CompletableFuture<JsonObject> res;
+                    if (value.isPresent()) {
+                        res = new PublisherAs(value.get()).string(StandardCharsets.UTF_8)
+                            .thenApply(
+                                str -> Json.createReader(new StringReader(str)).readObject()
+                            ).toCompletableFuture();
+                    } else {
+                        res = new MetaFiles(this.storage, this.pkg).meta().thenApply(
+                            meta -> VersionIndex.json(
+                                meta.orElse(JsonValue.EMPTY_JSON_OBJECT)
+                            )
+                        );
+                    }
+                    return res;
+                }
+            );
+    }
+
+    /**
+     * Index of package metadata.
+     * @param meta Package metadata
+     * @return Index json
+     */
+    static JsonObject json(final JsonObject meta) {
+        return VersionIndex.build(VersionIndex.integrities(meta));
+    }
+
+    /**
+     * Index with versions of published json added, versions published again
+     * replace indexed ones.
+     * @param index Index json
+     * @param uploaded Published json with `versions`
+     * @return Index json
+     */
+    static JsonObject added(final JsonObject index, final JsonObject uploaded) {
+        final Map<String, Optional<String>> versions = new HashMap<>();
+        for (final JsonObject item
+            : index.getJsonArray(VersionIndex.VERSIONS).getValuesAs(JsonObject.class)) {
+            versions.put(
+                item.getString(VersionIndex.VERSION),
+                Optional.ofNullable(item.getString(VersionIndex.INTEGRITY, null))
+            );
+        }
+        versions.putAll(VersionIndex.integrities(uploaded));
+        return VersionIndex.build(versions);
+    }
+
+    /**
+     * Versions of metadata with integrity of their tarballs.
+     * @param meta Metadata or published json
+     * @return Integrity by version, empty integrity if version has no `dist.integrity`
+     */
+    private static Map<String, Optional<String>> integrities(final JsonObject meta) {
+        final JsonObject versions = Optional.ofNullable(
+            meta.getJsonObject(VersionIndex.VERSIONS)
+        ).orElse(JsonValue.EMPTY_JSON_OBJECT);
+        final Map<String, Optional<String>> res = new HashMap<>(versions.size());
+        for (final Map.Entry<String, JsonValue> version : versions.entrySet()) {
+            final Optional<String> integrity;
+            if (version.getValue().getValueType() == JsonValue.ValueType.OBJECT) {
+                integrity = Optional.ofNullable(
+                    version.getValue().asJsonObject().getJsonObject("dist")
+                ).map(dist -> dist.getString(VersionIndex.INTEGRITY, null));
+            } else {
+                integrity = Optional.empty();
+            }
+            res.put(version.getKey(), integrity);
+        }
+        return res;
+    }
+
+    /**
+     * Build index json.
+     * @param versions Integrity by version
+     * @return Index json
+     */
+    private static JsonObject build(final Map<String, Optional<String>> versions) {
+        final Versions sorted = new Versions(versions.keySet());
+        final List<String> ascending = sorted.descending();
+        Collections.reverse(ascending);
+        final JsonArrayBuilder items = Json.createArrayBuilder();
+        for (final String version : ascending) {
+            final JsonObjectBuilder item = Json.createObjectBuilder()
+                .add(VersionIndex.VERSION, version);
+            versions.get(version).ifPresent(sri -> item.add(VersionIndex.INTEGRITY, sri));
+            items.add(item);
+        }
+        final JsonObjectBuilder res = Json.createObjectBuilder();
+        sorted.latest().ifPresent(latest -> res.add(VersionIndex.LATEST, latest));
+        return res.add(VersionIndex.VERSIONS, items).build();
+    }
+}
@@ -4,7 +4,6 @@
  */
 package com.artipie.npm.http;
 
-import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.ext.PublisherAs;
@@ -15,18 +14,16 @@ import com.artipie.http.rq.RequestLineFrom;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithStatus;
 import com.artipie.http.rs.StandardRs;
-import java.io.StringReader;
+import com.artipie.npm.MetaFiles;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.json.Json;
 import org.reactivestreams.Publisher;
 
 /**
- * Slice that adds dist-tags to meta.json.
+ * Slice that adds dist-tags to the package, see {@link MetaFiles#saveTags}.
  * @since 0.8
  */
 final class AddDistTagsSlice implements Slice {
@@ -37,11 +34,6 @@ final class AddDistTagsSlice implements Slice {
     static final Pattern PTRN =
         Pattern.compile("/-/package/(?<pkg>.*)/dist-tags/(?<tag>.*)");
 
-    /**
-     * Dist-tags json field name.
-     */
-    private static final String DIST_TAGS = "dist-tags";
-
     /**
      * Abstract storage.
      */
@@ -66,38 +58,23 @@ final class AddDistTagsSlice implements Slice {
         );
         final Response resp;
         if (matcher.matches()) {
-            final Key meta = new Key.From(matcher.group("pkg"), "meta.json");
+            final MetaFiles files = new MetaFiles(this.storage, new Key.From(matcher.group("pkg")));
             final String tag = matcher.group("tag");
             resp = new AsyncResponse(
-                this.storage.exists(meta).thenCompose(
-                    exists -> {
-                        final CompletableFuture<Response> res;
-                        if (exists) {
-                            res = this.storage.value(meta)
-                                .thenCompose(content -> new PublisherAs(content).asciiString())
-                                .thenApply(
-                                    str -> Json.createReader(new StringReader(str)).readObject()
-                                )
-                                .thenCombine(
-                                    new PublisherAs(body).asciiString(),
-                                    (json, val) -> Json.createObjectBuilder(json).add(
-                                        AddDistTagsSlice.DIST_TAGS,
-                                        Json.createObjectBuilder()
-                                            .addAll(
-                                                Json.createObjectBuilder(
-                                                    json.getJsonObject(AddDistTagsSlice.DIST_TAGS)
-                                                )
-                                            ).add(tag, val.replaceAll("\"", ""))
-                                        ).build()
-                                ).thenApply(
-                                    json -> json.toString().getBytes(StandardCharsets.UTF_8)
-                                ).thenCompose(
-                                    bytes -> this.storage.save(meta, new Content.From(bytes))
-                                ).thenApply(
-                                    nothing -> StandardRs.OK
-                                );
+                new PublisherAs(body).asciiString().thenCompose(
+                    val -> files.updateTags(
+                        tags -> tags.map(
+                            json -> Json.createObjectBuilder(json)
+                                .add(tag, val.replaceAll("\"", "")).build()
+                        )
+                    )
+                ).thenApply(
+                    tags -> {
+                        final Response res;
+                        if (tags.isPresent()) {
+                            res = StandardRs.OK;
                         } else {
-                            res = CompletableFuture.completedFuture(StandardRs.NOT_FOUND);
+                            res = StandardRs.NOT_FOUND;
                         }
                         return res;
                     }
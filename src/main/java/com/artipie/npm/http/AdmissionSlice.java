@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.headers.Header;
+import com.artipie.http.rq.RqHeaders;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.npm.BudgetExhaustedException;
+import com.artipie.npm.PayloadTooLargeException;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+
+/**
+ * Admission control of publish requests, see {@link PublishAdmission}. Request is
+ * admitted before its body is read: request with `Content-Length` over the size
+ * limit is rejected with `413 Payload Too Large`, request which does not fit into
+ * the budget of bytes in flight is rejected with `503 Service Unavailable` and
+ * `Retry-After` header. Admitted request reserves its `Content-Length`, request
+ * without the length reserves its body bytes as they are read and fails with
+ * {@link BudgetExhaustedException} if the budget is exhausted. Body is counted
+ * while it is read and fails with {@link PayloadTooLargeException} after
+ * the admitted number of bytes, both errors are answered by {@link UploadSlice}.
+ * The reservation is returned once when the body is read, fails or is cancelled,
+ * when the response is sent or fails, or when origin slice fails.
+ * @since 1.0
+ */
+public final class AdmissionSlice implements Slice {
+
+    /**
+     * Seconds to wait before retry of rejected request.
+     */
+    static final String RETRY = "1";
+
+    /**
+     * Origin slice.
+     */
+    private final Slice origin;
+
+    /**
+     * Admission limits.
+     */
+    private final PublishAdmission admission;
+
+    /**
+     * Ctor.
+     * @param origin Origin slice
+     * @param admission Admission limits
+     */
+    public AdmissionSlice(final Slice origin, final PublishAdmission admission) {
+        this.origin = origin;
+        this.admission = admission;
+    }
+
+    @Override
+    public Response response(
+        final String line,
+        final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body
+    ) {
+        final Optional<Long> length = new RqHeaders(headers, "Content-Length").stream()
+            .findFirst().map(String::trim).filter(value -> value.matches("\\d{1,18}"))
+            .map(Long::parseLong);
+        final Response res;
+        if (length.isPresent() && length.get() > this.admission.cap()) {
+            res = new RsWithBody(
+                new RsWithStatus(RsStatus.PAYLOAD_TOO_LARGE),
+                String.format("Request body is larger than %d bytes", this.admission.cap()),
+                StandardCharsets.UTF_8
+            );
+        } else if (this.admission.acquire(length.orElse(0L))) {
+            final Reservation reserved = new Reservation(this.admission, length.orElse(0L));
+            final Response rsp;
+            try {
+                rsp = this.origin.response(
+                    line, headers,
+                    reserved.limited(body, length.orElse(this.admission.cap()))
+                );
+            } catch (final RuntimeException err) {
+                reserved.release();
+                throw err;
+            }
+            res = connection -> {
+                CompletionStage<Void> sent;
+                try {
+                    sent = rsp.send(connection);
+                } catch (final RuntimeException err) {
+                    sent = new FailedCompletionStage<>(err);
+                }
+                return sent.handle(
+                    (nothing, err) -> {
+                        reserved.release();
+                        final CompletionStage<Void> done;
+                        if (err == null) {
+                            done = CompletableFuture.allOf();
+                        } else {
+                            done = new FailedCompletionStage<>(err);
+                        }
+                        return done;
+                    }
+                ).thenCompose(Function.identity());
+            };
+        } else {
+            res = new RsWithHeaders(
+                new RsWithStatus(RsStatus.UNAVAILABLE),
+                new Header("Retry-After", AdmissionSlice.RETRY)
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Bytes of the budget reserved by admitted request.
+     * @since 1.0
+     */
+    private static final class Reservation {
+
+        /**
+         * Admission limits.
+         */
+        private final PublishAdmission admission;
+
+        /**
+         * Reserved bytes.
+         */
+        private long bytes;
+
+        /**
+         * Reservation was returned to the budget.
+         */
+        private boolean released;
+
+        /**
+         * Ctor.
+         * @param admission Admission limits
+         * @param bytes Bytes reserved on admission
+         */
+        Reservation(final PublishAdmission admission, final long bytes) {
+            this.admission = admission;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Body which reserves its bytes as they are read, fails when it is longer
+         * than the limit and returns the reservation when it is read, fails or
+         * is cancelled.
+         * @param body Request body
+         * @param limit Maximum number of bytes
+         * @return Limited body
+         */
+        Publisher<ByteBuffer> limited(final Publisher<ByteBuffer> body, final long limit) {
+            final AtomicLong read = new AtomicLong();
+            return Flowable.fromPublisher(body).doOnNext(
+                buf -> {
+                    final long total = read.addAndGet(buf.remaining());
+                    if (total > limit) {
+                        throw new PayloadTooLargeException(
+                            String.format("Request body is larger than %d bytes", limit)
+                        );
+                    }
+                    if (!this.reserve(total)) {
+                        throw new BudgetExhaustedException(
+                            "Budget of publish requests in flight is exhausted, retry later"
+                        );
+                    }
+                }
+            ).doFinally(this::release);
+        }
+
+        /**
+         * Grow the reservation to the number of bytes.
+         * @param total Number of bytes to reserve
+         * @return False if the budget is exhausted or reservation was returned
+         */
+        synchronized boolean reserve(final long total) {
+            boolean res = !this.released;
+            if (res && total > this.bytes) {
+                res = this.admission.acquire(total - this.bytes);
+                if (res) {
+                    this.bytes = total;
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Return reserved bytes to the budget, only the first call has effect.
+         */
+        synchronized void release() {
+            if (!this.released) {
+                this.released = true;
+                this.admission.release(this.bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.Location;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rq.RqParams;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.npm.Publish;
+import com.artipie.npm.UploadSessions;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.json.Json;
+import org.reactivestreams.Publisher;
+
+/**
+ * Resumable chunked upload of package archives for large packages, see
+ * {@link UploadSessions}:
+ * <ul>
+ *  <li>`POST /{package}/-/uploads?size={size}[&amp;integrity={integrity}]` starts
+ *  a session of the archive size and integrity and returns its location</li>
+ *  <li>`PATCH /{package}/-/uploads/{session}?offset={offset}` appends a chunk</li>
+ *  <li>`GET /{package}/-/uploads/{session}` returns session status</li>
+ *  <li>`PUT /{package}/-/uploads/{session}` publishes uploaded archive and
+ *  removes the session</li>
+ *  <li>`DELETE /{package}/-/uploads/{session}` aborts the session</li>
+ * </ul>
+ * Appending a chunk and reading status return status json with received offset,
+ * so after a failure the client resends chunks from this offset only. Session which
+ * has not received the whole archive is not published and its status is returned
+ * with `409 Conflict`. Chunks over the archive size and rejected archives are
+ * answered like by {@link UploadSlice}, the session is kept.
+ * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class ChunkedUploadSlice implements Slice {
+
+    /**
+     * Endpoint request path pattern.
+     */
+    static final Pattern PTRN = Pattern.compile(
+        String.join(
+            "", "/(?<pkg>.+)/-/uploads",
+            "(/(?<id>[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}))?"
+        )
+    );
+
+    /**
+     * Upload sessions.
+     */
+    private final UploadSessions sessions;
+
+    /**
+     * The npm publish front for uploaded archives.
+     */
+    private final Publish npm;
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     * @param npm The npm publish front for uploaded archives, e.g. {@link CurlPublish}
+     */
+    public ChunkedUploadSlice(final Storage storage, final Publish npm) {
+        this.sessions = new UploadSessions(storage);
+        this.npm = npm;
+    }
+
+    @Override
+    public Response response(
+        final String line,
+        final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body
+    ) {
+        final RequestLineFrom rqline = new RequestLineFrom(line);
+        final Matcher matcher = ChunkedUploadSlice.PTRN.matcher(rqline.uri().getPath());
+        final Response res;
+        if (matcher.matches()) {
+            final Key pkg = new Key.From(matcher.group("pkg"));
+            final Optional<String> id = Optional.ofNullable(matcher.group("id"));
+            final RqMethod method = rqline.method();
+            if (method == RqMethod.POST && !id.isPresent()) {
+                res = this.start(pkg, rqline);
+            } else if (method == RqMethod.PATCH && id.isPresent()) {
+                res = this.append(pkg, id.get(), rqline, body);
+            } else if (method == RqMethod.GET && id.isPresent()) {
+                res = new AsyncResponse(
+                    this.sessions.status(pkg, id.get()).thenApply(
+                        status -> status.<Response>map(
+                            found -> ChunkedUploadSlice.status(RsStatus.OK, found)
+                        ).orElse(StandardRs.NOT_FOUND)
+                    )
+                );
+            } else if (method == RqMethod.PUT && id.isPresent()) {
+                res = new AsyncResponse(this.commit(pkg, id.get()));
+            } else if (method == RqMethod.DELETE && id.isPresent()) {
+                res = new AsyncResponse(
+                    this.sessions.close(pkg, id.get()).thenApply(nothing -> StandardRs.OK)
+                );
+            } else {
+                res = new RsWithStatus(RsStatus.METHOD_NOT_ALLOWED);
+            }
+        } else {
+            res = new RsWithStatus(RsStatus.BAD_REQUEST);
+        }
+        return res;
+    }
+
+    /**
+     * Start session of the archive size and, optionally, integrity from request
+     * query parameters.
+     * @param pkg Package key
+     * @param rqline Request line
+     * @return Created session response
+     */
+    private Response start(final Key pkg, final RequestLineFrom rqline) {
+        final RqParams params = new RqParams(rqline.uri());
+        final Optional<Long> size = params.value("size")
+            .filter(value -> value.matches("\\d{1,18}"))
+            .map(Long::parseLong)
+            .filter(value -> value > 0);
+        final Response res;
+        if (size.isPresent()) {
+            res = new AsyncResponse(
+                this.sessions.start(pkg, size.get(), params.value("integrity")).thenApply(
+                    session -> new RsWithBody(
+                        new RsWithHeaders(
+                            new RsWithStatus(RsStatus.CREATED),
+                            new Location(
+                                String.format("/%s/-/uploads/%s", pkg.string(), session)
+                            )
+                        ),
+                        Json.createObjectBuilder().add("id", session).build().toString(),
+                        StandardCharsets.UTF_8
+                    )
+                )
+            );
+        } else {
+            res = new RsWithBody(
+                new RsWithStatus(RsStatus.BAD_REQUEST),
+                "Archive size is required", StandardCharsets.UTF_8
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Append chunk to the session.
+     * @param pkg Package key
+     * @param id Session id
+     * @param rqline Request line
+     * @param body Chunk content
+     * @return Session status response
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private Response append(
+        final Key pkg, final String id, final RequestLineFrom rqline,
+        final Publisher<ByteBuffer> body
+    ) {
+        final Optional<Long> offset = new RqParams(rqline.uri()).value("offset")
+            .filter(value -> value.matches("\\d{1,18}"))
+            .map(Long::parseLong);
+        final Response res;
+        if (offset.isPresent()) {
+            res = new AsyncResponse(
+                this.sessions.append(pkg, id, offset.get(), body).thenApply(
+                    status -> status.<Response>map(
+                        found -> ChunkedUploadSlice.status(RsStatus.OK, found)
+                    ).orElse(StandardRs.NOT_FOUND)
+                ).exceptionally(
+                    err -> UploadSlice.rejected(err).orElseThrow(
+                        () -> new CompletionException(err)
+                    )
+                )
+            );
+        } else {
+            res = new RsWithBody(
+                new RsWithStatus(RsStatus.BAD_REQUEST),
+                "Chunk offset is required", StandardCharsets.UTF_8
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Publish archive of complete session and remove the session.
+     * @param pkg Package key
+     * @param id Session id
+     * @return Response
+     */
+    private CompletableFuture<Response> commit(final Key pkg, final String id) {
+        return this.sessions.status(pkg, id).thenCompose(
+            status -> {
+                final CompletableFuture<Response> res;
+                if (!status.isPresent()) {
+                    res = CompletableFuture.completedFuture(StandardRs.NOT_FOUND);
+                } else if (status.get().complete()) {
+                    res = this.npm.publish(pkg, this.sessions.content(status.get()))
+                        .thenCompose(nothing -> this.sessions.close(pkg, id))
+                        .<Response>thenApply(nothing -> StandardRs.OK)
+                        .exceptionally(
+                            err -> UploadSlice.rejected(err).orElseThrow(
+                                () -> new CompletionException(err)
+                            )
+                        );
+                } else {
+                    res = CompletableFuture.completedFuture(
+                        ChunkedUploadSlice.status(RsStatus.CONFLICT, status.get())
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Session status response.
+     * @param code Response status
+     * @param status Session status
+     * @return Response
+     */
+    private static Response status(final RsStatus code, final UploadSessions.Status status) {
+        return new RsWithBody(
+            new RsWithStatus(code), status.json().toString(), StandardCharsets.UTF_8
+        );
+    }
+}
@@ -4,16 +4,15 @@
  */
 package com.artipie.npm.http;
 
-import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.npm.MetaUpdate;
+import com.artipie.npm.MetaQueue;
 import com.artipie.npm.Publish;
-import com.artipie.npm.TgzArchive;
-import com.artipie.npm.misc.JsonFromPublisher;
+import com.artipie.npm.UploadedJson;
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
-import javax.json.JsonObject;
+import org.reactivestreams.Publisher;
 
 /**
  * The NPM publish front.
@@ -21,6 +20,9 @@ import javax.json.JsonObject;
  * {@code npm publish command} and to:
  *  1. to generate source archives
  *  2. meta.json file
+ * The json is not read into memory: archives are decoded and saved while
+ * the json is read, see {@link UploadedJson}, metadata update is passed
+ * to the {@link MetaQueue} after archives are saved.
  *
  * @since 0.9
  */
@@ -35,56 +37,41 @@ final class CliPublish implements Publish {
      */
     private final Storage storage;
 
+    /**
+     * Queue of metadata updates.
+     */
+    private final MetaQueue queue;
+
     /**
      * Constructor.
      * @param storage The storage.
      */
     CliPublish(final Storage storage) {
+        this(storage, new MetaQueue.Immediate());
+    }
+
+    /**
+     * Constructor.
+     * @param storage The storage.
+     * @param queue Queue of metadata updates
+     */
+    CliPublish(final Storage storage, final MetaQueue queue) {
         this.storage = storage;
+        this.queue = queue;
     }
 
     @Override
     public CompletableFuture<Void> publish(final Key prefix, final Key artifact) {
-        return this.storage.value(artifact)
-            .thenApply(JsonFromPublisher::new)
-            .thenCompose(JsonFromPublisher::json)
-            .thenCompose(
-                uploaded -> CompletableFuture.allOf(
-                    new MetaUpdate.ByJson(uploaded).update(prefix, this.storage),
-                    this.updateSourceArchives(uploaded)
-                )
-            );
+        return this.storage.value(artifact).thenCompose(value -> this.publish(prefix, value));
     }
 
-    /**
-     * Generate .tgz archives extracted from the uploaded json.
-     *
-     * @param uploaded The uploaded json
-     * @return Completion or error signal.
-     */
-    private CompletableFuture<Void> updateSourceArchives(final JsonObject uploaded) {
-        return CompletableFuture.supplyAsync(() -> uploaded.getJsonObject("_attachments"))
+    @Override
+    public CompletableFuture<Void> publish(
+        final Key prefix, final Publisher<ByteBuffer> content
+    ) {
+        return new UploadedJson(content).save(this.storage, prefix, this.queue)
             .thenCompose(
-                attach ->
-                    CompletableFuture.allOf(
-                        attach.keySet().stream()
-                        .map(
-                            attachment -> {
-                                final byte[] bytes = new TgzArchive(
-                                    attach.getJsonObject(attachment).getString("data")
-                                ).bytes();
-                                return this.storage.save(
-                                    new Key.From(
-                                        uploaded.getString("name"),
-                                        "-",
-                                        attachment
-                                    ),
-                                    new Content.From(bytes)
-                                );
-                            }
-                        ).toArray(CompletableFuture[]::new)
-                    )
+                uploaded -> this.queue.enqueue(this.storage, prefix, uploaded)
             );
     }
-
 }
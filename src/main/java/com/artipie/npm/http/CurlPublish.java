@@ -4,23 +4,32 @@
  */
 package com.artipie.npm.http;
 
-import com.artipie.asto.Concatenation;
-import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
 import com.artipie.asto.Key;
-import com.artipie.asto.Remaining;
 import com.artipie.asto.Storage;
-import com.artipie.asto.rx.RxStorageWrapper;
 import com.artipie.npm.MetaUpdate;
+import com.artipie.npm.PackageRemoval;
 import com.artipie.npm.Publish;
-import com.artipie.npm.TgzArchive;
-import hu.akarnokd.rxjava2.interop.SingleInterop;
-import java.nio.charset.StandardCharsets;
+import com.artipie.npm.Staging;
+import com.artipie.npm.TarballBlobs;
+import com.artipie.npm.TgzInspector;
+import com.artipie.npm.VersionExistsException;
+import com.artipie.npm.VersionIndex;
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import java.util.regex.Pattern;
+import org.reactivestreams.Publisher;
 
 /**
  * The NPM publish front. It allows to publish new .tgz archive
- * using `curl PUT`.
+ * using `curl PUT`. The archive is inspected while it is saved to a staging
+ * key and is added to the package, see {@link TarballBlobs}, when package name
+ * and version are known from its `package.json`. Archive of the version which
+ * is found in {@link VersionIndex} is removed and rejected with
+ * {@link VersionExistsException}, archive of the package which is being removed,
+ * see {@link PackageRemoval}, is removed and rejected too.
  * @since 0.9
  */
 final class CurlPublish implements Publish {
@@ -44,32 +53,71 @@ final class CurlPublish implements Publish {
 
     @Override
     public CompletableFuture<Void> publish(final Key prefix, final Key artifact) {
-        return new RxStorageWrapper(this.storage).value(artifact)
-            .map(Concatenation::new)
-            .flatMap(Concatenation::single)
-            .map(Remaining::new)
-            .map(Remaining::bytes)
-            .map(bytes -> new String(bytes, StandardCharsets.ISO_8859_1))
-            .map(bytes -> new TgzArchive(bytes, false))
-            .to(SingleInterop.get())
-            .toCompletableFuture()
-            .thenCompose(
-                uploaded -> uploaded.packageJson()
-                    .to(SingleInterop.get())
-                    .thenCompose(
-                        pkg -> {
-                            final String name = pkg.getString("name");
-                            final String vers = pkg.getString("version");
-                            return CompletableFuture.allOf(
-                                this.storage.save(
-                                    new Key.From(name, "-", String.format("%s-%s.tgz", name, vers)),
-                                    new Content.From(uploaded.bytes())
-                                ),
-                                new MetaUpdate.ByTgz(uploaded)
-                                    .update(new Key.From(name), this.storage)
-                            );
-                        }
-                )
-            );
+        return this.storage.value(artifact).thenCompose(value -> this.publish(prefix, value));
+    }
+
+    @Override
+    public CompletableFuture<Void> publish(
+        final Key prefix, final Publisher<ByteBuffer> content
+    ) {
+        final Key staged = Staging.next(".tgz");
+        return new TgzInspector(content).save(this.storage, staged)
+            .thenCompose(tgz -> this.add(tgz, staged))
+            .handle(
+                (nothing, err) -> {
+                    final CompletableFuture<Void> res;
+                    if (err == null) {
+                        res = CompletableFuture.allOf();
+                    } else {
+                        res = this.storage.exists(staged).thenCompose(
+                            exists -> {
+                                final CompletableFuture<Void> del;
+                                if (exists) {
+                                    del = this.storage.delete(staged);
+                                } else {
+                                    del = CompletableFuture.allOf();
+                                }
+                                return del;
+                            }
+                        ).thenCompose(ignored -> new FailedCompletionStage<>(err));
+                    }
+                    return res;
+                }
+            ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Add staged archive to the package and update package metadata, staged archive
+     * is left in storage if the archive is rejected.
+     * @param tgz Inspected archive
+     * @param staged Key of staged archive
+     * @return Completion or error signal
+     */
+    private CompletableFuture<Void> add(final TgzInspector.Summary tgz, final Key staged) {
+        final String name = tgz.packageJson().getString("name");
+        final String vers = tgz.packageJson().getString("version");
+        final Key pkg = new Key.From(name);
+        return new PackageRemoval(this.storage, pkg).check().thenCompose(
+            nothing -> new VersionIndex(this.storage, pkg).contains(vers)
+        ).thenCompose(
+            exists -> {
+                final CompletionStage<Void> res;
+                if (exists) {
+                    res = new FailedCompletionStage<>(
+                        new VersionExistsException(
+                            String.format("Version %s of %s is already published", vers, name)
+                        )
+                    );
+                } else {
+                    res = new TarballBlobs(this.storage).add(
+                        new Key.From(name, "-", String.format("%s-%s.tgz", name, vers)),
+                        staged, tgz.integrity()
+                    ).thenCompose(
+                        nothing -> new MetaUpdate.ByTgz(tgz).update(pkg, this.storage)
+                    );
+                }
+                return res;
+            }
+        );
     }
 }
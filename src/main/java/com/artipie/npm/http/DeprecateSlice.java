@@ -4,29 +4,30 @@
  */
 package com.artipie.npm.http;
 
-import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.http.Response;
 import com.artipie.http.Slice;
 import com.artipie.http.async.AsyncResponse;
 import com.artipie.http.rs.StandardRs;
+import com.artipie.npm.MetaDocument;
+import com.artipie.npm.MetaFiles;
 import com.artipie.npm.PackageNameFromUrl;
 import com.artipie.npm.misc.JsonFromPublisher;
+import com.artipie.npm.misc.OptionalValue;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.regex.Pattern;
-import javax.json.Json;
 import javax.json.JsonObject;
-import javax.json.JsonPatchBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.reactivestreams.Publisher;
 
 /**
- * Slice to handle `npm deprecate` command requests.
+ * Slice to handle `npm deprecate` command requests. Missing package
+ * is answered with 404 before request body is read.
  * @since 0.8
  */
 public final class DeprecateSlice implements Slice {
@@ -55,31 +56,38 @@ public final class DeprecateSlice implements Slice {
         final Publisher<ByteBuffer> publisher
     ) {
         final String pkg = new PackageNameFromUrl(line).value();
-        final Key key = new Key.From(pkg, "meta.json");
+        final Key key = new Key.From(pkg);
         return new AsyncResponse(
-            this.storage.exists(key).thenCompose(
-                exists -> {
-                    final CompletionStage<Response> res;
-                    if (exists) {
-                        res = new JsonFromPublisher(publisher).json()
-                            .thenApply(json -> json.getJsonObject("versions"))
-                            .thenCombine(
-                                this.storage.value(key)
-                                    .thenApply(JsonFromPublisher::new)
-                                    .thenCompose(JsonFromPublisher::json),
-                                (body, meta) -> DeprecateSlice.deprecate(body, meta).toString()
-                            ).thenCompose(
-                                str -> this.storage.save(
-                                    key, new Content.From(str.getBytes(StandardCharsets.UTF_8))
-                                )
-                            )
-                            .thenApply(nothing -> StandardRs.OK);
-                    } else {
-                        res = CompletableFuture.completedFuture(StandardRs.NOT_FOUND);
+            new OptionalValue(this.storage).metadata(new Key.From(key, MetaFiles.META))
+                .thenCompose(
+                    found -> {
+                        final CompletionStage<Optional<JsonObject>> res;
+                        if (found.isPresent()) {
+                            res = new JsonFromPublisher(publisher).json()
+                                .thenApply(json -> json.getJsonObject("versions"))
+                                .thenCompose(
+                                    versions -> new MetaFiles(this.storage, key).update(
+                                        meta -> meta.map(
+                                            json -> DeprecateSlice.deprecate(versions, json)
+                                        )
+                                    )
+                                );
+                        } else {
+                            res = CompletableFuture.completedFuture(Optional.empty());
+                        }
+                        return res;
                     }
-                    return res;
-                }
-            )
+                ).thenApply(
+                    meta -> {
+                        final Response res;
+                        if (meta.isPresent()) {
+                            res = StandardRs.OK;
+                        } else {
+                            res = StandardRs.NOT_FOUND;
+                        }
+                        return res;
+                    }
+                )
         );
     }
 
@@ -90,21 +98,17 @@ public final class DeprecateSlice implements Slice {
      * @return Meta json with added deprecate tags
      */
     private static JsonObject deprecate(final JsonObject versions, final JsonObject meta) {
-        final JsonPatchBuilder res = Json.createPatchBuilder();
+        final MetaDocument res = new MetaDocument(meta);
         final String field = "deprecated";
-        final  String path = "/versions/%s/deprecated";
         for (final String version : versions.keySet()) {
             if (versions.getJsonObject(version).containsKey(field)) {
                 if (StringUtils.isEmpty(versions.getJsonObject(version).getString(field))) {
-                    res.remove(String.format(path, version));
+                    res.unset(version, field);
                 } else {
-                    res.add(
-                        String.format(path, version),
-                        versions.getJsonObject(version).getString(field)
-                    );
+                    res.field(version, field, versions.getJsonObject(version).get(field));
                 }
             }
         }
-        return res.build().apply(meta);
+        return res.json();
     }
 }
@@ -5,6 +5,7 @@
 
 package com.artipie.npm.http;
 
+import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.http.Headers;
@@ -12,26 +13,45 @@ import com.artipie.http.Response;
 import com.artipie.http.Slice;
 import com.artipie.http.async.AsyncResponse;
 import com.artipie.http.headers.Header;
+import com.artipie.http.rq.RqHeaders;
 import com.artipie.http.rs.RsFull;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithHeaders;
 import com.artipie.http.rs.RsWithStatus;
+import com.artipie.npm.AbbreviatedMeta;
+import com.artipie.npm.MetaFiles;
+import com.artipie.npm.MetaValidators;
 import com.artipie.npm.PackageNameFromUrl;
 import com.artipie.npm.Tarballs;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import org.reactivestreams.Publisher;
 
 /**
- * Download package endpoint. Return package metadata, all tarball links will be rewritten
- * based on requested URL.
+ * Download package endpoint. Return package metadata with package dist-tags, all tarball
+ * links will be rewritten based on requested URL. Abbreviated metadata is returned
+ * if client sends `Accept: application/vnd.npm.install-v1+json` header. Rendered metadata
+ * is cached by {@link MetaCache}. Conditional requests are answered with 304
+ * by metadata validators without reading the metadata. Gzip-compressed metadata
+ * is served from cache to clients which accept it, metadata is never compressed
+ * per request. Requests for packages without metadata are answered from
+ * {@link MissingMeta} without reading storage.
  *
  * @since 0.6
  * @checkstyle ClassDataAbstractionCouplingCheck (250 lines)
  */
 public final class DownloadPackageSlice implements Slice {
 
+    /**
+     * Vary header, response depends on `Accept` and `Accept-Encoding` request headers.
+     */
+    private static final Header VARY = new Header("Vary", "Accept, Accept-Encoding");
+
     /**
      * Base URL.
      */
@@ -42,6 +62,16 @@ public final class DownloadPackageSlice implements Slice {
      */
     private final Storage storage;
 
+    /**
+     * Rendered metadata cache.
+     */
+    private final MetaCache cache;
+
+    /**
+     * Packages without metadata.
+     */
+    private final MissingMeta missing;
+
     /**
      * Ctor.
      *
@@ -49,39 +79,200 @@ public final class DownloadPackageSlice implements Slice {
      * @param storage Abstract storage
      */
     public DownloadPackageSlice(final URL base, final Storage storage) {
+        this(base, storage, new MetaCache.NoCache());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param base Base URL
+     * @param storage Abstract storage
+     * @param cache Rendered metadata cache
+     */
+    public DownloadPackageSlice(final URL base, final Storage storage, final MetaCache cache) {
+        this(base, storage, cache, new MissingMeta.NoCache());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param base Base URL
+     * @param storage Abstract storage
+     * @param cache Rendered metadata cache
+     * @param missing Packages without metadata
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public DownloadPackageSlice(final URL base, final Storage storage, final MetaCache cache,
+        final MissingMeta missing) {
         this.base = base;
         this.storage = storage;
+        this.cache = cache;
+        this.missing = missing;
     }
 
-    // @checkstyle ReturnCountCheck (50 lines)
     @Override
     public Response response(final String line,
         final Iterable<Map.Entry<String, String>> headers,
         final Publisher<ByteBuffer> body) {
-        final String pkg = new PackageNameFromUrl(line).value();
-        final Key key = new Key.From(pkg, "meta.json");
+        final Key pkg = new Key.From(new PackageNameFromUrl(line).value());
+        final boolean gzip = DownloadPackageSlice.acceptsGzip(headers);
+        final boolean abbreviated = new RqHeaders(headers, "Accept").stream().anyMatch(
+            accept -> accept.contains(AbbreviatedMeta.MEDIA_TYPE)
+        );
         return new AsyncResponse(
-            this.storage.exists(key).thenCompose(
-                exists -> {
-                    if (exists) {
-                        return this.storage.value(key)
-                            .thenApply(content -> new Tarballs(content, this.base).value())
-                            .thenApply(
-                                content -> new RsFull(
-                                    RsStatus.OK,
-                                    new Headers.From(
-                                        new Header("Content-Type", "application/json")
-                                    ),
-                                    content
+            this.missing.lookup(pkg, () -> this.meta(pkg, headers, abbreviated, gzip)).thenApply(
+                rsp -> rsp.orElseGet(() -> new RsWithStatus(RsStatus.NOT_FOUND))
+            )
+        );
+    }
+
+    /**
+     * Package metadata response.
+     * @param pkg Package key
+     * @param headers Request headers
+     * @param abbreviated Client requests abbreviated metadata
+     * @param gzip Client accepts gzip encoding
+     * @return Response, empty if package metadata does not exist
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletableFuture<Optional<Response>> meta(final Key pkg,
+        final Iterable<Map.Entry<String, String>> headers, final boolean abbreviated,
+        final boolean gzip) {
+        return new MetaFiles(this.storage, pkg).validators().thenCompose(
+            meta -> {
+                final Validators validators;
+                if (abbreviated) {
+                    validators = new Validators(meta, MetaFiles.ABBREVIATED);
+                } else {
+                    validators = new Validators(meta, MetaFiles.META);
+                }
+                final CompletableFuture<Optional<Response>> res;
+                if (validators.fresh(headers)) {
+                    res = CompletableFuture.completedFuture(
+                        Optional.of(
+                            new RsWithHeaders(
+                                validators.notModified(), DownloadPackageSlice.VARY
                             )
-                            );
-                    } else {
-                        return CompletableFuture.completedFuture(
-                            new RsWithStatus(RsStatus.NOT_FOUND)
-                        );
-                    }
+                        )
+                    );
+                } else if (abbreviated) {
+                    res = this.rendered(
+                        pkg, MetaFiles.ABBREVIATED, AbbreviatedMeta.MEDIA_TYPE, meta, gzip
+                    ).thenCompose(
+                        rsp -> {
+                            final CompletableFuture<Optional<Response>> full;
+                            if (rsp.isPresent()) {
+                                full = CompletableFuture.completedFuture(rsp);
+                            } else {
+                                full = this.full(pkg, meta, gzip);
+                            }
+                            return full;
+                        }
+                    );
+                } else {
+                    res = this.full(pkg, meta, gzip);
                 }
-            )
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Full package metadata response.
+     * @param pkg Package key
+     * @param meta Metadata validators
+     * @param gzip Client accepts gzip encoding
+     * @return Response, empty if metadata does not exist
+     */
+    private CompletableFuture<Optional<Response>> full(
+        final Key pkg, final MetaValidators meta, final boolean gzip
+    ) {
+        return this.rendered(pkg, MetaFiles.META, "application/json", meta, gzip);
+    }
+
+    /**
+     * Rendered package metadata response. Compressed metadata is returned
+     * if client accepts gzip encoding and cache keeps compressed metadata.
+     * Rendered metadata is cached by ETag of the metadata file read from validators,
+     * so metadata changed by any writer is never served from cache, metadata
+     * without ETag is not cached.
+     * @param pkg Package key
+     * @param file Metadata file name
+     * @param type Content type of metadata
+     * @param meta Metadata validators
+     * @param gzip Client accepts gzip encoding
+     * @return Response, empty if metadata file does not exist
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletableFuture<Optional<Response>> rendered(final Key pkg, final String file,
+        final String type, final MetaValidators meta, final boolean gzip) {
+        final Validators validators = new Validators(meta, file);
+        final Optional<String> etag = meta.etag(file);
+        final MetaCache rendering;
+        if (etag.isPresent()) {
+            rendering = this.cache;
+        } else {
+            rendering = new MetaCache.NoCache();
+        }
+        final String variant = String.join(
+            " ", file, this.base.toString(), etag.orElse("")
         );
+        final Supplier<CompletableFuture<Optional<Content>>> render =
+            () -> new MetaFiles(this.storage, pkg).content(file, meta).thenApply(
+                value -> value.map(content -> new Tarballs(content, this.base).value())
+            );
+        final Supplier<CompletableFuture<Optional<Response>>> plain =
+            () -> rendering.rendered(pkg, variant, render).thenApply(
+                rendered -> rendered.map(
+                    content -> new RsFull(
+                        RsStatus.OK,
+                        new Headers.From(
+                            validators.headers(), DownloadPackageSlice.VARY,
+                            new Header("Content-Type", type)
+                        ),
+                        content
+                    )
+                )
+            );
+        final CompletableFuture<Optional<Response>> res;
+        if (gzip) {
+            res = rendering.gzipped(pkg, variant, render).thenCompose(
+                gzipped -> gzipped.<CompletableFuture<Optional<Response>>>map(
+                    content -> CompletableFuture.completedFuture(
+                        Optional.of(
+                            new RsFull(
+                                RsStatus.OK,
+                                new Headers.From(
+                                    validators.weak().headers(), DownloadPackageSlice.VARY,
+                                    new Header("Content-Type", type),
+                                    new Header("Content-Encoding", "gzip")
+                                ),
+                                content
+                            )
+                        )
+                    )
+                ).orElseGet(plain)
+            );
+        } else {
+            res = plain.get();
+        }
+        return res;
+    }
+
+    /**
+     * Check if client accepts gzip encoding.
+     * @param headers Request headers
+     * @return True if gzip is acceptable
+     */
+    private static boolean acceptsGzip(final Iterable<Map.Entry<String, String>> headers) {
+        return new RqHeaders(headers, "Accept-Encoding").stream()
+            .flatMap(value -> Arrays.stream(value.split(",")))
+            .map(coding -> coding.split(";"))
+            .anyMatch(
+                coding -> ("gzip".equalsIgnoreCase(coding[0].trim())
+                    || "*".equals(coding[0].trim()))
+                    && Arrays.stream(coding).skip(1).map(String::trim)
+                    .noneMatch(param -> param.matches("q=0(\\.0*)?"))
+            );
     }
 }
@@ -0,0 +1,227 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.ContentFileName;
+import com.artipie.http.headers.ContentLength;
+import com.artipie.http.headers.Header;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqHeaders;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsFull;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.slice.KeyFromPath;
+import com.artipie.npm.MetaValidators;
+import com.artipie.npm.TarballBlobs;
+import com.artipie.npm.misc.OptionalValue;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.reactivestreams.Publisher;
+
+/**
+ * Tarball download endpoint, supports `GET` and `HEAD` requests. Content-addressed
+ * tarballs are read from their blobs, see {@link TarballBlobs}, their integrity is
+ * the entity tag. Other response headers (size, last modified date and MD5 entity tag
+ * of tarballs which are not content-addressed) are taken from storage metadata,
+ * so `HEAD` and conditional requests never open the tarball. Storage metadata is read
+ * without checking that the tarball exists first, absent tarball is answered with 404.
+ * Partial responses are not supported: satisfiable `Range` requests are answered
+ * with the whole tarball, unsatisfiable ones with 416.
+ * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (200 lines)
+ */
+public final class DownloadTarballSlice implements Slice {
+
+    /**
+     * Byte range pattern.
+     */
+    private static final Pattern RANGE = Pattern.compile("^(\\d*)-(\\d*)$");
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     */
+    public DownloadTarballSlice(final Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public Response response(final String line,
+        final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final RequestLineFrom rqline = new RequestLineFrom(line);
+        final Key key = new KeyFromPath(rqline.uri().getPath());
+        return new AsyncResponse(
+            new TarballBlobs(this.storage).integrity(key).thenCompose(
+                integrity -> {
+                    final Key content = integrity.map(TarballBlobs::data).orElse(key);
+                    return new OptionalValue(this.storage).metadata(content).thenCompose(
+                        meta -> meta.map(
+                            found -> this.found(content, integrity, rqline, headers, found)
+                        ).orElseGet(
+                            () -> CompletableFuture.completedFuture(
+                                DownloadTarballSlice.notFound(key)
+                            )
+                        )
+                    );
+                }
+            )
+        );
+    }
+
+    /**
+     * Response for existing tarball. Entity tag is the integrity of content-addressed
+     * tarball or MD5 digest of the tarball from storage metadata.
+     * @param key Tarball content key
+     * @param integrity Integrity of content-addressed tarball
+     * @param rqline Request line
+     * @param headers Request headers
+     * @param meta Tarball storage metadata
+     * @return Response
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletableFuture<Response> found(final Key key, final Optional<String> integrity,
+        final RequestLineFrom rqline, final Iterable<Map.Entry<String, String>> headers,
+        final Meta meta) {
+        final Optional<Long> size = meta.read(Meta.OP_SIZE).map(Long::longValue);
+        final Optional<String> etag;
+        if (integrity.isPresent()) {
+            etag = integrity;
+        } else {
+            etag = meta.read(Meta.OP_MD5).map(String::valueOf);
+        }
+        final Validators validators = new Validators(
+            etag.map(tag -> String.format("\"%s\"", tag)),
+            meta.read(Meta.OP_UPDATED_AT).map(MetaValidators.HTTP_DATE::format)
+        );
+        final CompletableFuture<Response> res;
+        if (validators.fresh(headers)) {
+            res = CompletableFuture.completedFuture(validators.notModified());
+        } else if (size.isPresent()
+            && !DownloadTarballSlice.satisfiable(new RqHeaders(headers, "Range"), size.get())) {
+            res = CompletableFuture.completedFuture(
+                new RsWithHeaders(
+                    new RsWithStatus(RsStatus.BAD_RANGE),
+                    "Content-Range", String.format("bytes */%d", size.get())
+                )
+            );
+        } else {
+            final List<Map.Entry<String, String>> rsheaders = new ArrayList<>(5);
+            validators.headers().forEach(rsheaders::add);
+            rsheaders.add(new ContentFileName(rqline.uri()));
+            rsheaders.add(new Header("Accept-Ranges", "none"));
+            size.ifPresent(val -> rsheaders.add(new ContentLength(val)));
+            res = this.tarball(key, rqline.method(), new Headers.From(rsheaders));
+        }
+        return res;
+    }
+
+    /**
+     * Tarball response, body is read only for `GET` requests.
+     * @param key Tarball key
+     * @param method Request method
+     * @param headers Response headers
+     * @return Response
+     */
+    private CompletableFuture<Response> tarball(
+        final Key key, final RqMethod method, final Headers headers
+    ) {
+        final CompletableFuture<Response> res;
+        if (method == RqMethod.HEAD) {
+            res = CompletableFuture.completedFuture(
+                new RsWithHeaders(new RsWithStatus(RsStatus.OK), headers)
+            );
+        } else {
+            res = new OptionalValue(this.storage).value(key).thenApply(
+                content -> content.<Response>map(
+                    found -> new RsFull(RsStatus.OK, headers, found)
+                ).orElseGet(() -> DownloadTarballSlice.notFound(key))
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Not found response.
+     * @param key Tarball key
+     * @return Response
+     */
+    private static Response notFound(final Key key) {
+        return new RsWithBody(
+            StandardRs.NOT_FOUND,
+            String.format("Key %s not found", key.string()),
+            StandardCharsets.UTF_8
+        );
+    }
+
+    /**
+     * Check if any of requested byte ranges is satisfiable. Requests without
+     * ranges, with unknown range units or malformed ranges are satisfiable,
+     * since such `Range` headers are ignored.
+     * @param ranges Range request headers
+     * @param size Tarball size
+     * @return True if range is satisfiable
+     */
+    private static boolean satisfiable(final List<String> ranges, final long size) {
+        boolean res = true;
+        if (ranges.size() == 1 && ranges.get(0).trim().startsWith("bytes=")) {
+            res = false;
+            for (final String range : ranges.get(0).trim().substring(6).split(",")) {
+                final Matcher matcher = DownloadTarballSlice.RANGE.matcher(range.trim());
+                if (!matcher.matches() || matcher.group(1).isEmpty()
+                    && matcher.group(2).isEmpty()) {
+                    res = true;
+                    break;
+                }
+                if (matcher.group(1).isEmpty()) {
+                    res = res || size > 0 && DownloadTarballSlice.position(matcher.group(2)) > 0;
+                } else {
+                    res = res || DownloadTarballSlice.position(matcher.group(1)) < size;
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Byte position of range, positions which do not fit into long
+     * are clamped to max long value.
+     * @param digits Decimal digits
+     * @return Position
+     */
+    private static long position(final String digits) {
+        final String value = digits.replaceFirst("^0+(?=\\d)", "");
+        final long res;
+        if (value.length() > 18) {
+            res = Long.MAX_VALUE;
+        } else {
+            res = Long.parseLong(value);
+        }
+        return res;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.asto.Key;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Invalidation counters of packages. Value read before reading package metadata
+ * is compared with the value after reading, and the result is not cached if
+ * the package was invalidated meanwhile. Packages share a fixed number of
+ * counters by key hash, so memory does not grow with the number of packages:
+ * invalidation of a package only prevents caching of packages with the same
+ * counter, while caching of other packages goes on.
+ * @since 1.0
+ */
+final class Generations {
+
+    /**
+     * Default number of counters.
+     */
+    private static final int STRIPES = 1024;
+
+    /**
+     * Counters.
+     */
+    private final AtomicLongArray counters;
+
+    /**
+     * Ctor with default number of counters.
+     */
+    Generations() {
+        this(Generations.STRIPES);
+    }
+
+    /**
+     * Ctor.
+     * @param stripes Number of counters
+     */
+    Generations(final int stripes) {
+        this.counters = new AtomicLongArray(stripes);
+    }
+
+    /**
+     * Current counter value of the package.
+     * @param pkg Package key
+     * @return Counter value
+     */
+    long current(final Key pkg) {
+        return this.counters.get(this.index(pkg));
+    }
+
+    /**
+     * Increment counter of the invalidated package.
+     * @param pkg Package key
+     */
+    void advance(final Key pkg) {
+        this.counters.incrementAndGet(this.index(pkg));
+    }
+
+    /**
+     * Counter index of the package.
+     * @param pkg Package key
+     * @return Index
+     */
+    private int index(final Key pkg) {
+        return Math.floorMod(pkg.string().hashCode(), this.counters.length());
+    }
+}
@@ -7,23 +7,26 @@ package com.artipie.npm.http;
 
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.ext.PublisherAs;
 import com.artipie.http.Response;
 import com.artipie.http.Slice;
 import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.rs.RsWithHeaders;
 import com.artipie.http.rs.StandardRs;
 import com.artipie.http.rs.common.RsJson;
+import com.artipie.npm.MetaFiles;
 import com.artipie.npm.PackageNameFromUrl;
-import java.io.StringReader;
 import java.nio.ByteBuffer;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import javax.json.Json;
 import org.reactivestreams.Publisher;
 
 /**
- * Returns value of the `dist-tags` field from package `meta.json`.
+ * Returns package dist-tags, see {@link MetaFiles#tags()}.
  * Request line to this slice looks like /-/package/@hello%2fsimple-npm-project/dist-tags.
+ * Conditional requests are answered with 304 by `meta.json` validators.
+ * Requests for packages without metadata are answered from {@link MissingMeta}
+ * without reading storage.
  * @since 0.8
  */
 public final class GetDistTagsSlice implements Slice {
@@ -33,13 +36,29 @@ public final class GetDistTagsSlice implements Slice {
      */
     private final Storage storage;
 
+    /**
+     * Packages without metadata.
+     */
+    private final MissingMeta missing;
+
     /**
      * Ctor.
      *
      * @param storage Abstract storage
      */
     public GetDistTagsSlice(final Storage storage) {
+        this(storage, new MissingMeta.NoCache());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Abstract storage
+     * @param missing Packages without metadata
+     */
+    public GetDistTagsSlice(final Storage storage, final MissingMeta missing) {
         this.storage = storage;
+        this.missing = missing;
     }
 
     @Override
@@ -49,24 +68,38 @@ public final class GetDistTagsSlice implements Slice {
         final String pkg = new PackageNameFromUrl(
             line.replace("/dist-tags", "").replace("/-/package", "")
         ).value();
-        final Key key = new Key.From(pkg, "meta.json");
+        final Key key = new Key.From(pkg);
         return new AsyncResponse(
-            this.storage.exists(key).thenCompose(
-                exists -> {
-                    final CompletableFuture<Response> res;
-                    if (exists) {
-                        res = this.storage.value(key)
-                            .thenCompose(content -> new PublisherAs(content).asciiString())
-                            .thenApply(
-                                str -> Json.createReader(new StringReader(str)).readObject()
-                            )
-                            .thenApply(json -> new RsJson(json.getJsonObject("dist-tags")));
-                    } else {
-                        res = CompletableFuture.completedFuture(StandardRs.NOT_FOUND);
-                    }
-                    return res;
-                }
+            this.missing.lookup(key, () -> this.meta(key, headers)).thenApply(
+                rsp -> rsp.orElse(StandardRs.NOT_FOUND)
             )
         );
     }
+
+    /**
+     * Dist-tags response.
+     * @param pkg Package key
+     * @param headers Request headers
+     * @return Response, empty if package metadata does not exist
+     */
+    private CompletableFuture<Optional<Response>> meta(
+        final Key pkg, final Iterable<Map.Entry<String, String>> headers
+    ) {
+        return new MetaFiles(this.storage, pkg).validators().thenCompose(
+            meta -> {
+                final Validators validators = new Validators(meta, MetaFiles.META);
+                final CompletableFuture<Optional<Response>> res;
+                if (validators.fresh(headers)) {
+                    res = CompletableFuture.completedFuture(Optional.of(validators.notModified()));
+                } else {
+                    res = new MetaFiles(this.storage, pkg).tags().thenApply(
+                        tags -> tags.map(
+                            json -> new RsWithHeaders(new RsJson(json), validators.headers())
+                        )
+                    );
+                }
+                return res;
+            }
+        );
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.npm.MetaFiles;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Storage, which notifies about changed package metadata: the package of every
+ * saved, moved or deleted metadata file, see {@link MetaFiles#owner(Key)}, is passed
+ * to the listener once the operation is completed, changes of other items, e.g.
+ * tarballs, are not notified. Deleted prefix, which is not metadata, is passed to
+ * the listener as is, since it may contain package metadata. It is used to invalidate
+ * in-memory caches of package metadata.
+ * @since 1.0
+ */
+final class InvalidatingStorage extends Storage.Wrap {
+
+    /**
+     * Changed packages listener.
+     */
+    private final Consumer<Key> listener;
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param listener Changed packages listener
+     */
+    InvalidatingStorage(final Storage origin, final Consumer<Key> listener) {
+        super(origin);
+        this.listener = listener;
+    }
+
+    @Override
+    public CompletableFuture<Void> save(final Key key, final Content content) {
+        return super.save(key, content).thenRun(() -> this.changed(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> move(final Key source, final Key destination) {
+        return super.move(source, destination).thenRun(
+            () -> {
+                this.changed(source);
+                this.changed(destination);
+            }
+        );
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Key key) {
+        return super.delete(key).thenRun(() -> this.changed(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAll(final Key prefix) {
+        return super.deleteAll(prefix).thenRun(
+            () -> this.listener.accept(MetaFiles.owner(prefix).orElse(prefix))
+        );
+    }
+
+    @Override
+    public <T> CompletionStage<T> exclusively(
+        final Key key, final Function<Storage, CompletionStage<T>> operation
+    ) {
+        return super.exclusively(
+            key, storage -> operation.apply(new InvalidatingStorage(storage, this.listener))
+        );
+    }
+
+    /**
+     * Notify listener about changed item, if it is package metadata.
+     * @param key Item key
+     */
+    private void changed(final Key key) {
+        MetaFiles.owner(key).ifPresent(this.listener);
+    }
+}
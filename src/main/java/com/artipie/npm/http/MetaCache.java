@@ -0,0 +1,353 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.ext.PublisherAs;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of rendered package metadata, i.e. response bodies of
+ * {@link DownloadPackageSlice}. Metadata variant includes the ETag of rendered
+ * metadata, so cached entries never become stale: metadata changed by other
+ * nodes or directly in storage gets a new ETag and is rendered again.
+ * Invalidation when package metadata is changed only frees memory
+ * of outdated entries.
+ * @since 1.0
+ */
+public interface MetaCache {
+
+    /**
+     * Obtain rendered metadata from cache or render it.
+     * @param pkg Package key
+     * @param variant Rendered metadata variant, e.g. metadata file, base URL and ETag
+     * @param render Metadata rendering, empty if metadata does not exist
+     * @return Rendered metadata, empty if metadata does not exist
+     */
+    CompletableFuture<Optional<Content>> rendered(
+        Key pkg, String variant, Supplier<CompletableFuture<Optional<Content>>> render
+    );
+
+    /**
+     * Obtain gzip-compressed rendered metadata from cache or render and compress it.
+     * Metadata is compressed once when it is put to cache, caches which do not
+     * keep metadata never compress it and return empty result, as well as caches
+     * which do not keep this metadata because it is too big.
+     * @param pkg Package key
+     * @param variant Rendered metadata variant, e.g. metadata file, base URL and ETag
+     * @param render Metadata rendering, empty if metadata does not exist
+     * @return Compressed metadata, empty if metadata does not exist or is not compressed
+     */
+    CompletableFuture<Optional<Content>> gzipped(
+        Key pkg, String variant, Supplier<CompletableFuture<Optional<Content>>> render
+    );
+
+    /**
+     * Invalidate all cached metadata variants of the package.
+     * @param pkg Package key
+     */
+    void invalidate(Key pkg);
+
+    /**
+     * No cache: metadata is rendered on every request.
+     * @since 1.0
+     */
+    final class NoCache implements MetaCache {
+
+        @Override
+        public CompletableFuture<Optional<Content>> rendered(
+            final Key pkg, final String variant,
+            final Supplier<CompletableFuture<Optional<Content>>> render
+        ) {
+            return render.get();
+        }
+
+        @Override
+        public CompletableFuture<Optional<Content>> gzipped(
+            final Key pkg, final String variant,
+            final Supplier<CompletableFuture<Optional<Content>>> render
+        ) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        @Override
+        public void invalidate(final Key pkg) {
+            // nothing to invalidate
+        }
+    }
+
+    /**
+     * In-memory cache bounded by the total size of rendered metadata in bytes,
+     * least recently used entries are evicted first. Each entry keeps rendered
+     * metadata along with its gzip-compressed copy. The cache is not split into
+     * segments, so one entry may take the whole cache size. Metadata bigger than
+     * the cache is not compressed: the variant is remembered as oversized and is
+     * streamed from storage uncompressed on next requests without buffering.
+     * @since 1.0
+     */
+    final class InMemory implements MetaCache {
+
+        /**
+         * Default cache size in bytes.
+         */
+        public static final long DEFAULT_SIZE = 64L * 1024 * 1024;
+
+        /**
+         * Max number of remembered oversized variants.
+         */
+        private static final long OVERSIZED = 1024L;
+
+        /**
+         * Max cache size in bytes, which is also the max size of one entry.
+         */
+        private final long size;
+
+        /**
+         * Cached metadata.
+         */
+        private final Cache<Id, Entry> cache;
+
+        /**
+         * Variants of metadata bigger than the cache.
+         */
+        private final Cache<Id, Boolean> oversized;
+
+        /**
+         * Invalidations counters of packages. Rendered metadata is not cached if
+         * the package was invalidated during rendering, because it could be rendered
+         * from outdated metadata.
+         */
+        private final Generations generations;
+
+        /**
+         * Ctor with default size.
+         */
+        public InMemory() {
+            this(InMemory.DEFAULT_SIZE);
+        }
+
+        /**
+         * Ctor.
+         * @param size Max cache size in bytes
+         */
+        public InMemory(final long size) {
+            this.size = size;
+            this.cache = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(size)
+                .<Id, Entry>weigher((key, entry) -> entry.weight())
+                .build();
+            this.oversized = CacheBuilder.newBuilder()
+                .maximumSize(InMemory.OVERSIZED)
+                .build();
+            this.generations = new Generations();
+        }
+
+        @Override
+        public CompletableFuture<Optional<Content>> rendered(
+            final Key pkg, final String variant,
+            final Supplier<CompletableFuture<Optional<Content>>> render
+        ) {
+            final Id id = new Id(pkg, variant);
+            final CompletableFuture<Optional<Content>> res;
+            if (this.oversized.getIfPresent(id) == null) {
+                res = this.entry(id, render).thenApply(
+                    entry -> entry.map(val -> new Content.From(val.plain))
+                );
+            } else {
+                res = render.get();
+            }
+            return res;
+        }
+
+        @Override
+        public CompletableFuture<Optional<Content>> gzipped(
+            final Key pkg, final String variant,
+            final Supplier<CompletableFuture<Optional<Content>>> render
+        ) {
+            final Id id = new Id(pkg, variant);
+            final CompletableFuture<Optional<Content>> res;
+            if (this.oversized.getIfPresent(id) == null) {
+                res = this.entry(id, render).thenApply(
+                    entry -> entry.flatMap(val -> val.gzip).<Content>map(Content.From::new)
+                );
+            } else {
+                res = CompletableFuture.completedFuture(Optional.empty());
+            }
+            return res;
+        }
+
+        @Override
+        public void invalidate(final Key pkg) {
+            this.generations.advance(pkg);
+            this.cache.asMap().keySet().removeIf(id -> id.pkg.equals(pkg));
+            this.oversized.asMap().keySet().removeIf(id -> id.pkg.equals(pkg));
+        }
+
+        /**
+         * Obtain cache entry or render metadata.
+         * @param id Cache entry id
+         * @param render Metadata rendering
+         * @return Cache entry, empty if metadata does not exist
+         */
+        private CompletableFuture<Optional<Entry>> entry(
+            final Id id, final Supplier<CompletableFuture<Optional<Content>>> render
+        ) {
+            final Entry cached = this.cache.getIfPresent(id);
+            final CompletableFuture<Optional<Entry>> res;
+            if (cached == null) {
+                final long gen = this.generations.current(id.pkg);
+                res = render.get().thenCompose(
+                    rendered -> {
+                        final CompletableFuture<Optional<Entry>> entry;
+                        if (rendered.isPresent()) {
+                            entry = new PublisherAs(rendered.get()).bytes()
+                                .thenApply(arr -> Optional.of(this.cached(id, arr, gen)))
+                                .toCompletableFuture();
+                        } else {
+                            entry = CompletableFuture.completedFuture(Optional.empty());
+                        }
+                        return entry;
+                    }
+                );
+            } else {
+                res = CompletableFuture.completedFuture(Optional.of(cached));
+            }
+            return res;
+        }
+
+        /**
+         * Put rendered metadata to cache if the package was not invalidated since
+         * rendering was started. Metadata bigger than the cache is not compressed
+         * and is remembered as oversized instead.
+         * @param id Cache entry id
+         * @param bytes Rendered metadata
+         * @param gen Invalidations counter value of the package before rendering
+         * @return Cache entry
+         */
+        private Entry cached(final Id id, final byte[] bytes, final long gen) {
+            final Entry entry = new Entry(bytes, bytes.length <= this.size);
+            if (entry.weight() > this.size) {
+                this.oversized.put(id, true);
+            } else if (this.generations.current(id.pkg) == gen) {
+                this.cache.put(id, entry);
+                if (this.generations.current(id.pkg) != gen) {
+                    this.cache.invalidate(id);
+                }
+            }
+            return entry;
+        }
+
+        /**
+         * Cache entry: rendered metadata and its gzip-compressed copy.
+         * @since 1.0
+         */
+        private static final class Entry {
+
+            /**
+             * Rendered metadata.
+             */
+            private final byte[] plain;
+
+            /**
+             * Compressed rendered metadata, empty if metadata is not compressed.
+             */
+            private final Optional<byte[]> gzip;
+
+            /**
+             * Ctor.
+             * @param plain Rendered metadata
+             * @param compress Whether to compress metadata
+             */
+            Entry(final byte[] plain, final boolean compress) {
+                this.plain = plain;
+                if (compress) {
+                    this.gzip = Optional.of(Entry.compressed(plain));
+                } else {
+                    this.gzip = Optional.empty();
+                }
+            }
+
+            /**
+             * Size of the entry.
+             * @return Size in bytes
+             */
+            int weight() {
+                return this.plain.length + this.gzip.map(bytes -> bytes.length).orElse(0);
+            }
+
+            /**
+             * Compress bytes with gzip.
+             * @param bytes Bytes to compress
+             * @return Compressed bytes
+             */
+            private static byte[] compressed(final byte[] bytes) {
+                final ByteArrayOutputStream res = new ByteArrayOutputStream(bytes.length / 8);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(res)) {
+                    gzip.write(bytes);
+                } catch (final IOException err) {
+                    throw new ArtipieIOException(err);
+                }
+                return res.toByteArray();
+            }
+        }
+
+        /**
+         * Cache entry id.
+         * @since 1.0
+         */
+        private static final class Id {
+
+            /**
+             * Package key.
+             */
+            private final Key pkg;
+
+            /**
+             * Metadata variant.
+             */
+            private final String variant;
+
+            /**
+             * Ctor.
+             * @param pkg Package key
+             * @param variant Metadata variant
+             */
+            Id(final Key pkg, final String variant) {
+                this.pkg = pkg;
+                this.variant = variant;
+            }
+
+            @Override
+            public boolean equals(final Object other) {
+                final boolean res;
+                if (this == other) {
+                    res = true;
+                } else if (other == null || this.getClass() != other.getClass()) {
+                    res = false;
+                } else {
+                    final Id that = (Id) other;
+                    res = this.pkg.equals(that.pkg) && this.variant.equals(that.variant);
+                }
+                return res;
+            }
+
+            @Override
+            public int hashCode() {
+                return Objects.hash(this.pkg, this.variant);
+            }
+        }
+    }
+}
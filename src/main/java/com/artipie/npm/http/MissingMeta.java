@@ -0,0 +1,159 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.asto.Key;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Negative cache of packages without metadata: requests for such packages are
+ * answered without reading storage until the entry expires or the package
+ * is invalidated.
+ * @since 1.0
+ */
+public interface MissingMeta {
+
+    /**
+     * Read package metadata unless package is known to have no metadata.
+     * @param pkg Package key
+     * @param read Metadata reading, empty if metadata does not exist
+     * @param <T> Result type
+     * @return Read result, empty if metadata does not exist
+     */
+    <T> CompletableFuture<Optional<T>> lookup(
+        Key pkg, Supplier<CompletableFuture<Optional<T>>> read
+    );
+
+    /**
+     * Invalidate package entry, e.g. when package is published.
+     * @param pkg Package key
+     */
+    void invalidate(Key pkg);
+
+    /**
+     * No cache: metadata is read on every request.
+     * @since 1.0
+     */
+    final class NoCache implements MissingMeta {
+
+        @Override
+        public <T> CompletableFuture<Optional<T>> lookup(
+            final Key pkg, final Supplier<CompletableFuture<Optional<T>>> read
+        ) {
+            return read.get();
+        }
+
+        @Override
+        public void invalidate(final Key pkg) {
+            // nothing to invalidate
+        }
+    }
+
+    /**
+     * In-memory cache of packages without metadata bounded by number of
+     * entries, entries expire after configured time.
+     * @since 1.0
+     */
+    final class InMemory implements MissingMeta {
+
+        /**
+         * Default time to keep entries.
+         */
+        public static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+
+        /**
+         * Default max number of entries.
+         */
+        public static final long DEFAULT_SIZE = 10_000L;
+
+        /**
+         * Packages without metadata.
+         */
+        private final Cache<Key, Boolean> cache;
+
+        /**
+         * Invalidations counters of packages. Package is not cached if it was
+         * invalidated during reading, because it could be published meanwhile.
+         */
+        private final Generations generations;
+
+        /**
+         * Ctor with default parameters.
+         */
+        public InMemory() {
+            this(InMemory.DEFAULT_TTL, InMemory.DEFAULT_SIZE);
+        }
+
+        /**
+         * Ctor.
+         * @param ttl Time to keep entries
+         * @param size Max number of entries
+         */
+        public InMemory(final Duration ttl, final long size) {
+            this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+                .maximumSize(size)
+                .recordStats()
+                .build();
+            this.generations = new Generations();
+        }
+
+        @Override
+        public <T> CompletableFuture<Optional<T>> lookup(
+            final Key pkg, final Supplier<CompletableFuture<Optional<T>>> read
+        ) {
+            final CompletableFuture<Optional<T>> res;
+            if (this.cache.getIfPresent(pkg) == null) {
+                final long gen = this.generations.current(pkg);
+                res = read.get().thenApply(
+                    result -> {
+                        if (!result.isPresent()) {
+                            this.missing(pkg, gen);
+                        }
+                        return result;
+                    }
+                );
+            } else {
+                res = CompletableFuture.completedFuture(Optional.empty());
+            }
+            return res;
+        }
+
+        @Override
+        public void invalidate(final Key pkg) {
+            this.generations.advance(pkg);
+            this.cache.invalidate(pkg);
+        }
+
+        /**
+         * Ratio of lookups answered from cache to all lookups.
+         * @return Hit rate, 1.0 if there were no lookups
+         */
+        public double hitRate() {
+            return this.cache.stats().hitRate();
+        }
+
+        /**
+         * Remember package without metadata if the package was not invalidated
+         * since reading was started.
+         * @param pkg Package key
+         * @param gen Invalidations counter value of the package before reading
+         */
+        private void missing(final Key pkg, final long gen) {
+            if (this.generations.current(pkg) == gen) {
+                this.cache.put(pkg, true);
+                if (this.generations.current(pkg) != gen) {
+                    this.cache.invalidate(pkg);
+                }
+            }
+        }
+    }
+}
@@ -21,8 +21,10 @@ import com.artipie.http.rt.ByMethodsRule;
 import com.artipie.http.rt.RtRule;
 import com.artipie.http.rt.RtRulePath;
 import com.artipie.http.rt.SliceRoute;
-import com.artipie.http.slice.SliceDownload;
 import com.artipie.http.slice.SliceSimple;
+import com.artipie.npm.MetaQueue;
+import com.artipie.npm.Staging;
+import com.artipie.npm.UploadSessions;
 import java.net.URL;
 import java.nio.ByteBuffer;
 import java.util.Map;
@@ -67,6 +69,16 @@ public final class NpmSlice implements Slice {
      */
     private final SliceRoute route;
 
+    /**
+     * Storage for packages, which invalidates caches on changes.
+     */
+    private final Storage storage;
+
+    /**
+     * Queue of metadata updates after `npm publish`.
+     */
+    private final MetaQueue queue;
+
     /**
      * Ctor with existing front and default parameters for free access.
      * @param base Base URL.
@@ -90,7 +102,149 @@ public final class NpmSlice implements Slice {
         final Storage storage,
         final Permissions perms,
         final TokenAuthentication auth) {
+        this(base, storage, perms, auth, new MetaCache.InMemory());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param base Base URL.
+     * @param storage Storage for package.
+     * @param perms Access permissions.
+     * @param auth Authentication.
+     * @param cache Rendered package metadata cache.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public NpmSlice(
+        final URL base,
+        final Storage storage,
+        final Permissions perms,
+        final TokenAuthentication auth,
+        final MetaCache cache) {
+        this(base, storage, perms, auth, cache, new MissingMeta.InMemory());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param base Base URL.
+     * @param storage Storage for package.
+     * @param perms Access permissions.
+     * @param auth Authentication.
+     * @param cache Rendered package metadata cache.
+     * @param missing Packages without metadata.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public NpmSlice(
+        final URL base,
+        final Storage storage,
+        final Permissions perms,
+        final TokenAuthentication auth,
+        final MetaCache cache,
+        final MissingMeta missing) {
+        this(base, storage, perms, auth, cache, missing, new MetaQueue.Immediate());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param base Base URL.
+     * @param storage Storage for package.
+     * @param perms Access permissions.
+     * @param auth Authentication.
+     * @param cache Rendered package metadata cache.
+     * @param missing Packages without metadata.
+     * @param queue Queue of metadata updates after `npm publish`.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public NpmSlice(
+        final URL base,
+        final Storage storage,
+        final Permissions perms,
+        final TokenAuthentication auth,
+        final MetaCache cache,
+        final MissingMeta missing,
+        final MetaQueue queue) {
+        this(base, storage, perms, auth, cache, missing, queue, new PublishAdmission());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param base Base URL.
+     * @param storage Storage for package.
+     * @param perms Access permissions.
+     * @param auth Authentication.
+     * @param cache Rendered package metadata cache.
+     * @param missing Packages without metadata.
+     * @param queue Queue of metadata updates after `npm publish`.
+     * @param admission Admission limits of publish requests.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public NpmSlice(
+        final URL base,
+        final Storage storage,
+        final Permissions perms,
+        final TokenAuthentication auth,
+        final MetaCache cache,
+        final MissingMeta missing,
+        final MetaQueue queue,
+        final PublishAdmission admission) {
+        this(
+            base, storage, perms, auth, cache, missing, queue, admission,
+            UnpublishForceSlice.PARALLELISM
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param base Base URL.
+     * @param storage Storage for package.
+     * @param perms Access permissions.
+     * @param auth Authentication.
+     * @param cache Rendered package metadata cache.
+     * @param missing Packages without metadata.
+     * @param queue Queue of metadata updates after `npm publish`.
+     * @param admission Admission limits of publish requests.
+     * @param parallelism Maximum number of files removed at once by `npm unpublish --force`.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public NpmSlice(
+        final URL base,
+        final Storage storage,
+        final Permissions perms,
+        final TokenAuthentication auth,
+        final MetaCache cache,
+        final MissingMeta missing,
+        final MetaQueue queue,
+        final PublishAdmission admission,
+        final int parallelism) {
+        final Storage asto = new InvalidatingStorage(
+            storage,
+            pkg -> {
+                cache.invalidate(pkg);
+                missing.invalidate(pkg);
+            }
+        );
+        this.storage = asto;
+        this.queue = queue;
         this.route = new SliceRoute(
+            new RtRulePath(
+                new RtRule.All(
+                    new ByMethodsRule(
+                        RqMethod.POST, RqMethod.PATCH, RqMethod.GET, RqMethod.PUT, RqMethod.DELETE
+                    ),
+                    new RtRule.ByPath(ChunkedUploadSlice.PTRN)
+                ),
+                new BearerAuthSlice(
+                    new AdmissionSlice(
+                        new ChunkedUploadSlice(asto, new CurlPublish(asto)), admission
+                    ),
+                    auth,
+                    new Permission.ByName(perms, Action.Standard.WRITE)
+                )
+            ),
             new RtRulePath(
                 new RtRule.All(
                     new ByMethodsRule(RqMethod.GET),
@@ -108,7 +262,7 @@ public final class NpmSlice implements Slice {
                     new RtRule.ByPath(AddDistTagsSlice.PTRN)
                 ),
                 new BearerAuthSlice(
-                    new AddDistTagsSlice(storage),
+                    new AddDistTagsSlice(asto),
                     auth,
                     new Permission.ByName(perms, Action.Standard.WRITE)
                 )
@@ -119,7 +273,7 @@ public final class NpmSlice implements Slice {
                     new RtRule.ByPath(AddDistTagsSlice.PTRN)
                 ),
                 new BearerAuthSlice(
-                    new DeleteDistTagsSlice(storage),
+                    new DeleteDistTagsSlice(asto),
                     auth,
                     new Permission.ByName(perms, Action.Standard.WRITE)
                 )
@@ -133,7 +287,7 @@ public final class NpmSlice implements Slice {
                     )
                 ),
                 new BearerAuthSlice(
-                    new UploadSlice(new CliPublish(storage), storage),
+                    new AdmissionSlice(new UploadSlice(new CliPublish(asto, queue)), admission),
                     auth,
                     new Permission.ByName(perms, Action.Standard.WRITE)
                 )
@@ -147,7 +301,7 @@ public final class NpmSlice implements Slice {
                     )
                 ),
                 new BearerAuthSlice(
-                    new DeprecateSlice(storage),
+                    new DeprecateSlice(asto),
                     auth,
                     new Permission.ByName(perms, Action.Standard.WRITE)
                 )
@@ -161,7 +315,7 @@ public final class NpmSlice implements Slice {
                     )
                 ),
                 new BearerAuthSlice(
-                    new UnpublishPutSlice(storage),
+                    new UnpublishPutSlice(asto),
                     auth,
                     new Permission.ByName(perms, Action.Standard.WRITE)
                 )
@@ -172,7 +326,7 @@ public final class NpmSlice implements Slice {
                     new RtRule.ByPath(CurlPublish.PTRN)
                 ),
                 new BearerAuthSlice(
-                    new UploadSlice(new CurlPublish(storage), storage),
+                    new AdmissionSlice(new UploadSlice(new CurlPublish(asto)), admission),
                     auth,
                     new Permission.ByName(perms, Action.Standard.WRITE)
                 )
@@ -183,7 +337,7 @@ public final class NpmSlice implements Slice {
                     new RtRule.ByPath(".*/dist-tags$")
                 ),
                 new BearerAuthSlice(
-                    new GetDistTagsSlice(storage),
+                    new GetDistTagsSlice(asto, missing),
                     auth,
                     new Permission.ByName(perms, Action.Standard.READ)
                 )
@@ -194,18 +348,18 @@ public final class NpmSlice implements Slice {
                     new RtRule.ByPath(".*(?<!\\.tgz)$")
                 ),
                 new BearerAuthSlice(
-                    new DownloadPackageSlice(base, storage),
+                    new DownloadPackageSlice(base, asto, cache, missing),
                     auth,
                     new Permission.ByName(perms, Action.Standard.READ)
                 )
             ),
             new RtRulePath(
                 new RtRule.All(
-                    new ByMethodsRule(RqMethod.GET),
+                    new ByMethodsRule(RqMethod.GET, RqMethod.HEAD),
                     new RtRule.ByPath(".*\\.tgz$")
                 ),
                 new BearerAuthSlice(
-                    new SliceDownload(storage),
+                    new DownloadTarballSlice(asto),
                     auth,
                     new Permission.ByName(perms, Action.Standard.READ)
                 )
@@ -216,7 +370,7 @@ public final class NpmSlice implements Slice {
                     new RtRule.ByPath(UnpublishForceSlice.PTRN)
                 ),
                 new BearerAuthSlice(
-                    new UnpublishForceSlice(storage),
+                    new UnpublishForceSlice(asto, queue, parallelism),
                     auth,
                     new Permission.ByName(perms, Action.Standard.DELETE)
                 )
@@ -231,4 +385,20 @@ public final class NpmSlice implements Slice {
         final Publisher<ByteBuffer> body) {
         return this.route.response(line, headers, body);
     }
+
+    /**
+     * Schedule metadata updates left pending in storage, see
+     * {@link MetaQueue#recover(Storage)}, remove content staged by interrupted
+     * uploads, see {@link Staging#sweep()}, and expired upload sessions, see
+     * {@link UploadSessions#sweep()}, should be called on startup.
+     * Recovered updates invalidate caches of this slice like other updates.
+     * @return Completion or error signal, completed when updates are scheduled
+     */
+    public CompletableFuture<Void> recover() {
+        return this.queue.recover(this.storage).thenCompose(
+            nothing -> new Staging(this.storage).sweep()
+        ).thenCompose(
+            nothing -> new UploadSessions(this.storage).sweep()
+        );
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission limits of publish requests: maximum size of one request body and
+ * the budget of bytes of all publish requests in flight. The budget is shared by
+ * all slices admitted with the same instance, see {@link AdmissionSlice}.
+ * @since 1.0
+ */
+public final class PublishAdmission {
+
+    /**
+     * Default maximum size of one request body, 256 MiB.
+     */
+    private static final long CAP = 256L * 1024 * 1024;
+
+    /**
+     * Default budget of bytes in flight, 1 GiB.
+     */
+    private static final long BUDGET = 1024L * 1024 * 1024;
+
+    /**
+     * Maximum size of one request body.
+     */
+    private final long max;
+
+    /**
+     * Budget of bytes in flight.
+     */
+    private final long budget;
+
+    /**
+     * Bytes reserved by requests in flight.
+     */
+    private final AtomicLong inflight;
+
+    /**
+     * Ctor with default limits.
+     */
+    public PublishAdmission() {
+        this(PublishAdmission.CAP, PublishAdmission.BUDGET);
+    }
+
+    /**
+     * Ctor.
+     * @param max Maximum size of one request body in bytes
+     * @param budget Budget of bytes of all requests in flight, not less than `max`
+     */
+    public PublishAdmission(final long max, final long budget) {
+        if (budget < max) {
+            throw new IllegalArgumentException(
+                String.format("Budget %d is less than request size limit %d", budget, max)
+            );
+        }
+        this.max = max;
+        this.budget = budget;
+        this.inflight = new AtomicLong();
+    }
+
+    /**
+     * Maximum size of one request body.
+     * @return Size in bytes
+     */
+    public long cap() {
+        return this.max;
+    }
+
+    /**
+     * Reserve bytes of the budget.
+     * @param bytes Number of bytes
+     * @return True if bytes are reserved, false if the budget is exhausted
+     */
+    boolean acquire(final long bytes) {
+        boolean res = false;
+        long current = this.inflight.get();
+        while (current + bytes <= this.budget) {
+            if (this.inflight.compareAndSet(current, current + bytes)) {
+                res = true;
+                break;
+            }
+            current = this.inflight.get();
+        }
+        return res;
+    }
+
+    /**
+     * Return reserved bytes to the budget.
+     * @param bytes Number of bytes
+     */
+    void release(final long bytes) {
+        this.inflight.addAndGet(-bytes);
+    }
+}
@@ -13,10 +13,22 @@ import com.artipie.http.rq.RequestLineFrom;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithStatus;
 import com.artipie.http.rs.StandardRs;
+import com.artipie.npm.MetaFiles;
+import com.artipie.npm.MetaQueue;
+import com.artipie.npm.PackageRemoval;
 import com.artipie.npm.PackageNameFromUrl;
+import com.artipie.npm.TarballBlobs;
+import com.artipie.npm.misc.OptionalValue;
+import com.jcabi.log.Logger;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Flowable;
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.reactivestreams.Publisher;
@@ -26,6 +38,17 @@ import org.reactivestreams.Publisher;
  * Request line to this slice looks like `/[<@scope>/]pkg/-rev/undefined`.
  * It unpublishes the whole package or a single version of package
  * when only one version is published.
+ * <p>
+ * Package metadata is removed before the response, see {@link MetaFiles#delete()},
+ * so readers stop seeing the package at once, pending metadata updates of the package
+ * are cancelled, see {@link MetaQueue#cancel(Storage, Key)}. Tarballs and the other
+ * files of the package are removed in background with bounded number of storage
+ * operations at once, progress is logged every {@link #PROGRESS} files. Blobs of
+ * content-addressed tarballs are removed only if no other tarball references them,
+ * files of the blob are listed and removed one by one, see {@link TarballBlobs}.
+ * The package can not be published again until its files are removed, see
+ * {@link PackageRemoval}, so files of the new package are not removed with old ones.
+ * If some files can not be removed, the removal mark is kept until it expires.
  * @since 0.8
  */
 final class UnpublishForceSlice implements Slice {
@@ -34,17 +57,64 @@ final class UnpublishForceSlice implements Slice {
      */
     static final Pattern PTRN = Pattern.compile("/.*/-rev/.*$");
 
+    /**
+     * Default maximum number of files removed at once.
+     */
+    static final int PARALLELISM = 16;
+
+    /**
+     * Number of removed files between progress reports.
+     */
+    private static final int PROGRESS = 500;
+
     /**
      * Abstract Storage.
      */
     private final Storage storage;
 
+    /**
+     * Queue of metadata updates.
+     */
+    private final MetaQueue queue;
+
+    /**
+     * Maximum number of files removed at once.
+     */
+    private final int parallelism;
+
+    /**
+     * Removals of package files in progress.
+     */
+    private final Set<CompletableFuture<Void>> reclaims;
+
     /**
      * Ctor.
      * @param storage Abstract storage
      */
     UnpublishForceSlice(final Storage storage) {
+        this(storage, UnpublishForceSlice.PARALLELISM);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     * @param parallelism Maximum number of files removed at once
+     */
+    UnpublishForceSlice(final Storage storage, final int parallelism) {
+        this(storage, new MetaQueue.Immediate(), parallelism);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     * @param queue Queue of metadata updates
+     * @param parallelism Maximum number of files removed at once
+     */
+    UnpublishForceSlice(final Storage storage, final MetaQueue queue, final int parallelism) {
         this.storage = storage;
+        this.queue = queue;
+        this.parallelism = parallelism;
+        this.reclaims = ConcurrentHashMap.newKeySet();
     }
 
     @Override
@@ -58,26 +128,128 @@ final class UnpublishForceSlice implements Slice {
         final Matcher matcher = UnpublishForceSlice.PTRN.matcher(uri);
         final Response resp;
         if (matcher.matches()) {
-            final String pkg = new PackageNameFromUrl(
-                String.format(
-                    "%s %s %s", rqline.method(),
-                    uri.substring(0, uri.indexOf("/-rev/")),
-                    rqline.version()
-                )
-            ).value();
+            final Key pkg = new Key.From(
+                new PackageNameFromUrl(
+                    String.format(
+                        "%s %s %s", rqline.method(),
+                        uri.substring(0, uri.indexOf("/-rev/")),
+                        rqline.version()
+                    )
+                ).value()
+            );
+            final PackageRemoval removal = new PackageRemoval(this.storage, pkg);
             resp = new AsyncResponse(
-                this.storage.list(new Key.From(pkg))
-                    .thenCompose(
-                        keys -> CompletableFuture.allOf(
-                            keys.stream()
-                                .map(this.storage::delete)
-                                .toArray(CompletableFuture[]::new)
-                        ).thenApply(nothing -> StandardRs.OK)
+                removal.mark().thenCompose(
+                    nothing -> this.queue.cancel(this.storage, pkg)
+                ).thenCompose(
+                    nothing -> this.storage.list(pkg)
+                ).thenCompose(
+                    keys -> new MetaFiles(this.storage, pkg).delete().thenApply(
+                        nothing -> {
+                            this.background(removal, pkg, keys);
+                            return StandardRs.OK;
+                        }
                     )
+                )
             );
         } else {
             resp = new RsWithStatus(RsStatus.BAD_REQUEST);
         }
         return resp;
     }
+
+    /**
+     * Wait until files of all removed packages are removed.
+     * @return Completion signal
+     */
+    CompletableFuture<Void> idle() {
+        return CompletableFuture.allOf(this.reclaims.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Remove files of the package in background and remove the removal mark after that.
+     * Failure is logged and the mark is kept, so the package is not published again
+     * over files left in storage until the mark expires.
+     * @param removal Package removal
+     * @param pkg Package key
+     * @param keys Files of the package
+     */
+    private void background(
+        final PackageRemoval removal, final Key pkg, final Collection<Key> keys
+    ) {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        this.reclaims.add(done);
+        this.reclaim(removal, pkg, keys).thenCompose(nothing -> removal.finish()).handle(
+            (nothing, err) -> {
+                if (err != null) {
+                    Logger.warn(
+                        this, "Failed to remove files of %s: %[exception]s", pkg.string(), err
+                    );
+                }
+                this.reclaims.remove(done);
+                done.complete(null);
+                return null;
+            }
+        );
+    }
+
+    /**
+     * Remove listed files of the package, which are left after metadata is removed:
+     * removal of every file is attempted even if some of them fail.
+     * @param removal Package removal, which is prolonged as files are removed
+     * @param pkg Package key
+     * @param keys Files of the package
+     * @return Completion or error signal.
+     */
+    private CompletableFuture<Void> reclaim(
+        final PackageRemoval removal, final Key pkg, final Collection<Key> keys
+    ) {
+        final TarballBlobs blobs = new TarballBlobs(this.storage);
+        final AtomicLong removed = new AtomicLong();
+        return Flowable.fromIterable(keys).flatMapCompletable(
+            key -> CompletableInterop.fromFuture(
+                TarballBlobs.tarball(key).map(blobs::remove).orElseGet(() -> this.delete(key))
+                    .thenCompose(
+                        nothing -> this.progress(
+                            removal, pkg, removed.incrementAndGet(), keys.size()
+                        )
+                    )
+            ),
+            true, this.parallelism
+        ).to(CompletableInterop.<Void>await()).toCompletableFuture();
+    }
+
+    /**
+     * Report progress of files removal and prolong the removal mark
+     * every {@link #PROGRESS} files.
+     * @param removal Package removal
+     * @param pkg Package key
+     * @param count Number of removed files
+     * @param total Number of files to remove
+     * @return Completion or error signal.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletableFuture<Void> progress(
+        final PackageRemoval removal, final Key pkg, final long count, final int total
+    ) {
+        final CompletableFuture<Void> res;
+        if (count % UnpublishForceSlice.PROGRESS == 0 || count == total) {
+            Logger.info(this, "Removed %d of %d files of %s", count, total, pkg.string());
+        }
+        if (count % UnpublishForceSlice.PROGRESS == 0) {
+            res = removal.mark();
+        } else {
+            res = CompletableFuture.allOf();
+        }
+        return res;
+    }
+
+    /**
+     * Remove file if it exists: metadata files are removed already.
+     * @param key File key
+     * @return Completion or error signal.
+     */
+    private CompletableFuture<Void> delete(final Key key) {
+        return new OptionalValue(this.storage).delete(key);
+    }
 }
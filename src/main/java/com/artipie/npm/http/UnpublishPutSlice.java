@@ -5,34 +5,35 @@
 package com.artipie.npm.http;
 
 import com.artipie.ArtipieException;
-import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.http.Response;
 import com.artipie.http.Slice;
 import com.artipie.http.async.AsyncResponse;
 import com.artipie.http.rs.StandardRs;
+import com.artipie.npm.MetaDocument;
+import com.artipie.npm.MetaFiles;
 import com.artipie.npm.PackageNameFromUrl;
 import com.artipie.npm.misc.DateTimeNowStr;
-import com.artipie.npm.misc.DescSortedVersions;
 import com.artipie.npm.misc.JsonFromPublisher;
+import com.artipie.npm.misc.OptionalValue;
+import com.artipie.npm.semver.Versions;
 import com.google.common.collect.Sets;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.regex.Pattern;
-import javax.json.Json;
 import javax.json.JsonObject;
-import javax.json.JsonPatchBuilder;
 import org.reactivestreams.Publisher;
 
 /**
  * Slice to handle `npm unpublish package@0.0.0` command requests.
  * It unpublishes a single version of package when multiple
- * versions are published.
+ * versions are published. Missing package is answered with 404 before
+ * request body is read.
  * @since 0.9
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
@@ -65,25 +66,31 @@ final class UnpublishPutSlice implements Slice {
         final String pkg = new PackageNameFromUrl(
             line.replaceFirst("/-rev/[^\\s]+", "")
         ).value();
-        final Key key = new Key.From(pkg, "meta.json");
+        final Key key = new Key.From(pkg);
         return new AsyncResponse(
-            this.asto.exists(key).thenCompose(
-                exists -> {
-                    final CompletionStage<Response> res;
-                    if (exists) {
-                        res = new JsonFromPublisher(publisher).json()
-                            .thenCombine(
-                                this.asto.value(key)
-                                    .thenApply(JsonFromPublisher::new)
-                                    .thenCompose(JsonFromPublisher::json),
-                                UnpublishPutSlice::updateMeta
-                            ).thenCompose(
-                                meta -> this.asto.save(
-                                    key, new Content.From(meta.getBytes(StandardCharsets.UTF_8))
+            new OptionalValue(this.asto).metadata(new Key.From(key, MetaFiles.META)).thenCompose(
+                found -> {
+                    final CompletionStage<Optional<JsonObject>> res;
+                    if (found.isPresent()) {
+                        res = new JsonFromPublisher(publisher).json().thenCompose(
+                            update -> new MetaFiles(this.asto, key).update(
+                                meta -> meta.map(
+                                    json -> UnpublishPutSlice.updateMeta(update, json)
                                 )
-                            ).thenApply(nothing -> StandardRs.OK);
+                            )
+                        );
                     } else {
-                        res = CompletableFuture.completedFuture(StandardRs.NOT_FOUND);
+                        res = CompletableFuture.completedFuture(Optional.empty());
+                    }
+                    return res;
+                }
+            ).thenApply(
+                meta -> {
+                    final Response res;
+                    if (meta.isPresent()) {
+                        res = StandardRs.OK;
+                    } else {
+                        res = StandardRs.NOT_FOUND;
                     }
                     return res;
                 }
@@ -98,20 +105,13 @@ final class UnpublishPutSlice implements Slice {
      * @param source Meta json from storage
      * @return Meta json with removed information about unpublished version.
      */
-    private static String updateMeta(final JsonObject update, final JsonObject source) {
-        final JsonPatchBuilder patch = Json.createPatchBuilder();
+    private static JsonObject updateMeta(final JsonObject update, final JsonObject source) {
+        final MetaDocument res = new MetaDocument(source);
         final String diff = versionToRemove(update, source);
-        patch.remove(String.format("/versions/%s", diff));
-        patch.remove(String.format("/time/%s", diff));
-        if (source.getJsonObject("dist-tags").containsKey(diff)) {
-            patch.remove(String.format("/dist-tags/%s", diff));
-        }
-        final String latest = new DescSortedVersions(
-            update.getJsonObject("versions")
-        ).value().get(0);
-        patch.add("/dist-tags/latest", latest);
-        patch.add("/time/modified", new DateTimeNowStr().value());
-        return patch.build().apply(source).toString();
+        res.remove(diff).untag(diff);
+        new Versions(update.getJsonObject("versions").keySet()).latest()
+            .ifPresent(latest -> res.tag("latest", latest));
+        return res.time("modified", new DateTimeNowStr().value()).json();
     }
 
     /**
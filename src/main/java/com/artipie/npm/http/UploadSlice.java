@@ -5,26 +5,42 @@
 
 package com.artipie.npm.http;
 
-import com.artipie.asto.Concatenation;
 import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
 import com.artipie.asto.Key;
-import com.artipie.asto.Remaining;
 import com.artipie.asto.Storage;
 import com.artipie.http.Response;
 import com.artipie.http.Slice;
 import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.Header;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithHeaders;
 import com.artipie.http.rs.RsWithStatus;
+import com.artipie.npm.BudgetExhaustedException;
+import com.artipie.npm.IntegrityMismatchException;
+import com.artipie.npm.InvalidPackageException;
 import com.artipie.npm.PackageNameFromUrl;
+import com.artipie.npm.PackageRemovalException;
+import com.artipie.npm.PayloadTooLargeException;
 import com.artipie.npm.Publish;
-import hu.akarnokd.rxjava2.interop.SingleInterop;
+import com.artipie.npm.VersionExistsException;
+import com.artipie.npm.misc.OptionalValue;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import org.reactivestreams.Publisher;
 
 /**
- * UploadSlice.
+ * UploadSlice. Uploaded content is published directly from request body
+ * by default, publishing from a temporary storage key is opt-in. Uploads
+ * which do not match declared integrity are rejected with `400 Bad Request`,
+ * uploads of existing versions with `409 Conflict`, see {@link #rejected(Throwable)}.
  *
  * @since 0.1
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
@@ -37,17 +53,38 @@ public final class UploadSlice implements Slice {
     private final Publish npm;
 
     /**
-     * Abstract Storage.
+     * Storage for uploaded content, empty if content is published directly.
      */
-    private final Storage storage;
+    private final Optional<Storage> storage;
 
     /**
-     * Ctor.
+     * Ctor: uploaded content is published directly from request body.
+     *
+     * @param npm Npm publish front
+     */
+    public UploadSlice(final Publish npm) {
+        this(npm, Optional.empty());
+    }
+
+    /**
+     * Ctor: uploaded content is saved to a temporary `{package}-{uuid}-uploaded`
+     * key first and is published from storage, the key is removed after
+     * publishing, whether it succeeded, failed or was rejected.
      *
      * @param npm Npm publish front
      * @param storage Abstract storage
      */
     public UploadSlice(final Publish npm, final Storage storage) {
+        this(npm, Optional.of(storage));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param npm Npm publish front
+     * @param storage Storage for uploaded content, empty to publish directly
+     */
+    private UploadSlice(final Publish npm, final Optional<Storage> storage) {
         this.npm = npm;
         this.storage = storage;
     }
@@ -57,23 +94,96 @@ public final class UploadSlice implements Slice {
         final String line,
         final Iterable<Map.Entry<String, String>> headers,
         final Publisher<ByteBuffer> body) {
-        final String pkg = new PackageNameFromUrl(line).value();
-        final Key uploaded = new Key.From(
-            String.format(
-                "%s-%s-uploaded",
-                pkg,
-                UUID.randomUUID().toString()
-            )
-        );
+        final Key pkg = new Key.From(new PackageNameFromUrl(line).value());
+        final CompletableFuture<Void> res;
+        if (this.storage.isPresent()) {
+            final Storage asto = this.storage.get();
+            final Key uploaded = new Key.From(
+                String.format(
+                    "%s-%s-uploaded",
+                    pkg.string(),
+                    UUID.randomUUID().toString()
+                )
+            );
+            res = asto.save(uploaded, new Content.From(body))
+                .thenCompose(ignored -> this.npm.publish(pkg, uploaded))
+                .handle(
+                    (nothing, err) -> {
+                        final CompletableFuture<Void> del =
+                            new OptionalValue(asto).delete(uploaded);
+                        final CompletableFuture<Void> done;
+                        if (err == null) {
+                            done = del;
+                        } else {
+                            done = del.handle((ignored, failed) -> null)
+                                .thenCompose(ignored -> new FailedCompletionStage<>(err));
+                        }
+                        return done;
+                    }
+                ).thenCompose(Function.identity());
+        } else {
+            res = this.npm.publish(pkg, body);
+        }
         return new AsyncResponse(
-            new Concatenation(body).single()
-                .map(Remaining::new)
-                .map(Remaining::bytes)
-                .to(SingleInterop.get())
-                .thenCompose(bytes -> this.storage.save(uploaded, new Content.From(bytes)))
-                .thenCompose(ignored -> this.npm.publish(new Key.From(pkg), uploaded))
-                .thenCompose(ignored -> this.storage.delete(uploaded))
-                .thenApply(ignored -> new RsWithStatus(RsStatus.OK))
+            res.handle(
+                (nothing, err) -> {
+                    final CompletionStage<Response> rsp;
+                    if (err == null) {
+                        rsp = CompletableFuture.completedFuture(new RsWithStatus(RsStatus.OK));
+                    } else {
+                        rsp = UploadSlice.rejected(err).<CompletionStage<Response>>map(
+                            CompletableFuture::completedFuture
+                        ).orElseGet(() -> new FailedCompletionStage<>(err));
+                    }
+                    return rsp;
+                }
+            ).thenCompose(Function.identity())
+        );
+    }
+
+    /**
+     * Response for publish rejected by validation: integrity mismatch and archive
+     * without package name or version are answered with `400 Bad Request`, existing
+     * version and package which is being removed with `409 Conflict`, content over
+     * the size limit with `413 Payload Too Large` and content over the budget of
+     * requests in flight with `503 Service Unavailable`.
+     * @param err Publish error
+     * @return Response, empty if publish failed for another reason
+     */
+    static Optional<Response> rejected(final Throwable err) {
+        Throwable cause = err;
+        Optional<Response> res = Optional.empty();
+        while (cause != null && !res.isPresent()) {
+            if (cause instanceof IntegrityMismatchException
+                || cause instanceof InvalidPackageException) {
+                res = Optional.of(UploadSlice.rejected(RsStatus.BAD_REQUEST, cause));
+            } else if (cause instanceof VersionExistsException
+                || cause instanceof PackageRemovalException) {
+                res = Optional.of(UploadSlice.rejected(RsStatus.CONFLICT, cause));
+            } else if (cause instanceof PayloadTooLargeException) {
+                res = Optional.of(UploadSlice.rejected(RsStatus.PAYLOAD_TOO_LARGE, cause));
+            } else if (cause instanceof BudgetExhaustedException) {
+                res = Optional.of(
+                    new RsWithHeaders(
+                        UploadSlice.rejected(RsStatus.UNAVAILABLE, cause),
+                        new Header("Retry-After", AdmissionSlice.RETRY)
+                    )
+                );
+            }
+            cause = cause.getCause();
+        }
+        return res;
+    }
+
+    /**
+     * Response for rejected publish.
+     * @param status Response status
+     * @param cause Rejection cause
+     * @return Response
+     */
+    private static Response rejected(final RsStatus status, final Throwable cause) {
+        return new RsWithBody(
+            new RsWithStatus(status), cause.getMessage(), StandardCharsets.UTF_8
         );
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.headers.Header;
+import com.artipie.http.rq.RqHeaders;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.npm.MetaValidators;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Response validators: `ETag` and `Last-Modified` headers, which are checked against
+ * `If-None-Match` and `If-Modified-Since` request headers.
+ * @since 1.0
+ */
+final class Validators {
+
+    /**
+     * Entity tag.
+     */
+    private final Optional<String> etag;
+
+    /**
+     * Last modified date in HTTP date format.
+     */
+    private final Optional<String> modified;
+
+    /**
+     * Ctor.
+     * @param meta Metadata validators
+     * @param file Metadata file name
+     */
+    Validators(final MetaValidators meta, final String file) {
+        this(meta.etag(file), meta.lastModified());
+    }
+
+    /**
+     * Ctor.
+     * @param etag Entity tag
+     * @param modified Last modified date in HTTP date format
+     */
+    Validators(final Optional<String> etag, final Optional<String> modified) {
+        this.etag = etag;
+        this.modified = modified;
+    }
+
+    /**
+     * Check if client copy is still valid, `If-Modified-Since` header is ignored
+     * if request contains `If-None-Match` header.
+     * @param headers Request headers
+     * @return True if 304 may be returned
+     */
+    boolean fresh(final Iterable<Map.Entry<String, String>> headers) {
+        final List<String> match = new RqHeaders(headers, "If-None-Match");
+        final boolean res;
+        if (match.isEmpty()) {
+            res = new RqHeaders(headers, "If-Modified-Since").stream()
+                .anyMatch(this::notModifiedSince);
+        } else {
+            res = this.etag.isPresent() && match.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .anyMatch(
+                    tag -> "*".equals(tag)
+                        || Validators.opaque(tag).equals(Validators.opaque(this.etag.get()))
+                );
+        }
+        return res;
+    }
+
+    /**
+     * Validators with weak entity tag, e.g. for compressed representation.
+     * @return Validators
+     */
+    Validators weak() {
+        return new Validators(
+            this.etag.map(tag -> String.format("W/%s", Validators.opaque(tag))), this.modified
+        );
+    }
+
+    /**
+     * Validators response headers.
+     * @return Headers
+     */
+    Headers headers() {
+        final List<Map.Entry<String, String>> res = new ArrayList<>(2);
+        this.etag.ifPresent(tag -> res.add(new Header("ETag", tag)));
+        this.modified.ifPresent(date -> res.add(new Header("Last-Modified", date)));
+        return new Headers.From(res);
+    }
+
+    /**
+     * Not modified response with validators.
+     * @return Response
+     */
+    Response notModified() {
+        return new RsWithHeaders(new RsWithStatus(RsStatus.NOT_MODIFIED), this.headers());
+    }
+
+    /**
+     * Check if entity was not modified since the date.
+     * @param since Date from `If-Modified-Since` header
+     * @return True if not modified
+     */
+    private boolean notModifiedSince(final String since) {
+        boolean res = false;
+        if (this.modified.isPresent()) {
+            try {
+                final DateTimeFormatter format = DateTimeFormatter.RFC_1123_DATE_TIME;
+                res = !ZonedDateTime.parse(this.modified.get(), format)
+                    .isAfter(ZonedDateTime.parse(since, format));
+            } catch (final DateTimeParseException ignored) {
+                res = false;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Opaque part of entity tag, used for weak comparison.
+     * @param tag Entity tag
+     * @return Tag without weakness indicator
+     */
+    private static String opaque(final String tag) {
+        final String res;
+        if (tag.startsWith("W/")) {
+            res = tag.substring(2);
+        } else {
+            res = tag;
+        }
+        return res;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.misc;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous operations queue per key: operations with the same key are
+ * performed one after another, operations with different keys never wait
+ * for each other. Queue of the key is removed when its last operation
+ * is completed, so only keys with pending operations are kept in memory.
+ * @since 1.0
+ */
+public final class KeyedQueue {
+
+    /**
+     * Completion of the last queued operation by key.
+     */
+    private final ConcurrentMap<Object, CompletableFuture<Void>> tails;
+
+    /**
+     * Ctor.
+     */
+    public KeyedQueue() {
+        this.tails = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Perform operation after all previously queued operations with the same key
+     * are completed, successfully or not.
+     * @param key Key
+     * @param operation Operation
+     * @param <T> Result type
+     * @return Operation result
+     */
+    public <T> CompletableFuture<T> run(
+        final Object key, final Supplier<CompletableFuture<T>> operation
+    ) {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        final CompletableFuture<Void> prev = this.tails.put(key, done);
+        final CompletableFuture<Void> start;
+        if (prev == null) {
+            start = CompletableFuture.allOf();
+        } else {
+            start = prev;
+        }
+        final CompletableFuture<T> res = start.thenCompose(nothing -> operation.get());
+        res.whenComplete(
+            (val, err) -> {
+                this.tails.remove(key, done);
+                done.complete(null);
+            }
+        );
+        return res;
+    }
+
+    /**
+     * Number of keys with pending operations.
+     * @return Number of keys
+     */
+    public int size() {
+        return this.tails.size();
+    }
+}
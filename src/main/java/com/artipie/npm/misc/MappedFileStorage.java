@@ -0,0 +1,145 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.misc;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.fs.FileStorage;
+import io.reactivex.Flowable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * File storage, which reads values as memory-mapped regions of files instead of
+ * copying file content into heap buffers. Content chunks are direct buffers backed
+ * by the page cache, so serving big tarballs does not produce garbage. Other
+ * operations are performed by {@link FileStorage}.
+ * <p>
+ * Files are never modified in place by {@link FileStorage}: values are written
+ * to temporary files and moved, so mapped regions stay valid while the value
+ * is being sent.
+ * <p>
+ * File size is read by blocking calls, which are run on the I/O executor, by default
+ * on a shared pool of daemon threads, so they do not occupy the common fork-join pool.
+ * @since 1.0
+ */
+public final class MappedFileStorage extends Storage.Wrap {
+
+    /**
+     * Default size of the mapped region.
+     */
+    private static final int CHUNK = 1024 * 1024;
+
+    /**
+     * Default executor of blocking file operations.
+     */
+    private static final Executor IO = Executors.newFixedThreadPool(
+        Math.max(4, Runtime.getRuntime().availableProcessors() * 2),
+        runnable -> {
+            final Thread thread = new Thread(runnable, "npm-mapped-file-io");
+            thread.setDaemon(true);
+            return thread;
+        }
+    );
+
+    /**
+     * Storage root directory.
+     */
+    private final Path dir;
+
+    /**
+     * Size of the mapped region.
+     */
+    private final int chunk;
+
+    /**
+     * Executor of blocking file operations.
+     */
+    private final Executor exec;
+
+    /**
+     * Ctor.
+     * @param dir Storage root directory
+     */
+    public MappedFileStorage(final Path dir) {
+        this(dir, MappedFileStorage.CHUNK);
+    }
+
+    /**
+     * Ctor.
+     * @param dir Storage root directory
+     * @param chunk Size of the mapped region
+     */
+    public MappedFileStorage(final Path dir, final int chunk) {
+        this(dir, chunk, MappedFileStorage.IO);
+    }
+
+    /**
+     * Ctor.
+     * @param dir Storage root directory
+     * @param chunk Size of the mapped region
+     * @param exec Executor of blocking file operations
+     */
+    public MappedFileStorage(final Path dir, final int chunk, final Executor exec) {
+        super(new FileStorage(dir));
+        this.dir = dir;
+        this.chunk = chunk;
+        this.exec = exec;
+    }
+
+    @Override
+    public CompletableFuture<Content> value(final Key key) {
+        final Path path = this.dir.resolve(key.string());
+        return CompletableFuture.supplyAsync(
+            () -> {
+                Optional<Long> size = Optional.empty();
+                if (!key.string().isEmpty() && Files.isRegularFile(path)) {
+                    try {
+                        size = Optional.of(Files.size(path));
+                    } catch (final IOException err) {
+                        throw new ArtipieIOException(err);
+                    }
+                }
+                return size;
+            },
+            this.exec
+        ).thenCompose(
+            size -> size.map(
+                val -> CompletableFuture.<Content>completedFuture(
+                    new Content.From(size, this.mapped(path, val))
+                )
+            ).orElseGet(() -> super.value(key))
+        );
+    }
+
+    /**
+     * File content as memory-mapped regions.
+     * @param path File path
+     * @param size File size
+     * @return Content publisher
+     */
+    private Flowable<ByteBuffer> mapped(final Path path, final long size) {
+        final long step = this.chunk;
+        return Flowable.using(
+            () -> FileChannel.open(path, StandardOpenOption.READ),
+            channel -> Flowable.rangeLong(0, (size + step - 1) / step).map(
+                idx -> channel.map(
+                    FileChannel.MapMode.READ_ONLY, idx * step, Math.min(step, size - idx * step)
+                )
+            ),
+            FileChannel::close
+        );
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.misc;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ValueNotFoundException;
+import com.artipie.asto.rx.RxStorage;
+import io.reactivex.Maybe;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Storage value, which may be absent. Value is read with a single storage
+ * operation instead of checking if it exists first: {@link ValueNotFoundException}
+ * is mapped to empty result, other errors are propagated.
+ * @since 1.0
+ */
+public final class OptionalValue {
+
+    /**
+     * Abstract storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Ctor.
+     * @param storage Abstract storage
+     */
+    public OptionalValue(final Storage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Read value.
+     * @param key Value key
+     * @return Value content, empty if value does not exist
+     */
+    public CompletableFuture<Optional<Content>> value(final Key key) {
+        return this.storage.value(key).handle(
+            (content, err) -> {
+                final CompletionStage<Optional<Content>> res;
+                if (err == null) {
+                    res = CompletableFuture.completedFuture(Optional.of(content));
+                } else if (OptionalValue.absent(err)) {
+                    res = CompletableFuture.completedFuture(Optional.empty());
+                } else {
+                    res = new FailedCompletionStage<>(err);
+                }
+                return res;
+            }
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Read storage metadata of the value.
+     * @param key Value key
+     * @return Value metadata, empty if value does not exist
+     */
+    public CompletableFuture<Optional<Meta>> metadata(final Key key) {
+        return this.storage.metadata(key).handle(
+            (meta, err) -> {
+                final CompletionStage<Optional<Meta>> res;
+                if (err == null) {
+                    res = CompletableFuture.completedFuture(Optional.<Meta>of(meta));
+                } else if (OptionalValue.absent(err)) {
+                    res = CompletableFuture.completedFuture(Optional.empty());
+                } else {
+                    res = new FailedCompletionStage<>(err);
+                }
+                return res;
+            }
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Remove value, value which does not exist is ignored. Value is removed with
+     * a single storage operation: storages report removal of missing value
+     * differently, so it is checked if the value exists only when removal fails.
+     * @param key Value key
+     * @return Completion or error signal
+     */
+    public CompletableFuture<Void> delete(final Key key) {
+        return this.storage.delete(key).handle(
+            (nothing, err) -> {
+                final CompletionStage<Void> res;
+                if (err == null || OptionalValue.absent(err)) {
+                    res = CompletableFuture.allOf();
+                } else {
+                    res = this.storage.exists(key).thenCompose(
+                        exists -> {
+                            final CompletionStage<Void> del;
+                            if (exists) {
+                                del = new FailedCompletionStage<>(err);
+                            } else {
+                                del = CompletableFuture.allOf();
+                            }
+                            return del;
+                        }
+                    );
+                }
+                return res;
+            }
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Check if error means that value does not exist.
+     * @param err Error
+     * @return True if value does not exist
+     */
+    private static boolean absent(final Throwable err) {
+        Throwable cause = err;
+        while (!(cause instanceof ValueNotFoundException) && cause.getCause() != null
+            && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause instanceof ValueNotFoundException;
+    }
+
+    /**
+     * Storage value, which may be absent, read from {@link RxStorage}.
+     * @since 1.0
+     */
+    public static final class Rx {
+
+        /**
+         * Reactive storage.
+         */
+        private final RxStorage storage;
+
+        /**
+         * Ctor.
+         * @param storage Reactive storage
+         */
+        public Rx(final RxStorage storage) {
+            this.storage = storage;
+        }
+
+        /**
+         * Read value.
+         * @param key Value key
+         * @return Value content, empty if value does not exist
+         */
+        public Maybe<Content> value(final Key key) {
+            return this.storage.value(key).toMaybe().onErrorResumeNext(
+                (Throwable err) -> {
+                    final Maybe<Content> res;
+                    if (OptionalValue.absent(err)) {
+                        res = Maybe.empty();
+                    } else {
+                        res = Maybe.error(err);
+                    }
+                    return res;
+                }
+            );
+        }
+    }
+}
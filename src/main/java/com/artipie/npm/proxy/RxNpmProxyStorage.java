@@ -8,6 +8,7 @@ import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.ext.PublisherAs;
 import com.artipie.asto.rx.RxStorage;
+import com.artipie.npm.misc.OptionalValue;
 import com.artipie.npm.proxy.model.NpmAsset;
 import com.artipie.npm.proxy.model.NpmPackage;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
@@ -75,42 +76,25 @@ public final class RxNpmProxyStorage implements NpmProxyStorage {
     }
 
     @Override
-    // @checkstyle ReturnCountCheck (15 lines)
     public Maybe<NpmPackage> getPackage(final String name) {
-        return this.storage.exists(new Key.From(name, "meta.json"))
-            .flatMapMaybe(
-                exists -> {
-                    if (exists) {
-                        return this.readPackage(name).toMaybe();
-                    } else {
-                        return Maybe.empty();
-                    }
-                }
-            );
+        return new OptionalValue.Rx(this.storage).value(new Key.From(name, "meta.json"))
+            .flatMapSingleElement(content -> this.readPackage(name, content));
     }
 
     @Override
-    // @checkstyle ReturnCountCheck (15 lines)
     public Maybe<NpmAsset> getAsset(final String path) {
-        return this.storage.exists(new Key.From(path))
-            .flatMapMaybe(
-                exists -> {
-                    if (exists) {
-                        return this.readAsset(path).toMaybe();
-                    } else {
-                        return Maybe.empty();
-                    }
-                }
-            );
+        return new OptionalValue.Rx(this.storage).value(new Key.From(path))
+            .flatMapSingleElement(content -> this.readAsset(path, content));
     }
 
     /**
      * Read NPM package from storage.
      * @param name Package name
+     * @param meta Package metadata content
      * @return NPM package
      */
-    private Single<NpmPackage> readPackage(final String name) {
-        return this.storage.value(new Key.From(name, "meta.json"))
+    private Single<NpmPackage> readPackage(final String name, final Content meta) {
+        return Single.just(meta)
             .map(PublisherAs::new)
             .map(PublisherAs::bytes)
             .flatMap(SingleInterop::fromFuture)
@@ -133,24 +117,17 @@ public final class RxNpmProxyStorage implements NpmProxyStorage {
     /**
      * Read NPM Asset from storage.
      * @param path Asset path
+     * @param content Asset content
      * @return NPM asset
      */
-    private Single<NpmAsset> readAsset(final String path) {
-        return this.storage.value(new Key.From(path))
-            .zipWith(
-                this.storage.value(new Key.From(String.format("%s.meta", path)))
-                    .map(PublisherAs::new)
-                    .map(PublisherAs::bytes)
-                    .flatMap(SingleInterop::fromFuture)
-                    .map(metadata -> new String(metadata, StandardCharsets.UTF_8))
-                    .map(JsonObject::new),
-                (content, metadata) ->
-                    new NpmAsset(
-                        path,
-                        content,
-                        new NpmAsset.Metadata(metadata)
-                    )
-            );
+    private Single<NpmAsset> readAsset(final String path, final Content content) {
+        return this.storage.value(new Key.From(String.format("%s.meta", path)))
+            .map(PublisherAs::new)
+            .map(PublisherAs::bytes)
+            .flatMap(SingleInterop::fromFuture)
+            .map(metadata -> new String(metadata, StandardCharsets.UTF_8))
+            .map(JsonObject::new)
+            .map(metadata -> new NpmAsset(path, content, new NpmAsset.Metadata(metadata)));
     }
 
 }
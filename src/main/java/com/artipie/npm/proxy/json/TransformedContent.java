@@ -4,12 +4,10 @@
  */
 package com.artipie.npm.proxy.json;
 
+import com.artipie.npm.MetaDocument;
 import java.io.StringReader;
-import java.util.Set;
 import javax.json.Json;
 import javax.json.JsonObject;
-import javax.json.JsonPatchBuilder;
-import javax.json.JsonValue;
 
 /**
  * Abstract package content representation that supports JSON transformation.
@@ -50,20 +48,12 @@ public abstract class TransformedContent {
      * @return Transformed JSON
      */
     private JsonObject transformAssetRefs() {
-        final JsonObject json = Json.createReader(new StringReader(this.data)).readObject();
-        final JsonValue node = json.get("versions");
-        final JsonPatchBuilder patch = Json.createPatchBuilder();
-        if (node != null) {
-            final Set<String> vrsns = node.asJsonObject().keySet();
-            for (final String vers : vrsns) {
-                final String path = String.format("/versions/%s/dist/tarball", vers);
-                final String asset = node.asJsonObject()
-                    .getJsonObject(vers)
-                    .getJsonObject("dist")
-                    .getString("tarball");
-                patch.replace(path, this.transformRef(asset));
-            }
+        final MetaDocument doc = new MetaDocument(
+            Json.createReader(new StringReader(this.data)).readObject()
+        );
+        for (final String vers : doc.versions()) {
+            doc.tarball(vers).ifPresent(asset -> doc.tarball(vers, this.transformRef(asset)));
         }
-        return patch.build().apply(json);
+        return doc.json();
     }
 }
@@ -0,0 +1,139 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.semver;
+
+/**
+ * Version bound, primitive comparator of a range, e.g. `>=1.2.3`.
+ * @since 1.0
+ */
+final class Bound {
+
+    /**
+     * Bound matching any release version.
+     */
+    static final Bound ANY = new Bound(Bound.Operator.GTE, Version.release(0, 0, 0));
+
+    /**
+     * Bound matching no version.
+     */
+    static final Bound NONE = new Bound(Bound.Operator.LT, Version.lowest(0, 0, 0));
+
+    /**
+     * Comparison operator.
+     */
+    private final Operator operator;
+
+    /**
+     * Bound version.
+     */
+    private final Version version;
+
+    /**
+     * Ctor.
+     * @param operator Comparison operator
+     * @param version Bound version
+     */
+    Bound(final Operator operator, final Version version) {
+        this.operator = operator;
+        this.version = version;
+    }
+
+    /**
+     * Check if version satisfies the bound.
+     * @param candidate Version to check
+     * @return True if satisfies
+     */
+    boolean test(final Version candidate) {
+        return this.operator.test(candidate.compareTo(this.version));
+    }
+
+    /**
+     * Check if pre-release versions of the release are allowed by the bound:
+     * pre-release version satisfies a range only if some bound of the range
+     * is a pre-release version of the same release.
+     * @param candidate Pre-release version
+     * @return True if pre-release of the bound release
+     */
+    boolean allows(final Version candidate) {
+        return this.version.prerelease() && this.version.sameRelease(candidate);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s%s", this.operator.sign, this.version);
+    }
+
+    /**
+     * Comparison operator.
+     * @since 1.0
+     */
+    enum Operator {
+        /**
+         * Equal.
+         */
+        EQ("="),
+
+        /**
+         * Greater than.
+         */
+        GT(">"),
+
+        /**
+         * Greater than or equal.
+         */
+        GTE(">="),
+
+        /**
+         * Less than.
+         */
+        LT("<"),
+
+        /**
+         * Less than or equal.
+         */
+        LTE("<=");
+
+        /**
+         * Operator sign.
+         */
+        private final String sign;
+
+        /**
+         * Ctor.
+         * @param sign Operator sign
+         */
+        Operator(final String sign) {
+            this.sign = sign;
+        }
+
+        /**
+         * Check comparison result.
+         * @param cmp Result of comparing candidate version with bound version
+         * @return True if candidate satisfies the operator
+         */
+        @SuppressWarnings("PMD.CyclomaticComplexity")
+        boolean test(final int cmp) {
+            final boolean res;
+            switch (this) {
+                case EQ:
+                    res = cmp == 0;
+                    break;
+                case GT:
+                    res = cmp > 0;
+                    break;
+                case GTE:
+                    res = cmp >= 0;
+                    break;
+                case LT:
+                    res = cmp < 0;
+                    break;
+                default:
+                    res = cmp <= 0;
+                    break;
+            }
+            return res;
+        }
+    }
+}
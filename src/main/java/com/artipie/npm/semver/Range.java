@@ -0,0 +1,432 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.semver;
+
+import com.artipie.ArtipieException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Version range as npm understands it, e.g. `^1.2.3 || >=2.0.0-beta <3`. Range is
+ * a union of sets of version bounds, which are parsed once, so matching allocates
+ * nothing. Supported syntax: primitive comparators `<`, `<=`, `>`, `>=`, `=`,
+ * x-ranges `*`, `1.x`, `1.2.*` and partial versions, hyphen ranges `1.2 - 2.3.4`,
+ * tilde `~1.2.3` and caret `^1.2.3` ranges. As in npm, pre-release version satisfies
+ * the range only if some bound of the matching set is a pre-release version of
+ * the same major, minor and patch numbers.
+ * @since 1.0
+ */
+public final class Range {
+
+    /**
+     * Hyphen range pattern.
+     */
+    private static final Pattern HYPHEN = Pattern.compile("^(\\S+)\\s+-\\s+(\\S+)$");
+
+    /**
+     * Operator with spaces before version.
+     */
+    private static final Pattern SPACED = Pattern.compile("(<=|>=|<|>|=|~>|~|\\^)\\s+");
+
+    /**
+     * Partial version pattern.
+     */
+    private static final Pattern PARTIAL = Pattern.compile(
+        String.join(
+            "",
+            "^v?(0|[1-9]\\d*|[xX*])(?:\\.(0|[1-9]\\d*|[xX*])(?:\\.(0|[1-9]\\d*|[xX*])",
+            "(?:-[0-9A-Za-z.-]+)?(?:\\+[0-9A-Za-z.-]+)?)?)?$"
+        )
+    );
+
+    /**
+     * Range string.
+     */
+    private final String value;
+
+    /**
+     * Sets of bounds, version satisfies the range if it satisfies all bounds
+     * of any set.
+     */
+    private final List<Bound[]> sets;
+
+    /**
+     * Ctor.
+     * @param value Range string
+     * @param sets Sets of bounds
+     */
+    private Range(final String value, final List<Bound[]> sets) {
+        this.value = value;
+        this.sets = sets;
+    }
+
+    /**
+     * Parse range.
+     * @param value Range string
+     * @return Range
+     * @throws ArtipieException If range is not valid
+     */
+    public static Range parse(final String value) {
+        final List<Bound[]> sets = new ArrayList<>(1);
+        for (final String part : value.split("\\|\\|", -1)) {
+            sets.add(Range.set(part.trim(), value).toArray(new Bound[0]));
+        }
+        return new Range(value, Collections.unmodifiableList(sets));
+    }
+
+    /**
+     * Check if version satisfies the range.
+     * @param version Version
+     * @return True if satisfies
+     */
+    public boolean satisfies(final Version version) {
+        boolean res = false;
+        for (final Bound[] set : this.sets) {
+            res = Range.satisfies(set, version);
+            if (res) {
+                break;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Check if version satisfies the range.
+     * @param version Version string
+     * @return True if version is valid and satisfies the range
+     */
+    public boolean satisfies(final String version) {
+        return Version.valid(version).map(this::satisfies).orElse(false);
+    }
+
+    @Override
+    public String toString() {
+        return this.value;
+    }
+
+    /**
+     * Range bounds in normalized form, e.g. `>=1.2.3 <2.0.0-0`, sets are
+     * separated by `||`.
+     * @return Bounds
+     */
+    String bounds() {
+        return this.sets.stream().map(
+            set -> Arrays.stream(set).map(Bound::toString).collect(Collectors.joining(" "))
+        ).collect(Collectors.joining("||"));
+    }
+
+    /**
+     * Check if version satisfies all bounds of the set.
+     * @param set Set of bounds
+     * @param version Version
+     * @return True if satisfies
+     */
+    private static boolean satisfies(final Bound[] set, final Version version) {
+        boolean res = true;
+        for (final Bound bound : set) {
+            if (!bound.test(version)) {
+                res = false;
+                break;
+            }
+        }
+        if (res && version.prerelease()) {
+            res = false;
+            for (final Bound bound : set) {
+                if (bound.allows(version)) {
+                    res = true;
+                    break;
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Parse set of bounds.
+     * @param text Set text
+     * @param range Whole range, for error message
+     * @return Bounds
+     */
+    private static List<Bound> set(final String text, final String range) {
+        final List<Bound> res = new ArrayList<>(2);
+        final Matcher hyphen = Range.HYPHEN.matcher(text);
+        if (hyphen.matches()) {
+            final Partial lower = Partial.parse(hyphen.group(1), range);
+            final Partial upper = Partial.parse(hyphen.group(2), range);
+            res.add(lower.bound(Bound.Operator.GTE));
+            res.add(upper.bound(Bound.Operator.LTE));
+        } else {
+            for (final String token : Range.SPACED.matcher(text).replaceAll("$1").split("\\s+")) {
+                if (!token.isEmpty()) {
+                    res.addAll(Range.simple(token, range));
+                }
+            }
+        }
+        if (res.isEmpty()) {
+            res.add(Bound.ANY);
+        }
+        return res;
+    }
+
+    /**
+     * Parse simple range: primitive comparator, x-range, tilde or caret range.
+     * @param token Range token
+     * @param range Whole range, for error message
+     * @return Bounds
+     */
+    @SuppressWarnings("PMD.ConfusingTernary")
+    private static List<Bound> simple(final String token, final String range) {
+        final List<Bound> res;
+        if (token.startsWith("^")) {
+            res = Partial.parse(token.substring(1), range).caret();
+        } else if (token.startsWith("~>")) {
+            res = Partial.parse(token.substring(2), range).tilde();
+        } else if (token.startsWith("~")) {
+            res = Partial.parse(token.substring(1), range).tilde();
+        } else if (token.startsWith(">=")) {
+            res = Collections.singletonList(
+                Partial.parse(token.substring(2), range).bound(Bound.Operator.GTE)
+            );
+        } else if (token.startsWith("<=")) {
+            res = Collections.singletonList(
+                Partial.parse(token.substring(2), range).bound(Bound.Operator.LTE)
+            );
+        } else if (token.startsWith(">")) {
+            res = Collections.singletonList(
+                Partial.parse(token.substring(1), range).bound(Bound.Operator.GT)
+            );
+        } else if (token.startsWith("<")) {
+            res = Collections.singletonList(
+                Partial.parse(token.substring(1), range).bound(Bound.Operator.LT)
+            );
+        } else if (token.startsWith("=")) {
+            res = Partial.parse(token.substring(1), range).exact();
+        } else {
+            res = Partial.parse(token, range).exact();
+        }
+        return res;
+    }
+
+    /**
+     * Partial version, where missing or wildcard numbers are negative.
+     * @since 1.0
+     */
+    private static final class Partial {
+
+        /**
+         * Missing or wildcard number.
+         */
+        private static final long ANY = -1L;
+
+        /**
+         * Major version.
+         */
+        private final long major;
+
+        /**
+         * Minor version.
+         */
+        private final long minor;
+
+        /**
+         * Patch version.
+         */
+        private final long patch;
+
+        /**
+         * Full version, if all numbers are present.
+         */
+        private final Version full;
+
+        /**
+         * Ctor.
+         * @param nums Major, minor and patch numbers
+         * @param full Full version, null if some number is missing
+         */
+        private Partial(final long[] nums, final Version full) {
+            this.major = nums[0];
+            this.minor = nums[1];
+            this.patch = nums[2];
+            this.full = full;
+        }
+
+        /**
+         * Parse partial version.
+         * @param text Version text
+         * @param range Whole range, for error message
+         * @return Partial version
+         */
+        static Partial parse(final String text, final String range) {
+            final String trimmed = text.replaceFirst("^=+", "");
+            final Matcher matcher = Range.PARTIAL.matcher(trimmed);
+            if (!matcher.matches()) {
+                throw new ArtipieException(String.format("Invalid range `%s`", range));
+            }
+            final long[] nums = new long[3];
+            boolean wild = false;
+            for (int idx = 0; idx < nums.length; idx = idx + 1) {
+                final String num = matcher.group(idx + 1);
+                if (wild || num == null || "x".equalsIgnoreCase(num) || "*".equals(num)) {
+                    wild = true;
+                    nums[idx] = Partial.ANY;
+                } else {
+                    nums[idx] = Long.parseLong(num);
+                }
+            }
+            final Version full;
+            if (wild) {
+                full = null;
+            } else {
+                full = Version.valid(trimmed).orElseThrow(
+                    () -> new ArtipieException(String.format("Invalid range `%s`", range))
+                );
+            }
+            return new Partial(nums, full);
+        }
+
+        /**
+         * Bounds of the version without operator, e.g. `1.2` or `1.2.3`.
+         * @return Bounds
+         */
+        List<Bound> exact() {
+            final List<Bound> res;
+            if (this.full == null) {
+                res = this.release();
+            } else {
+                res = Collections.singletonList(new Bound(Bound.Operator.EQ, this.full));
+            }
+            return res;
+        }
+
+        /**
+         * Bounds of tilde range: patch updates if minor version is specified,
+         * minor updates otherwise.
+         * @return Bounds
+         */
+        List<Bound> tilde() {
+            final List<Bound> res;
+            if (this.full == null) {
+                res = this.release();
+            } else {
+                res = Arrays.asList(
+                    new Bound(Bound.Operator.GTE, this.full),
+                    new Bound(Bound.Operator.LT, Version.lowest(this.major, this.minor + 1, 0))
+                );
+            }
+            return res;
+        }
+
+        /**
+         * Bounds of caret range: updates which do not change the left-most
+         * non-zero number.
+         * @return Bounds
+         */
+        @SuppressWarnings("PMD.ConfusingTernary")
+        List<Bound> caret() {
+            final List<Bound> res;
+            if (this.major == Partial.ANY || this.minor == Partial.ANY) {
+                res = this.release();
+            } else {
+                final Version lower;
+                if (this.full == null) {
+                    lower = Version.release(this.major, this.minor, 0);
+                } else {
+                    lower = this.full;
+                }
+                final Version upper;
+                if (this.major > 0) {
+                    upper = Version.lowest(this.major + 1, 0, 0);
+                } else if (this.minor > 0 || this.patch == Partial.ANY) {
+                    upper = Version.lowest(0, this.minor + 1, 0);
+                } else {
+                    upper = Version.lowest(0, 0, this.patch + 1);
+                }
+                res = Arrays.asList(
+                    new Bound(Bound.Operator.GTE, lower), new Bound(Bound.Operator.LT, upper)
+                );
+            }
+            return res;
+        }
+
+        /**
+         * Bound of primitive comparator, partial versions are completed
+         * the same way as npm does, e.g. `>1.2` means `>=1.3.0`.
+         * @param operator Comparison operator
+         * @return Bound
+         * @checkstyle CyclomaticComplexityCheck (40 lines)
+         */
+        @SuppressWarnings({"PMD.ConfusingTernary", "PMD.CyclomaticComplexity"})
+        Bound bound(final Bound.Operator operator) {
+            final Bound res;
+            if (this.full != null) {
+                res = new Bound(operator, this.full);
+            } else if (this.major == Partial.ANY) {
+                if (operator == Bound.Operator.GT || operator == Bound.Operator.LT) {
+                    res = Bound.NONE;
+                } else {
+                    res = Bound.ANY;
+                }
+            } else if (operator == Bound.Operator.GT) {
+                res = new Bound(Bound.Operator.GTE, this.next());
+            } else if (operator == Bound.Operator.LTE) {
+                res = new Bound(
+                    Bound.Operator.LT, Version.lowest(this.next().major(), this.next().minor(), 0)
+                );
+            } else if (operator == Bound.Operator.LT) {
+                res = new Bound(operator, Version.lowest(this.major, Math.max(this.minor, 0), 0));
+            } else {
+                res = new Bound(
+                    Bound.Operator.GTE, Version.release(this.major, Math.max(this.minor, 0), 0)
+                );
+            }
+            return res;
+        }
+
+        /**
+         * Bounds of all versions of the partial release, e.g. `1.2` means
+         * `>=1.2.0 <1.3.0-0`.
+         * @return Bounds
+         */
+        private List<Bound> release() {
+            final List<Bound> res;
+            if (this.major == Partial.ANY) {
+                res = Collections.singletonList(Bound.ANY);
+            } else {
+                final Version next = this.next();
+                res = Arrays.asList(
+                    new Bound(
+                        Bound.Operator.GTE,
+                        Version.release(this.major, Math.max(this.minor, 0), 0)
+                    ),
+                    new Bound(
+                        Bound.Operator.LT,
+                        Version.lowest(next.major(), next.minor(), 0)
+                    )
+                );
+            }
+            return res;
+        }
+
+        /**
+         * First release after the partial release, e.g. `1.3.0` for `1.2`
+         * and `2.0.0` for `1`.
+         * @return Version
+         */
+        private Version next() {
+            final Version res;
+            if (this.minor == Partial.ANY) {
+                res = Version.release(this.major + 1, 0, 0);
+            } else {
+                res = Version.release(this.major, this.minor + 1, 0);
+            }
+            return res;
+        }
+    }
+}
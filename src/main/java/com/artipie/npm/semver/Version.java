@@ -0,0 +1,356 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.semver;
+
+import com.artipie.ArtipieException;
+import java.util.Optional;
+
+/**
+ * Semantic version, see <a href="https://semver.org">semver.org</a>. Version is parsed
+ * once into primitive keys: major, minor and patch numbers and pre-release identifiers,
+ * where numeric identifiers are kept as numbers, so comparing versions
+ * allocates nothing. Build metadata is kept in version string only, it does not
+ * affect version precedence. Leading `v` or `=` is allowed, as in npm.
+ * @since 1.0
+ */
+@SuppressWarnings("PMD.OnlyOneReturn")
+public final class Version implements Comparable<Version> {
+
+    /**
+     * Marker of alphanumeric pre-release identifier in numeric identifiers array.
+     */
+    static final long ALPHANUMERIC = -1L;
+
+    /**
+     * No pre-release identifiers.
+     */
+    private static final String[] RELEASE = new String[0];
+
+    /**
+     * No numeric pre-release identifiers.
+     */
+    private static final long[] RELEASE_NUMS = new long[0];
+
+    /**
+     * Version string as it was parsed.
+     */
+    private final String value;
+
+    /**
+     * Major version.
+     */
+    private final long major;
+
+    /**
+     * Minor version.
+     */
+    private final long minor;
+
+    /**
+     * Patch version.
+     */
+    private final long patch;
+
+    /**
+     * Pre-release identifiers, empty for release versions.
+     */
+    private final String[] pre;
+
+    /**
+     * Values of numeric pre-release identifiers, {@link #ALPHANUMERIC} for
+     * alphanumeric identifiers.
+     */
+    private final long[] nums;
+
+    /**
+     * Ctor.
+     * @param value Version string
+     * @param major Major version
+     * @param minor Minor version
+     * @param patch Patch version
+     * @param pre Pre-release identifiers
+     * @param nums Values of numeric pre-release identifiers
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly")
+    private Version(final String value, final long major, final long minor, final long patch,
+        final String[] pre, final long[] nums) {
+        this.value = value;
+        this.major = major;
+        this.minor = minor;
+        this.patch = patch;
+        this.pre = pre;
+        this.nums = nums;
+    }
+
+    /**
+     * Parse version.
+     * @param value Version string
+     * @return Version
+     * @throws ArtipieException If version is not valid
+     */
+    public static Version parse(final String value) {
+        return Version.valid(value).orElseThrow(
+            () -> new ArtipieException(String.format("Invalid version `%s`", value))
+        );
+    }
+
+    /**
+     * Parse version if it is valid.
+     * @param value Version string
+     * @return Version, empty if version is not valid
+     * @checkstyle CyclomaticComplexityCheck (60 lines)
+     * @checkstyle ExecutableStatementCountCheck (60 lines)
+     * @checkstyle ReturnCountCheck (60 lines)
+     */
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    public static Optional<Version> valid(final String value) {
+        final String text = value.trim();
+        int pos = 0;
+        while (pos < text.length() && (text.charAt(pos) == 'v' || text.charAt(pos) == '=')) {
+            pos = pos + 1;
+        }
+        final long[] core = new long[3];
+        for (int idx = 0; idx < core.length; idx = idx + 1) {
+            if (idx > 0) {
+                if (pos >= text.length() || text.charAt(pos) != '.') {
+                    return Optional.empty();
+                }
+                pos = pos + 1;
+            }
+            final int end = Version.digits(text, pos);
+            if (end == pos || !Version.canonical(text, pos, end)) {
+                return Optional.empty();
+            }
+            core[idx] = Long.parseLong(text.substring(pos, end));
+            pos = end;
+        }
+        String[] pre = Version.RELEASE;
+        long[] nums = Version.RELEASE_NUMS;
+        if (pos < text.length() && text.charAt(pos) == '-') {
+            final int end = Version.identifiers(text, pos + 1);
+            if (end == pos + 1) {
+                return Optional.empty();
+            }
+            pre = text.substring(pos + 1, end).split("\\.", -1);
+            nums = new long[pre.length];
+            for (int idx = 0; idx < pre.length; idx = idx + 1) {
+                final String ident = pre[idx];
+                if (ident.isEmpty()) {
+                    return Optional.empty();
+                }
+                if (Version.digits(ident, 0) == ident.length()) {
+                    if (!Version.canonical(ident, 0, ident.length())) {
+                        return Optional.empty();
+                    }
+                    nums[idx] = Long.parseLong(ident);
+                } else {
+                    nums[idx] = Version.ALPHANUMERIC;
+                }
+            }
+            pos = end;
+        }
+        if (pos < text.length() && text.charAt(pos) == '+') {
+            final int end = Version.identifiers(text, pos + 1);
+            for (final String ident : text.substring(pos + 1, end).split("\\.", -1)) {
+                if (ident.isEmpty()) {
+                    return Optional.empty();
+                }
+            }
+            pos = end;
+        }
+        if (pos != text.length()) {
+            return Optional.empty();
+        }
+        return Optional.of(new Version(value, core[0], core[1], core[2], pre, nums));
+    }
+
+    /**
+     * Major version.
+     * @return Major version number
+     */
+    public long major() {
+        return this.major;
+    }
+
+    /**
+     * Minor version.
+     * @return Minor version number
+     */
+    public long minor() {
+        return this.minor;
+    }
+
+    /**
+     * Patch version.
+     * @return Patch version number
+     */
+    public long patch() {
+        return this.patch;
+    }
+
+    /**
+     * Check if version is a pre-release version, e.g. `1.0.0-beta.1`.
+     * @return True for pre-release version
+     */
+    public boolean prerelease() {
+        return this.pre.length > 0;
+    }
+
+    /**
+     * Check if version has the same major, minor and patch numbers.
+     * @param other Other version
+     * @return True if versions differ in pre-release or build metadata only
+     */
+    public boolean sameRelease(final Version other) {
+        return this.major == other.major && this.minor == other.minor
+            && this.patch == other.patch;
+    }
+
+    @Override
+    @SuppressWarnings("PMD.ConfusingTernary")
+    public int compareTo(final Version other) {
+        int res = Long.compare(this.major, other.major);
+        if (res == 0) {
+            res = Long.compare(this.minor, other.minor);
+        }
+        if (res == 0) {
+            res = Long.compare(this.patch, other.patch);
+        }
+        if (res == 0) {
+            if (this.pre.length == 0 || other.pre.length == 0) {
+                res = Integer.compare(other.pre.length, this.pre.length);
+            } else {
+                res = this.comparePrerelease(other);
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other
+            || other instanceof Version && this.compareTo((Version) other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int res = Long.hashCode(this.major);
+        res = 31 * res + Long.hashCode(this.minor);
+        res = 31 * res + Long.hashCode(this.patch);
+        for (int idx = 0; idx < this.pre.length; idx = idx + 1) {
+            res = 31 * res + this.pre[idx].hashCode();
+        }
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return this.value;
+    }
+
+    /**
+     * Version with pre-release identifiers only, e.g. `2.0.0-0`, the lowest
+     * version of the release, used as exclusive upper bound of ranges.
+     * @param major Major version
+     * @param minor Minor version
+     * @param patch Patch version
+     * @return Version
+     */
+    static Version lowest(final long major, final long minor, final long patch) {
+        return new Version(
+            String.format("%d.%d.%d-0", major, minor, patch), major, minor, patch,
+            new String[] {"0"}, new long[] {0L}
+        );
+    }
+
+    /**
+     * Release version.
+     * @param major Major version
+     * @param minor Minor version
+     * @param patch Patch version
+     * @return Version
+     */
+    static Version release(final long major, final long minor, final long patch) {
+        return new Version(
+            String.format("%d.%d.%d", major, minor, patch), major, minor, patch,
+            Version.RELEASE, Version.RELEASE_NUMS
+        );
+    }
+
+    /**
+     * Compare pre-release identifiers: numeric identifiers are compared
+     * numerically and have lower precedence than alphanumeric ones, which are
+     * compared lexically, larger set of identifiers has higher precedence.
+     * @param other Other version
+     * @return Comparison result
+     */
+    private int comparePrerelease(final Version other) {
+        final int len = Math.min(this.pre.length, other.pre.length);
+        int res = 0;
+        for (int idx = 0; idx < len && res == 0; idx = idx + 1) {
+            final long left = this.nums[idx];
+            final long right = other.nums[idx];
+            if (left != Version.ALPHANUMERIC && right != Version.ALPHANUMERIC) {
+                res = Long.compare(left, right);
+            } else if (left != Version.ALPHANUMERIC) {
+                res = -1;
+            } else if (right != Version.ALPHANUMERIC) {
+                res = 1;
+            } else {
+                res = this.pre[idx].compareTo(other.pre[idx]);
+            }
+        }
+        if (res == 0) {
+            res = Integer.compare(this.pre.length, other.pre.length);
+        }
+        return res;
+    }
+
+    /**
+     * End of digits sequence.
+     * @param text Text
+     * @param start Start position
+     * @return Position after the last digit
+     */
+    private static int digits(final String text, final int start) {
+        int pos = start;
+        while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+            pos = pos + 1;
+        }
+        return pos;
+    }
+
+    /**
+     * End of dot separated identifiers of ASCII alphanumerics and hyphens.
+     * @param text Text
+     * @param start Start position
+     * @return Position after the last identifier character
+     */
+    private static int identifiers(final String text, final int start) {
+        int pos = start;
+        while (pos < text.length()) {
+            final char chr = text.charAt(pos);
+            if (chr >= '0' && chr <= '9' || chr >= 'a' && chr <= 'z' || chr >= 'A' && chr <= 'Z'
+                || chr == '-' || chr == '.') {
+                pos = pos + 1;
+            } else {
+                break;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Check that number has no leading zeros and fits into long.
+     * @param text Text
+     * @param start Number start
+     * @param end Number end
+     * @return True if number is canonical
+     */
+    private static boolean canonical(final String text, final int start, final int end) {
+        return (end - start == 1 || text.charAt(start) != '0') && end - start < 19;
+    }
+}
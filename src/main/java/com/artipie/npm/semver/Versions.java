@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.semver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Versions of a package ordered by semantic version precedence. Every version
+ * string is parsed once. Strings which are not valid semantic versions have lower
+ * precedence than any valid version and are ordered lexicographically.
+ * @since 1.0
+ */
+public final class Versions {
+
+    /**
+     * Valid versions.
+     */
+    private final List<Version> valid;
+
+    /**
+     * Version strings which are not valid semantic versions.
+     */
+    private final List<String> invalid;
+
+    /**
+     * Ctor.
+     * @param versions Version strings
+     */
+    public Versions(final Collection<String> versions) {
+        this.valid = new ArrayList<>(versions.size());
+        this.invalid = new ArrayList<>(0);
+        for (final String version : versions) {
+            final Optional<Version> parsed = Version.valid(version);
+            if (parsed.isPresent()) {
+                this.valid.add(parsed.get());
+            } else {
+                this.invalid.add(version);
+            }
+        }
+    }
+
+    /**
+     * Versions in descending order.
+     * @return Version strings sorted from the highest to the lowest
+     */
+    public List<String> descending() {
+        final List<Version> sorted = new ArrayList<>(this.valid);
+        sorted.sort(Comparator.reverseOrder());
+        final List<String> res = new ArrayList<>(sorted.size() + this.invalid.size());
+        for (final Version version : sorted) {
+            res.add(version.toString());
+        }
+        final List<String> rest = new ArrayList<>(this.invalid);
+        rest.sort(Comparator.reverseOrder());
+        res.addAll(rest);
+        return res;
+    }
+
+    /**
+     * Version to tag as `latest`: the highest release version, the highest
+     * pre-release version if there are no releases.
+     * @return Version string, empty if there are no versions
+     */
+    public Optional<String> latest() {
+        Version release = null;
+        Version pre = null;
+        for (final Version version : this.valid) {
+            if (version.prerelease()) {
+                if (pre == null || version.compareTo(pre) > 0) {
+                    pre = version;
+                }
+            } else if (release == null || version.compareTo(release) > 0) {
+                release = version;
+            }
+        }
+        final Optional<String> res;
+        if (release != null) {
+            res = Optional.of(release.toString());
+        } else if (pre == null) {
+            res = this.invalid.stream().max(Comparator.naturalOrder());
+        } else {
+            res = Optional.of(pre.toString());
+        }
+        return res;
+    }
+
+    /**
+     * The highest version satisfying the range.
+     * @param range Version range
+     * @return Version string, empty if no version satisfies the range
+     */
+    public Optional<String> maxSatisfying(final Range range) {
+        Version res = null;
+        for (final Version version : this.valid) {
+            if ((res == null || version.compareTo(res) > 0) && range.satisfies(version)) {
+                res = version;
+            }
+        }
+        return Optional.ofNullable(res).map(Version::toString);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import wtf.g4s8.hamcrest.json.JsonHas;
+import wtf.g4s8.hamcrest.json.JsonValueIs;
+
+/**
+ * Test for {@link AbbreviatedMeta}.
+ * @since 1.0
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class AbbreviatedMetaTest {
+
+    @Test
+    void keepsOnlyInstallFields() {
+        final JsonObject res = new AbbreviatedMeta(
+            Json.createObjectBuilder()
+                .add("name", "@hello/simple")
+                .add("readme", "Long readme")
+                .add("maintainers", Json.createArrayBuilder().add("someone"))
+                .add(
+                    "time",
+                    Json.createObjectBuilder()
+                        .add("created", "2020-05-13T16:30:30.381999")
+                        .add("modified", "2021-02-04T16:30:30.381999")
+                )
+                .add("dist-tags", Json.createObjectBuilder().add("latest", "1.0.1"))
+                .add(
+                    "versions",
+                    Json.createObjectBuilder().add(
+                        "1.0.1",
+                        Json.createObjectBuilder()
+                            .add("name", "@hello/simple")
+                            .add("version", "1.0.1")
+                            .add("readme", "Long readme")
+                            .add("dependencies", Json.createObjectBuilder().add("a", "^1.0"))
+                            .add("dist", Json.createObjectBuilder().add("tarball", "/a.tgz"))
+                    )
+                ).build()
+        ).value();
+        MatcherAssert.assertThat(
+            "Abbreviated metadata has install fields only",
+            res,
+            new IsEqual<>(
+                Json.createObjectBuilder()
+                    .add("name", "@hello/simple")
+                    .add("modified", "2021-02-04T16:30:30.381999")
+                    .add("dist-tags", Json.createObjectBuilder().add("latest", "1.0.1"))
+                    .add(
+                        "versions",
+                        Json.createObjectBuilder().add(
+                            "1.0.1",
+                            Json.createObjectBuilder()
+                                .add("name", "@hello/simple")
+                                .add("version", "1.0.1")
+                                .add(
+                                    "dependencies", Json.createObjectBuilder().add("a", "^1.0")
+                                )
+                                .add("dist", Json.createObjectBuilder().add("tarball", "/a.tgz"))
+                        )
+                    ).build()
+            )
+        );
+    }
+
+    @Test
+    void marksVersionWithInstallScript() {
+        MatcherAssert.assertThat(
+            new AbbreviatedMeta(
+                Json.createObjectBuilder().add(
+                    "versions",
+                    Json.createObjectBuilder().add(
+                        "0.1.0",
+                        Json.createObjectBuilder().add(
+                            "scripts",
+                            Json.createObjectBuilder()
+                                .add("test", "jest")
+                                .add("postinstall", "node build.js")
+                        )
+                    )
+                ).build()
+            ).value().getJsonObject("versions").getJsonObject("0.1.0"),
+            new JsonHas("hasInstallScript", new JsonValueIs(true))
+        );
+    }
+
+    @Test
+    void worksWithIncompleteMeta() {
+        MatcherAssert.assertThat(
+            new AbbreviatedMeta(
+                Json.createObjectBuilder()
+                    .add("dist-tags", Json.createObjectBuilder().add("latest", "1.0.3"))
+                    .build()
+            ).value().keySet(),
+            Matchers.containsInAnyOrder("dist-tags", "versions")
+        );
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import javax.json.JsonObject;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link BulkImport}.
+ * @since 1.0
+ */
+final class BulkImportTest {
+
+    /**
+     * Directory with archives.
+     */
+    private static final Key DIR = new Key.From("import");
+
+    /**
+     * Source storage.
+     */
+    private Storage source;
+
+    /**
+     * Repository storage.
+     */
+    private Storage target;
+
+    @BeforeEach
+    void setUp() {
+        this.source = new InMemoryStorage();
+        this.target = new InMemoryStorage();
+    }
+
+    @Test
+    void importsArchivesWithOneMetaUpdatePerPackage() throws IOException {
+        this.archive("left-1.9.0", "left", "1.9.0");
+        this.archive("left-1.10.0", "left", "1.10.0");
+        this.archive("left-2.0.0-rc.1", "left", "2.0.0-rc.1");
+        this.archive("right-0.1.0", "right", "0.1.0");
+        new BlockingStorage(this.source).save(
+            new Key.From(BulkImportTest.DIR, "broken.tgz"),
+            "not an archive".getBytes(StandardCharsets.UTF_8)
+        );
+        final BulkImport.Progress progress = new BulkImport(this.source, this.target)
+            .run(BulkImportTest.DIR).join();
+        MatcherAssert.assertThat(
+            "Reports progress",
+            Arrays.asList(progress.imported(), progress.metaUpdates(), progress.skipped()),
+            Matchers.contains(4L, 2L, Collections.singletonList("import/broken.tgz"))
+        );
+        final JsonObject meta = new JsonFromMeta(this.target, new Key.From("left")).json();
+        MatcherAssert.assertThat(
+            "Adds all versions",
+            meta.getJsonObject("versions").keySet(),
+            Matchers.containsInAnyOrder("1.9.0", "1.10.0", "2.0.0-rc.1")
+        );
+        MatcherAssert.assertThat(
+            "Tags highest release as latest",
+            meta.getJsonObject("dist-tags").getString("latest"),
+            new IsEqual<>("1.10.0")
+        );
+        MatcherAssert.assertThat(
+            "Moves archives to package directory",
+            new BlockingStorage(this.target).list(new Key.From("left", "-")).size(),
+            new IsEqual<>(3)
+        );
+        MatcherAssert.assertThat(
+            "Cleans staging area",
+            new BlockingStorage(this.target).list(new Key.From(".staging")).isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void resumesFromCheckpoint() throws IOException {
+        this.archive("left-1.0.0", "left", "1.0.0");
+        this.archive("left-1.1.0", "left", "1.1.0");
+        this.archive("left-1.2.0", "left", "1.2.0");
+        new BulkImport(this.source, this.target, 2, 2).run(BulkImportTest.DIR).join();
+        new TarballBlobs(this.target).remove(new Key.From("left", "-", "left-1.0.0.tgz")).join();
+        this.archive("right-1.0.0", "right", "1.0.0");
+        final BulkImport.Progress progress = new BulkImport(this.source, this.target, 2, 2)
+            .run(BulkImportTest.DIR).join();
+        MatcherAssert.assertThat(
+            "Counts archives of both runs",
+            Arrays.asList(progress.imported(), progress.metaUpdates(), progress.after().get()),
+            Matchers.contains(4L, 3L, "import/right-1.0.0.tgz")
+        );
+        MatcherAssert.assertThat(
+            "Does not import archives again",
+            new BlockingStorage(this.target).exists(
+                TarballBlobs.ref(new Key.From("left", "-", "left-1.0.0.tgz"))
+            ),
+            new IsEqual<>(false)
+        );
+    }
+
+    /**
+     * Save package archive to source directory.
+     * @param file Archive file name without extension
+     * @param name Package name
+     * @param version Package version
+     * @throws IOException On error
+     */
+    private void archive(final String file, final String name, final String version)
+        throws IOException {
+        final byte[] pkg = String.format("{\"name\":\"%s\",\"version\":\"%s\"}", name, version)
+            .getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(
+            new GzipCompressorOutputStream(bytes)
+        )) {
+            final TarArchiveEntry entry = new TarArchiveEntry("package/package.json");
+            entry.setSize(pkg.length);
+            tar.putArchiveEntry(entry);
+            tar.write(pkg);
+            tar.closeArchiveEntry();
+        }
+        this.source.save(
+            new Key.From(BulkImportTest.DIR, String.format("%s.tgz", file)),
+            new Content.From(bytes.toByteArray())
+        ).join();
+    }
+}
@@ -6,9 +6,6 @@ package com.artipie.npm;
 
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.ext.PublisherAs;
-import java.io.StringReader;
-import javax.json.Json;
 import javax.json.JsonObject;
 
 /**
@@ -37,17 +34,10 @@ public final class JsonFromMeta {
     }
 
     /**
-     * Obtains json from meta file.
+     * Obtains json from meta file with metadata journal records and dist-tags.
      * @return Json from meta file.
      */
     public JsonObject json() {
-        return Json.createReader(
-            new StringReader(
-                new PublisherAs(
-                    this.storage.value(new Key.From(this.path, "meta.json")).join()
-                ).asciiString()
-                    .toCompletableFuture().join()
-            )
-        ).readObject();
+        return new MetaFiles(this.storage, this.path).meta().join().get();
     }
 }
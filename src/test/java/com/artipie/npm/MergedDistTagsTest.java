@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link MergedDistTags}.
+ * @since 1.0
+ */
+final class MergedDistTagsTest {
+
+    /**
+     * Dist-tags to merge.
+     */
+    private static final JsonObject TAGS = Json.createObjectBuilder()
+        .add("latest", "2.0.0").add("beta", "3.0.0-beta").build();
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 64, 4096})
+    void replacesTopLevelDistTagsInChunkedContent(final int size) {
+        final String json = String.join(
+            "",
+            "{\"name\":\"a\\\"dist-tags\\\"\",\"dist-tag\":{},",
+            "\"versions\": {\"1.0.0\": {\"dist-tags\": {\"latest\": \"1.0.0\"}}},",
+            "\"dist-tags\" : { \"latest\": \"1.0.0\", \"list\": [\"}\", {\"a\": \",\"}] } ,",
+            "\"time\": {\"modified\": \"2021-02-04T16:30:30\"}}"
+        );
+        MatcherAssert.assertThat(
+            MergedDistTagsTest.merged(json, size),
+            new IsEqual<>(
+                json.replace(
+                    " { \"latest\": \"1.0.0\", \"list\": [\"}\", {\"a\": \",\"}] } ",
+                    MergedDistTagsTest.TAGS.toString()
+                )
+            )
+        );
+    }
+
+    /**
+     * Merge tags into metadata.
+     * @param json Metadata
+     * @param expected Expected metadata format
+     * @checkstyle LineLengthCheck (10 lines)
+     */
+    @ParameterizedTest
+    @CsvSource(
+        delimiter = '|',
+        value = {
+            "{\"dist-tags\":{}}|{\"dist-tags\":%s}",
+            "{\"name\":\"a\",\"dist-tags\":{\"latest\":\"1.0.0\"}}|{\"name\":\"a\",\"dist-tags\":%s}",
+            "{\"name\":\"a\"}|{\"name\":\"a\",\"dist-tags\":%s}",
+            "{ }|{ \"dist-tags\":%s}"
+        }
+    )
+    void mergesTags(final String json, final String expected) {
+        MatcherAssert.assertThat(
+            MergedDistTagsTest.merged(json, 2),
+            new IsEqual<>(String.format(expected, MergedDistTagsTest.TAGS.toString()))
+        );
+    }
+
+    /**
+     * Merge dist-tags into json split into chunks.
+     * @param json Json
+     * @param size Chunk size
+     * @return Merged json
+     */
+    private static String merged(final String json, final int size) {
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        final List<ByteBuffer> chunks = new ArrayList<>(bytes.length / size + 1);
+        for (int pos = 0; pos < bytes.length; pos = pos + size) {
+            chunks.add(ByteBuffer.wrap(bytes, pos, Math.min(size, bytes.length - pos)).slice());
+        }
+        return new PublisherAs(
+            new MergedDistTags(
+                new Content.From(Flowable.fromIterable(chunks)), MergedDistTagsTest.TAGS
+            ).value()
+        ).string(StandardCharsets.UTF_8).toCompletableFuture().join();
+    }
+}
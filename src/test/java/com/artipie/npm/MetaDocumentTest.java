@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MetaDocument}.
+ * @since 1.0
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class MetaDocumentTest {
+
+    @Test
+    void appliesChanges() {
+        MatcherAssert.assertThat(
+            new MetaDocument(MetaDocumentTest.meta())
+                .version(
+                    "1.0.2",
+                    Json.createObjectBuilder().add("name", "pkg").add("version", "1.0.2").build()
+                )
+                .tarball("1.0.2", "/pkg/-/pkg-1.0.2.tgz")
+                .tarball("1.0.0", "/pkg/-/pkg-1.0.0.tgz")
+                .field("1.0.1", "deprecated", Json.createValue("Use 1.0.2"))
+                .remove("1.0.0")
+                .tag("latest", "1.0.2")
+                .untag("beta")
+                .time("1.0.2", "2023-01-03")
+                .time("modified", "2023-01-03")
+                .json(),
+            new IsEqual<>(
+                Json.createObjectBuilder()
+                    .add("name", "pkg")
+                    .add(
+                        "versions",
+                        Json.createObjectBuilder()
+                            .add(
+                                "1.0.1",
+                                Json.createObjectBuilder().add("version", "1.0.1")
+                                    .add("deprecated", "Use 1.0.2")
+                            )
+                            .add(
+                                "1.0.2",
+                                Json.createObjectBuilder().add("name", "pkg")
+                                    .add("version", "1.0.2")
+                                    .add(
+                                        "dist",
+                                        Json.createObjectBuilder()
+                                            .add("tarball", "/pkg/-/pkg-1.0.2.tgz")
+                                    )
+                            )
+                    )
+                    .add(
+                        "time",
+                        Json.createObjectBuilder()
+                            .add("modified", "2023-01-03")
+                            .add("1.0.1", "2023-01-02")
+                            .add("1.0.2", "2023-01-03")
+                    )
+                    .add("dist-tags", Json.createObjectBuilder().add("latest", "1.0.2"))
+                    .build()
+            )
+        );
+    }
+
+    @Test
+    void readsVersions() {
+        final MetaDocument doc = new MetaDocument(MetaDocumentTest.meta()).unset("1.0.1", "none");
+        MatcherAssert.assertThat(
+            String.join(
+                " ", doc.versions().toString(), doc.tarball("1.0.0").get(),
+                String.valueOf(doc.tarball("1.0.1").isPresent()), doc.tags().keySet().toString()
+            ),
+            new IsEqual<>("[1.0.0, 1.0.1] http://host/pkg-1.0.0.tgz false [latest, beta]")
+        );
+    }
+
+    @Test
+    void removesVersionField() {
+        MatcherAssert.assertThat(
+            new MetaDocument(
+                Json.createObjectBuilder().add(
+                    "versions",
+                    Json.createObjectBuilder().add(
+                        "1.0.0",
+                        Json.createObjectBuilder().add("version", "1.0.0")
+                            .add("deprecated", "Old")
+                    )
+                ).build()
+            ).unset("1.0.0", "deprecated").json(),
+            new IsEqual<>(
+                Json.createObjectBuilder().add(
+                    "versions",
+                    Json.createObjectBuilder().add(
+                        "1.0.0", Json.createObjectBuilder().add("version", "1.0.0")
+                    )
+                ).build()
+            )
+        );
+    }
+
+    @Test
+    void keepsDocumentWithoutChanges() {
+        MatcherAssert.assertThat(
+            new MetaDocument(MetaDocumentTest.meta()).json(),
+            new IsEqual<>(MetaDocumentTest.meta())
+        );
+    }
+
+    /**
+     * Package metadata.
+     * @return Json
+     */
+    private static JsonObject meta() {
+        return Json.createObjectBuilder()
+            .add("name", "pkg")
+            .add(
+                "versions",
+                Json.createObjectBuilder()
+                    .add(
+                        "1.0.0",
+                        Json.createObjectBuilder().add("version", "1.0.0").add(
+                            "dist",
+                            Json.createObjectBuilder()
+                                .add("shasum", "abc")
+                                .add("tarball", "http://host/pkg-1.0.0.tgz")
+                        )
+                    )
+                    .add("1.0.1", Json.createObjectBuilder().add("version", "1.0.1"))
+            )
+            .add(
+                "time",
+                Json.createObjectBuilder()
+                    .add("modified", "2023-01-02")
+                    .add("1.0.0", "2023-01-01")
+                    .add("1.0.1", "2023-01-02")
+            )
+            .add(
+                "dist-tags",
+                Json.createObjectBuilder().add("latest", "1.0.1").add("beta", "1.0.0")
+            )
+            .build();
+    }
+}
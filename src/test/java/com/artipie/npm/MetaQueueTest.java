@@ -0,0 +1,250 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MetaQueue.Durable}.
+ * @since 1.0
+ */
+final class MetaQueueTest {
+
+    /**
+     * Package key.
+     */
+    private static final Key PKG = new Key.From("pkg");
+
+    /**
+     * Storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void setUp() {
+        this.storage = new InMemoryStorage();
+    }
+
+    @Test
+    void completesPublishBeforeMetadataIsSaved() {
+        final CompletableFuture<Void> gate = new CompletableFuture<>();
+        final Storage slow = new Storage.Wrap(this.storage) {
+            @Override
+            public CompletableFuture<Void> save(final Key key, final Content content) {
+                final CompletableFuture<Void> res;
+                if (key.string().endsWith(MetaFiles.META)) {
+                    res = gate.thenCompose(nothing -> super.save(key, content));
+                } else {
+                    res = super.save(key, content);
+                }
+                return res;
+            }
+        };
+        final MetaQueue.Durable queue = new MetaQueue.Durable(2);
+        queue.enqueue(slow, MetaQueueTest.PKG, MetaQueueTest.uploaded("1.0.0")).join();
+        MatcherAssert.assertThat(
+            "Metadata is not saved on publish",
+            this.storage.exists(new Key.From(MetaQueueTest.PKG, MetaFiles.META)).join(),
+            new IsEqual<>(false)
+        );
+        queue.enqueue(slow, MetaQueueTest.PKG, MetaQueueTest.uploaded("1.0.1")).join();
+        queue.enqueue(slow, MetaQueueTest.PKG, MetaQueueTest.uploaded("1.0.2")).join();
+        gate.complete(null);
+        queue.idle().join();
+        MatcherAssert.assertThat(
+            "Adds all versions",
+            new JsonFromMeta(this.storage, MetaQueueTest.PKG).json()
+                .getJsonObject("versions").keySet(),
+            Matchers.containsInAnyOrder("1.0.0", "1.0.1", "1.0.2")
+        );
+        MatcherAssert.assertThat(
+            "Coalesces jobs published while metadata is saved",
+            new MetaFiles(this.storage, MetaQueueTest.PKG).validators().join().journal(),
+            Matchers.lessThanOrEqualTo(1L)
+        );
+        MatcherAssert.assertThat(
+            "Removes processed jobs",
+            this.storage.list(MetaQueue.Durable.JOBS).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void recoversPendingJobsWithOneUpdate() {
+        for (final String version : Arrays.asList("1.0.0", "1.1.0", "2.0.0")) {
+            this.storage.save(
+                new Key.From(
+                    MetaQueue.Durable.JOBS, MetaQueueTest.PKG.string(),
+                    String.format("job-%s.json", version)
+                ),
+                new Content.From(
+                    MetaQueueTest.uploaded(version).toString().getBytes(StandardCharsets.UTF_8)
+                )
+            ).join();
+        }
+        final MetaQueue.Durable queue = new MetaQueue.Durable(1);
+        queue.recover(this.storage).join();
+        queue.idle().join();
+        final JsonObject meta = new JsonFromMeta(this.storage, MetaQueueTest.PKG).json();
+        MatcherAssert.assertThat(
+            "Adds versions and tags the last one",
+            Arrays.asList(
+                meta.getJsonObject("versions").size(),
+                meta.getJsonObject("dist-tags").getString("latest")
+            ),
+            Matchers.contains(3, "2.0.0")
+        );
+        MatcherAssert.assertThat(
+            "Creates metadata with one update",
+            new MetaFiles(this.storage, MetaQueueTest.PKG).validators().join().journal(),
+            new IsEqual<>(0L)
+        );
+    }
+
+    @Test
+    void processesPackageByOneWorkerWhateverStorageItIsEnqueuedWith() {
+        final CompletableFuture<Void> gate = new CompletableFuture<>();
+        final Storage slow = new Storage.Wrap(this.storage) {
+            @Override
+            public CompletableFuture<Void> save(final Key key, final Content content) {
+                final CompletableFuture<Void> res;
+                if (key.string().endsWith(MetaFiles.META)) {
+                    res = gate.thenCompose(nothing -> super.save(key, content));
+                } else {
+                    res = super.save(key, content);
+                }
+                return res;
+            }
+        };
+        final AtomicInteger lists = new AtomicInteger();
+        final Storage other = new Storage.Wrap(this.storage) {
+            @Override
+            public CompletableFuture<Collection<Key>> list(final Key key) {
+                lists.incrementAndGet();
+                return super.list(key);
+            }
+        };
+        final MetaQueue.Durable queue = new MetaQueue.Durable(2);
+        queue.enqueue(slow, MetaQueueTest.PKG, MetaQueueTest.uploaded("1.0.0")).join();
+        queue.enqueue(other, MetaQueueTest.PKG, MetaQueueTest.uploaded("1.0.1")).join();
+        MatcherAssert.assertThat(
+            "Does not process package being processed by another worker",
+            lists.get(),
+            new IsEqual<>(0)
+        );
+        gate.complete(null);
+        queue.idle().join();
+        MatcherAssert.assertThat(
+            "Adds all versions",
+            new JsonFromMeta(this.storage, MetaQueueTest.PKG).json()
+                .getJsonObject("versions").keySet(),
+            Matchers.containsInAnyOrder("1.0.0", "1.0.1")
+        );
+    }
+
+    @Test
+    void findsVersionWaitingForUpdate() {
+        final CompletableFuture<Void> gate = new CompletableFuture<>();
+        final Storage slow = new Storage.Wrap(this.storage) {
+            @Override
+            public CompletableFuture<Collection<Key>> list(final Key key) {
+                return gate.thenCompose(nothing -> super.list(key));
+            }
+        };
+        final MetaQueue.Durable queue = new MetaQueue.Durable(1);
+        queue.enqueue(slow, MetaQueueTest.PKG, MetaQueueTest.uploaded("1.0.0")).join();
+        MatcherAssert.assertThat(
+            "Finds queued version",
+            queue.queued(this.storage, MetaQueueTest.PKG, "1.0.0").join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Does not find other version",
+            queue.queued(this.storage, MetaQueueTest.PKG, "1.0.1").join(),
+            new IsEqual<>(false)
+        );
+        gate.complete(null);
+        queue.idle().join();
+        MatcherAssert.assertThat(
+            "Does not find processed version",
+            queue.queued(this.storage, MetaQueueTest.PKG, "1.0.0").join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void retriesFailedUpdate() {
+        final AtomicInteger saves = new AtomicInteger();
+        final Storage flaky = new Storage.Wrap(this.storage) {
+            @Override
+            public CompletableFuture<Void> save(final Key key, final Content content) {
+                final CompletableFuture<Void> res;
+                if (key.string().endsWith(MetaFiles.META) && saves.getAndIncrement() == 0) {
+                    res = new CompletableFuture<>();
+                    res.completeExceptionally(new IllegalStateException("Failed to save"));
+                } else {
+                    res = super.save(key, content);
+                }
+                return res;
+            }
+        };
+        final MetaQueue.Durable queue = new MetaQueue.Durable(1, 1);
+        queue.enqueue(flaky, MetaQueueTest.PKG, MetaQueueTest.uploaded("1.0.0")).join();
+        queue.idle().join();
+        MatcherAssert.assertThat(
+            "Adds version by retry",
+            new JsonFromMeta(this.storage, MetaQueueTest.PKG).json()
+                .getJsonObject("versions").keySet(),
+            Matchers.contains("1.0.0")
+        );
+        MatcherAssert.assertThat(
+            "Removes processed job",
+            this.storage.list(MetaQueue.Durable.JOBS).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    /**
+     * Published json.
+     * @param version Published version
+     * @return Json
+     */
+    private static JsonObject uploaded(final String version) {
+        return Json.createObjectBuilder()
+            .add("name", "pkg")
+            .add("_id", "pkg")
+            .add("dist-tags", Json.createObjectBuilder().add("latest", version))
+            .add(
+                "versions",
+                Json.createObjectBuilder().add(
+                    version,
+                    Json.createObjectBuilder()
+                        .add("name", "pkg")
+                        .add("version", version)
+                        .add(
+                            "dist",
+                            Json.createObjectBuilder().add(
+                                "tarball", String.format("/pkg/-/pkg-%s.tgz", version)
+                            )
+                        )
+                )
+            ).build();
+    }
+}
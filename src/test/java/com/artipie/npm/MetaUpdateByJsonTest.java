@@ -6,12 +6,25 @@ package com.artipie.npm;
 
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.lock.storage.StorageLock;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import javax.json.Json;
 import javax.json.JsonObject;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.hamcrest.collection.IsEmptyCollection;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -60,6 +73,141 @@ final class MetaUpdateByJsonTest {
         );
     }
 
+    @Test
+    void updatesMetaLockedByCrashedWriter() {
+        final Key prefix = new Key.From("prefix");
+        new TestResource("json/simple-project-1.0.2.json")
+            .saveTo(this.asto, new Key.From(prefix, "meta.json"));
+        new StorageLock(
+            this.asto, new Key.From(prefix, "meta.json"), Instant.now().minusSeconds(1)
+        ).acquire().toCompletableFuture().join();
+        new MetaUpdate.ByJson(this.cliMeta()).update(prefix, this.asto).join();
+        MatcherAssert.assertThat(
+            new JsonFromMeta(this.asto, prefix).json()
+                .getJsonObject("versions")
+                .keySet(),
+            Matchers.containsInAnyOrder("1.0.1", "1.0.2")
+        );
+    }
+
+    @Test
+    void appendsVersionToJournalWithoutRewritingMeta() {
+        final Key prefix = new Key.From("@hello/simple-npm-project");
+        new MetaUpdate.ByJson(this.cliMeta("1.0.1")).update(prefix, this.asto).join();
+        final byte[] snapshot = this.snapshot(prefix);
+        new MetaUpdate.ByJson(this.cliMeta("1.0.2")).update(prefix, this.asto).join();
+        MatcherAssert.assertThat(
+            "Keeps meta.json snapshot",
+            this.snapshot(prefix),
+            new IsEqual<>(snapshot)
+        );
+        MatcherAssert.assertThat(
+            "Reads published versions",
+            new JsonFromMeta(this.asto, prefix).json().getJsonObject("versions").keySet(),
+            Matchers.containsInAnyOrder("1.0.1", "1.0.2")
+        );
+    }
+
+    @Test
+    void compactsJournalIntoMeta() {
+        final Key prefix = new Key.From("@hello/simple-npm-project");
+        final List<String> versions = IntStream.range(0, 5)
+            .mapToObj(idx -> String.format("1.0.%d", idx))
+            .collect(Collectors.toList());
+        for (final String version : versions) {
+            new MetaUpdate.ByJson(this.cliMeta(version)).update(prefix, this.asto).join();
+        }
+        final JsonObject meta = new JsonFromMeta(this.asto, prefix).json();
+        new MetaFiles(this.asto, prefix).compact().join();
+        MatcherAssert.assertThat(
+            "Writes versions to meta.json",
+            Json.createReader(new ByteArrayInputStream(this.snapshot(prefix))).readObject()
+                .getJsonObject("versions").keySet(),
+            Matchers.containsInAnyOrder(versions.toArray())
+        );
+        MatcherAssert.assertThat(
+            "Reads the same metadata",
+            new JsonFromMeta(this.asto, prefix).json(),
+            new IsEqual<>(meta)
+        );
+        MatcherAssert.assertThat(
+            "Removes journal records",
+            this.asto.list(new Key.From(prefix, "meta.journal")).join(),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    @Test
+    void keepsVersionsPublishedConcurrently() throws Exception {
+        this.publishConcurrently(version -> this.asto);
+    }
+
+    @Test
+    void keepsVersionsPublishedConcurrentlyFromDifferentProcesses() throws Exception {
+        this.publishConcurrently(version -> new Storage.Wrap(this.asto) { });
+    }
+
+    /**
+     * Publish versions concurrently and check all of them are kept in metadata.
+     * @param storage Storage to publish version with
+     * @throws Exception On error
+     */
+    private void publishConcurrently(final Function<String, Storage> storage) throws Exception {
+        final Key prefix = new Key.From("@hello/simple-npm-project");
+        final List<String> versions = IntStream.range(0, 16)
+            .mapToObj(idx -> String.format("1.0.%d", idx))
+            .collect(Collectors.toList());
+        final ExecutorService exec = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(versions.size());
+            for (final String version : versions) {
+                futures.add(
+                    exec.submit(
+                        () -> new MetaUpdate.ByJson(this.cliMeta(version))
+                            .update(prefix, storage.apply(version)).join()
+                    )
+                );
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            exec.shutdown();
+        }
+        MatcherAssert.assertThat(
+            new JsonFromMeta(this.asto, prefix).json().getJsonObject("versions").keySet(),
+            Matchers.containsInAnyOrder(versions.toArray())
+        );
+    }
+
+    /**
+     * Content of `meta.json` snapshot.
+     * @param prefix Package prefix
+     * @return Bytes
+     */
+    private byte[] snapshot(final Key prefix) {
+        return new PublisherAs(this.asto.value(new Key.From(prefix, "meta.json")).join())
+            .bytes().toCompletableFuture().join();
+    }
+
+    /**
+     * Published json of the version.
+     * @param version Version
+     * @return Json
+     */
+    private JsonObject cliMeta(final String version) {
+        final JsonObject json = this.cliMeta();
+        return Json.createObjectBuilder(json)
+            .add(
+                "versions",
+                Json.createObjectBuilder().add(
+                    version,
+                    Json.createObjectBuilder(json.getJsonObject("versions").getJsonObject("1.0.1"))
+                        .add("version", version)
+                )
+            ).build();
+    }
+
     private JsonObject cliMeta() {
         return Json.createReader(
             new TestResource("json/cli_publish.json").asInputStream()
@@ -4,12 +4,12 @@
  */
 package com.artipie.npm;
 
+import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.blocking.BlockingStorage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
-import java.nio.charset.StandardCharsets;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.hamcrest.core.IsEqual;
@@ -65,7 +65,9 @@ final class MetaUpdateByTgzTest {
                 .getJsonObject("1.0.2")
                 .getJsonObject("dist")
                 .keySet(),
-            Matchers.containsInAnyOrder("integrity", "shasum", "tarball")
+            Matchers.containsInAnyOrder(
+                "integrity", "shasum", "tarball", "fileCount", "unpackedSize"
+            )
         );
     }
 
@@ -85,12 +87,11 @@ final class MetaUpdateByTgzTest {
 
     private void updateByTgz(final Key prefix) {
         new MetaUpdate.ByTgz(
-            new TgzArchive(
-                new String(
-                    new TestResource("binaries/simple-npm-project-1.0.2.tgz").asBytes(),
-                    StandardCharsets.ISO_8859_1
-                ), false
-            )
+            new TgzInspector(
+                new Content.From(
+                    new TestResource("binaries/simple-npm-project-1.0.2.tgz").asBytes()
+                )
+            ).inspect().join()
         ).update(new Key.From(prefix), this.asto)
             .join();
     }
@@ -0,0 +1,146 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Test for {@link MetaValidators}.
+ * @since 1.0
+ */
+final class MetaValidatorsTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "2021-02-04T16:30:30.381999,'Thu, 04 Feb 2021 16:30:30 GMT'",
+        "2021-02-04T16:30:30.381Z,'Thu, 04 Feb 2021 16:30:30 GMT'",
+        "2021-02-04T18:30:30+02:00,'Thu, 04 Feb 2021 16:30:30 GMT'"
+    })
+    void takesLastModifiedFromMetaTime(final String time, final String expected) {
+        MatcherAssert.assertThat(
+            new MetaValidators(MetaValidatorsTest.meta(time), Collections.emptyMap())
+                .lastModified(),
+            new IsEqual<>(Optional.of(expected))
+        );
+    }
+
+    @Test
+    void skipsInvalidMetaTime() {
+        MatcherAssert.assertThat(
+            new MetaValidators(MetaValidatorsTest.meta("yesterday"), Collections.emptyMap())
+                .lastModified(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+
+    @Test
+    void computesEtagOfFileContent() {
+        final JsonObject meta = MetaValidatorsTest.meta("2021-02-04T16:30:30");
+        final Optional<String> etag = new MetaValidators(
+            meta,
+            Collections.singletonMap("meta.json", "{}".getBytes(StandardCharsets.UTF_8))
+        ).etag("meta.json");
+        MatcherAssert.assertThat(
+            "Returns quoted sha256 of the content digest and dist-tags",
+            etag,
+            new IsEqual<>(
+                Optional.of(
+                    "\"7c5eab411013fca6e0666b77590164210282bbc5ee24cbbfb0ff367e0d060a8b\""
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            "Changes etag when content is changed",
+            new MetaValidators(
+                meta,
+                Collections.singletonMap("meta.json", "{ }".getBytes(StandardCharsets.UTF_8))
+            ).etag("meta.json"),
+            new IsNot<>(new IsEqual<>(etag))
+        );
+    }
+
+    @Test
+    void updatesEtagWhenTagsAreChanged() {
+        final MetaValidators validators = new MetaValidators(
+            new MetaValidators(
+                Json.createObjectBuilder(MetaValidatorsTest.meta("2021-02-04T16:30:30"))
+                    .add("dist-tags", Json.createObjectBuilder().add("latest", "1.0.0"))
+                    .build(),
+                Collections.singletonMap("meta.json", "{}".getBytes(StandardCharsets.UTF_8))
+            ).json()
+        );
+        final Instant now = Instant.parse("2023-01-02T10:20:30Z");
+        MatcherAssert.assertThat(
+            "Keeps etag when tags are the same",
+            validators.tagged(
+                Json.createObjectBuilder().add("latest", "1.0.0").build(), now
+            ).etag("meta.json"),
+            new IsEqual<>(validators.etag("meta.json"))
+        );
+        final MetaValidators tagged = validators.tagged(
+            Json.createObjectBuilder().add("latest", "1.0.1").build(), now
+        );
+        MatcherAssert.assertThat(
+            "Changes etag when tags are changed",
+            tagged.etag("meta.json"),
+            new IsNot<>(new IsEqual<>(validators.etag("meta.json")))
+        );
+        MatcherAssert.assertThat(
+            "Sets last modified to tags modification time",
+            tagged.lastModified(),
+            new IsEqual<>(Optional.of("Mon, 02 Jan 2023 10:20:30 GMT"))
+        );
+    }
+
+    @Test
+    void dropsEtagsWithoutDigestsWhenTagsAreChanged() {
+        MatcherAssert.assertThat(
+            new MetaValidators(
+                Json.createObjectBuilder().add(
+                    "etags", Json.createObjectBuilder().add("meta.json", "\"abc\"")
+                ).build()
+            ).tagged(Json.createObjectBuilder().build(), Instant.now()).etag("meta.json"),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+
+    @Test
+    void readsValidatorsFromJson() {
+        final MetaValidators validators = new MetaValidators(
+            new MetaValidators(
+                MetaValidatorsTest.meta("2021-02-04T16:30:30"),
+                Collections.singletonMap("meta.json", new byte[0])
+            ).json()
+        );
+        MatcherAssert.assertThat(
+            validators.etag("meta.json").isPresent() && validators.lastModified().isPresent()
+                && !validators.etag("meta.abbreviated.json").isPresent(),
+            new IsEqual<>(true)
+        );
+    }
+
+    /**
+     * Package metadata with modification time.
+     * @param time Modification time
+     * @return Metadata
+     */
+    private static JsonObject meta(final String time) {
+        return Json.createObjectBuilder()
+            .add("name", "@hello/simple-npm-project")
+            .add("time", Json.createObjectBuilder().add("modified", time))
+            .build();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.util.concurrent.CompletionException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link PackageRemoval}.
+ * @since 1.0
+ */
+final class PackageRemovalTest {
+
+    /**
+     * Package key.
+     */
+    private static final Key PKG = new Key.From("@hello/simple-npm-project");
+
+    /**
+     * Storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void setUp() {
+        this.asto = new InMemoryStorage();
+    }
+
+    @Test
+    void rejectsPublishWhileMarked() {
+        final PackageRemoval removal = new PackageRemoval(this.asto, PackageRemovalTest.PKG);
+        removal.mark().join();
+        MatcherAssert.assertThat(
+            Assertions.assertThrows(CompletionException.class, () -> removal.check().join())
+                .getCause(),
+            Matchers.instanceOf(PackageRemovalException.class)
+        );
+        removal.finish().join();
+        MatcherAssert.assertThat(
+            "Removal is finished",
+            removal.active().join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void expiresInterruptedRemoval() {
+        new PackageRemoval(this.asto, PackageRemovalTest.PKG, -1).mark().join();
+        MatcherAssert.assertThat(
+            new PackageRemoval(this.asto, PackageRemovalTest.PKG).active().join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void isNotActiveForPackageWithoutMark() {
+        MatcherAssert.assertThat(
+            new PackageRemoval(this.asto, PackageRemovalTest.PKG).active().join(),
+            new IsEqual<>(false)
+        );
+    }
+}
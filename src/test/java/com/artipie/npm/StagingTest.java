@@ -0,0 +1,53 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Staging}.
+ * @since 1.0
+ */
+final class StagingTest {
+
+    /**
+     * Storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void setUp() {
+        this.asto = new InMemoryStorage();
+    }
+
+    @Test
+    void sweepsStaleContent() {
+        final Key fresh = Staging.next(".tgz");
+        final Key stale = new Key.From(
+            Staging.ROOT,
+            String.format(
+                "%d-uuid", System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)
+            ),
+            "pkg-1.0.0.tgz"
+        );
+        final Key legacy = new Key.From(Staging.ROOT, "a1b2c3d4-e5f6.tgz");
+        for (final Key key : new Key[] {fresh, stale, legacy}) {
+            this.asto.save(key, new Content.From(new byte[1])).join();
+        }
+        new Staging(this.asto).sweep().join();
+        MatcherAssert.assertThat(
+            this.asto.list(Staging.ROOT).join(),
+            Matchers.contains(fresh)
+        );
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link TarballBlobs}.
+ * @since 1.0
+ */
+final class TarballBlobsTest {
+
+    /**
+     * Tarball of the first package.
+     */
+    private static final Key FIRST = new Key.From("first", "-", "first-1.0.0.tgz");
+
+    /**
+     * Tarball of the second package.
+     */
+    private static final Key SECOND = new Key.From("second", "-", "second-1.0.0.tgz");
+
+    /**
+     * Storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void setUp() {
+        this.storage = new InMemoryStorage();
+    }
+
+    @Test
+    void storesSameContentOnce() throws Exception {
+        final TarballBlobs blobs = new TarballBlobs(this.storage);
+        this.add(TarballBlobsTest.FIRST, "same bytes");
+        this.add(TarballBlobsTest.SECOND, "same bytes");
+        MatcherAssert.assertThat(
+            "Stores one blob",
+            this.blobs(),
+            new IsEqual<>(1L)
+        );
+        MatcherAssert.assertThat(
+            "Both tarballs reference the blob",
+            blobs.content(TarballBlobsTest.FIRST).join(),
+            new IsEqual<>(blobs.content(TarballBlobsTest.SECOND).join())
+        );
+        MatcherAssert.assertThat(
+            "Removes staged content",
+            this.storage.list(new Key.From("staged")).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void removesBlobWithLastReference() throws Exception {
+        final TarballBlobs blobs = new TarballBlobs(this.storage);
+        this.add(TarballBlobsTest.FIRST, "shared");
+        this.add(TarballBlobsTest.SECOND, "shared");
+        blobs.remove(TarballBlobsTest.FIRST).join();
+        MatcherAssert.assertThat(
+            "Keeps referenced blob",
+            this.read(TarballBlobsTest.SECOND),
+            new IsEqual<>("shared")
+        );
+        blobs.remove(TarballBlobsTest.SECOND).join();
+        MatcherAssert.assertThat(
+            "Removes unreferenced blob",
+            this.blobs(),
+            new IsEqual<>(0L)
+        );
+    }
+
+    @Test
+    void releasesPreviousBlobOnOverwrite() throws Exception {
+        this.add(TarballBlobsTest.FIRST, "old");
+        this.add(TarballBlobsTest.FIRST, "new");
+        MatcherAssert.assertThat(
+            "Reads new content",
+            this.read(TarballBlobsTest.FIRST),
+            new IsEqual<>("new")
+        );
+        MatcherAssert.assertThat(
+            "Removes previous blob",
+            this.blobs(),
+            new IsEqual<>(1L)
+        );
+    }
+
+    @Test
+    void readsAndRemovesLegacyTarball() {
+        final TarballBlobs blobs = new TarballBlobs(this.storage);
+        this.storage.save(
+            TarballBlobsTest.FIRST, new Content.From("legacy".getBytes(StandardCharsets.UTF_8))
+        ).join();
+        MatcherAssert.assertThat(
+            "Reads tarball key",
+            this.read(TarballBlobsTest.FIRST),
+            new IsEqual<>("legacy")
+        );
+        blobs.remove(TarballBlobsTest.FIRST).join();
+        MatcherAssert.assertThat(
+            "Removes tarball key",
+            this.storage.exists(TarballBlobsTest.FIRST).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    /**
+     * Stage content and add it as the tarball.
+     * @param tarball Tarball key
+     * @param content Tarball content
+     * @throws NoSuchAlgorithmException If SHA-512 is not supported
+     */
+    private void add(final Key tarball, final String content)
+        throws NoSuchAlgorithmException {
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        final Key staged = new Key.From("staged", tarball.string());
+        this.storage.save(staged, new Content.From(bytes)).join();
+        new TarballBlobs(this.storage).add(
+            tarball, staged,
+            String.format(
+                "sha512-%s",
+                Base64.getEncoder().encodeToString(
+                    MessageDigest.getInstance("SHA-512").digest(bytes)
+                )
+            )
+        ).join();
+    }
+
+    /**
+     * Read tarball content.
+     * @param tarball Tarball key
+     * @return Content
+     */
+    private String read(final Key tarball) {
+        return new TarballBlobs(this.storage).content(tarball)
+            .thenCompose(this.storage::value)
+            .thenCompose(value -> new PublisherAs(value).string(StandardCharsets.UTF_8))
+            .toCompletableFuture().join();
+    }
+
+    /**
+     * Number of stored blobs.
+     * @return Number of blob contents
+     */
+    private long blobs() {
+        return this.storage.list(TarballBlobs.BLOBS).join().stream()
+            .filter(key -> key.string().endsWith("data.tgz"))
+            .count();
+    }
+}
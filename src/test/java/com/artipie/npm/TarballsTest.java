@@ -6,11 +6,15 @@ package com.artipie.npm;
 
 import com.artipie.asto.Concatenation;
 import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import io.reactivex.Flowable;
 import java.io.IOException;
 import java.io.StringReader;
 import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import javax.json.Json;
 import javax.json.JsonObject;
 import org.apache.commons.io.IOUtils;
@@ -18,6 +22,7 @@ import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 /**
  * Tests tarballs processing.
@@ -59,4 +64,36 @@ public class TarballsTest {
             new IsEqual<>(expected)
         );
     }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 64, 4096})
+    void rewritesOnlyDistTarballsInChunkedContent(final int size) throws IOException {
+        final String json = String.join(
+            "",
+            "{\"name\":\"a\\\"{[\",\"tarball\":\"/root.tgz\",",
+            "\"time\":{\"1.0.0\":{\"dist\":{\"tarball\":\"/time.tgz\"}}},",
+            "\"versions\": {",
+            "  \"1.0.0\": {\"tarball\": \"/version.tgz\", \"list\": [{\"dist\": {}}],",
+            "    \"dist\": {\"shasum\": \"abc\", \"tarball\": \"/a/-/a-1.0.0.tgz\"}},",
+            "  \"2.0.0\": {\"dist\": {\"nested\": {\"tarball\": \"/nested.tgz\"},",
+            "    \"tarbal\": \"/typo.tgz\", \"tarball\": \"/a/-/a-2.0.0.tgz\"}}",
+            "}, \"dist\": {\"tarball\": \"/dist.tgz\"}}"
+        );
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        final List<ByteBuffer> chunks = new ArrayList<>(bytes.length / size + 1);
+        for (int pos = 0; pos < bytes.length; pos = pos + size) {
+            chunks.add(ByteBuffer.wrap(bytes, pos, Math.min(size, bytes.length - pos)).slice());
+        }
+        MatcherAssert.assertThat(
+            new PublisherAs(
+                new Tarballs(
+                    new Content.From(Flowable.fromIterable(chunks)),
+                    new URL("http://localhost/ctx/")
+                ).value()
+            ).string(StandardCharsets.UTF_8).toCompletableFuture().join(),
+            new IsEqual<>(
+                json.replace("/a/-/", "http://localhost/ctx/a/-/")
+            )
+        );
+    }
 }
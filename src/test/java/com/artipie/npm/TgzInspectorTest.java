@@ -0,0 +1,174 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import io.reactivex.Flowable;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Test for {@link TgzInspector}.
+ * @since 1.0
+ */
+final class TgzInspectorTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "simple-npm-project-1.0.2.tgz,1",
+        "vue-cli-plugin-liveapp-1.2.5.tgz,7",
+        "jQuery-1.7.4.tgz,512",
+        "asdas-1.0.0.tgz,65536"
+    })
+    void inspectsArchive(final String name, final int size) throws Exception {
+        final byte[] bytes = new TestResource(String.format("binaries/%s", name)).asBytes();
+        final TgzInspector.Summary summary = new TgzInspector(
+            TgzInspectorTest.chunks(bytes, size)
+        ).inspect().join();
+        MatcherAssert.assertThat(
+            "Computes sha1",
+            summary.shasum(),
+            new IsEqual<>(Hex.encodeHexString(TgzInspectorTest.digest("SHA-1", bytes)))
+        );
+        MatcherAssert.assertThat(
+            "Computes sha512",
+            summary.integrity(),
+            new IsEqual<>(
+                String.format(
+                    "sha512-%s",
+                    Base64.getEncoder().encodeToString(TgzInspectorTest.digest("SHA-512", bytes))
+                )
+            )
+        );
+        final long[] files = TgzInspectorTest.files(bytes);
+        MatcherAssert.assertThat(
+            "Counts files",
+            summary.fileCount(),
+            new IsEqual<>((int) files[0])
+        );
+        MatcherAssert.assertThat(
+            "Sums file sizes",
+            summary.unpackedSize(),
+            new IsEqual<>(files[1])
+        );
+        MatcherAssert.assertThat(
+            "Reads package json",
+            summary.packageJson().getString("name"),
+            new IsEqual<>(
+                new TgzArchive(Base64.getEncoder().encodeToString(bytes)).packageJson()
+                    .blockingGet().getString("name")
+            )
+        );
+    }
+
+    @Test
+    void savesArchiveWhileInspecting() {
+        final byte[] bytes = new TestResource("binaries/simple-npm-project-1.0.2.tgz").asBytes();
+        final Storage storage = new InMemoryStorage();
+        final Key key = new Key.From("staged.tgz");
+        final TgzInspector.Summary summary = new TgzInspector(
+            TgzInspectorTest.chunks(bytes, 100)
+        ).save(storage, key).join();
+        MatcherAssert.assertThat(
+            "Reads package version",
+            summary.packageJson().getString("version"),
+            new IsEqual<>("1.0.2")
+        );
+        MatcherAssert.assertThat(
+            "Saves archive",
+            new PublisherAs(storage.value(key).join()).bytes().toCompletableFuture().join(),
+            new IsEqual<>(bytes)
+        );
+    }
+
+    @Test
+    void failsOnTruncatedArchive() {
+        final byte[] bytes = new TestResource("binaries/jQuery-1.7.4.tgz").asBytes();
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new TgzInspector(
+                new Content.From(Arrays.copyOf(bytes, bytes.length / 2))
+            ).inspect().join()
+        );
+        MatcherAssert.assertThat(
+            err.getCause(),
+            new IsInstanceOf(ArtipieException.class)
+        );
+    }
+
+    /**
+     * Number and total size of files in the archive.
+     * @param bytes Archive bytes
+     * @return Number of files and total size
+     * @throws IOException On error
+     */
+    private static long[] files(final byte[] bytes) throws IOException {
+        final long[] res = new long[2];
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(
+            new GzipCompressorInputStream(new ByteArrayInputStream(bytes))
+        )) {
+            TarArchiveEntry entry = tar.getNextTarEntry();
+            while (entry != null) {
+                if (entry.isFile()) {
+                    res[0] = res[0] + 1;
+                    res[1] = res[1] + entry.getSize();
+                }
+                entry = tar.getNextTarEntry();
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Digest of bytes.
+     * @param algorithm Digest algorithm
+     * @param bytes Bytes
+     * @return Digest
+     * @throws NoSuchAlgorithmException If algorithm is not supported
+     */
+    private static byte[] digest(final String algorithm, final byte[] bytes)
+        throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance(algorithm).digest(bytes);
+    }
+
+    /**
+     * Bytes split into chunks.
+     * @param bytes Bytes
+     * @param size Chunk size
+     * @return Content
+     */
+    private static Content chunks(final byte[] bytes, final int size) {
+        final List<ByteBuffer> chunks = new ArrayList<>(bytes.length / size + 1);
+        for (int pos = 0; pos < bytes.length; pos = pos + size) {
+            chunks.add(ByteBuffer.wrap(bytes, pos, Math.min(size, bytes.length - pos)).slice());
+        }
+        return new Content.From(Flowable.fromIterable(chunks));
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import io.reactivex.Flowable;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.collection.IsEmptyCollection;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link UploadedJson}.
+ * @since 1.0
+ */
+final class UploadedJsonTest {
+
+    /**
+     * Package key.
+     */
+    private static final Key PKG = new Key.From("@hello", "simple-npm-project");
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 5, 64, 4096})
+    void savesAttachmentsAndReadsJson(final int size) {
+        final Storage storage = new InMemoryStorage();
+        final String first = "first archive content";
+        final String second = "second archive \u00ff\u00ff";
+        final String versions = String.join(
+            "",
+            "{", UploadedJsonTest.version("1.0.0", first), ",",
+            UploadedJsonTest.version("2.0.0", second), "}"
+        );
+        final String json = String.join(
+            "",
+            "{\"name\":\"@hello/simple-npm-project\",\"data\":\"meta\",",
+            "\"versions\":", versions, ",",
+            "\"_attachments\":{",
+            "\"a-1.0.0.tgz\":{\"content_type\":\"application/octet-stream\",\"data\":\"",
+            UploadedJsonTest.encoded(first),
+            "\",\"length\":21},",
+            "\"a-2.0.0.tgz\":{\"data\":\"",
+            UploadedJsonTest.encoded(second).replace("/", "\\/"),
+            "\"}}}"
+        );
+        final JsonObject meta = new UploadedJson(UploadedJsonTest.chunks(json, size))
+            .save(storage, UploadedJsonTest.PKG).join();
+        MatcherAssert.assertThat(
+            "Reads json without attachments data",
+            meta,
+            new IsEqual<>(
+                Json.createObjectBuilder()
+                    .add("name", "@hello/simple-npm-project")
+                    .add("data", "meta")
+                    .add(
+                        "versions",
+                        Json.createReader(new StringReader(versions)).readObject()
+                    )
+                    .add(
+                        "_attachments",
+                        Json.createObjectBuilder()
+                            .add(
+                                "a-1.0.0.tgz",
+                                Json.createObjectBuilder()
+                                    .add("content_type", "application/octet-stream")
+                                    .add("data", "")
+                                    .add("length", 21)
+                            )
+                            .add("a-2.0.0.tgz", Json.createObjectBuilder().add("data", ""))
+                    ).build()
+            )
+        );
+        MatcherAssert.assertThat(
+            "Saves first attachment",
+            UploadedJsonTest.value(storage, "a-1.0.0.tgz"),
+            new IsEqual<>(first)
+        );
+        MatcherAssert.assertThat(
+            "Saves second attachment",
+            UploadedJsonTest.value(storage, "a-2.0.0.tgz"),
+            new IsEqual<>(second)
+        );
+    }
+
+    @Test
+    void failsOnIncompleteJson() {
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new UploadedJson(
+                UploadedJsonTest.chunks("{\"_attachments\":{\"a.tgz\":{\"data\":\"YWJj", 4)
+            ).save(new InMemoryStorage(), UploadedJsonTest.PKG).join()
+        );
+        MatcherAssert.assertThat(
+            err.getCause(),
+            new IsInstanceOf(ArtipieException.class)
+        );
+    }
+
+    @Test
+    void savesAttachmentMatchingIntegrity() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final String data = "verified archive";
+        new UploadedJson(
+            UploadedJsonTest.chunks(
+                UploadedJsonTest.published(
+                    data,
+                    String.format(
+                        "sha512-%s",
+                        Base64.getEncoder().encodeToString(
+                            MessageDigest.getInstance("SHA-512")
+                                .digest(data.getBytes(StandardCharsets.UTF_8))
+                        )
+                    )
+                ),
+                3
+            )
+        ).save(storage, UploadedJsonTest.PKG).join();
+        MatcherAssert.assertThat(
+            UploadedJsonTest.value(storage, "a-1.0.0.tgz"),
+            new IsEqual<>(data)
+        );
+    }
+
+    @Test
+    void rejectsAttachmentNotMatchingIntegrity() {
+        final Storage storage = new InMemoryStorage();
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new UploadedJson(
+                UploadedJsonTest.chunks(
+                    UploadedJsonTest.published("tampered archive", "sha512-AAAA"), 5
+                )
+            ).save(storage, UploadedJsonTest.PKG).join()
+        );
+        MatcherAssert.assertThat(
+            "Fails with integrity mismatch",
+            err.getCause(),
+            new IsInstanceOf(IntegrityMismatchException.class)
+        );
+        MatcherAssert.assertThat(
+            "Does not keep attachments",
+            storage.list(Key.ROOT).join(),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    @Test
+    void removesAddedAttachmentsWhenLaterAttachmentFails() {
+        final Storage storage = new InMemoryStorage();
+        final String json = String.join(
+            "",
+            "{\"name\":\"@hello/simple-npm-project\",\"versions\":{",
+            UploadedJsonTest.version("1.0.0", "first"), ",",
+            UploadedJsonTest.version("2.0.0", "second"), "},\"_attachments\":{",
+            "\"a-1.0.0.tgz\":{\"data\":\"", UploadedJsonTest.encoded("first"), "\"},",
+            "\"a-2.0.0.tgz\":{\"data\":\"", UploadedJsonTest.encoded("second"), "\"}}}"
+        );
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> new UploadedJson(UploadedJsonTest.chunks(json, 64)).save(
+                new Storage.Wrap(storage) {
+                    @Override
+                    public CompletableFuture<Void> save(final Key key, final Content content) {
+                        final CompletableFuture<Void> res;
+                        if (key.string().endsWith("a-2.0.0.tgz.ref")) {
+                            res = new CompletableFuture<>();
+                            res.completeExceptionally(new IllegalStateException("Save failed"));
+                        } else {
+                            res = super.save(key, content);
+                        }
+                        return res;
+                    }
+                },
+                UploadedJsonTest.PKG
+            ).join()
+        );
+        MatcherAssert.assertThat(
+            "Does not keep tarballs, blobs and staged attachments",
+            storage.list(Key.ROOT).join(),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    @Test
+    void rejectsAttachmentNotTiedToVersion() {
+        final Storage storage = new InMemoryStorage();
+        final String json = String.join(
+            "",
+            "{\"versions\":{", UploadedJsonTest.version("1.0.0", "first"), ",",
+            UploadedJsonTest.version("2.0.0", "second"), "},",
+            "\"_attachments\":{\"b-1.0.0.tgz\":{\"data\":\"",
+            UploadedJsonTest.encoded("tampered"), "\"}}}"
+        );
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new UploadedJson(UploadedJsonTest.chunks(json, 5))
+                .save(storage, UploadedJsonTest.PKG).join()
+        );
+        MatcherAssert.assertThat(
+            "Fails with integrity mismatch",
+            err.getCause(),
+            new IsInstanceOf(IntegrityMismatchException.class)
+        );
+        MatcherAssert.assertThat(
+            "Does not keep attachments",
+            storage.list(Key.ROOT).join(),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    @Test
+    void readsJsonAsFastAsStorageSavesAttachment() {
+        final byte[] data = new byte[1024 * 1024];
+        new Random().nextBytes(data);
+        final String json = String.join(
+            "",
+            "{\"versions\":{\"1.0.0\":{\"dist\":{\"shasum\":\"", DigestUtils.sha1Hex(data),
+            "\"}}},\"_attachments\":{\"a-1.0.0.tgz\":{\"data\":\"",
+            Base64.getEncoder().encodeToString(data),
+            "\"}}}"
+        );
+        final CompletableFuture<Void> gate = new CompletableFuture<>();
+        final Storage slow = new Storage.Wrap(new InMemoryStorage()) {
+            @Override
+            public CompletableFuture<Void> save(final Key key, final Content content) {
+                final CompletableFuture<Void> res;
+                if (key.string().startsWith(".staging")) {
+                    res = gate.thenCompose(nothing -> super.save(key, content));
+                } else {
+                    res = super.save(key, content);
+                }
+                return res;
+            }
+        };
+        final AtomicInteger read = new AtomicInteger();
+        final CompletableFuture<JsonObject> saved = new UploadedJson(
+            new Content.From(
+                Flowable.fromPublisher(UploadedJsonTest.chunks(json, 1024))
+                    .doOnNext(chunk -> read.incrementAndGet())
+            )
+        ).save(slow, UploadedJsonTest.PKG);
+        MatcherAssert.assertThat(
+            "Does not read json while storage does not take attachment",
+            read.get(),
+            Matchers.lessThan(8)
+        );
+        gate.complete(null);
+        saved.join();
+        MatcherAssert.assertThat(
+            "Reads the whole json when attachment is saved",
+            read.get(),
+            new IsEqual<>((json.length() + 1023) / 1024)
+        );
+        MatcherAssert.assertThat(
+            "Saves attachment",
+            new PublisherAs(
+                new TarballBlobs(slow)
+                    .content(new Key.From(UploadedJsonTest.PKG, "-", "a-1.0.0.tgz"))
+                    .thenCompose(slow::value).join()
+            ).bytes().toCompletableFuture().join(),
+            new IsEqual<>(data)
+        );
+    }
+
+    /**
+     * Published json with one version and attachment.
+     * @param data Attachment data
+     * @param integrity Version integrity
+     * @return Json
+     */
+    private static String published(final String data, final String integrity) {
+        return String.join(
+            "",
+            "{\"versions\":{\"1.0.0\":{\"dist\":{\"integrity\":\"", integrity,
+            "\",\"tarball\":\"http://host/a/-/a-1.0.0.tgz\"}}},",
+            "\"_attachments\":{\"a-1.0.0.tgz\":{\"data\":\"",
+            UploadedJsonTest.encoded(data),
+            "\"}}}"
+        );
+    }
+
+    /**
+     * Published version with tarball and shasum of the attachment `a-{version}.tgz`.
+     * @param version Version
+     * @param data Attachment data
+     * @return Version json field
+     */
+    private static String version(final String version, final String data) {
+        return String.format(
+            "\"%s\":{\"dist\":{\"shasum\":\"%s\",\"tarball\":\"%s\"}}",
+            version, DigestUtils.sha1Hex(data.getBytes(StandardCharsets.UTF_8)),
+            String.format("http://host/a/-/a-%s.tgz", version)
+        );
+    }
+
+    /**
+     * Base64 encoded string.
+     * @param str String
+     * @return Encoded string
+     */
+    private static String encoded(final String str) {
+        return Base64.getEncoder().encodeToString(str.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Attachment value.
+     * @param storage Storage
+     * @param name Attachment name
+     * @return Value
+     */
+    private static String value(final Storage storage, final String name) {
+        return new PublisherAs(
+            new TarballBlobs(storage).content(new Key.From(UploadedJsonTest.PKG, "-", name))
+                .thenCompose(storage::value).join()
+        ).string(StandardCharsets.UTF_8).toCompletableFuture().join();
+    }
+
+    /**
+     * Json split into chunks.
+     * @param json Json
+     * @param size Chunk size
+     * @return Content
+     */
+    private static Content chunks(final String json, final int size) {
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        final List<ByteBuffer> chunks = new ArrayList<>(bytes.length / size + 1);
+        for (int pos = 0; pos < bytes.length; pos = pos + size) {
+            chunks.add(ByteBuffer.wrap(bytes, pos, Math.min(size, bytes.length - pos)).slice());
+        }
+        return new Content.From(Flowable.fromIterable(chunks));
+    }
+}
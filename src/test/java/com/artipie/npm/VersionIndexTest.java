@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link VersionIndex}.
+ * @since 1.0
+ */
+final class VersionIndexTest {
+
+    /**
+     * Package key.
+     */
+    private static final Key PKG = new Key.From("@hello/simple-npm-project");
+
+    /**
+     * Storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void setUp() {
+        this.asto = new InMemoryStorage();
+    }
+
+    @Test
+    void indexesPublishedVersions() {
+        for (final String version : new String[] {"1.0.2", "2.0.0-beta", "1.0.1"}) {
+            new MetaUpdate.ByJson(this.published(version))
+                .update(VersionIndexTest.PKG, this.asto).join();
+        }
+        final VersionIndex index = new VersionIndex(this.asto, VersionIndexTest.PKG);
+        MatcherAssert.assertThat(
+            "Sorts versions",
+            index.versions().join(),
+            Matchers.contains("1.0.1", "1.0.2", "2.0.0-beta")
+        );
+        MatcherAssert.assertThat(
+            "Finds latest release",
+            index.latest().join(),
+            new IsEqual<>(Optional.of("1.0.2"))
+        );
+        MatcherAssert.assertThat(
+            "Finds published version",
+            index.contains("2.0.0-beta").join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Does not find other version",
+            index.contains("1.0.3").join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void removesUnpublishedVersion() {
+        for (final String version : new String[] {"1.0.1", "1.0.2"}) {
+            new MetaUpdate.ByJson(this.published(version))
+                .update(VersionIndexTest.PKG, this.asto).join();
+        }
+        new MetaFiles(this.asto, VersionIndexTest.PKG).update(
+            meta -> meta.map(
+                json -> Json.createObjectBuilder(json).add(
+                    "versions",
+                    Json.createObjectBuilder(json.getJsonObject("versions")).remove("1.0.2")
+                ).build()
+            )
+        ).join();
+        MatcherAssert.assertThat(
+            new VersionIndex(this.asto, VersionIndexTest.PKG).versions().join(),
+            Matchers.contains("1.0.1")
+        );
+    }
+
+    @Test
+    void buildsIndexOfPackageWithoutIndex() {
+        new TestResource("json/simple-project-1.0.2.json")
+            .saveTo(this.asto, new Key.From(VersionIndexTest.PKG, MetaFiles.META));
+        MatcherAssert.assertThat(
+            new VersionIndex(this.asto, VersionIndexTest.PKG).integrity("1.0.2").join(),
+            new IsEqual<>(
+                Optional.of(
+                    String.join(
+                        "", "sha512-HHERcSxBqQTyckMsbk+luPsv66OaaHchODGE/+jRZlPoG2wl6BoJzAZd3l",
+                        "/3EKWUOm3B09a4JU5NWf3bog8bJA=="
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void hasNoVersionsOfMissingPackage() {
+        MatcherAssert.assertThat(
+            new VersionIndex(this.asto, VersionIndexTest.PKG).contains("1.0.1").join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    /**
+     * Published json of the version.
+     * @param version Version
+     * @return Json
+     */
+    private JsonObject published(final String version) {
+        final JsonObject json = Json.createReader(
+            new TestResource("json/cli_publish.json").asInputStream()
+        ).readObject();
+        return Json.createObjectBuilder(json)
+            .add(
+                "versions",
+                Json.createObjectBuilder().add(
+                    version,
+                    Json.createObjectBuilder(json.getJsonObject("versions").getJsonObject("1.0.1"))
+                        .add("version", version)
+                )
+            ).build();
+    }
+}
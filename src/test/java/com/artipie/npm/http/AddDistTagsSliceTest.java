@@ -15,7 +15,10 @@ import com.artipie.http.hm.SliceHasResponse;
 import com.artipie.http.rq.RequestLine;
 import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.npm.MetaFiles;
 import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import javax.json.JsonObject;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.BeforeEach;
@@ -28,6 +31,19 @@ import org.junit.jupiter.api.Test;
  */
 class AddDistTagsSliceTest {
 
+    /**
+     * Package metadata.
+     */
+    private static final String META = String.join(
+        "\n",
+        "{",
+        "\"dist-tags\": {",
+        "    \"latest\": \"1.0.3\",",
+        "    \"first\": \"1.0.1\"",
+        "  }",
+        "}"
+    );
+
     /**
      * Test storage.
      */
@@ -44,17 +60,7 @@ class AddDistTagsSliceTest {
         this.meta = new Key.From("@hello/simple-npm-project", "meta.json");
         this.storage.save(
             this.meta,
-            new Content.From(
-                String.join(
-                    "\n",
-                    "{",
-                    "\"dist-tags\": {",
-                    "    \"latest\": \"1.0.3\",",
-                    "    \"first\": \"1.0.1\"",
-                    "  }",
-                    "}"
-                ).getBytes(StandardCharsets.UTF_8)
-            )
+            new Content.From(AddDistTagsSliceTest.META.getBytes(StandardCharsets.UTF_8))
         ).join();
     }
 
@@ -73,13 +79,19 @@ class AddDistTagsSliceTest {
             )
         );
         MatcherAssert.assertThat(
-            "Meta.json is updated",
-            new PublisherAs(this.storage.value(this.meta).join()).asciiString()
-                .toCompletableFuture().join(),
+            "Dist-tags are updated",
+            new MetaFiles(this.storage, new Key.From("@hello/simple-npm-project")).tags().join()
+                .map(JsonObject::toString),
             new IsEqual<>(
-                "{\"dist-tags\":{\"latest\":\"1.0.3\",\"first\":\"1.0.1\",\"second\":\"1.0.2\"}}"
+                Optional.of("{\"latest\":\"1.0.3\",\"first\":\"1.0.1\",\"second\":\"1.0.2\"}")
             )
         );
+        MatcherAssert.assertThat(
+            "Meta.json is not changed",
+            new PublisherAs(this.storage.value(this.meta).join()).asciiString()
+                .toCompletableFuture().join(),
+            new IsEqual<>(AddDistTagsSliceTest.META)
+        );
     }
 
     @Test
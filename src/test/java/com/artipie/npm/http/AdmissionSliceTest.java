@@ -0,0 +1,197 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.slice.SliceSimple;
+import io.reactivex.Flowable;
+import java.util.concurrent.CompletableFuture;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AdmissionSlice}.
+ * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class AdmissionSliceTest {
+
+    /**
+     * Publish request line.
+     */
+    private static final RequestLine PUT = new RequestLine(RqMethod.PUT, "/package");
+
+    @Test
+    void rejectsDeclaredLengthOverLimit() {
+        MatcherAssert.assertThat(
+            new AdmissionSlice(new SliceSimple(StandardRs.OK), new PublishAdmission(10, 100)),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.PAYLOAD_TOO_LARGE),
+                AdmissionSliceTest.PUT,
+                new Headers.From("Content-Length", "11"),
+                new Content.From(new byte[11])
+            )
+        );
+    }
+
+    @Test
+    void rejectsBodyOverLimitWhileReading() {
+        MatcherAssert.assertThat(
+            new AdmissionSlice(
+                new UploadSlice(new CliPublish(new InMemoryStorage())),
+                new PublishAdmission(10, 100)
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.PAYLOAD_TOO_LARGE),
+                AdmissionSliceTest.PUT,
+                Headers.EMPTY,
+                new Content.From("{\"name\":\"package\"}".getBytes())
+            )
+        );
+    }
+
+    @Test
+    void rejectsRequestOverBudgetUntilResponseIsSent() {
+        final CompletableFuture<Void> sent = new CompletableFuture<>();
+        final PublishAdmission admission = new PublishAdmission(10, 15);
+        final Slice slice = new AdmissionSlice(
+            (line, headers, body) -> connection -> sent, admission
+        );
+        slice.response(
+            AdmissionSliceTest.PUT.toString(),
+            new Headers.From("Content-Length", "10"),
+            Content.EMPTY
+        ).send((status, headers, body) -> CompletableFuture.allOf());
+        MatcherAssert.assertThat(
+            "Rejects request over budget",
+            slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.UNAVAILABLE),
+                AdmissionSliceTest.PUT,
+                new Headers.From("Content-Length", "10"),
+                Content.EMPTY
+            )
+        );
+        sent.complete(null);
+        MatcherAssert.assertThat(
+            "Admits request after budget is released",
+            new AdmissionSlice(new SliceSimple(StandardRs.OK), admission),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                AdmissionSliceTest.PUT,
+                new Headers.From("Content-Length", "10"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void releasesBudgetWhenOriginFails() {
+        final PublishAdmission admission = new PublishAdmission(10, 10);
+        Assertions.assertThrows(
+            IllegalStateException.class,
+            () -> new AdmissionSlice(
+                (line, headers, body) -> {
+                    throw new IllegalStateException("Origin failed");
+                },
+                admission
+            ).response(
+                AdmissionSliceTest.PUT.toString(),
+                new Headers.From("Content-Length", "10"),
+                Content.EMPTY
+            )
+        );
+        AdmissionSliceTest.admits(admission);
+    }
+
+    @Test
+    void releasesBudgetWhenBodyFails() {
+        final PublishAdmission admission = new PublishAdmission(10, 10);
+        final CompletableFuture<Void> sent = new CompletableFuture<>();
+        new AdmissionSlice(
+            (line, headers, body) -> connection -> {
+                Flowable.fromPublisher(body).subscribe(buf -> { }, err -> { });
+                return sent;
+            },
+            admission
+        ).response(
+            AdmissionSliceTest.PUT.toString(),
+            new Headers.From("Content-Length", "10"),
+            Flowable.error(new IllegalStateException("Connection reset"))
+        ).send((status, headers, body) -> CompletableFuture.allOf());
+        AdmissionSliceTest.admits(admission);
+    }
+
+    @Test
+    void reservesBodyWithoutLengthWhileReading() {
+        final PublishAdmission admission = new PublishAdmission(10, 15);
+        final CompletableFuture<Void> sent = new CompletableFuture<>();
+        final Slice slice = new AdmissionSlice(
+            (line, headers, body) -> connection -> sent, admission
+        );
+        slice.response(
+            AdmissionSliceTest.PUT.toString(), Headers.EMPTY, Content.EMPTY
+        ).send((status, headers, body) -> CompletableFuture.allOf());
+        MatcherAssert.assertThat(
+            "Admits request with length while other request without length is in flight",
+            new AdmissionSlice(new SliceSimple(StandardRs.OK), admission),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                AdmissionSliceTest.PUT,
+                new Headers.From("Content-Length", "10"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void rejectsBodyWithoutLengthOverBudgetWhileReading() {
+        final PublishAdmission admission = new PublishAdmission(10, 15);
+        final CompletableFuture<Void> sent = new CompletableFuture<>();
+        new AdmissionSlice((line, headers, body) -> connection -> sent, admission).response(
+            AdmissionSliceTest.PUT.toString(),
+            new Headers.From("Content-Length", "10"),
+            Content.EMPTY
+        ).send((status, headers, body) -> CompletableFuture.allOf());
+        MatcherAssert.assertThat(
+            new AdmissionSlice(
+                new UploadSlice(new CliPublish(new InMemoryStorage())), admission
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.UNAVAILABLE),
+                AdmissionSliceTest.PUT,
+                Headers.EMPTY,
+                new Content.From(new byte[10])
+            )
+        );
+    }
+
+    /**
+     * Check that request of the size limit is admitted.
+     * @param admission Admission limits
+     */
+    private static void admits(final PublishAdmission admission) {
+        MatcherAssert.assertThat(
+            "Admits following request",
+            new AdmissionSlice(new SliceSimple(StandardRs.OK), admission),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                AdmissionSliceTest.PUT,
+                new Headers.From("Content-Length", String.valueOf(admission.cap())),
+                Content.EMPTY
+            )
+        );
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.hm.ResponseMatcher;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.npm.JsonFromMeta;
+import com.artipie.npm.UploadSessions;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ChunkedUploadSlice}.
+ * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class ChunkedUploadSliceTest {
+
+    /**
+     * Package name.
+     */
+    private static final String PKG = "@hello/simple-npm-project";
+
+    /**
+     * Storage.
+     */
+    private Storage storage;
+
+    /**
+     * Slice.
+     */
+    private Slice slice;
+
+    @BeforeEach
+    void setUp() {
+        this.storage = new InMemoryStorage();
+        this.slice = new ChunkedUploadSlice(this.storage, new CurlPublish(this.storage));
+    }
+
+    @Test
+    void startsSession() {
+        MatcherAssert.assertThat(
+            "Returns created",
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.CREATED),
+                new RequestLine(
+                    RqMethod.POST,
+                    String.format("/%s/-/uploads?size=10", ChunkedUploadSliceTest.PKG)
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            "Saves session",
+            this.storage.list(new Key.From(".uploads", ChunkedUploadSliceTest.PKG)).join()
+                .size(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void publishesArchiveAfterMissingChunkIsResent() {
+        final byte[] tgz = new TestResource("binaries/simple-npm-project-1.0.2.tgz").asBytes();
+        final String session = this.start(tgz.length);
+        final int half = tgz.length / 2;
+        this.append(session, half, Arrays.copyOfRange(tgz, half, tgz.length));
+        MatcherAssert.assertThat(
+            "Does not publish archive with missing chunk",
+            this.slice,
+            new SliceHasResponse(
+                new ResponseMatcher(
+                    RsStatus.CONFLICT,
+                    String.join(
+                        "", String.format("{\"size\":%d,", tgz.length),
+                        "\"offset\":0,\"complete\":false,",
+                        String.format(
+                            "\"chunks\":[{\"offset\":%d,\"size\":%d}]}", half, tgz.length - half
+                        )
+                    ).getBytes()
+                ),
+                this.line(RqMethod.PUT, session)
+            )
+        );
+        this.append(session, 0, Arrays.copyOfRange(tgz, 0, half));
+        MatcherAssert.assertThat(
+            "Publishes archive",
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK), this.line(RqMethod.PUT, session)
+            )
+        );
+        MatcherAssert.assertThat(
+            "Updates metadata",
+            new JsonFromMeta(this.storage, new Key.From(ChunkedUploadSliceTest.PKG)).json()
+                .getJsonObject("versions").keySet(),
+            Matchers.contains("1.0.2")
+        );
+        MatcherAssert.assertThat(
+            "Removes session",
+            this.storage.list(new Key.From(".uploads")).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void replacesChunkSentAgain() {
+        final String session = this.start(4);
+        this.append(session, 0, new byte[] {1, 2, 3});
+        this.append(session, 0, new byte[] {1, 2, 3, 4});
+        MatcherAssert.assertThat(
+            this.slice,
+            new SliceHasResponse(
+                new ResponseMatcher(
+                    RsStatus.OK,
+                    String.join(
+                        "", "{\"size\":4,\"offset\":4,\"complete\":true,",
+                        "\"chunks\":[{\"offset\":0,\"size\":4}]}"
+                    ).getBytes()
+                ),
+                this.line(RqMethod.GET, session)
+            )
+        );
+    }
+
+    @Test
+    void publishesArchiveWithOverlappingChunks() {
+        final byte[] tgz = new TestResource("binaries/simple-npm-project-1.0.2.tgz").asBytes();
+        final String session = this.start(tgz.length);
+        final int half = tgz.length / 2;
+        this.append(session, 0, Arrays.copyOfRange(tgz, 0, half));
+        this.append(session, half / 2, Arrays.copyOfRange(tgz, half / 2, half + 1));
+        this.append(session, half, Arrays.copyOfRange(tgz, half, tgz.length));
+        MatcherAssert.assertThat(
+            "Publishes archive",
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK), this.line(RqMethod.PUT, session)
+            )
+        );
+        MatcherAssert.assertThat(
+            "Updates metadata",
+            new JsonFromMeta(this.storage, new Key.From(ChunkedUploadSliceTest.PKG)).json()
+                .getJsonObject("versions").keySet(),
+            Matchers.contains("1.0.2")
+        );
+    }
+
+    @Test
+    void removesChunkWhichWasNotSaved() {
+        final String session = this.start(3);
+        final Storage failing = new Storage.Wrap(this.storage) {
+            @Override
+            public CompletableFuture<Void> save(final Key key, final Content content) {
+                return super.save(key, content).thenCompose(
+                    nothing -> new FailedCompletionStage<>(new ArtipieException("Failed"))
+                );
+            }
+        };
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> new UploadSessions(failing).append(
+                new Key.From(ChunkedUploadSliceTest.PKG), session, 0,
+                new Content.From(new byte[] {1, 2, 3})
+            ).join()
+        );
+        MatcherAssert.assertThat(
+            this.storage.list(new Key.From(".uploads")).join().stream()
+                .noneMatch(key -> key.string().endsWith(".part")),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void requiresArchiveSize() {
+        MatcherAssert.assertThat(
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.BAD_REQUEST),
+                new RequestLine(
+                    RqMethod.POST, String.format("/%s/-/uploads", ChunkedUploadSliceTest.PKG)
+                )
+            )
+        );
+    }
+
+    @Test
+    void doesNotPublishArchiveWithoutTail() {
+        final byte[] tgz = new TestResource("binaries/simple-npm-project-1.0.2.tgz").asBytes();
+        final String session = this.start(tgz.length);
+        this.append(session, 0, Arrays.copyOfRange(tgz, 0, tgz.length / 2));
+        MatcherAssert.assertThat(
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.CONFLICT), this.line(RqMethod.PUT, session)
+            )
+        );
+    }
+
+    @Test
+    void rejectsChunkOverArchiveSize() {
+        final String session = this.start(3);
+        MatcherAssert.assertThat(
+            "Rejects chunk",
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.PAYLOAD_TOO_LARGE),
+                new RequestLine(
+                    RqMethod.PATCH,
+                    String.format(
+                        "/%s/-/uploads/%s?offset=2", ChunkedUploadSliceTest.PKG, session
+                    )
+                ),
+                Headers.EMPTY,
+                new Content.From(new byte[] {1, 2})
+            )
+        );
+        MatcherAssert.assertThat(
+            "Removes chunk",
+            this.storage.list(new Key.From(".uploads")).join().stream()
+                .anyMatch(key -> key.string().contains("/chunks/")),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void rejectsArchiveNotMatchingIntegrity() {
+        final byte[] tgz = new TestResource("binaries/simple-npm-project-1.0.2.tgz").asBytes();
+        final String session = new UploadSessions(this.storage).start(
+            new Key.From(ChunkedUploadSliceTest.PKG), tgz.length,
+            Optional.of("sha512-AAAA")
+        ).join();
+        this.append(session, 0, tgz);
+        MatcherAssert.assertThat(
+            "Rejects archive",
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.BAD_REQUEST), this.line(RqMethod.PUT, session)
+            )
+        );
+        MatcherAssert.assertThat(
+            "Does not publish archive",
+            this.storage.exists(
+                new Key.From(ChunkedUploadSliceTest.PKG, "meta.json")
+            ).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void expiresAbandonedSession() {
+        final UploadSessions sessions = new UploadSessions(this.storage, -1);
+        final Key pkg = new Key.From(ChunkedUploadSliceTest.PKG);
+        final String session = sessions.start(pkg, 3, Optional.empty()).join();
+        MatcherAssert.assertThat(
+            "Expired session is not found",
+            sessions.status(pkg, session).join().isPresent(),
+            new IsEqual<>(false)
+        );
+        sessions.sweep().join();
+        MatcherAssert.assertThat(
+            "Expired session is removed",
+            this.storage.list(new Key.From(".uploads")).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void returnsNotFoundForUnknownSession() {
+        MatcherAssert.assertThat(
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(
+                    RqMethod.PATCH,
+                    String.format(
+                        "/%s/-/uploads/00000000-0000-0000-0000-000000000000?offset=0",
+                        ChunkedUploadSliceTest.PKG
+                    )
+                ),
+                Headers.EMPTY,
+                new Content.From(new byte[] {1})
+            )
+        );
+    }
+
+    /**
+     * Start session.
+     * @param size Archive size
+     * @return Session id
+     */
+    private String start(final int size) {
+        return new UploadSessions(this.storage)
+            .start(new Key.From(ChunkedUploadSliceTest.PKG), size, Optional.empty()).join();
+    }
+
+    /**
+     * Append chunk.
+     * @param session Session id
+     * @param offset Chunk offset
+     * @param chunk Chunk bytes
+     */
+    private void append(final String session, final int offset, final byte[] chunk) {
+        MatcherAssert.assertThat(
+            "Appends chunk",
+            this.slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(
+                    RqMethod.PATCH,
+                    String.format(
+                        "/%s/-/uploads/%s?offset=%d", ChunkedUploadSliceTest.PKG, session, offset
+                    )
+                ),
+                Headers.EMPTY,
+                new Content.From(chunk)
+            )
+        );
+    }
+
+    /**
+     * Session request line.
+     * @param method Request method
+     * @param session Session id
+     * @return Request line
+     */
+    private RequestLine line(final RqMethod method, final String session) {
+        return new RequestLine(
+            method, String.format("/%s/-/uploads/%s", ChunkedUploadSliceTest.PKG, session)
+        );
+    }
+}
@@ -8,6 +8,7 @@ import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
+import com.artipie.npm.TarballBlobs;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.Test;
@@ -27,7 +28,9 @@ final class CliPublishTest {
         new CliPublish(asto).publish(prefix, name).join();
         MatcherAssert.assertThat(
             "Tgz archive was created",
-            asto.exists(new Key.From(String.format("%s/-/%s-1.0.1.tgz", prefix, prefix))).join(),
+            new TarballBlobs(asto)
+                .content(new Key.From(String.format("%s/-/%s-1.0.1.tgz", prefix, prefix)))
+                .thenCompose(asto::exists).join(),
             new IsEqual<>(true)
         );
         MatcherAssert.assertThat(
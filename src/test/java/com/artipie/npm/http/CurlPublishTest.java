@@ -4,12 +4,26 @@
  */
 package com.artipie.npm.http;
 
+import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
+import com.artipie.npm.InvalidPackageException;
+import com.artipie.npm.TarballBlobs;
+import com.artipie.npm.VersionExistsException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.collection.IsEmptyCollection;
 import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -27,7 +41,9 @@ final class CurlPublishTest {
         new CurlPublish(asto).publish(prefix, name).join();
         MatcherAssert.assertThat(
             "Tgz archive was created",
-            asto.exists(new Key.From(String.format("%s/-/%s-1.0.2.tgz", prefix, prefix))).join(),
+            new TarballBlobs(asto)
+                .content(new Key.From(String.format("%s/-/%s-1.0.2.tgz", prefix, prefix)))
+                .thenCompose(asto::exists).join(),
             new IsEqual<>(true)
         );
         MatcherAssert.assertThat(
@@ -35,5 +51,91 @@ final class CurlPublishTest {
             asto.exists(new Key.From(prefix, "meta.json")).join(),
             new IsEqual<>(true)
         );
+        MatcherAssert.assertThat(
+            "Staged archive was moved",
+            asto.list(new Key.From(".staging")).join(),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    @Test
+    void rejectsExistingVersion() {
+        final Storage asto = new InMemoryStorage();
+        final Key name = new Key.From("uploaded-artifact");
+        new TestResource("binaries/simple-npm-project-1.0.2.tgz").saveTo(asto, name);
+        new CurlPublish(asto).publish(Key.ROOT, name).join();
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new CurlPublish(asto).publish(Key.ROOT, name).join()
+        );
+        MatcherAssert.assertThat(
+            "Fails with existing version",
+            err.getCause(),
+            new IsInstanceOf(VersionExistsException.class)
+        );
+        MatcherAssert.assertThat(
+            "Removes staged archive",
+            asto.list(new Key.From(".staging")).join(),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    @Test
+    void removesStagedArchiveOnFailure() {
+        final Storage asto = new InMemoryStorage();
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> new CurlPublish(asto).publish(
+                new Key.From("pkg"),
+                new Content.From("not an archive".getBytes(StandardCharsets.UTF_8))
+            ).join()
+        );
+        MatcherAssert.assertThat(
+            asto.list(Key.ROOT).join(),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    @Test
+    void rejectsArchiveWithoutVersion() throws IOException {
+        final Storage asto = new InMemoryStorage();
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new CurlPublish(asto).publish(
+                new Key.From("pkg"),
+                new Content.From(CurlPublishTest.archive("{\"name\":\"pkg\"}"))
+            ).join()
+        );
+        MatcherAssert.assertThat(
+            "Fails with invalid package",
+            err.getCause(),
+            new IsInstanceOf(InvalidPackageException.class)
+        );
+        MatcherAssert.assertThat(
+            "Removes staged archive",
+            asto.list(Key.ROOT).join(),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    /**
+     * Package archive with `package.json` only.
+     * @param json Content of `package.json`
+     * @return Archive bytes
+     * @throws IOException On error
+     */
+    private static byte[] archive(final String json) throws IOException {
+        final byte[] pkg = json.getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(
+            new GzipCompressorOutputStream(bytes)
+        )) {
+            final TarArchiveEntry entry = new TarArchiveEntry("package/package.json");
+            entry.setSize(pkg.length);
+            tar.putArchiveEntry(entry);
+            tar.write(pkg);
+            tar.closeArchiveEntry();
+        }
+        return bytes.toByteArray();
     }
 }
@@ -14,7 +14,10 @@ import com.artipie.http.hm.SliceHasResponse;
 import com.artipie.http.rq.RequestLine;
 import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.npm.MetaFiles;
 import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import javax.json.JsonObject;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,6 +30,21 @@ import org.junit.jupiter.api.Test;
  */
 class DeleteDistTagsSliceTest {
 
+    /**
+     * Package metadata.
+     */
+    private static final String META = String.join(
+        "\n",
+        "{",
+        "\"name\": \"@hello/simple-npm-project\",",
+        "\"dist-tags\": {",
+        "    \"latest\": \"1.0.3\",",
+        "    \"second\": \"1.0.2\",",
+        "    \"first\": \"1.0.1\"",
+        "  }",
+        "}"
+    );
+
     /**
      * Test storage.
      */
@@ -43,19 +61,7 @@ class DeleteDistTagsSliceTest {
         this.meta = new Key.From("@hello/simple-npm-project", "meta.json");
         this.storage.save(
             this.meta,
-            new Content.From(
-                String.join(
-                    "\n",
-                    "{",
-                    "\"name\": \"@hello/simple-npm-project\",",
-                    "\"dist-tags\": {",
-                    "    \"latest\": \"1.0.3\",",
-                    "    \"second\": \"1.0.2\",",
-                    "    \"first\": \"1.0.1\"",
-                    "  }",
-                    "}"
-                ).getBytes(StandardCharsets.UTF_8)
-            )
+            new Content.From(DeleteDistTagsSliceTest.META.getBytes(StandardCharsets.UTF_8))
         ).join();
     }
 
@@ -72,13 +78,16 @@ class DeleteDistTagsSliceTest {
             )
         );
         MatcherAssert.assertThat(
-            "Meta.json is updated",
+            "Dist-tags are updated",
+            new MetaFiles(this.storage, new Key.From("@hello/simple-npm-project")).tags().join()
+                .map(JsonObject::toString),
+            new IsEqual<>(Optional.of("{\"latest\":\"1.0.3\",\"first\":\"1.0.1\"}"))
+        );
+        MatcherAssert.assertThat(
+            "Meta.json is not changed",
             new PublisherAs(this.storage.value(this.meta).join()).asciiString()
                 .toCompletableFuture().join(),
-            new IsEqual<>(
-                // @checkstyle LineLengthCheck (1 line)
-                "{\"name\":\"@hello/simple-npm-project\",\"dist-tags\":{\"latest\":\"1.0.3\",\"first\":\"1.0.1\"}}"
-            )
+            new IsEqual<>(DeleteDistTagsSliceTest.META)
         );
     }
 
@@ -8,20 +8,44 @@ package com.artipie.npm.http;
 import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
 import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.hm.IsHeader;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasHeaders;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
 import com.artipie.http.slice.TrimPathSlice;
+import com.artipie.npm.AbbreviatedMeta;
+import com.artipie.npm.MetaFiles;
+import com.artipie.npm.MetaUpdate;
+import com.artipie.npm.MetaValidators;
 import com.artipie.npm.RandomFreePort;
+import com.artipie.npm.misc.JsonFromPublisher;
 import com.artipie.vertx.VertxSliceServer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.reactivex.core.Vertx;
 import io.vertx.reactivex.ext.web.client.WebClient;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import javax.json.Json;
 import org.apache.commons.io.IOUtils;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 /**
  * Tests Download Package Slice works.
@@ -68,4 +92,346 @@ public class DownloadPackageSliceTest {
         server.stop();
         vertx.close();
     }
+
+    @Test
+    void downloadsAbbreviatedMetaIfAccepted() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final javax.json.JsonObject meta = new JsonFromPublisher(
+            new Content.From(
+                IOUtils.resourceToByteArray("/storage/@hello/simple-npm-project/meta.json")
+            )
+        ).json().join();
+        new MetaFiles(storage, new Key.From("@hello", "simple-npm-project")).save(meta).join();
+        MatcherAssert.assertThat(
+            new DownloadPackageSlice(new URL("http://example.com"), storage),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasHeaders(new IsHeader("Content-Type", AbbreviatedMeta.MEDIA_TYPE)),
+                    new RsHasBody(
+                        Matchers.allOf(
+                            Matchers.containsString(
+                                "\"tarball\":\"http://example.com/@hello/simple-npm-project/-/"
+                            ),
+                            Matchers.not(Matchers.containsString("readme"))
+                        ),
+                        StandardCharsets.UTF_8
+                    )
+                ),
+                new RequestLine(RqMethod.GET, "/@hello/simple-npm-project"),
+                new Headers.From(
+                    "Accept", "application/vnd.npm.install-v1+json; q=1.0, application/json; q=0.8"
+                ),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void downloadsFullMetaIfAbbreviatedIsAbsent() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        storage.save(
+            new Key.From("@hello", "simple-npm-project", "meta.json"),
+            new Content.From(
+                IOUtils.resourceToByteArray("/storage/@hello/simple-npm-project/meta.json")
+            )
+        ).join();
+        MatcherAssert.assertThat(
+            new DownloadPackageSlice(new URL("http://example.com"), storage),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasHeaders(new IsHeader("Content-Type", "application/json")),
+                    new RsHasBody(
+                        Matchers.containsString("readme"), StandardCharsets.UTF_8
+                    )
+                ),
+                new RequestLine(RqMethod.GET, "/@hello/simple-npm-project"),
+                new Headers.From("Accept", AbbreviatedMeta.MEDIA_TYPE),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"application/json", AbbreviatedMeta.MEDIA_TYPE})
+    void returnsMetaWithTagsFromSidecar(final String accept) throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final String etag = DownloadPackageSliceTest.saved(storage).etag(MetaFiles.META).get();
+        final MetaFiles files = new MetaFiles(
+            storage, new Key.From("@hello", "simple-npm-project")
+        );
+        files.saveTags(
+            Json.createObjectBuilder().add("latest", "1.0.1").add("beta", "1.0.1").build()
+        ).join();
+        MatcherAssert.assertThat(
+            "Returns dist-tags from sidecar",
+            new DownloadPackageSlice(new URL("http://example.com"), storage),
+            new SliceHasResponse(
+                new RsHasBody(
+                    Matchers.containsString(
+                        "\"dist-tags\":{\"latest\":\"1.0.1\",\"beta\":\"1.0.1\"}"
+                    ),
+                    StandardCharsets.UTF_8
+                ),
+                new RequestLine(RqMethod.GET, "/@hello/simple-npm-project"),
+                new Headers.From("Accept", accept),
+                Content.EMPTY
+            )
+        );
+        MatcherAssert.assertThat(
+            "Changes metadata etag",
+            files.validators().join().etag(MetaFiles.META).get(),
+            new IsNot<>(new IsEqual<>(etag))
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"application/json", AbbreviatedMeta.MEDIA_TYPE})
+    void returnsVersionsFromJournal(final String accept) throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final String etag = DownloadPackageSliceTest.saved(storage).etag(MetaFiles.META).get();
+        final Key pkg = new Key.From("@hello", "simple-npm-project");
+        final String tgz = "@hello/simple-npm-project/-/@hello/simple-npm-project-2.0.0.tgz";
+        new MetaUpdate.ByJson(
+            Json.createObjectBuilder()
+                .add("name", "@hello/simple-npm-project")
+                .add("dist-tags", Json.createObjectBuilder().add("next", "2.0.0"))
+                .add(
+                    "versions",
+                    Json.createObjectBuilder().add(
+                        "2.0.0",
+                        Json.createObjectBuilder()
+                            .add("name", "@hello/simple-npm-project")
+                            .add("version", "2.0.0")
+                            .add(
+                                "dist",
+                                Json.createObjectBuilder()
+                                    .add("tarball", String.format("/%s", tgz))
+                            )
+                    )
+                ).build()
+        ).update(pkg, storage).join();
+        MatcherAssert.assertThat(
+            "Returns version from journal",
+            new DownloadPackageSlice(new URL("http://example.com"), storage),
+            new SliceHasResponse(
+                new RsHasBody(
+                    Matchers.allOf(
+                        Matchers.containsString(
+                            String.format("\"tarball\":\"http://example.com/%s\"", tgz)
+                        ),
+                        Matchers.containsString("\"next\":\"2.0.0\"")
+                    ),
+                    StandardCharsets.UTF_8
+                ),
+                new RequestLine(RqMethod.GET, "/@hello/simple-npm-project"),
+                new Headers.From("Accept", accept),
+                Content.EMPTY
+            )
+        );
+        MatcherAssert.assertThat(
+            "Changes metadata etag",
+            new MetaFiles(storage, pkg).validators().join().etag(MetaFiles.META).get(),
+            new IsNot<>(new IsEqual<>(etag))
+        );
+    }
+
+    @Test
+    void returnsMetaValidators() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final MetaValidators validators = DownloadPackageSliceTest.saved(storage);
+        MatcherAssert.assertThat(
+            new DownloadPackageSlice(new URL("http://example.com"), storage),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(
+                        new IsHeader("ETag", validators.etag(MetaFiles.META).get()),
+                        new IsHeader("Last-Modified", "Thu, 04 Feb 2021 16:30:30 GMT"),
+                        new IsHeader("Vary", "Accept, Accept-Encoding")
+                    )
+                ),
+                new RequestLine(RqMethod.GET, "/@hello/simple-npm-project")
+            )
+        );
+    }
+
+    @Test
+    void returnsNotModifiedIfEtagMatches() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final String etag = DownloadPackageSliceTest.saved(storage)
+            .etag(MetaFiles.ABBREVIATED).get();
+        MatcherAssert.assertThat(
+            new DownloadPackageSlice(new URL("http://example.com"), storage),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.NOT_MODIFIED),
+                    new RsHasHeaders(new IsHeader("ETag", etag))
+                ),
+                new RequestLine(RqMethod.GET, "/@hello/simple-npm-project"),
+                new Headers.From(
+                    new Headers.From("Accept", AbbreviatedMeta.MEDIA_TYPE),
+                    "If-None-Match", etag
+                ),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void returnsMetaIfEtagOfAnotherVariantMatches() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final String etag = DownloadPackageSliceTest.saved(storage)
+            .etag(MetaFiles.ABBREVIATED).get();
+        MatcherAssert.assertThat(
+            new DownloadPackageSlice(new URL("http://example.com"), storage),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.GET, "/@hello/simple-npm-project"),
+                new Headers.From("If-None-Match", etag),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void returnsNotModifiedSinceLastModified() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        DownloadPackageSliceTest.saved(storage);
+        MatcherAssert.assertThat(
+            new DownloadPackageSlice(new URL("http://example.com"), storage),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_MODIFIED),
+                new RequestLine(RqMethod.GET, "/@hello/simple-npm-project"),
+                new Headers.From("If-Modified-Since", "Thu, 04 Feb 2021 16:30:30 GMT"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void returnsCompressedMetaFromCache() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final String etag = DownloadPackageSliceTest.saved(storage).etag(MetaFiles.META).get();
+        final MetaCache cache = new MetaCache.InMemory();
+        final Slice slice = new DownloadPackageSlice(new URL("http://example.com"), storage, cache);
+        MatcherAssert.assertThat(
+            "Returns gzip encoding and weak etag",
+            slice,
+            new SliceHasResponse(
+                new RsHasHeaders(
+                    new IsHeader("Content-Encoding", "gzip"),
+                    new IsHeader("ETag", String.format("W/%s", etag))
+                ),
+                new RequestLine(RqMethod.GET, "/@hello/simple-npm-project"),
+                new Headers.From("Accept-Encoding", "gzip, deflate"),
+                Content.EMPTY
+            )
+        );
+        MatcherAssert.assertThat(
+            "Returns cached compressed metadata",
+            slice,
+            new SliceHasResponse(
+                new RsHasBody(
+                    cache.gzipped(
+                        new Key.From("@hello", "simple-npm-project"),
+                        String.join(" ", "meta.json", "http://example.com", etag),
+                        () -> CompletableFuture.completedFuture(Optional.empty())
+                    ).thenCompose(content -> new PublisherAs(content.get()).bytes()).join()
+                ),
+                new RequestLine(RqMethod.GET, "/@hello/simple-npm-project"),
+                new Headers.From("Accept-Encoding", "gzip, deflate"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void returnsMetaChangedBypassingCacheInvalidation() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        DownloadPackageSliceTest.saved(storage);
+        final Slice slice = new DownloadPackageSlice(
+            new URL("http://example.com"), storage, new MetaCache.InMemory()
+        );
+        final RequestLine get = new RequestLine(RqMethod.GET, "/@hello/simple-npm-project");
+        MatcherAssert.assertThat(
+            "Returns cached metadata",
+            slice,
+            new SliceHasResponse(new RsHasStatus(RsStatus.OK), get)
+        );
+        final MetaFiles files = new MetaFiles(
+            storage, new Key.From("@hello", "simple-npm-project")
+        );
+        files.update(
+            meta -> meta.map(
+                json -> Json.createObjectBuilder(json).add("description", "changed").build()
+            )
+        ).join();
+        MatcherAssert.assertThat(
+            "Returns changed metadata",
+            slice,
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasBody(
+                        Matchers.containsString("\"description\":\"changed\""),
+                        StandardCharsets.UTF_8
+                    ),
+                    new RsHasHeaders(
+                        new IsHeader("ETag", files.validators().join().etag(MetaFiles.META).get())
+                    )
+                ),
+                get
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"gzip;q=0", "identity", "br"})
+    void returnsUncompressedMetaIfGzipIsNotAccepted(final String encoding) throws Exception {
+        final Storage storage = new InMemoryStorage();
+        DownloadPackageSliceTest.saved(storage);
+        MatcherAssert.assertThat(
+            new DownloadPackageSlice(
+                new URL("http://example.com"), storage, new MetaCache.InMemory()
+            ),
+            new SliceHasResponse(
+                new RsHasBody(Matchers.containsString("readme"), StandardCharsets.UTF_8),
+                new RequestLine(RqMethod.GET, "/@hello/simple-npm-project"),
+                new Headers.From("Accept-Encoding", encoding),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void doesNotCompressMetaWithoutCache() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        DownloadPackageSliceTest.saved(storage);
+        MatcherAssert.assertThat(
+            new DownloadPackageSlice(new URL("http://example.com"), storage),
+            new SliceHasResponse(
+                new RsHasBody(Matchers.containsString("readme"), StandardCharsets.UTF_8),
+                new RequestLine(RqMethod.GET, "/@hello/simple-npm-project"),
+                new Headers.From("Accept-Encoding", "gzip"),
+                Content.EMPTY
+            )
+        );
+    }
+
+    /**
+     * Save test package metadata.
+     * @param storage Storage
+     * @return Metadata validators
+     * @throws IOException On error
+     */
+    private static MetaValidators saved(final Storage storage) throws IOException {
+        final MetaFiles files = new MetaFiles(storage, new Key.From("@hello", "simple-npm-project"));
+        files.save(
+            new JsonFromPublisher(
+                new Content.From(
+                    IOUtils.resourceToByteArray("/storage/@hello/simple-npm-project/meta.json")
+                )
+            ).json().join()
+        ).join();
+        return files.validators().join();
+    }
 }
@@ -0,0 +1,223 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.hm.IsHeader;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasHeaders;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.npm.MetaValidators;
+import com.artipie.npm.TarballBlobs;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link DownloadTarballSlice}.
+ * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class DownloadTarballSliceTest {
+
+    /**
+     * Tarball path.
+     */
+    private static final String TGZ =
+        "/@hello/simple-npm-project/-/@hello/simple-npm-project-1.0.1.tgz";
+
+    /**
+     * Tarball content.
+     */
+    private static final byte[] DATA = "tarball content".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+        this.storage.save(
+            new Key.From(DownloadTarballSliceTest.TGZ.substring(1)),
+            new Content.From(DownloadTarballSliceTest.DATA)
+        ).join();
+    }
+
+    @Test
+    void downloadsTarball() {
+        MatcherAssert.assertThat(
+            new DownloadTarballSlice(this.storage),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(
+                        new IsHeader(
+                            "Content-Length", String.valueOf(DownloadTarballSliceTest.DATA.length)
+                        )
+                    ),
+                    new RsHasBody(DownloadTarballSliceTest.DATA)
+                ),
+                new RequestLine(RqMethod.GET, DownloadTarballSliceTest.TGZ)
+            )
+        );
+    }
+
+    @Test
+    void answersHeadWithoutBody() {
+        MatcherAssert.assertThat(
+            new DownloadTarballSlice(this.storage),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(
+                        new IsHeader(
+                            "Content-Length", String.valueOf(DownloadTarballSliceTest.DATA.length)
+                        )
+                    ),
+                    new RsHasBody(new byte[0])
+                ),
+                new RequestLine(RqMethod.HEAD, DownloadTarballSliceTest.TGZ)
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = RqMethod.class, names = {"GET", "HEAD"})
+    void returnsNotFoundForAbsentTarball(final RqMethod method) {
+        MatcherAssert.assertThat(
+            new DownloadTarballSlice(this.storage),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(method, "/@hello/absent/-/@hello/absent-1.0.0.tgz")
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {"bytes=15-", "bytes=100-200", "bytes=-0", "bytes=99999999999999999999-"}
+    )
+    void rejectsUnsatisfiableRange(final String range) {
+        MatcherAssert.assertThat(
+            new DownloadTarballSlice(this.storage),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.BAD_RANGE),
+                    new RsHasHeaders(new IsHeader("Content-Range", "bytes */15"))
+                ),
+                new RequestLine(RqMethod.GET, DownloadTarballSliceTest.TGZ),
+                new Headers.From("Range", range),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            "bytes=0-4", "bytes=-5", "bytes=20-30, 3-", "items=100-", "bytes=x",
+            "bytes=-99999999999999999999", "bytes=000000000000000000003-"
+        }
+    )
+    void returnsWholeTarballForSatisfiableOrUnknownRange(final String range) {
+        MatcherAssert.assertThat(
+            new DownloadTarballSlice(this.storage),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasBody(DownloadTarballSliceTest.DATA)
+                ),
+                new RequestLine(RqMethod.GET, DownloadTarballSliceTest.TGZ),
+                new Headers.From("Range", range),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void returnsIntegrityOfContentAddressedTarballAsEtag() {
+        final Key tgz = new Key.From("pkg", "-", "pkg-1.0.0.tgz");
+        final String sri = String.format(
+            "sha512-%s",
+            Base64.getEncoder().encodeToString(DigestUtils.sha512(DownloadTarballSliceTest.DATA))
+        );
+        this.storage.save(new Key.From("staged"), new Content.From(DownloadTarballSliceTest.DATA))
+            .join();
+        new TarballBlobs(this.storage).add(tgz, new Key.From("staged"), sri).join();
+        MatcherAssert.assertThat(
+            "Returns integrity as etag",
+            new DownloadTarballSlice(this.storage),
+            new SliceHasResponse(
+                new RsHasHeaders(new IsHeader("ETag", String.format("\"%s\"", sri))),
+                new RequestLine(RqMethod.HEAD, "/pkg/-/pkg-1.0.0.tgz")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Returns not modified if integrity matches",
+            new DownloadTarballSlice(this.storage),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_MODIFIED),
+                new RequestLine(RqMethod.GET, "/pkg/-/pkg-1.0.0.tgz"),
+                new Headers.From("If-None-Match", String.format("\"%s\"", sri)),
+                Content.EMPTY
+            )
+        );
+    }
+
+    @Test
+    void answersConditionalRequestFromStorageMetadata(@TempDir final Path tmp) throws Exception {
+        final Storage fs = new FileStorage(tmp);
+        fs.save(
+            new Key.From(DownloadTarballSliceTest.TGZ.substring(1)),
+            new Content.From(DownloadTarballSliceTest.DATA)
+        ).join();
+        final String modified = MetaValidators.HTTP_DATE.format(
+            Files.getLastModifiedTime(tmp.resolve(DownloadTarballSliceTest.TGZ.substring(1)))
+                .toInstant()
+        );
+        MatcherAssert.assertThat(
+            "Returns last modified date",
+            new DownloadTarballSlice(fs),
+            new SliceHasResponse(
+                new RsHasHeaders(new IsHeader("Last-Modified", modified)),
+                new RequestLine(RqMethod.HEAD, DownloadTarballSliceTest.TGZ)
+            )
+        );
+        MatcherAssert.assertThat(
+            "Returns not modified",
+            new DownloadTarballSlice(fs),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_MODIFIED),
+                new RequestLine(RqMethod.GET, DownloadTarballSliceTest.TGZ),
+                new Headers.From(
+                    "If-Modified-Since", MetaValidators.HTTP_DATE.format(Instant.now())
+                ),
+                Content.EMPTY
+            )
+        );
+    }
+}
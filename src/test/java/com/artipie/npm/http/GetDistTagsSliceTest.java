@@ -8,13 +8,18 @@ import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.hm.IsHeader;
 import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasHeaders;
 import com.artipie.http.hm.RsHasStatus;
 import com.artipie.http.hm.SliceHasResponse;
 import com.artipie.http.rq.RequestLine;
 import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.npm.MetaFiles;
 import java.nio.charset.StandardCharsets;
+import javax.json.Json;
 import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -76,4 +81,33 @@ class GetDistTagsSliceTest {
         );
     }
 
+    @Test
+    void returnsNotModifiedIfEtagMatches() {
+        final Key pkg = new Key.From("@hello/simple-npm-project");
+        final MetaFiles files = new MetaFiles(this.storage, pkg);
+        files.save(
+            Json.createObjectBuilder()
+                .add("dist-tags", Json.createObjectBuilder().add("latest", "1.0.3"))
+                .build()
+        ).join();
+        final String etag = files.validators().join().etag(MetaFiles.META).get();
+        MatcherAssert.assertThat(
+            "Returns etag",
+            new GetDistTagsSlice(this.storage),
+            new SliceHasResponse(
+                new RsHasHeaders(new IsHeader("ETag", etag)),
+                new RequestLine(RqMethod.GET, "/-/package/@hello%2fsimple-npm-project/dist-tags")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Returns 304 if etag matches",
+            new GetDistTagsSlice(this.storage),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_MODIFIED),
+                new RequestLine(RqMethod.GET, "/-/package/@hello%2fsimple-npm-project/dist-tags"),
+                new Headers.From("If-None-Match", etag),
+                Content.EMPTY
+            )
+        );
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.util.ArrayList;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link InvalidatingStorage}.
+ * @since 1.0
+ */
+final class InvalidatingStorageTest {
+
+    /**
+     * Changed packages.
+     */
+    private List<Key> changed;
+
+    /**
+     * Storage to test.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.changed = new ArrayList<>(2);
+        this.storage = new InvalidatingStorage(new InMemoryStorage(), this.changed::add);
+    }
+
+    @Test
+    void notifiesAboutSavedAndDeletedItems() {
+        final Key meta = new Key.From("@hello/simple-npm-project/meta.json");
+        this.storage.save(meta, Content.EMPTY).join();
+        this.storage.delete(meta).join();
+        MatcherAssert.assertThat(
+            this.changed,
+            Matchers.contains(
+                new Key.From("@hello", "simple-npm-project"),
+                new Key.From("@hello", "simple-npm-project")
+            )
+        );
+    }
+
+    @Test
+    void notifiesAboutMovedItem() {
+        final Key source = new Key.From("tmp", "meta.json");
+        this.storage.save(source, Content.EMPTY).join();
+        this.changed.clear();
+        this.storage.move(source, new Key.From("pkg", "meta.json")).join();
+        MatcherAssert.assertThat(
+            this.changed,
+            Matchers.contains(new Key.From("tmp"), new Key.From("pkg"))
+        );
+    }
+
+    @Test
+    void notifiesAboutItemsChangedExclusively() {
+        final Key pkg = new Key.From("pkg");
+        this.storage.exclusively(
+            pkg, sto -> sto.save(new Key.From(pkg, "meta.json"), Content.EMPTY)
+        ).toCompletableFuture().join();
+        this.storage.deleteAll(pkg).join();
+        MatcherAssert.assertThat(this.changed, Matchers.contains(pkg, pkg));
+    }
+
+    @Test
+    void notifiesAboutMetadataOnly() {
+        final Key pkg = new Key.From("pkg");
+        this.storage.save(new Key.From(pkg, "-", "pkg-1.0.0.tgz"), Content.EMPTY).join();
+        this.storage.save(new Key.From(".meta-queue", "pkg", "job.json"), Content.EMPTY).join();
+        this.storage.save(new Key.From(pkg, "meta.journal", "1.json"), Content.EMPTY).join();
+        this.storage.save(new Key.From(pkg, "meta.dist-tags.json"), Content.EMPTY).join();
+        MatcherAssert.assertThat(this.changed, Matchers.contains(pkg, pkg));
+    }
+
+    @Test
+    void doesNotNotifyAboutFailedOperation() {
+        this.storage.delete(new Key.From("pkg", "absent.json"))
+            .exceptionally(err -> null).join();
+        MatcherAssert.assertThat(this.changed, Matchers.empty());
+    }
+}
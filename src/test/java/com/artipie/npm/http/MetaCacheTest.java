@@ -0,0 +1,228 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.ext.PublisherAs;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MetaCache}.
+ * @since 1.0
+ */
+final class MetaCacheTest {
+
+    /**
+     * Package key.
+     */
+    private static final Key PKG = new Key.From("@hello", "simple-npm-project");
+
+    @Test
+    void rendersOnceUntilInvalidated() {
+        final MetaCache cache = new MetaCache.InMemory();
+        final AtomicInteger count = new AtomicInteger();
+        for (int idx = 0; idx < 3; idx = idx + 1) {
+            MatcherAssert.assertThat(
+                MetaCacheTest.rendered(cache, "meta.json", count),
+                new IsEqual<>("1")
+            );
+        }
+        cache.invalidate(new Key.From("@hello/simple-npm-project"));
+        MatcherAssert.assertThat(
+            "Renders metadata again after invalidation",
+            MetaCacheTest.rendered(cache, "meta.json", count),
+            new IsEqual<>("2")
+        );
+    }
+
+    @Test
+    void cachesVariantsSeparately() {
+        final MetaCache cache = new MetaCache.InMemory();
+        final AtomicInteger count = new AtomicInteger();
+        MetaCacheTest.rendered(cache, "meta.json", count);
+        MatcherAssert.assertThat(
+            MetaCacheTest.rendered(cache, "meta.abbreviated.json", count),
+            new IsEqual<>("2")
+        );
+    }
+
+    @Test
+    void doesNotCacheAbsentMeta() {
+        final MetaCache cache = new MetaCache.InMemory();
+        final AtomicInteger count = new AtomicInteger();
+        cache.rendered(
+            MetaCacheTest.PKG, "meta.json",
+            () -> {
+                count.incrementAndGet();
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+        ).join();
+        MatcherAssert.assertThat(
+            MetaCacheTest.rendered(cache, "meta.json", count),
+            new IsEqual<>("2")
+        );
+    }
+
+    @Test
+    void doesNotCacheMetaInvalidatedDuringRendering() {
+        final MetaCache cache = new MetaCache.InMemory();
+        final AtomicInteger count = new AtomicInteger();
+        cache.rendered(
+            MetaCacheTest.PKG, "meta.json",
+            () -> {
+                cache.invalidate(MetaCacheTest.PKG);
+                return CompletableFuture.completedFuture(
+                    Optional.of(new Content.From("outdated".getBytes(StandardCharsets.UTF_8)))
+                );
+            }
+        ).join();
+        MatcherAssert.assertThat(
+            MetaCacheTest.rendered(cache, "meta.json", count),
+            new IsEqual<>("1")
+        );
+    }
+
+    @Test
+    void cachesMetaWhenOtherPackageIsInvalidatedDuringRendering() {
+        final MetaCache cache = new MetaCache.InMemory();
+        final AtomicInteger count = new AtomicInteger();
+        cache.rendered(
+            MetaCacheTest.PKG, "meta.json",
+            () -> {
+                count.incrementAndGet();
+                cache.invalidate(new Key.From("other"));
+                return CompletableFuture.completedFuture(
+                    Optional.of(new Content.From("1".getBytes(StandardCharsets.UTF_8)))
+                );
+            }
+        ).join();
+        MatcherAssert.assertThat(
+            MetaCacheTest.rendered(cache, "meta.json", count),
+            new IsEqual<>("1")
+        );
+    }
+
+    @Test
+    void doesNotCacheMetaBiggerThanCache() {
+        final MetaCache cache = new MetaCache.InMemory(0);
+        final AtomicInteger count = new AtomicInteger();
+        MetaCacheTest.rendered(cache, "meta.json", count);
+        MatcherAssert.assertThat(
+            MetaCacheTest.rendered(cache, "meta.json", count),
+            new IsEqual<>("2")
+        );
+    }
+
+    @Test
+    void cachesMetaAsBigAsCache() {
+        final MetaCache cache = new MetaCache.InMemory(1024);
+        final AtomicInteger count = new AtomicInteger();
+        for (int idx = 0; idx < 2; idx = idx + 1) {
+            cache.rendered(
+                MetaCacheTest.PKG, "meta.json",
+                () -> {
+                    count.incrementAndGet();
+                    return CompletableFuture.completedFuture(
+                        Optional.of(new Content.From(new byte[900]))
+                    );
+                }
+            ).join();
+        }
+        MatcherAssert.assertThat(count.get(), new IsEqual<>(1));
+    }
+
+    @Test
+    void streamsMetaBiggerThanCacheWithoutCompressing() {
+        final MetaCache cache = new MetaCache.InMemory(4);
+        final AtomicInteger count = new AtomicInteger();
+        final Supplier<CompletableFuture<Optional<Content>>> render = () -> {
+            count.incrementAndGet();
+            return CompletableFuture.completedFuture(
+                Optional.of(new Content.From("12345".getBytes(StandardCharsets.UTF_8)))
+            );
+        };
+        MatcherAssert.assertThat(
+            "Does not compress oversized metadata",
+            cache.gzipped(MetaCacheTest.PKG, "meta.json", render).join().isPresent(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Does not render oversized metadata to compress it again",
+            cache.gzipped(MetaCacheTest.PKG, "meta.json", render)
+                .thenApply(gzipped -> count.get()).join(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Streams oversized metadata",
+            cache.rendered(MetaCacheTest.PKG, "meta.json", render).thenCompose(
+                content -> new PublisherAs(content.get()).string(StandardCharsets.UTF_8)
+            ).toCompletableFuture().join(),
+            new IsEqual<>("12345")
+        );
+    }
+
+    @Test
+    void compressesRenderedMetaOnce() throws Exception {
+        final MetaCache cache = new MetaCache.InMemory();
+        final AtomicInteger count = new AtomicInteger();
+        MetaCacheTest.rendered(cache, "meta.json", count);
+        final byte[] gzipped = cache.gzipped(
+            MetaCacheTest.PKG, "meta.json",
+            () -> CompletableFuture.completedFuture(Optional.empty())
+        ).thenCompose(content -> new PublisherAs(content.get()).bytes()).join();
+        MatcherAssert.assertThat(
+            IOUtils.toString(
+                new GZIPInputStream(new ByteArrayInputStream(gzipped)), StandardCharsets.UTF_8
+            ),
+            new IsEqual<>("1")
+        );
+    }
+
+    @Test
+    void doesNotCompressWithoutCache() {
+        MatcherAssert.assertThat(
+            new MetaCache.NoCache().gzipped(
+                MetaCacheTest.PKG, "meta.json",
+                () -> CompletableFuture.completedFuture(Optional.of(Content.EMPTY))
+            ).join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    /**
+     * Obtain rendered metadata from cache, rendered metadata is a number of renderings.
+     * @param cache Cache
+     * @param variant Metadata variant
+     * @param count Renderings counter
+     * @return Rendered metadata
+     */
+    private static String rendered(
+        final MetaCache cache, final String variant, final AtomicInteger count
+    ) {
+        return cache.rendered(
+            MetaCacheTest.PKG, variant,
+            () -> CompletableFuture.completedFuture(
+                Optional.of(
+                    new Content.From(
+                        String.valueOf(count.incrementAndGet()).getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            )
+        ).thenCompose(
+            content -> new PublisherAs(content.get()).string(StandardCharsets.UTF_8)
+        ).toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.asto.Key;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MissingMeta}.
+ * @since 1.0
+ */
+final class MissingMetaTest {
+
+    /**
+     * Package key.
+     */
+    private static final Key PKG = new Key.From("@hello", "simple-npm-project");
+
+    @Test
+    void readsAbsentMetaOnceUntilInvalidated() {
+        final MissingMeta.InMemory cache = new MissingMeta.InMemory();
+        final AtomicInteger count = new AtomicInteger();
+        for (int idx = 0; idx < 3; idx = idx + 1) {
+            MissingMetaTest.absent(cache, count);
+        }
+        MatcherAssert.assertThat(
+            "Reads absent metadata once",
+            count.get(),
+            new IsEqual<>(1)
+        );
+        cache.invalidate(new Key.From("@hello/simple-npm-project"));
+        MissingMetaTest.absent(cache, count);
+        MatcherAssert.assertThat(
+            "Reads metadata again after invalidation",
+            count.get(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void readsAgainWhenEntryExpires() throws Exception {
+        final MissingMeta cache = new MissingMeta.InMemory(Duration.ofMillis(1), 10);
+        final AtomicInteger count = new AtomicInteger();
+        MissingMetaTest.absent(cache, count);
+        Thread.sleep(10);
+        MissingMetaTest.absent(cache, count);
+        MatcherAssert.assertThat(count.get(), new IsEqual<>(2));
+    }
+
+    @Test
+    void doesNotCacheExistingMeta() {
+        final MissingMeta cache = new MissingMeta.InMemory();
+        final AtomicInteger count = new AtomicInteger();
+        for (int idx = 0; idx < 2; idx = idx + 1) {
+            MatcherAssert.assertThat(
+                cache.lookup(
+                    MissingMetaTest.PKG,
+                    () -> CompletableFuture.completedFuture(
+                        Optional.of(count.incrementAndGet())
+                    )
+                ).join(),
+                new IsEqual<>(Optional.of(idx + 1))
+            );
+        }
+    }
+
+    @Test
+    void doesNotCacheMetaInvalidatedDuringReading() {
+        final MissingMeta cache = new MissingMeta.InMemory();
+        final AtomicInteger count = new AtomicInteger();
+        cache.lookup(
+            MissingMetaTest.PKG,
+            () -> {
+                count.incrementAndGet();
+                cache.invalidate(MissingMetaTest.PKG);
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+        ).join();
+        MissingMetaTest.absent(cache, count);
+        MatcherAssert.assertThat(count.get(), new IsEqual<>(2));
+    }
+
+    @Test
+    void countsHitRate() {
+        final MissingMeta.InMemory cache = new MissingMeta.InMemory();
+        final AtomicInteger count = new AtomicInteger();
+        for (int idx = 0; idx < 4; idx = idx + 1) {
+            MissingMetaTest.absent(cache, count);
+        }
+        MatcherAssert.assertThat(cache.hitRate(), new IsEqual<>(0.75));
+    }
+
+    @Test
+    void noCacheAlwaysReads() {
+        final MissingMeta cache = new MissingMeta.NoCache();
+        final AtomicInteger count = new AtomicInteger();
+        MissingMetaTest.absent(cache, count);
+        MissingMetaTest.absent(cache, count);
+        MatcherAssert.assertThat(count.get(), new IsEqual<>(2));
+    }
+
+    /**
+     * Lookup absent metadata counting reads.
+     * @param cache Cache
+     * @param count Reads counter
+     */
+    private static void absent(final MissingMeta cache, final AtomicInteger count) {
+        MatcherAssert.assertThat(
+            cache.lookup(
+                MissingMetaTest.PKG,
+                () -> {
+                    count.incrementAndGet();
+                    return CompletableFuture.<Optional<String>>completedFuture(
+                        Optional.empty()
+                    );
+                }
+            ).join(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Meta;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.rx.RxStorageWrapper;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.npm.MetaFiles;
+import com.artipie.npm.misc.JsonFromPublisher;
+import com.artipie.npm.proxy.RxNpmProxyStorage;
+import com.artipie.npm.proxy.model.NpmPackage;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the number of storage operations performed to handle requests:
+ * existing values are read with a single operation without checking
+ * if they exist first.
+ * @since 1.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class StorageOperationsTest {
+
+    /**
+     * Package metadata path.
+     */
+    private static final String PKG = "/@hello/simple-npm-project";
+
+    /**
+     * Storage with test package.
+     */
+    private Storage origin;
+
+    /**
+     * Storage counting operations.
+     */
+    private CountingStorage storage;
+
+    @BeforeEach
+    void init() throws Exception {
+        this.origin = new InMemoryStorage();
+        new MetaFiles(this.origin, new Key.From(StorageOperationsTest.PKG.substring(1))).save(
+            new JsonFromPublisher(
+                new Content.From(
+                    IOUtils.resourceToByteArray("/storage/@hello/simple-npm-project/meta.json")
+                )
+            ).json().join()
+        ).join();
+        this.storage = new CountingStorage(this.origin);
+    }
+
+    @Test
+    void readsPackageMetaWithThreeOperations() throws Exception {
+        this.assertOperations(
+            new DownloadPackageSlice(new URL("http://localhost"), this.storage),
+            new RequestLine(RqMethod.GET, StorageOperationsTest.PKG), RsStatus.OK, 3
+        );
+    }
+
+    @Test
+    void readsAbsentPackageMetaWithTwoOperations() throws Exception {
+        this.assertOperations(
+            new DownloadPackageSlice(new URL("http://localhost"), this.storage),
+            new RequestLine(RqMethod.GET, "/@hello/absent"), RsStatus.NOT_FOUND, 2
+        );
+    }
+
+    @Test
+    void answersRepeatedAbsentRequestsWithoutOperations() throws Exception {
+        final MissingMeta missing = new MissingMeta.InMemory();
+        this.assertOperations(
+            new DownloadPackageSlice(
+                new URL("http://localhost"), this.storage, new MetaCache.NoCache(), missing
+            ),
+            new RequestLine(RqMethod.GET, "/@hello/absent"), RsStatus.NOT_FOUND, 2
+        );
+        this.assertOperations(
+            new GetDistTagsSlice(this.storage, missing),
+            new RequestLine(RqMethod.GET, "/-/package/@hello%2fabsent/dist-tags"),
+            RsStatus.NOT_FOUND, 2
+        );
+    }
+
+    @Test
+    void findsPackagePublishedAfterItWasMissing() throws Exception {
+        final Slice slice = new NpmSlice(new URL("http://localhost"), this.storage);
+        final RequestLine get = new RequestLine(RqMethod.GET, "/@hello/other");
+        this.assertOperations(slice, get, RsStatus.NOT_FOUND, 2);
+        this.assertOperations(slice, get, RsStatus.NOT_FOUND, 2);
+        MatcherAssert.assertThat(
+            "Publishes package",
+            slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.PUT, "/@hello/other"),
+                new Headers.From("npm-command", "publish"),
+                new Content.From(
+                    new String(
+                        IOUtils.resourceToByteArray("/json/cli_publish.json"),
+                        StandardCharsets.UTF_8
+                    ).replace("@hello/simple-npm-project", "@hello/other")
+                        .getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            "Returns published package",
+            slice,
+            new SliceHasResponse(new RsHasStatus(RsStatus.OK), get)
+        );
+    }
+
+    @Test
+    void publishesUploadedPackageWithoutTemporaryValue() throws Exception {
+        this.assertOperations(
+            new UploadSlice(new CliPublish(this.storage)),
+            new RequestLine(RqMethod.PUT, "/@hello/other"),
+            new Content.From(
+                new String(
+                    IOUtils.resourceToByteArray("/json/cli_publish.json"),
+                    StandardCharsets.UTF_8
+                ).replace("@hello/simple-npm-project", "@hello/other")
+                    .getBytes(StandardCharsets.UTF_8)
+            ),
+            RsStatus.OK, 21
+        );
+        MatcherAssert.assertThat(
+            "Does not keep uploaded content in storage",
+            this.origin.list(Key.ROOT).join().stream()
+                .noneMatch(key -> key.string().endsWith("-uploaded")),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void publishesVersionOfExistingPackageWithoutReadingMeta() throws Exception {
+        this.assertOperations(
+            new UploadSlice(new CliPublish(this.storage)),
+            new RequestLine(RqMethod.PUT, StorageOperationsTest.PKG),
+            new Content.From(
+                new String(
+                    IOUtils.resourceToByteArray("/json/cli_publish.json"),
+                    StandardCharsets.UTF_8
+                ).replace("1.0.1", "2.0.0").getBytes(StandardCharsets.UTF_8)
+            ),
+            RsStatus.OK, 16
+        );
+    }
+
+    @Test
+    void readsDistTagsWithTwoOperations() {
+        this.assertOperations(
+            new GetDistTagsSlice(this.storage),
+            new RequestLine(RqMethod.GET, "/-/package/@hello%2fsimple-npm-project/dist-tags"),
+            RsStatus.OK, 2
+        );
+    }
+
+    @Test
+    void addsDistTagWithThreeReadsAndThreeWrites() {
+        this.assertOperations(
+            new AddDistTagsSlice(this.storage),
+            new RequestLine(RqMethod.PUT, "/-/package/@hello%2fsimple-npm-project/dist-tags/beta"),
+            RsStatus.OK, 6
+        );
+    }
+
+    @Test
+    void readsProxyPackageWithTwoOperations() {
+        new RxNpmProxyStorage(new RxStorageWrapper(this.origin)).save(
+            new NpmPackage(
+                "@hello/simple-npm-project", "{}", "Tue, 24 Mar 2020 12:15:16 GMT",
+                OffsetDateTime.now()
+            )
+        ).blockingAwait();
+        new RxNpmProxyStorage(new RxStorageWrapper(this.storage))
+            .getPackage("@hello/simple-npm-project").blockingGet();
+        MatcherAssert.assertThat(this.storage.operations(), new IsEqual<>(2));
+    }
+
+    /**
+     * Assert response status and number of storage operations.
+     * @param slice Slice
+     * @param line Request line
+     * @param status Expected status
+     * @param operations Expected number of operations
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private void assertOperations(
+        final Slice slice, final RequestLine line, final RsStatus status, final int operations
+    ) {
+        this.assertOperations(slice, line, Content.EMPTY, status, operations);
+    }
+
+    /**
+     * Assert response status and number of storage operations.
+     * @param slice Slice
+     * @param line Request line
+     * @param body Request body
+     * @param status Expected status
+     * @param operations Expected number of operations
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private void assertOperations(
+        final Slice slice, final RequestLine line, final Content body,
+        final RsStatus status, final int operations
+    ) {
+        MatcherAssert.assertThat(
+            "Returns response",
+            slice,
+            new SliceHasResponse(new RsHasStatus(status), line, Headers.EMPTY, body)
+        );
+        MatcherAssert.assertThat(
+            "Performs storage operations",
+            this.storage.operations(),
+            new IsEqual<>(operations)
+        );
+    }
+
+    /**
+     * Storage counting read and write operations.
+     * @since 1.0
+     */
+    private static final class CountingStorage extends Storage.Wrap {
+
+        /**
+         * Operations counter.
+         */
+        private final AtomicInteger counter;
+
+        /**
+         * Ctor.
+         * @param origin Origin storage
+         */
+        CountingStorage(final Storage origin) {
+            super(origin);
+            this.counter = new AtomicInteger();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> exists(final Key key) {
+            this.counter.incrementAndGet();
+            return super.exists(key);
+        }
+
+        @Override
+        public CompletableFuture<Content> value(final Key key) {
+            this.counter.incrementAndGet();
+            return super.value(key);
+        }
+
+        @Override
+        public CompletableFuture<? extends Meta> metadata(final Key key) {
+            this.counter.incrementAndGet();
+            return super.metadata(key);
+        }
+
+        @Override
+        public CompletableFuture<Void> save(final Key key, final Content content) {
+            this.counter.incrementAndGet();
+            return super.save(key, content);
+        }
+
+        /**
+         * Number of performed operations.
+         * @return Number of operations
+         */
+        int operations() {
+            return this.counter.get();
+        }
+    }
+}
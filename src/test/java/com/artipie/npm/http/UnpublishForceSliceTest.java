@@ -15,7 +15,17 @@ import com.artipie.http.hm.SliceHasResponse;
 import com.artipie.http.rq.RequestLine;
 import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.RsStatus;
+import com.artipie.npm.MetaQueue;
+import com.artipie.npm.PackageRemoval;
+import com.artipie.npm.TarballBlobs;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -39,9 +49,10 @@ final class UnpublishForceSliceTest {
     @Test
     void returnsOkAndDeletePackage() {
         new TestResource("storage").addFilesTo(this.storage, Key.ROOT);
+        final UnpublishForceSlice slice = new UnpublishForceSlice(this.storage);
         MatcherAssert.assertThat(
             "Response status is OK",
-            new UnpublishForceSlice(this.storage),
+            slice,
             new SliceHasResponse(
                 new RsHasStatus(RsStatus.OK),
                 new RequestLine(
@@ -51,6 +62,12 @@ final class UnpublishForceSliceTest {
                 Content.EMPTY
             )
         );
+        MatcherAssert.assertThat(
+            "Metadata was removed",
+            this.storage.exists(new Key.From("@hello/simple-npm-project/meta.json")).join(),
+            new IsEqual<>(false)
+        );
+        slice.idle().join();
         MatcherAssert.assertThat(
             "The entire package was removed",
             this.storage.list(new Key.From("@hello/simple-npm-project"))
@@ -59,6 +76,203 @@ final class UnpublishForceSliceTest {
         );
     }
 
+    @Test
+    void keepsBlobReferencedByAnotherPackage() {
+        final byte[] bytes = "tarball".getBytes(StandardCharsets.UTF_8);
+        final String sri = String.format(
+            "sha512-%s",
+            Base64.getEncoder().encodeToString(DigestUtils.sha512(bytes))
+        );
+        for (final String name : new String[] {"removed", "kept"}) {
+            final Key staged = new Key.From("staged", name);
+            this.storage.save(staged, new Content.From(bytes)).join();
+            new TarballBlobs(this.storage).add(
+                new Key.From(name, "-", String.format("%s-1.0.0.tgz", name)), staged, sri
+            ).join();
+        }
+        final UnpublishForceSlice slice = new UnpublishForceSlice(this.storage);
+        MatcherAssert.assertThat(
+            "Response status is OK",
+            slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.DELETE, "/removed/-rev/undefined")
+            )
+        );
+        slice.idle().join();
+        MatcherAssert.assertThat(
+            "Tarball of another package is kept",
+            new TarballBlobs(this.storage)
+                .content(new Key.From("kept", "-", "kept-1.0.0.tgz"))
+                .thenCompose(this.storage::exists).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "The entire package was removed",
+            this.storage.list(new Key.From("removed")).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void removesMetadataBeforeTarballs() {
+        new TestResource("storage").addFilesTo(this.storage, Key.ROOT);
+        final CompletableFuture<Void> hold = new CompletableFuture<>();
+        final Key tgz = new Key.From(
+            "@hello/simple-npm-project/-/@hello/simple-npm-project-1.0.1.tgz"
+        );
+        final UnpublishForceSlice slice = new UnpublishForceSlice(
+            new Storage.Wrap(this.storage) {
+                @Override
+                public CompletableFuture<Void> delete(final Key key) {
+                    final CompletableFuture<Void> res;
+                    if (key.equals(tgz)) {
+                        res = hold.thenCompose(nothing -> super.delete(key));
+                    } else {
+                        res = super.delete(key);
+                    }
+                    return res;
+                }
+            },
+            1
+        );
+        MatcherAssert.assertThat(
+            "Response status is OK",
+            slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(
+                    RqMethod.DELETE, "/@hello%2fsimple-npm-project/-rev/undefined"
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            "Metadata was removed",
+            this.storage.exists(new Key.From("@hello/simple-npm-project/meta.json")).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Tarball is removed in background",
+            this.storage.exists(tgz).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Package can not be published while tarballs are removed",
+            new PackageRemoval(this.storage, new Key.From("@hello/simple-npm-project"))
+                .active().join(),
+            new IsEqual<>(true)
+        );
+        hold.complete(null);
+        slice.idle().join();
+        MatcherAssert.assertThat(
+            "Tarball was removed",
+            this.storage.exists(tgz).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Package can be published again",
+            new PackageRemoval(this.storage, new Key.From("@hello/simple-npm-project"))
+                .active().join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void keepsRemovalMarkWhenFileIsNotRemoved() {
+        new TestResource("storage").addFilesTo(this.storage, Key.ROOT);
+        final Key other = new Key.From("@hello/simple-npm-project/-/other.tgz");
+        this.storage.save(other, new Content.From(new byte[1])).join();
+        final Key tgz = new Key.From(
+            "@hello/simple-npm-project/-/@hello/simple-npm-project-1.0.1.tgz"
+        );
+        final UnpublishForceSlice slice = new UnpublishForceSlice(
+            new Storage.Wrap(this.storage) {
+                @Override
+                public CompletableFuture<Void> delete(final Key key) {
+                    final CompletableFuture<Void> res;
+                    if (key.equals(tgz)) {
+                        res = new CompletableFuture<>();
+                        res.completeExceptionally(new IllegalStateException("Delete failed"));
+                    } else {
+                        res = super.delete(key);
+                    }
+                    return res;
+                }
+            },
+            1
+        );
+        MatcherAssert.assertThat(
+            "Response status is OK",
+            slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(
+                    RqMethod.DELETE, "/@hello%2fsimple-npm-project/-rev/undefined"
+                )
+            )
+        );
+        slice.idle().join();
+        MatcherAssert.assertThat(
+            "Removes files after the failed one",
+            this.storage.list(new Key.From("@hello/simple-npm-project")).join(),
+            Matchers.contains(tgz)
+        );
+        MatcherAssert.assertThat(
+            "Package can not be published over files left",
+            new PackageRemoval(this.storage, new Key.From("@hello/simple-npm-project"))
+                .active().join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void cancelsPendingMetadataUpdates() {
+        final Key pkg = new Key.From("@hello/simple-npm-project");
+        final CompletableFuture<Void> gate = new CompletableFuture<>();
+        final Storage slow = new Storage.Wrap(this.storage) {
+            @Override
+            public CompletableFuture<Void> save(final Key key, final Content content) {
+                final CompletableFuture<Void> res;
+                if (key.string().startsWith("other/")) {
+                    res = gate.thenCompose(nothing -> super.save(key, content));
+                } else {
+                    res = super.save(key, content);
+                }
+                return res;
+            }
+        };
+        final JsonObject uploaded = Json.createReader(
+            new TestResource("json/cli_publish.json").asInputStream()
+        ).readObject();
+        final MetaQueue.Durable queue = new MetaQueue.Durable(1);
+        queue.enqueue(slow, new Key.From("other"), uploaded).join();
+        queue.enqueue(slow, pkg, uploaded).join();
+        final UnpublishForceSlice slice = new UnpublishForceSlice(slow, queue, 1);
+        MatcherAssert.assertThat(
+            "Response status is OK",
+            slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(
+                    RqMethod.DELETE, "/@hello%2fsimple-npm-project/-rev/undefined"
+                )
+            )
+        );
+        gate.complete(null);
+        queue.idle().join();
+        slice.idle().join();
+        MatcherAssert.assertThat(
+            "Metadata is not saved by cancelled update",
+            this.storage.exists(new Key.From(pkg, "meta.json")).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Pending update was removed",
+            this.storage.list(new Key.From(".meta-queue", pkg.string())).join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
     @Test
     void returnsBadRequest() {
         MatcherAssert.assertThat(
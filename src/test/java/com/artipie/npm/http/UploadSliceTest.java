@@ -5,6 +5,7 @@
 
 package com.artipie.npm.http;
 
+import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.http.Slice;
@@ -18,6 +19,7 @@ import java.util.Collections;
 import java.util.concurrent.CompletableFuture;
 import javax.json.Json;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.collection.IsEmptyCollection;
 import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -59,6 +61,166 @@ public final class UploadSliceTest {
         );
     }
 
+    @Test
+    void publishesFromRequestBody() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final Slice slice = new TrimPathSlice(new UploadSlice(new CliPublish(storage)), "ctx");
+        MatcherAssert.assertThat(
+            slice.response(
+                "PUT /ctx/package HTTP/1.1",
+                Collections.emptyList(),
+                Flowable.just(
+                    ByteBuffer.wrap(
+                        Json.createObjectBuilder()
+                            .add("name", "@hello/simple-npm-project")
+                            .add("_id", "1.0.1")
+                            .add("versions", Json.createObjectBuilder())
+                            .add("dist-tags", Json.createObjectBuilder())
+                            .add("_attachments", Json.createObjectBuilder())
+                            .build().toString().getBytes()
+                    )
+                )
+            ),
+            new RsHasStatus(RsStatus.OK)
+        );
+        MatcherAssert.assertThat(
+            "Saves package metadata",
+            storage.exists(new KeyFromPath("package/meta.json")).get(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Does not save uploaded content",
+            storage.list(Key.ROOT).get().stream()
+                .noneMatch(key -> key.string().endsWith("-uploaded")),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void rejectsArchiveNotMatchingIntegrity() {
+        final Storage storage = new InMemoryStorage();
+        MatcherAssert.assertThat(
+            new UploadSlice(new CliPublish(storage)).response(
+                "PUT /package HTTP/1.1",
+                Collections.emptyList(),
+                Flowable.just(
+                    ByteBuffer.wrap(
+                        Json.createObjectBuilder()
+                            .add("name", "package")
+                            .add(
+                                "versions",
+                                Json.createObjectBuilder().add(
+                                    "1.0.0",
+                                    Json.createObjectBuilder().add(
+                                        "dist",
+                                        Json.createObjectBuilder().add("shasum", "0000")
+                                    )
+                                )
+                            )
+                            .add(
+                                "_attachments",
+                                Json.createObjectBuilder().add(
+                                    "package-1.0.0.tgz",
+                                    Json.createObjectBuilder().add("data", "YWJj")
+                                )
+                            )
+                            .build().toString().getBytes()
+                    )
+                )
+            ),
+            new RsHasStatus(RsStatus.BAD_REQUEST)
+        );
+        MatcherAssert.assertThat(
+            "Does not save package",
+            storage.list(Key.ROOT).join(),
+            new IsEmptyCollection<>()
+        );
+    }
+
+    @Test
+    void rejectsExistingVersion() {
+        final Storage storage = new InMemoryStorage();
+        final byte[] json = Json.createObjectBuilder()
+            .add("name", "package")
+            .add(
+                "versions",
+                Json.createObjectBuilder().add(
+                    "1.0.0",
+                    Json.createObjectBuilder().add(
+                        "dist",
+                        Json.createObjectBuilder()
+                            .add("tarball", "/package/-/package-1.0.0.tgz")
+                            .add("shasum", "a9993e364706816aba3e25717850c26c9cd0d89d")
+                    )
+                )
+            )
+            .add("dist-tags", Json.createObjectBuilder().add("latest", "1.0.0"))
+            .add(
+                "_attachments",
+                Json.createObjectBuilder().add(
+                    "package-1.0.0.tgz", Json.createObjectBuilder().add("data", "YWJj")
+                )
+            )
+            .build().toString().getBytes();
+        MatcherAssert.assertThat(
+            "Publishes version",
+            new UploadSlice(new CliPublish(storage)).response(
+                "PUT /package HTTP/1.1", Collections.emptyList(),
+                Flowable.just(ByteBuffer.wrap(json))
+            ),
+            new RsHasStatus(RsStatus.OK)
+        );
+        MatcherAssert.assertThat(
+            "Rejects existing version",
+            new UploadSlice(new CliPublish(storage)).response(
+                "PUT /package HTTP/1.1", Collections.emptyList(),
+                Flowable.just(ByteBuffer.wrap(json))
+            ),
+            new RsHasStatus(RsStatus.CONFLICT)
+        );
+    }
+
+    @Test
+    void removesUploadedContentOfRejectedPublish() {
+        final Storage storage = new InMemoryStorage();
+        final byte[] json = Json.createObjectBuilder()
+            .add("name", "package")
+            .add(
+                "versions",
+                Json.createObjectBuilder().add(
+                    "1.0.0",
+                    Json.createObjectBuilder().add(
+                        "dist",
+                        Json.createObjectBuilder()
+                            .add("tarball", "/package/-/package-1.0.0.tgz")
+                            .add("shasum", "0000000000000000000000000000000000000000")
+                    )
+                )
+            )
+            .add("dist-tags", Json.createObjectBuilder().add("latest", "1.0.0"))
+            .add(
+                "_attachments",
+                Json.createObjectBuilder().add(
+                    "package-1.0.0.tgz", Json.createObjectBuilder().add("data", "YWJj")
+                )
+            )
+            .build().toString().getBytes();
+        MatcherAssert.assertThat(
+            "Rejects publish",
+            new UploadSlice(new CliPublish(storage), storage).response(
+                "PUT /package HTTP/1.1", Collections.emptyList(),
+                Flowable.just(ByteBuffer.wrap(json))
+            ),
+            new RsHasStatus(RsStatus.BAD_REQUEST)
+        );
+        MatcherAssert.assertThat(
+            "Removes uploaded content",
+            storage.list(Key.ROOT).join().stream()
+                .anyMatch(key -> key.string().endsWith("-uploaded")),
+            new IsEqual<>(false)
+        );
+    }
+
     @Test
     void shouldFailForBadRequest() {
         final Storage storage = new InMemoryStorage();
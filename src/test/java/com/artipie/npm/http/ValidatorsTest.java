@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.http;
+
+import com.artipie.http.Headers;
+import com.artipie.http.headers.Header;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Test for {@link Validators}.
+ * @since 1.0
+ */
+final class ValidatorsTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "If-None-Match,'\"abc\"',true",
+        "If-None-Match,'W/\"abc\"',true",
+        "If-None-Match,'\"xyz\", \"abc\"',true",
+        "If-None-Match,*,true",
+        "If-None-Match,'\"xyz\"',false",
+        "If-Modified-Since,'Thu, 04 Feb 2021 16:30:30 GMT',true",
+        "If-Modified-Since,'Fri, 05 Feb 2021 00:00:00 GMT',true",
+        "If-Modified-Since,'Thu, 04 Feb 2021 16:30:29 GMT',false",
+        "If-Modified-Since,yesterday,false",
+        "Accept,*/*,false"
+    })
+    void checksRequestValidators(final String name, final String value, final boolean fresh) {
+        MatcherAssert.assertThat(
+            new Validators(
+                Optional.of("\"abc\""), Optional.of("Thu, 04 Feb 2021 16:30:30 GMT")
+            ).fresh(new Headers.From(name, value)),
+            new IsEqual<>(fresh)
+        );
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "If-None-Match,*",
+        "If-Modified-Since,'Thu, 04 Feb 2021 16:30:30 GMT'"
+    })
+    void isNotFreshWithoutValidators(final String name, final String value) {
+        MatcherAssert.assertThat(
+            new Validators(Optional.empty(), Optional.empty())
+                .fresh(new Headers.From(name, value)),
+            new IsEqual<>(false)
+        );
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "'\"xyz\"',false",
+        "'\"abc\"',true"
+    })
+    void ignoresModifiedSinceIfNoneMatchIsPresent(final String etag, final boolean fresh) {
+        MatcherAssert.assertThat(
+            new Validators(
+                Optional.of("\"abc\""), Optional.of("Thu, 04 Feb 2021 16:30:30 GMT")
+            ).fresh(
+                new Headers.From(
+                    new Headers.From("If-None-Match", etag),
+                    "If-Modified-Since", "Fri, 05 Feb 2021 00:00:00 GMT"
+                )
+            ),
+            new IsEqual<>(fresh)
+        );
+    }
+
+    @Test
+    void weakensEntityTag() {
+        final Validators weak = new Validators(Optional.of("\"abc\""), Optional.empty()).weak();
+        MatcherAssert.assertThat(
+            "Adds weakness indicator to etag",
+            weak.headers(),
+            Matchers.contains(new Header("ETag", "W/\"abc\""))
+        );
+        MatcherAssert.assertThat(
+            "Weak etag matches strong one",
+            weak.fresh(new Headers.From("If-None-Match", "\"abc\"")),
+            new IsEqual<>(true)
+        );
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.misc;
+
+import java.util.concurrent.CompletableFuture;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link KeyedQueue}.
+ * @since 1.0
+ */
+final class KeyedQueueTest {
+
+    @Test
+    void performsOperationsWithSameKeyOneAfterAnother() {
+        final KeyedQueue queue = new KeyedQueue();
+        final CompletableFuture<String> first = new CompletableFuture<>();
+        final CompletableFuture<String> res = queue.run("pkg", () -> first);
+        final CompletableFuture<String> next = queue.run(
+            "pkg", () -> CompletableFuture.completedFuture(String.format("after %s", res.join()))
+        );
+        MatcherAssert.assertThat(
+            "Waits for previous operation",
+            next.isDone(),
+            new IsEqual<>(false)
+        );
+        first.complete("first");
+        MatcherAssert.assertThat(
+            "Performs operation after previous one",
+            next.join(),
+            new IsEqual<>("after first")
+        );
+        MatcherAssert.assertThat(
+            "Removes completed queue",
+            queue.size(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void performsOperationAfterFailedOne() {
+        final KeyedQueue queue = new KeyedQueue();
+        final CompletableFuture<String> first = new CompletableFuture<>();
+        queue.run("pkg", () -> first);
+        final CompletableFuture<String> next = queue.run(
+            "pkg", () -> CompletableFuture.completedFuture("next")
+        );
+        first.completeExceptionally(new IllegalStateException());
+        MatcherAssert.assertThat(next.join(), new IsEqual<>("next"));
+    }
+
+    @Test
+    void doesNotQueueOperationsWithDifferentKeys() {
+        final KeyedQueue queue = new KeyedQueue();
+        queue.run("first", CompletableFuture::new);
+        MatcherAssert.assertThat(
+            queue.run("second", () -> CompletableFuture.completedFuture("second")).isDone(),
+            new IsEqual<>(true)
+        );
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.misc;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ValueNotFoundException;
+import com.artipie.asto.ext.PublisherAs;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link MappedFileStorage}.
+ * @since 1.0
+ */
+final class MappedFileStorageTest {
+
+    /**
+     * Test data.
+     */
+    private static final byte[] DATA = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 5, 10, 1024})
+    void readsValueByChunks(final int chunk, @TempDir final Path tmp) {
+        final Storage storage = new MappedFileStorage(tmp, chunk);
+        final Key key = new Key.From("pkg", "-", "pkg-1.0.0.tgz");
+        storage.save(key, new Content.From(MappedFileStorageTest.DATA)).join();
+        final Content content = storage.value(key).join();
+        MatcherAssert.assertThat(
+            "Returns content size",
+            content.size(),
+            new IsEqual<>(Optional.of((long) MappedFileStorageTest.DATA.length))
+        );
+        MatcherAssert.assertThat(
+            "Returns content",
+            new PublisherAs(content).bytes().toCompletableFuture().join(),
+            new IsEqual<>(MappedFileStorageTest.DATA)
+        );
+        MatcherAssert.assertThat(
+            "Returns direct buffers",
+            Flowable.fromPublisher(storage.value(key).join()).toList().blockingGet(),
+            Matchers.everyItem(
+                Matchers.both(Matchers.<ByteBuffer>hasProperty("direct", new IsEqual<>(true)))
+                    .and(Matchers.hasProperty("readOnly", new IsEqual<>(true)))
+            )
+        );
+    }
+
+    @Test
+    void readsFileSizeWithExecutor(@TempDir final Path tmp) {
+        final AtomicInteger tasks = new AtomicInteger();
+        final Storage storage = new MappedFileStorage(
+            tmp, 1024,
+            task -> {
+                tasks.incrementAndGet();
+                task.run();
+            }
+        );
+        final Key key = new Key.From("pkg-1.0.0.tgz");
+        storage.save(key, new Content.From(MappedFileStorageTest.DATA)).join();
+        storage.value(key).join();
+        MatcherAssert.assertThat(tasks.get(), new IsEqual<>(1));
+    }
+
+    @Test
+    void readsEmptyValue(@TempDir final Path tmp) {
+        final Storage storage = new MappedFileStorage(tmp);
+        final Key key = new Key.From("empty.tgz");
+        storage.save(key, Content.EMPTY).join();
+        MatcherAssert.assertThat(
+            new PublisherAs(storage.value(key).join()).bytes().toCompletableFuture().join(),
+            new IsEqual<>(new byte[0])
+        );
+    }
+
+    @Test
+    void failsToReadAbsentValue(@TempDir final Path tmp) {
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new MappedFileStorage(tmp).value(new Key.From("absent.tgz")).join()
+        );
+        MatcherAssert.assertThat(
+            err.getCause(),
+            new IsInstanceOf(ValueNotFoundException.class)
+        );
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.misc;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.rx.RxStorageWrapper;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link OptionalValue}.
+ * @since 1.0
+ */
+final class OptionalValueTest {
+
+    /**
+     * Test key.
+     */
+    private static final Key KEY = new Key.From("pkg", "meta.json");
+
+    @Test
+    void readsExistingValue() {
+        final Storage storage = new InMemoryStorage();
+        storage.save(OptionalValueTest.KEY, new Content.From("{}".getBytes(StandardCharsets.UTF_8)))
+            .join();
+        MatcherAssert.assertThat(
+            new PublisherAs(new OptionalValue(storage).value(OptionalValueTest.KEY).join().get())
+                .string(StandardCharsets.UTF_8).toCompletableFuture().join(),
+            new IsEqual<>("{}")
+        );
+    }
+
+    @Test
+    void returnsEmptyForAbsentValue() {
+        MatcherAssert.assertThat(
+            new OptionalValue(new InMemoryStorage()).value(OptionalValueTest.KEY)
+                .join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void propagatesOtherErrors() {
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new OptionalValue(new FailingStorage()).value(OptionalValueTest.KEY).join()
+        );
+        MatcherAssert.assertThat(err.getCause(), new IsInstanceOf(ArtipieIOException.class));
+    }
+
+    @Test
+    void readsValueFromRxStorage() {
+        final Storage storage = new InMemoryStorage();
+        storage.save(OptionalValueTest.KEY, Content.EMPTY).join();
+        MatcherAssert.assertThat(
+            "Returns existing value",
+            new OptionalValue.Rx(new RxStorageWrapper(storage)).value(OptionalValueTest.KEY)
+                .isEmpty().blockingGet(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Returns empty for absent value",
+            new OptionalValue.Rx(new RxStorageWrapper(storage)).value(new Key.From("absent"))
+                .isEmpty().blockingGet(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void propagatesOtherErrorsFromRxStorage() {
+        Assertions.assertThrows(
+            ArtipieIOException.class,
+            () -> new OptionalValue.Rx(new RxStorageWrapper(new FailingStorage()))
+                .value(OptionalValueTest.KEY).blockingGet()
+        );
+    }
+
+    /**
+     * Storage which fails to read values.
+     * @since 1.0
+     */
+    private static final class FailingStorage extends Storage.Wrap {
+
+        /**
+         * Ctor.
+         */
+        FailingStorage() {
+            super(new InMemoryStorage());
+        }
+
+        @Override
+        public CompletableFuture<Content> value(final Key key) {
+            final CompletableFuture<Content> res = new CompletableFuture<>();
+            res.completeExceptionally(new ArtipieIOException("Storage is not available"));
+            return res;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.semver;
+
+import com.artipie.ArtipieException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link Range}.
+ * @since 1.0
+ */
+final class RangeTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "^1.2.3,>=1.2.3 <2.0.0-0",
+        "^0.2.3,>=0.2.3 <0.3.0-0",
+        "^0.0.3,>=0.0.3 <0.0.4-0",
+        "^1.2.x,>=1.2.0 <2.0.0-0",
+        "^0.0.x,>=0.0.0 <0.1.0-0",
+        "^1,>=1.0.0 <2.0.0-0",
+        "~1.2.3,>=1.2.3 <1.3.0-0",
+        "~1.2,>=1.2.0 <1.3.0-0",
+        "~1,>=1.0.0 <2.0.0-0",
+        "1.x,>=1.0.0 <2.0.0-0",
+        "1.2.*,>=1.2.0 <1.3.0-0",
+        "*,>=0.0.0",
+        "'',>=0.0.0",
+        ">1.2,>=1.3.0",
+        "<=1.2,<1.3.0-0",
+        "<1,<1.0.0-0",
+        ">= 1.2.3 < 2,>=1.2.3 <2.0.0-0",
+        "1.2.3 - 2.3.4,>=1.2.3 <=2.3.4",
+        "1.2 - 2.3,>=1.2.0 <2.4.0-0",
+        "1.2.3,=1.2.3",
+        "1 || >=2.1.0,>=1.0.0 <2.0.0-0||>=2.1.0"
+    })
+    void normalizesBounds(final String range, final String bounds) {
+        MatcherAssert.assertThat(
+            Range.parse(range).bounds(),
+            new IsEqual<>(bounds)
+        );
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "^1.2.3,1.9.9,true",
+        "^1.2.3,2.0.0,false",
+        "^1.2.3,2.0.0-alpha,false",
+        "^1.2.3,1.2.4-beta,false",
+        "^1.2.3-beta.2,1.2.3-beta.4,true",
+        "^1.2.3-beta.2,1.2.4-beta.4,false",
+        "~1.2.3,1.2.10,true",
+        "~1.2.3,1.3.0,false",
+        "1.x,1.10.0,true",
+        "*,0.0.1-alpha,false",
+        "1.2.3 - 2.3.4,2.3.4,true",
+        "1.2.3 - 2.3,2.3.99,true",
+        "<1.0.0 || >=2.0.0,1.5.0,false",
+        "<1.0.0 || >=2.0.0,2.5.0,true",
+        ">=1.0.0-rc.1 <1.0.0,1.0.0-rc.2,true",
+        "1.2.3,v1.2.3,true",
+        "1.2.3,not-a-version,false"
+    })
+    void checksVersion(final String range, final String version, final boolean expected) {
+        MatcherAssert.assertThat(
+            Range.parse(range).satisfies(version),
+            new IsEqual<>(expected)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"latest", "^1.2.3.4", ">=a", "1.2.3 - ", "~01.2"})
+    void rejectsInvalidRanges(final String range) {
+        Assertions.assertThrows(ArtipieException.class, () -> Range.parse(range));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.semver;
+
+import com.artipie.ArtipieException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link Version}.
+ * @since 1.0
+ */
+final class VersionTest {
+
+    @Test
+    void ordersByPrecedence() {
+        final List<String> expected = Arrays.asList(
+            "1.0.0-alpha", "1.0.0-alpha.1", "1.0.0-alpha.beta", "1.0.0-beta",
+            "1.0.0-beta.2", "1.0.0-beta.11", "1.0.0-rc.1", "1.0.0", "1.0.1", "1.9.0",
+            "1.10.0", "2.0.0"
+        );
+        MatcherAssert.assertThat(
+            Arrays.asList(
+                "1.10.0", "1.0.0-beta.11", "1.0.0", "1.0.0-alpha.beta", "2.0.0", "1.0.0-rc.1",
+                "1.0.0-alpha", "1.9.0", "1.0.0-beta", "1.0.1", "1.0.0-alpha.1", "1.0.0-beta.2"
+            ).stream().map(Version::parse).sorted().map(Version::toString)
+                .collect(Collectors.toList()),
+            new IsEqual<>(expected)
+        );
+    }
+
+    @Test
+    void ignoresBuildMetadata() {
+        MatcherAssert.assertThat(
+            Version.parse("1.2.3+build.5").compareTo(Version.parse("v1.2.3")),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void parsesNumbers() {
+        final Version version = Version.parse("=10.20.30-rc.1+001");
+        MatcherAssert.assertThat(
+            Arrays.asList(version.major(), version.minor(), version.patch()),
+            Matchers.contains(10L, 20L, 30L)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "", "1", "1.2", "1.2.x", "01.2.3", "1.2.03", "1.2.3-", "1.2.3-01", "1.2.3-a..b",
+        "1.2.3+", "1.2.3-beta_1", "1.2.3.4", "latest"
+    })
+    void rejectsInvalidVersions(final String version) {
+        MatcherAssert.assertThat(
+            Version.valid(version).isPresent(),
+            new IsEqual<>(false)
+        );
+        Assertions.assertThrows(ArtipieException.class, () -> Version.parse(version));
+    }
+}
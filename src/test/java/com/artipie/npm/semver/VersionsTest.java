@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+package com.artipie.npm.semver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Versions}.
+ * @since 1.0
+ */
+final class VersionsTest {
+
+    @Test
+    void sortsInDescendingOrder() {
+        MatcherAssert.assertThat(
+            new Versions(
+                Arrays.asList("1.9.0", "custom", "1.10.0", "1.10.0-rc.1", "0.1.0", "another")
+            ).descending(),
+            Matchers.contains("1.10.0", "1.10.0-rc.1", "1.9.0", "0.1.0", "custom", "another")
+        );
+    }
+
+    @Test
+    void prefersReleaseAsLatest() {
+        MatcherAssert.assertThat(
+            new Versions(Arrays.asList("1.9.0", "2.0.0-beta.1", "1.10.0")).latest(),
+            new IsEqual<>(Optional.of("1.10.0"))
+        );
+    }
+
+    @Test
+    void choosesPrereleaseAsLatestWithoutReleases() {
+        MatcherAssert.assertThat(
+            new Versions(Arrays.asList("2.0.0-beta.1", "2.0.0-beta.10", "2.0.0-beta.9"))
+                .latest(),
+            new IsEqual<>(Optional.of("2.0.0-beta.10"))
+        );
+    }
+
+    @Test
+    void hasNoLatestWithoutVersions() {
+        MatcherAssert.assertThat(
+            new Versions(Collections.emptyList()).latest().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void findsMaxSatisfying() {
+        MatcherAssert.assertThat(
+            new Versions(Arrays.asList("1.2.3", "1.9.0", "1.10.0", "2.0.0", "1.11.0-rc.1"))
+                .maxSatisfying(Range.parse("^1.2")),
+            new IsEqual<>(Optional.of("1.10.0"))
+        );
+    }
+}
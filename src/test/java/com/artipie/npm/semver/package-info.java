@@ -0,0 +1,11 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2023 artipie.com
+ * https://github.com/artipie/npm-adapter/LICENSE.txt
+ */
+
+/**
+ * Semantic versions, tests.
+ *
+ * @since 1.0
+ */
+package com.artipie.npm.semver;